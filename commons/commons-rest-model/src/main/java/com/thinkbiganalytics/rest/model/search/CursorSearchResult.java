@@ -0,0 +1,59 @@
+package com.thinkbiganalytics.rest.model.search;
+
+/*-
+ * #%L
+ * thinkbig-job-repository-core
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * A Search result that is read a page at a time using a continuation token instead of a start index
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class CursorSearchResult<T extends Object> extends SearchResultImpl<T> {
+
+    private String cursor;
+    private boolean recordsTotalExact;
+
+    /**
+     * Return the continuation token to pass back to get the next page
+     *
+     * @return the continuation token, or null if this is the last page
+     */
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    /**
+     * Return true if {@link #getRecordsTotal()} is the exact count, or false if counting stopped early and there may be more records
+     *
+     * @return true if the total is exact
+     */
+    public boolean isRecordsTotalExact() {
+        return recordsTotalExact;
+    }
+
+    public void setRecordsTotalExact(boolean recordsTotalExact) {
+        this.recordsTotalExact = recordsTotalExact;
+    }
+}
@@ -20,6 +20,7 @@ package com.thinkbiganalytics.json;
  * #L%
  */
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationFeature;
@@ -29,6 +30,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.OutputStream;
 
 
 /**
@@ -76,6 +78,17 @@ public class ObjectMapperSerializer {
         return json;
     }
 
+    /**
+     * serialize an Object as JSON directly to a stream. The stream is left open.
+     *
+     * @param obj the object to serialize
+     * @param out the stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+    public static void serialize(Object obj, OutputStream out) throws IOException {
+        getMapper().writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET).writeValue(out, obj);
+    }
+
     /**
      * deserialize an string as JSON converting it to an object of the supplied class type
      *
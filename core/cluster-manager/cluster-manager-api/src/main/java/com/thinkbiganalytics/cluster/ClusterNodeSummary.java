@@ -48,4 +48,9 @@ public interface ClusterNodeSummary {
     Map<String,Long> getMessagesSentByType();
 
     Map<String,Object> getChannelStats();
+
+    /**
+     * @return statistics for dispatching received messages by topic
+     */
+    Map<String, TopicDispatchStatistics> getTopicDispatchStatistics();
 }
@@ -0,0 +1,56 @@
+package com.thinkbiganalytics.cluster;
+/*-
+ * #%L
+ * kylo-cluster-manager-api
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * Statistics for the messages of a single topic that are dispatched to the local receivers.
+ */
+public interface TopicDispatchStatistics {
+
+    /**
+     * @return the topic, or message type
+     */
+    String getTopic();
+
+    /**
+     * @return the number of messages waiting to be processed by the receivers
+     */
+    int getQueueDepth();
+
+    /**
+     * @return the number of messages processed by the receivers
+     */
+    long getDispatched();
+
+    /**
+     * @return the number of times the queue was full and the delivery thread had to wait
+     */
+    long getBlocked();
+
+    /**
+     * @return the average time in milliseconds from receiving a message to the receivers completing
+     */
+    double getAverageLatencyMillis();
+
+    /**
+     * @return the maximum time in milliseconds from receiving a message to the receivers completing
+     */
+    long getMaxLatencyMillis();
+}
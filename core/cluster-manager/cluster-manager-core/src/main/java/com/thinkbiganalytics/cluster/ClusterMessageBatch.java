@@ -0,0 +1,41 @@
+package com.thinkbiganalytics.cluster;
+/*-
+ * #%L
+ * kylo-cluster-manager-core
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * A frame of several cluster messages sent to the same destination in a single JGroups message.
+ */
+public class ClusterMessageBatch implements Serializable {
+
+    private static final long serialVersionUID = 4405117395185335641L;
+
+    private final List<ClusterMessage> messages;
+
+    public ClusterMessageBatch(List<ClusterMessage> messages) {
+        this.messages = messages;
+    }
+
+    public List<ClusterMessage> getMessages() {
+        return messages;
+    }
+}
@@ -0,0 +1,225 @@
+package com.thinkbiganalytics.cluster;
+/*-
+ * #%L
+ * kylo-cluster-manager-core
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.jgroups.Address;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalesces outgoing cluster messages, including acknowledgements, into {@link ClusterMessageBatch} frames.
+ *
+ * <p>Messages are queued by the calling thread and sent by a single sender thread. The sender takes everything that has been queued
+ * since its last send, optionally waiting up to the linger time for more, and sends one frame per destination. A lone message is sent
+ * as-is. Under a burst this turns many small JGroups messages into a few large ones without delaying messages when the channel is idle.</p>
+ *
+ * <p>The queue is bounded so that a stalled channel cannot exhaust the heap. When it is full the calling thread either waits for space
+ * or the message is dropped, depending on {@code dropWhenFull}.</p>
+ */
+class ClusterMessageBatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterMessageBatcher.class);
+
+    /**
+     * Sends a frame to a destination, or to all members if the destination is {@code null}.
+     */
+    @FunctionalInterface
+    interface Sender {
+
+        void send(Address destination, Serializable frame) throws Exception;
+    }
+
+    /**
+     * A message waiting to be sent
+     */
+    private static class Outgoing {
+
+        final Address destination;
+        final ClusterMessage message;
+
+        Outgoing(Address destination, ClusterMessage message) {
+            this.destination = destination;
+            this.message = message;
+        }
+    }
+
+    private final BlockingQueue<Outgoing> queue;
+
+    private final Sender sender;
+
+    private final int maxMessages;
+
+    private final long lingerMillis;
+
+    private final boolean dropWhenFull;
+
+    private final Thread thread;
+
+    private volatile boolean running = true;
+
+    private final AtomicLong blocked = new AtomicLong();
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * Constructs a {@code ClusterMessageBatcher} and starts the sender thread.
+     *
+     * @param sender        sends the frames
+     * @param maxMessages   the maximum number of messages in a frame
+     * @param lingerMillis  the time to wait for more messages before sending a frame
+     * @param queueCapacity the maximum number of messages waiting to be sent
+     * @param dropWhenFull  {@code true} to drop messages when the queue is full, or {@code false} to make the caller wait
+     */
+    ClusterMessageBatcher(Sender sender, int maxMessages, long lingerMillis, int queueCapacity, boolean dropWhenFull) {
+        this.sender = sender;
+        this.queue = new LinkedBlockingQueue<>(Math.max(1, queueCapacity));
+        this.dropWhenFull = dropWhenFull;
+        this.maxMessages = Math.max(1, maxMessages);
+        this.lingerMillis = lingerMillis;
+        this.thread = new Thread(this::run, "kylo-cluster-sender");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Queues a message to be sent, waiting for space or dropping the message if the queue is full.
+     *
+     * @param destination the destination, or {@code null} for all members
+     * @param message     the message
+     */
+    void send(Address destination, ClusterMessage message) {
+        if (!running) {
+            throw new IllegalStateException("Cluster message sender has been stopped");
+        }
+
+        final Outgoing outgoing = new Outgoing(destination, message);
+        if (queue.offer(outgoing)) {
+            return;
+        }
+        if (!dropWhenFull) {
+            blocked.incrementAndGet();
+            try {
+                queue.put(outgoing);
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (dropped.incrementAndGet() % 1000 == 1) {
+            log.warn("Outgoing cluster message queue is full. {} messages have been dropped, including {} of type {}", dropped.get(), message.getId(), message.getType());
+        }
+    }
+
+    /**
+     * Gets the number of messages waiting to be sent.
+     */
+    int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Gets the number of times the queue was full and the caller had to wait.
+     */
+    long getBlocked() {
+        return blocked.get();
+    }
+
+    /**
+     * Gets the number of messages dropped because the queue was full.
+     */
+    long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Sends any queued messages and stops the sender thread.
+     */
+    void close() {
+        running = false;
+        thread.interrupt();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        final List<Outgoing> batch = new ArrayList<>(maxMessages);
+        while (running || !queue.isEmpty()) {
+            try {
+                final Outgoing first = running ? queue.take() : queue.poll();
+                if (first == null) {
+                    break;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxMessages - batch.size());
+
+                // Optionally wait for more messages to fill the frame
+                final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+                while (running && batch.size() < maxMessages && lingerMillis > 0) {
+                    final Outgoing next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, maxMessages - batch.size());
+                }
+            } catch (InterruptedException e) {
+                // Stopping; send what we have and drain the rest without waiting
+            }
+
+            if (!batch.isEmpty()) {
+                sendBatch(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void sendBatch(List<Outgoing> batch) {
+        // Group by destination, keeping the order of messages for each destination
+        final Map<Address, List<ClusterMessage>> frames = new LinkedHashMap<>();
+        for (Outgoing outgoing : batch) {
+            frames.computeIfAbsent(outgoing.destination, destination -> new ArrayList<>()).add(outgoing.message);
+        }
+
+        frames.forEach((destination, messages) -> {
+            try {
+                if (messages.size() == 1) {
+                    sender.send(destination, (Serializable) messages.get(0));
+                } else {
+                    sender.send(destination, new ClusterMessageBatch(messages));
+                }
+            } catch (Exception e) {
+                log.error("Unable to send {} messages to {}: {}", messages.size(), destination != null ? destination : "ALL", e.getMessage(), e);
+            }
+        });
+    }
+}
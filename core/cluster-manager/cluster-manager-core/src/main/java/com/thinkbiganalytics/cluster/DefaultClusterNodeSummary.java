@@ -23,6 +23,7 @@ import com.google.common.util.concurrent.AtomicLongMap;
 
 import org.joda.time.DateTime;
 
+import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -41,6 +42,8 @@ public class DefaultClusterNodeSummary implements ClusterNodeSummary {
 
     Map<String,Object> channelStats;
 
+    Map<String, TopicDispatchStatistics> topicDispatchStatistics = Collections.emptyMap();
+
     AtomicLongMap<String> messagesReceivedByType = AtomicLongMap.create();
     AtomicLongMap<String> messagesSentByType = AtomicLongMap.create();
 
@@ -125,4 +128,13 @@ public class DefaultClusterNodeSummary implements ClusterNodeSummary {
     public void setChannelStats(Map<String, Object> channelStats) {
         this.channelStats = channelStats;
     }
+
+    @Override
+    public Map<String, TopicDispatchStatistics> getTopicDispatchStatistics() {
+        return topicDispatchStatistics;
+    }
+
+    public void setTopicDispatchStatistics(Map<String, TopicDispatchStatistics> topicDispatchStatistics) {
+        this.topicDispatchStatistics = topicDispatchStatistics;
+    }
 }
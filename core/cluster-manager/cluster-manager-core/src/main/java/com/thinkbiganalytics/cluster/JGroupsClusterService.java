@@ -43,13 +43,16 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -73,6 +76,50 @@ public class JGroupsClusterService extends ReceiverAdapter implements ClusterSer
     @Value("${kylo.cluster.pending.acknowledge.expire.minutes:30}")
     private Integer pendingMessageAcknowledgeTime = 30;
 
+    /**
+     * Maximum number of received messages of a topic waiting for its receivers
+     */
+    @Value("${kylo.cluster.dispatch.queue.capacity:1000}")
+    private int dispatchQueueCapacity = 1000;
+
+    /**
+     * Maximum number of threads running receivers. Each topic is always dispatched on the same thread.
+     */
+    @Value("${kylo.cluster.dispatch.threads:4}")
+    private int dispatchThreads = 4;
+
+    /**
+     * Whether outgoing messages and acknowledgements are coalesced into batch frames.
+     *
+     * Nodes running an earlier version cannot read batch frames, so this should only be enabled once every node in the cluster has been upgraded.
+     */
+    @Value("${kylo.cluster.batch.enabled:false}")
+    private boolean batchEnabled = false;
+
+    /**
+     * Maximum number of messages in a batch frame
+     */
+    @Value("${kylo.cluster.batch.max.messages:100}")
+    private int batchMaxMessages = 100;
+
+    /**
+     * Time to wait for more messages before sending a batch frame
+     */
+    @Value("${kylo.cluster.batch.linger.millis:0}")
+    private long batchLingerMillis = 0;
+
+    /**
+     * Maximum number of outgoing messages waiting to be sent in a batch frame
+     */
+    @Value("${kylo.cluster.batch.queue.capacity:10000}")
+    private int batchQueueCapacity = 10000;
+
+    /**
+     * Whether outgoing messages are dropped, instead of making the caller wait, when the batch queue is full
+     */
+    @Value("${kylo.cluster.batch.queue.drop.when.full:false}")
+    private boolean batchDropWhenFull = false;
+
     private static final String CLUSTER_NAME = "internal-kylo-cluster";
 
     private static final String ALL_TOPIC = "!!!ALL!!!";
@@ -84,16 +131,61 @@ public class JGroupsClusterService extends ReceiverAdapter implements ClusterSer
 
     private Map<String, List<ClusterServiceMessageReceiver>> messageReceivers = new ConcurrentHashMap<>();
 
+    /**
+     * Receivers by lower-case topic, including the receivers of all topics. Rebuilt on each subscribe.
+     */
+    private volatile Map<String, List<ClusterServiceMessageReceiver>> receiversByTopic = Collections.emptyMap();
+
+    /**
+     * Receivers of all topics, used for topics without their own receivers
+     */
+    private volatile List<ClusterServiceMessageReceiver> allTopicReceivers = Collections.emptyList();
+
+    /**
+     * Dispatches received messages to receivers by topic
+     */
+    private final Map<String, TopicDispatcher> dispatchers = new ConcurrentHashMap<>();
+
+    /**
+     * Threads shared by the topic dispatchers, created on first use
+     */
+    private ThreadPoolExecutor[] dispatchLanes;
+
+    /**
+     * Coalesces outgoing messages, if batching is enabled
+     */
+    private ClusterMessageBatcher batcher;
+
     public void subscribe(ClusterServiceListener listener) {
         listeners.add(listener);
     }
 
-    public void subscribe(ClusterServiceMessageReceiver messageReceiver) {
+    public synchronized void subscribe(ClusterServiceMessageReceiver messageReceiver) {
         messageReceivers.computeIfAbsent(ALL_TOPIC, t -> new ArrayList<>()).add(messageReceiver);
+        indexReceivers();
     }
 
-    public void subscribe(ClusterServiceMessageReceiver messageReceiver, String... topics) {
+    public synchronized void subscribe(ClusterServiceMessageReceiver messageReceiver, String... topics) {
         Arrays.stream(topics).forEach(topic -> messageReceivers.computeIfAbsent(topic, t -> new ArrayList<>()).add(messageReceiver));
+        indexReceivers();
+    }
+
+    /**
+     * Rebuilds the topic to receivers index so that receiving a message is a single lookup.
+     */
+    private void indexReceivers() {
+        final List<ClusterServiceMessageReceiver> all = new ArrayList<>(messageReceivers.getOrDefault(ALL_TOPIC, Collections.emptyList()));
+        final Map<String, List<ClusterServiceMessageReceiver>> index = new HashMap<>();
+        messageReceivers.forEach((topic, receivers) -> {
+            if (!ALL_TOPIC.equals(topic)) {
+                final Set<ClusterServiceMessageReceiver> topicReceivers = new LinkedHashSet<>(index.getOrDefault(topic.toLowerCase(), Collections.emptyList()));
+                topicReceivers.addAll(receivers);
+                topicReceivers.addAll(all);
+                index.put(topic.toLowerCase(), new ArrayList<>(topicReceivers));
+            }
+        });
+        allTopicReceivers = Collections.unmodifiableList(all);
+        receiversByTopic = Collections.unmodifiableMap(index);
     }
 
     private String ENSURE_MESSAGE_DELIVERY_TYPE = "ENSURE_MESSAGE_DELIVERY";
@@ -126,7 +218,12 @@ public class JGroupsClusterService extends ReceiverAdapter implements ClusterSer
                 channel.addChannelListener(new Listener());
                 channel.connect(CLUSTER_NAME);
                 channel.enableStats(true);
+                if (batchEnabled) {
+                    batcher = new ClusterMessageBatcher((destination, frame) -> channel.send(destination, frame), batchMaxMessages, batchLingerMillis, batchQueueCapacity,
+                                                       batchDropWhenFull);
+                }
                 clusterNodeSummary = new DefaultClusterNodeSummary(channel.getAddressAsString());
+                clusterNodeSummary.setTopicDispatchStatistics(Collections.<String, TopicDispatchStatistics>unmodifiableMap(dispatchers));
                 clusterNodeSummary.connected();
             } catch (FileNotFoundException e) {
                 log.error("Unable to find the jgroups cluster configuration file {}.  Kylo is not clustered ", jgroupsConfigFile);
@@ -137,9 +234,14 @@ public class JGroupsClusterService extends ReceiverAdapter implements ClusterSer
     public void stop() throws Exception {
         if (channel != null) {
             log.info("Stopping {} ", getAddressAsString());
+            if (batcher != null) {
+                batcher.close();
+                batcher = null;
+            }
             channel.disconnect();
             clusterNodeSummary.disconnected();
         }
+        shutdownDispatchLanes();
 
     }
 
@@ -187,28 +289,84 @@ public class JGroupsClusterService extends ReceiverAdapter implements ClusterSer
     }
 
     /**
-     * Called when a node (including this node) receives a message
+     * Called when a node (including this node) receives a message, or a batch of messages
      *
      * @param msg a message
      */
     public void receive(Message msg) {
-
-        ClusterMessage clusterMessage = (ClusterMessage) msg.getObject();
+        Object object = msg.getObject();
         String from = msg.getSrc().toString();
-        Set<ClusterServiceMessageReceiver>
-            receivers =
-            messageReceivers.entrySet().stream().filter(e -> ALL_TOPIC.equalsIgnoreCase(e.getKey()) || e.getKey().equalsIgnoreCase(clusterMessage.getType())).flatMap(e -> e.getValue().stream())
-                .collect(Collectors.toSet());
-        log.info("Receiving message from {} of type: {}, notifying {} receivers ", msg.getSrc(), clusterMessage.getType(), receivers.size());
-        receivers.stream().forEach(messageReceiver -> {
-            try {
-                messageReceiver.onMessageReceived(from, clusterMessage);
-            } catch (Exception e) {
-                log.error("Error procesing onMessageReceived from {} topic: {}, message: {} ", from, clusterMessage.getType(), clusterMessage.getMessage(), e);
+        if (object instanceof ClusterMessageBatch) {
+            ((ClusterMessageBatch) object).getMessages().forEach(clusterMessage -> receive(from, clusterMessage));
+        } else {
+            receive(from, (ClusterMessage) object);
+        }
+    }
+
+    /**
+     * Queues the message for its receivers on the dispatcher for its topic, so that the delivery thread is free for the next message.
+     *
+     * <p>The message is acknowledged once its receivers have run, so a node that stops before then never acknowledges it.</p>
+     */
+    private void receive(String from, ClusterMessage clusterMessage) {
+        String topic = clusterMessage.getType();
+        if (clusterNodeSummary != null) {
+            clusterNodeSummary.messageReceived(topic);
+        }
+        final boolean deliveryReceipt = ENSURE_MESSAGE_DELIVERY_TYPE.equalsIgnoreCase(topic);
+        if (deliveryReceipt) {
+            acknowledgeMessage(from, clusterMessage);
+        }
+
+        List<ClusterServiceMessageReceiver> receivers = topic != null ? receiversByTopic.getOrDefault(topic.toLowerCase(), allTopicReceivers) : allTopicReceivers;
+        log.debug("Receiving message from {} of type: {}, notifying {} receivers ", from, topic, receivers.size());
+        if (!receivers.isEmpty()) {
+            String dispatchTopic = topic != null ? topic.toLowerCase() : ALL_TOPIC;
+            dispatchers.computeIfAbsent(dispatchTopic, t -> new TopicDispatcher(t, getDispatchLane(t))).dispatch(() -> {
+                receivers.forEach(messageReceiver -> {
+                    try {
+                        messageReceiver.onMessageReceived(from, clusterMessage);
+                    } catch (Exception e) {
+                        log.error("Error procesing onMessageReceived from {} topic: {}, message: {} ", from, topic, clusterMessage.getMessage(), e);
+                    }
+                });
+                if (!deliveryReceipt) {
+                    sendAcknowledgementMessage(from, clusterMessage);
+                }
+            });
+        } else if (!deliveryReceipt) {
+            sendAcknowledgementMessage(from, clusterMessage);
+        }
+    }
+
+    /**
+     * Gets the dispatch lane for the specified topic, creating the lanes if needed.
+     */
+    private synchronized ThreadPoolExecutor getDispatchLane(String topic) {
+        if (dispatchLanes == null) {
+            dispatchLanes = new ThreadPoolExecutor[Math.max(1, dispatchThreads)];
+            for (int i = 0; i < dispatchLanes.length; ++i) {
+                dispatchLanes[i] = TopicDispatcher.newLane(i, dispatchQueueCapacity);
             }
-        });
-        clusterNodeSummary.messageReceived(clusterMessage.getType());
-        acknowledgeMessage(from, clusterMessage);
+        }
+        return dispatchLanes[Math.floorMod(topic.hashCode(), dispatchLanes.length)];
+    }
+
+    /**
+     * Stops the dispatch lanes after the queued messages have been processed.
+     */
+    private void shutdownDispatchLanes() {
+        final ThreadPoolExecutor[] lanes;
+        synchronized (this) {
+            lanes = dispatchLanes;
+            dispatchLanes = null;
+            dispatchers.clear();
+        }
+        if (lanes != null) {
+            for (ThreadPoolExecutor lane : lanes) {
+                TopicDispatcher.shutdown(lane);
+            }
+        }
     }
 
     private void acknowledgeMessage(String from, ClusterMessage clusterMessage) {
@@ -272,7 +430,7 @@ public class JGroupsClusterService extends ReceiverAdapter implements ClusterSer
                     //store this message id in the acknowledgement map
                     ensureMessageDeliveryMap.put(clusterMessage.getId(), status);
                 }
-                channel.send(null, clusterMessage);
+                send(null, clusterMessage);
             } catch (Exception e) {
                 log.error("Unable to send message of type: {} to other nodes: {} ", type, e.getMessage(), e);
             }
@@ -294,7 +452,7 @@ public class JGroupsClusterService extends ReceiverAdapter implements ClusterSer
                     if (sendAcknowledgementMessage) {
                         ensureMessageDeliveryMap.put(clusterMessage.getId(), status);
                     }
-                    channel.send(address.get(), clusterMessage);
+                    send(address.get(), clusterMessage);
                     clusterNodeSummary.messageSent(type);
                     status.sentTo(address.toString());
                 } else {
@@ -306,6 +464,21 @@ public class JGroupsClusterService extends ReceiverAdapter implements ClusterSer
         }
     }
 
+    /**
+     * Sends the message through the batcher, or directly on the channel if batching is disabled.
+     *
+     * @param destination the destination, or {@code null} for all members
+     * @param message     the message
+     */
+    private void send(Address destination, ClusterMessage message) throws Exception {
+        ClusterMessageBatcher messageBatcher = batcher;
+        if (messageBatcher != null) {
+            messageBatcher.send(destination, message);
+        } else {
+            channel.send(destination, message);
+        }
+    }
+
     private String newMessageId() {
         return UUID.randomUUID().toString();
     }
@@ -324,7 +497,7 @@ public class JGroupsClusterService extends ReceiverAdapter implements ClusterSer
                 }
                 for (Address address : getOtherMembers()) {
                     log.info("Sending message with id:{} of type:{} to {} from {} ", id, type, address, this.channel.getAddressAsString());
-                    channel.send(address, clusterMessage);
+                    send(address, clusterMessage);
                     status.sentTo(address.toString());
                 }
 
@@ -346,7 +519,7 @@ public class JGroupsClusterService extends ReceiverAdapter implements ClusterSer
                     EnsureMessageDeliveryMessage ensureMessageDeliveryMessage = new EnsureMessageDeliveryMessage(message.getId(), EnsureMessageDeliveryMessage.MESSAGE_ACTION.RECEIVED);
                     String id = newMessageId();
                     ClusterMessage clusterMessage = new StandardClusterMessage(id, ENSURE_MESSAGE_DELIVERY_TYPE, ensureMessageDeliveryMessage);
-                    channel.send(address.get(), clusterMessage);
+                    send(address.get(), clusterMessage);
                 } else {
                     throw new IllegalArgumentException("Cluster node does not exist: " + from);
                 }
@@ -367,7 +540,7 @@ public class JGroupsClusterService extends ReceiverAdapter implements ClusterSer
                 if (address.isPresent()) {
                     log.info("Redeliver message with id: {}, of type:{} to {} from {}", clusterMessage.getId(), clusterMessage.getType(), address, channel.getAddressAsString());
                     MessageDeliveryStatus status = ensureMessageDeliveryMap.getIfPresent(clusterMessage.getId());
-                    channel.send(address.get(), clusterMessage);
+                    send(address.get(), clusterMessage);
                     clusterNodeSummary.messageSent(clusterMessage.getType());
                     if (status != null) {
                         status.redeliveredTo(address.toString());
@@ -0,0 +1,165 @@
+package com.thinkbiganalytics.cluster;
+/*-
+ * #%L
+ * kylo-cluster-manager-core
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs the receivers of a single topic on a dispatch lane, so that slow receivers do not block the JGroups delivery thread.
+ *
+ * <p>A lane is a single thread with a bounded queue, shared by every topic that hashes to it, which caps the number of threads
+ * regardless of the number of topics. Messages of a topic are processed in the order they were received. When the lane's queue
+ * is full the delivery thread waits for space, which pushes back on the sender rather than reordering or dropping messages.</p>
+ */
+class TopicDispatcher implements TopicDispatchStatistics {
+
+    private static final Logger log = LoggerFactory.getLogger(TopicDispatcher.class);
+
+    private final String topic;
+
+    private final ThreadPoolExecutor lane;
+
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private final AtomicLong dispatched = new AtomicLong();
+
+    private final AtomicLong blocked = new AtomicLong();
+
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    TopicDispatcher(String topic, ThreadPoolExecutor lane) {
+        this.topic = topic;
+        this.lane = lane;
+    }
+
+    /**
+     * Creates a dispatch lane with one thread and a bounded queue. When the queue is full the calling thread waits for space.
+     *
+     * @param index         the lane number, used to name the thread
+     * @param queueCapacity the maximum number of messages waiting on the lane
+     * @return the lane
+     */
+    static ThreadPoolExecutor newLane(int index, int queueCapacity) {
+        return new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                                      new ThreadFactoryBuilder().setDaemon(true).setNameFormat("kylo-cluster-dispatch-" + index).build(),
+                                      (task, executor) -> {
+                                          // Block the delivery thread until there is space in the queue
+                                          if (executor.isShutdown()) {
+                                              throw new RejectedExecutionException("Cluster dispatch lane " + index + " has been shut down");
+                                          }
+                                          try {
+                                              executor.getQueue().put(task);
+                                          } catch (InterruptedException e) {
+                                              Thread.currentThread().interrupt();
+                                              throw new RejectedExecutionException("Interrupted while waiting to dispatch a cluster message", e);
+                                          }
+                                      });
+    }
+
+    /**
+     * Stops accepting messages and waits briefly for queued messages to be processed.
+     *
+     * @param lane the dispatch lane
+     */
+    static void shutdown(ExecutorService lane) {
+        lane.shutdown();
+        try {
+            if (!lane.awaitTermination(5, TimeUnit.SECONDS)) {
+                log.warn("Dropping {} cluster messages that were not processed before shutdown", lane.shutdownNow().size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            lane.shutdownNow();
+        }
+    }
+
+    /**
+     * Queues the specified task to run on the topic's lane.
+     *
+     * @param task the receivers to notify
+     */
+    void dispatch(Runnable task) {
+        final long queued = System.nanoTime();
+        if (lane.getQueue().remainingCapacity() == 0) {
+            blocked.incrementAndGet();
+        }
+        pending.incrementAndGet();
+        try {
+            lane.execute(() -> {
+                pending.decrementAndGet();
+                try {
+                    task.run();
+                } finally {
+                    final long latency = System.nanoTime() - queued;
+                    dispatched.incrementAndGet();
+                    totalLatencyNanos.addAndGet(latency);
+                    maxLatencyNanos.accumulateAndGet(latency, Math::max);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.decrementAndGet();
+            throw e;
+        }
+    }
+
+    @Override
+    public String getTopic() {
+        return topic;
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return pending.get();
+    }
+
+    @Override
+    public long getDispatched() {
+        return dispatched.get();
+    }
+
+    @Override
+    public long getBlocked() {
+        return blocked.get();
+    }
+
+    @Override
+    public double getAverageLatencyMillis() {
+        final long count = dispatched.get();
+        return count > 0 ? TimeUnit.NANOSECONDS.toMicros(totalLatencyNanos.get()) / 1000.0 / count : 0.0;
+    }
+
+    @Override
+    public long getMaxLatencyMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxLatencyNanos.get());
+    }
+}
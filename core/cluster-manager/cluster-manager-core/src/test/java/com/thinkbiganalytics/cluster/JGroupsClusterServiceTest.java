@@ -0,0 +1,155 @@
+package com.thinkbiganalytics.cluster;
+/*-
+ * #%L
+ * kylo-cluster-manager-core
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.jgroups.Address;
+import org.jgroups.Message;
+import org.jgroups.util.UUID;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class JGroupsClusterServiceTest {
+
+    private final JGroupsClusterService clusterService = new JGroupsClusterService();
+
+    @After
+    public void tearDown() throws Exception {
+        clusterService.stop();
+    }
+
+    /**
+     * Verify messages in a batch frame are dispatched in order to the receivers of their topic and of all topics.
+     */
+    @Test
+    public void receiveBatch() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(5);
+        final List<String> topicMessages = Collections.synchronizedList(new ArrayList<>());
+        final List<String> allMessages = Collections.synchronizedList(new ArrayList<>());
+        clusterService.subscribe((from, message) -> {
+            topicMessages.add((String) message.getMessage());
+            latch.countDown();
+        }, "FLOW_CACHE");
+        clusterService.subscribe((from, message) -> {
+            allMessages.add((String) message.getMessage());
+            latch.countDown();
+        });
+
+        final ClusterMessageBatch batch = new ClusterMessageBatch(Arrays.asList(new StandardClusterMessage("1", "flow_cache", "a"),
+                                                                                 new StandardClusterMessage("2", "OTHER", "b"),
+                                                                                 new StandardClusterMessage("3", "FLOW_CACHE", "c")));
+        final Message msg = new Message(null, batch);
+        msg.setSrc(UUID.randomUUID());
+        clusterService.receive(msg);
+
+        Assert.assertTrue("Expecting all receivers to be notified", latch.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(Arrays.asList("a", "c"), topicMessages);
+        Assert.assertEquals(3, allMessages.size());
+    }
+
+    /**
+     * Verify queued messages are coalesced into a frame per destination.
+     */
+    @Test
+    public void batchOutgoingMessages() throws Exception {
+        final List<Serializable> frames = Collections.synchronizedList(new ArrayList<>());
+        final Address other = UUID.randomUUID();
+        final ClusterMessageBatcher batcher = new ClusterMessageBatcher((destination, frame) -> frames.add(frame), 10, 500, 100, false);
+        try {
+            batcher.send(other, new StandardClusterMessage("1", "A", "a"));
+            batcher.send(other, new StandardClusterMessage("2", "A", "b"));
+            batcher.send(null, new StandardClusterMessage("3", "B", "c"));
+        } finally {
+            batcher.close();
+        }
+
+        Assert.assertEquals(2, frames.size());
+        Assert.assertEquals(2, ((ClusterMessageBatch) frames.get(0)).getMessages().size());
+        Assert.assertEquals("3", ((ClusterMessage) frames.get(1)).getId());
+    }
+
+    /**
+     * Verify messages are dropped instead of growing the queue when the channel is stalled.
+     */
+    @Test
+    public void dropWhenQueueFull() throws Exception {
+        final CountDownLatch stalled = new CountDownLatch(1);
+        final CountDownLatch sending = new CountDownLatch(1);
+        final List<Serializable> frames = Collections.synchronizedList(new ArrayList<>());
+        final ClusterMessageBatcher batcher = new ClusterMessageBatcher((destination, frame) -> {
+            frames.add(frame);
+            sending.countDown();
+            stalled.await();
+        }, 1, 0, 2, true);
+        try {
+            batcher.send(null, new StandardClusterMessage("0", "A", "a"));
+            Assert.assertTrue(sending.await(5, TimeUnit.SECONDS));
+            for (int i = 1; i <= 5; ++i) {
+                batcher.send(null, new StandardClusterMessage(Integer.toString(i), "A", "a"));
+            }
+            Assert.assertEquals(2, batcher.getQueueDepth());
+            Assert.assertEquals(3, batcher.getDropped());
+        } finally {
+            stalled.countDown();
+            batcher.close();
+        }
+        Assert.assertEquals(3, frames.size());
+    }
+
+    /**
+     * Verify the number of dispatch threads is capped regardless of the number of topics, and messages of a topic stay in order.
+     */
+    @Test
+    public void dispatchThreadsCapped() throws Exception {
+        final int topics = 50;
+        final CountDownLatch latch = new CountDownLatch(topics * 2);
+        final Set<String> threads = Collections.synchronizedSet(new HashSet<>());
+        final List<String> messages = Collections.synchronizedList(new ArrayList<>());
+        clusterService.subscribe((from, message) -> {
+            threads.add(Thread.currentThread().getName());
+            messages.add(message.getType() + ":" + message.getMessage());
+            latch.countDown();
+        });
+
+        for (int i = 0; i < 2; ++i) {
+            for (int t = 0; t < topics; ++t) {
+                final Message msg = new Message(null, new StandardClusterMessage(t + "-" + i, "TOPIC" + t, Integer.toString(i)));
+                msg.setSrc(UUID.randomUUID());
+                clusterService.receive(msg);
+            }
+        }
+
+        Assert.assertTrue("Expecting all messages to be dispatched", latch.await(5, TimeUnit.SECONDS));
+        Assert.assertTrue("Expecting at most 4 dispatch threads but was " + threads, threads.size() <= 4);
+        for (int t = 0; t < topics; ++t) {
+            Assert.assertTrue(messages.indexOf("TOPIC" + t + ":0") < messages.indexOf("TOPIC" + t + ":1"));
+        }
+    }
+}
@@ -27,6 +27,7 @@ import org.joda.time.DateTime;
 import org.joda.time.ReadablePeriod;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 import java.util.Set;
@@ -94,6 +95,15 @@ public interface BatchJobExecutionProvider extends BatchJobExecutionFilters {
      */
     BatchJobExecution findByJobExecutionId(Long jobExecutionId);
 
+    /**
+     * find a job execution by its unique key, optionally looking in the archive if it has been archived.
+     * Archived job executions are read-only.
+     *
+     * @param includeArchived true to look for the job execution in the archive
+     * @return the job execution
+     */
+    BatchJobExecution findByJobExecutionId(Long jobExecutionId, boolean includeArchived);
+
     /**
      * save/update a job execution
      *
@@ -192,6 +202,50 @@ public interface BatchJobExecutionProvider extends BatchJobExecutionFilters {
      */
     Page<? extends BatchJobExecution> findAll(String filter, Pageable pageable);
 
+    /**
+     * find the job executions matching a particular filter string that come after the cursor, ordered by start time and job execution id descending.
+     * Unlike {@link #findAll(String, Pageable)} this does not count the matching job executions and does not skip over the previous pages.
+     *
+     * @param filter the filter string
+     * @param cursor the position of the last job execution of the previous page, or {@code null} for the first page
+     * @param limit  the maximum number of job executions to return
+     * @return a slice of job executions, indicating if there are more after it
+     */
+    Slice<? extends BatchJobExecution> findAllAfter(String filter, JobExecutionCursor cursor, int limit);
+
+    /**
+     * find the job executions matching a particular filter string that started within a range of time and come after the cursor, including any
+     * archived job executions. The job executions are ordered by start time and job execution id descending.
+     *
+     * @param filter        the filter string
+     * @param cursor        the position of the last job execution of the previous page, or {@code null} for the first page
+     * @param startedAfter  the earliest start time to include, or {@code null} for no lower bound
+     * @param startedBefore the start time to exclude job executions from, or {@code null} for no upper bound
+     * @param limit         the maximum number of job executions to return
+     * @return a slice of job executions, indicating if there are more after it
+     */
+    Slice<? extends BatchJobExecution> findAllAfter(String filter, JobExecutionCursor cursor, DateTime startedAfter, DateTime startedBefore, int limit);
+
+    /**
+     * count the job executions matching a particular filter string
+     *
+     * @param filter   the filter string
+     * @param maxCount stop counting after this many job executions, or 0 for an exact count
+     * @return the number of matching job executions, at most {@code maxCount + 1} if {@code maxCount} is positive
+     */
+    long countAll(String filter, long maxCount);
+
+    /**
+     * count the job executions matching a particular filter string that started within a range of time, including any archived job executions
+     *
+     * @param filter        the filter string
+     * @param startedAfter  the earliest start time to include, or {@code null} for no lower bound
+     * @param startedBefore the start time to exclude job executions from, or {@code null} for no upper bound
+     * @param maxCount      stop counting after this many job executions, or 0 for an exact count
+     * @return the number of matching job executions, at most {@code maxCount + 1} if {@code maxCount} is positive
+     */
+    long countAll(String filter, DateTime startedAfter, DateTime startedBefore, long maxCount);
+
     /**
      * Return a list of job status objects grouped by day
      *
@@ -206,6 +260,18 @@ public interface BatchJobExecutionProvider extends BatchJobExecutionFilters {
      */
     List<JobStatusCount> getJobStatusCountByDateFromNow(ReadablePeriod period, String filter);
 
+    /**
+     * Rebuild the job status counts by day from the job executions, repairing any changes that were not counted
+     */
+    void reconcileJobStatusCounts();
+
+    /**
+     * Move the job executions that finished before the configured retention period to the archive tables
+     *
+     * @return the number of job executions archived
+     */
+    int archiveJobExecutions();
+
     /**
      * Return a list of job status objects matching a specific filter
      *
@@ -0,0 +1,119 @@
+package com.thinkbiganalytics.metadata.api.jobrepo.job;
+
+/*-
+ * #%L
+ * thinkbig-operational-metadata-api
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Position of a job execution within a listing ordered by start time and job execution id, both descending.
+ *
+ * <p>The cursor is exchanged with clients as an opaque token. The next page is read by seeking past this position rather than skipping rows, so
+ * the cost of reading a page does not depend on how deep it is, and job executions started after the first page was read do not shift the
+ * following pages.</p>
+ */
+public final class JobExecutionCursor {
+
+    private final long startTimeMillis;
+
+    private final long jobExecutionId;
+
+    public JobExecutionCursor(long startTimeMillis, long jobExecutionId) {
+        this.startTimeMillis = startTimeMillis;
+        this.jobExecutionId = jobExecutionId;
+    }
+
+    /**
+     * Creates a cursor positioned at the specified job execution.
+     *
+     * @param jobExecution the last job execution of a page
+     * @return the cursor for the following page
+     */
+    public static JobExecutionCursor of(@Nonnull BatchJobExecution jobExecution) {
+        return new JobExecutionCursor(jobExecution.getStartTime().getMillis(), jobExecution.getJobExecutionId());
+    }
+
+    /**
+     * Parses a token created by {@link #toToken()}.
+     *
+     * @param token the continuation token
+     * @return the cursor
+     * @throws IllegalArgumentException if the token is not valid
+     */
+    public static JobExecutionCursor fromToken(@Nonnull String token) {
+        String value;
+        try {
+            value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid job execution cursor: " + token, e);
+        }
+
+        int separator = value.indexOf(':');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid job execution cursor: " + token);
+        }
+        try {
+            return new JobExecutionCursor(Long.parseLong(value.substring(0, separator)), Long.parseLong(value.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid job execution cursor: " + token, e);
+        }
+    }
+
+    public long getStartTimeMillis() {
+        return startTimeMillis;
+    }
+
+    public long getJobExecutionId() {
+        return jobExecutionId;
+    }
+
+    /**
+     * Returns the opaque continuation token for this cursor.
+     */
+    public String toToken() {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString((startTimeMillis + ":" + jobExecutionId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        JobExecutionCursor that = (JobExecutionCursor) o;
+        return startTimeMillis == that.startTimeMillis && jobExecutionId == that.jobExecutionId;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(startTimeMillis, jobExecutionId);
+    }
+
+    @Override
+    public String toString() {
+        return "JobExecutionCursor{startTimeMillis=" + startTimeMillis + ", jobExecutionId=" + jobExecutionId + "}";
+    }
+}
@@ -32,6 +32,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
@@ -84,7 +85,8 @@ public abstract class UserCacheBean<K, V, T, ID extends Serializable> extends Ca
 
     private List<V> findAll(boolean addAcl) {
         if (feedAclCache.isUserCacheAvailable() && !cache.asMap().isEmpty()) {
-            return cache.asMap().values().stream().filter(item -> isVaildUserFeed(item, addAcl)).collect(Collectors.toList());
+            Predicate<String> feedFilter = userFeedFilter(addAcl);
+            return cache.asMap().values().stream().filter(item -> isVaildUserFeed(item, feedFilter)).collect(Collectors.toList());
         } else {
             if (addAcl && accessController.isEntityAccessControlled()) {
                 return metadataAccess.read(() -> fetchAllWithAcl().stream().map(v -> transform(v)).collect(Collectors.toList()));
@@ -97,7 +99,7 @@ public abstract class UserCacheBean<K, V, T, ID extends Serializable> extends Ca
     private V findById(K cacheKey, boolean addAcl) {
         if (feedAclCache.isUserCacheAvailable() && !cache.asMap().isEmpty()) {
             V value = cache.getIfPresent(cacheKey);
-            if (isVaildUserFeed(value, addAcl)) {
+            if (isVaildUserFeed(value, userFeedFilter(addAcl))) {
                 return value;
             } else {
                 return null;
@@ -116,10 +118,11 @@ public abstract class UserCacheBean<K, V, T, ID extends Serializable> extends Ca
         if (keys != null && !keys.isEmpty()) {
 
             if (feedAclCache.isUserCacheAvailable() && !cache.asMap().isEmpty()) {
+                Predicate<String> feedFilter = userFeedFilter(addAcl);
                 return keys.stream()
                     .map(name -> cache.getIfPresent(name))
                     .filter(Objects::nonNull)
-                    .filter(f -> isVaildUserFeed(f, addAcl))
+                    .filter(f -> isVaildUserFeed(f, feedFilter))
                     .collect(Collectors.toList());
             } else {
 
@@ -136,8 +139,15 @@ public abstract class UserCacheBean<K, V, T, ID extends Serializable> extends Ca
     }
 
 
-    private boolean isVaildUserFeed(V item, boolean addAcl) {
-        return (item != null && (!addAcl || (addAcl && feedAclCache.hasAccess(getFeedId(item)))));
+    /**
+     * Resolves the feeds accessible by the current user once so that each item is checked with a single lookup
+     */
+    private Predicate<String> userFeedFilter(boolean addAcl) {
+        return addAcl ? feedAclCache.getAccessFilter() : feedId -> true;
+    }
+
+    private boolean isVaildUserFeed(V item, Predicate<String> feedFilter) {
+        return (item != null && feedFilter.test(getFeedId(item)));
     }
 
 
@@ -19,6 +19,8 @@ package com.thinkbiganalytics.metadata.jpa.feed.security;
  * #L%
  */
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.thinkbiganalytics.metadata.api.feed.security.FeedOpsAclEntry;
 import com.thinkbiganalytics.metadata.config.RoleSetExposingSecurityExpressionRoot;
 import com.thinkbiganalytics.metadata.jpa.cache.CacheBackedProviderListener;
@@ -26,15 +28,33 @@ import com.thinkbiganalytics.metadata.jpa.cache.CacheListBean;
 import com.thinkbiganalytics.security.AccessController;
 
 import org.apache.commons.lang3.StringUtils;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
 import javax.inject.Inject;
 
 /**
  * Created by sr186054 on 9/29/17.
+ *
+ * <p>In addition to the ACL entries by feed, an index from each principal (user or group) to a compressed bitmap of feed ordinals is kept
+ * up to date as entries are added and removed. The feeds visible to a user are the union of the bitmaps of the user and their groups,
+ * which is memoized per {@link Authentication} until the bitmap of one of those principals changes.</p>
+ *
+ * <p>While the cache is being populated the bitmaps are built in place and published together once population completes. After that,
+ * each change copies the affected principal's bitmap so readers never see a partial update.</p>
  */
 public class FeedAclCache extends CacheListBean<String, FeedOpsAclEntry> implements CacheBackedProviderListener<JpaFeedOpsAclEntry.EntryId, JpaFeedOpsAclEntry> {
 
@@ -42,6 +62,28 @@ public class FeedAclCache extends CacheListBean<String, FeedOpsAclEntry> impleme
     @Inject
     AccessController accessController;
 
+    /**
+     * Ordinal of each feed id in the principal bitmaps
+     */
+    private final Map<String, Integer> feedOrdinals = new ConcurrentHashMap<>();
+
+    private final AtomicInteger nextFeedOrdinal = new AtomicInteger();
+
+    /**
+     * Feed ordinals accessible by each principal. Bitmaps are replaced rather than modified so readers never see a partial update.
+     */
+    private final Map<String, RoaringBitmap> principalFeeds = new ConcurrentHashMap<>();
+
+    /**
+     * Bitmaps being built while the cache is populated, or {@code null} once they have been published to {@link #principalFeeds}
+     */
+    private Map<String, RoaringBitmap> pendingFeeds = new HashMap<>();
+
+    /**
+     * Feeds accessible by each authenticated user
+     */
+    private final Cache<Authentication, UserFeeds> userFeeds = CacheBuilder.newBuilder().weakKeys().expireAfterAccess(30, TimeUnit.MINUTES).build();
+
 
     public boolean isAvailable() {
         return isPopulated();
@@ -51,9 +93,8 @@ public class FeedAclCache extends CacheListBean<String, FeedOpsAclEntry> impleme
         if (StringUtils.isBlank(feedId) || !accessController.isEntityAccessControlled()) {
             return true;
         }
-        return get(feedId).stream()
-            .anyMatch(acl -> ((acl.getPrincipalType() == FeedOpsAclEntry.PrincipalType.GROUP && userContext.getGroups().contains(acl.getPrincipalName()))
-                              || (acl.getPrincipalType() == FeedOpsAclEntry.PrincipalType.USER && userContext.getName().equals(acl.getPrincipalName()))));
+        Integer ordinal = feedOrdinals.get(feedId);
+        return ordinal != null && getUserFeeds(userContext).contains(ordinal);
     }
 
 
@@ -61,6 +102,35 @@ public class FeedAclCache extends CacheListBean<String, FeedOpsAclEntry> impleme
         return hasAccess(userContext(), feedId);
     }
 
+    /**
+     * Gets a filter of the feed ids accessible by the current user, for checking many feeds at once.
+     *
+     * @return a predicate that is true for the feed ids the user can access
+     */
+    public Predicate<String> getAccessFilter() {
+        return getAccessFilter(userContext());
+    }
+
+    /**
+     * Gets a filter of the feed ids accessible by the specified user, for checking many feeds at once.
+     *
+     * @param userContext the user
+     * @return a predicate that is true for the feed ids the user can access
+     */
+    public Predicate<String> getAccessFilter(RoleSetExposingSecurityExpressionRoot userContext) {
+        if (!accessController.isEntityAccessControlled()) {
+            return feedId -> true;
+        }
+        RoaringBitmap feeds = getUserFeeds(userContext);
+        return feedId -> {
+            if (StringUtils.isBlank(feedId)) {
+                return true;
+            }
+            Integer ordinal = feedOrdinals.get(feedId);
+            return ordinal != null && feeds.contains(ordinal);
+        };
+    }
+
 
     public RoleSetExposingSecurityExpressionRoot userContext() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -72,6 +142,99 @@ public class FeedAclCache extends CacheListBean<String, FeedOpsAclEntry> impleme
         return (!accessController.isEntityAccessControlled() || (accessController.isEntityAccessControlled() && isAvailable()));
     }
 
+    /**
+     * Gets the ordinals of the feeds accessible by the user, computing the union of the user's and groups' bitmaps if any of them has changed.
+     */
+    private RoaringBitmap getUserFeeds(RoleSetExposingSecurityExpressionRoot userContext) {
+        Authentication authentication = userContext.getAuthentication();
+        UserFeeds feeds = authentication != null ? userFeeds.getIfPresent(authentication) : null;
+        if (feeds == null || !feeds.isCurrent(principalFeeds)) {
+            List<String> keys = new ArrayList<>();
+            keys.add(principalKey(FeedOpsAclEntry.PrincipalType.USER, userContext.getName()));
+            for (String group : userContext.getGroups()) {
+                keys.add(principalKey(FeedOpsAclEntry.PrincipalType.GROUP, group));
+            }
+            feeds = new UserFeeds(keys, principalFeeds);
+            if (authentication != null) {
+                userFeeds.put(authentication, feeds);
+            }
+        }
+        return feeds.feeds;
+    }
+
+    private Integer getFeedOrdinal(String feedId) {
+        return feedOrdinals.computeIfAbsent(feedId, id -> nextFeedOrdinal.getAndIncrement());
+    }
+
+    private static String principalKey(FeedOpsAclEntry.PrincipalType type, String name) {
+        return type + ":" + name;
+    }
+
+    private synchronized void indexEntry(String feedId, FeedOpsAclEntry entry) {
+        String key = principalKey(entry.getPrincipalType(), entry.getPrincipalName());
+        int ordinal = getFeedOrdinal(feedId);
+        if (pendingFeeds != null) {
+            pendingFeeds.computeIfAbsent(key, k -> new RoaringBitmap()).add(ordinal);
+        } else {
+            RoaringBitmap current = principalFeeds.get(key);
+            if (current == null || !current.contains(ordinal)) {
+                RoaringBitmap feeds = current != null ? current.clone() : new RoaringBitmap();
+                feeds.add(ordinal);
+                principalFeeds.put(key, feeds);
+            }
+        }
+    }
+
+    private synchronized void unindexEntry(String feedId, FeedOpsAclEntry entry) {
+        String key = principalKey(entry.getPrincipalType(), entry.getPrincipalName());
+        Integer ordinal = feedOrdinals.get(feedId);
+        boolean stillGranted = get(feedId).stream()
+            .anyMatch(acl -> acl.getPrincipalType() == entry.getPrincipalType() && StringUtils.equals(acl.getPrincipalName(), entry.getPrincipalName()));
+        if (ordinal == null || stillGranted) {
+            return;
+        }
+        if (pendingFeeds != null) {
+            RoaringBitmap feeds = pendingFeeds.get(key);
+            if (feeds != null) {
+                feeds.remove(ordinal);
+            }
+        } else {
+            RoaringBitmap current = principalFeeds.get(key);
+            if (current != null && current.contains(ordinal)) {
+                RoaringBitmap feeds = current.clone();
+                feeds.remove(ordinal);
+                if (feeds.isEmpty()) {
+                    principalFeeds.remove(key);
+                } else {
+                    principalFeeds.put(key, feeds);
+                }
+            }
+        }
+    }
+
+    private synchronized void clearIndex() {
+        principalFeeds.clear();
+        feedOrdinals.clear();
+        nextFeedOrdinal.set(0);
+        pendingFeeds = new HashMap<>();
+        userFeeds.invalidateAll();
+    }
+
+    /**
+     * Publishes the bitmaps built while populating; later changes are made by copying the affected bitmap.
+     */
+    private synchronized void publishIndex() {
+        if (pendingFeeds != null) {
+            pendingFeeds.forEach((key, feeds) -> {
+                if (!feeds.isEmpty()) {
+                    feeds.runOptimize();
+                    principalFeeds.put(key, feeds);
+                }
+            });
+            pendingFeeds = null;
+        }
+    }
+
 
     private String getKey(FeedOpsAclEntry entry) {
         return entry.getFeedId().toString();
@@ -79,22 +242,28 @@ public class FeedAclCache extends CacheListBean<String, FeedOpsAclEntry> impleme
 
     @Override
     public void onAddedItem(JpaFeedOpsAclEntry.EntryId key, JpaFeedOpsAclEntry value) {
-        add(key.getUuid().toString(), value);
+        String feedId = key.getUuid().toString();
+        add(feedId, value);
+        indexEntry(feedId, value);
     }
 
     @Override
     public void onRemovedItem(JpaFeedOpsAclEntry value) {
-        remove(getKey(value), value);
+        String feedId = getKey(value);
+        remove(feedId, value);
+        unindexEntry(feedId, value);
     }
 
     @Override
     public void onRemoveAll() {
         invalidateAll();
+        clearIndex();
     }
 
     @Override
     public void onPopulated() {
         log.info("FeedAclCache populated.");
+        publishIndex();
         setPopulated(true);
     }
 
@@ -102,4 +271,39 @@ public class FeedAclCache extends CacheListBean<String, FeedOpsAclEntry> impleme
     public boolean isEqual(FeedOpsAclEntry value1, FeedOpsAclEntry value2) {
         return value1.getId().equals(value2.getId());
     }
+
+    /**
+     * Feed ordinals accessible by a user, along with the principal bitmaps they were computed from
+     */
+    private static class UserFeeds {
+
+        final String[] keys;
+        final RoaringBitmap[] sources;
+        final RoaringBitmap feeds;
+
+        UserFeeds(List<String> keys, Map<String, RoaringBitmap> principalFeeds) {
+            this.keys = keys.toArray(new String[keys.size()]);
+            this.sources = new RoaringBitmap[this.keys.length];
+            List<RoaringBitmap> bitmaps = new ArrayList<>();
+            for (int i = 0; i < this.keys.length; ++i) {
+                sources[i] = principalFeeds.get(this.keys[i]);
+                if (sources[i] != null) {
+                    bitmaps.add(sources[i]);
+                }
+            }
+            this.feeds = FastAggregation.or(bitmaps.iterator());
+        }
+
+        /**
+         * Bitmaps are replaced on every change, so the feeds are current if each principal still maps to the same bitmap.
+         */
+        boolean isCurrent(Map<String, RoaringBitmap> principalFeeds) {
+            for (int i = 0; i < keys.length; ++i) {
+                if (principalFeeds.get(keys[i]) != sources[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
 }
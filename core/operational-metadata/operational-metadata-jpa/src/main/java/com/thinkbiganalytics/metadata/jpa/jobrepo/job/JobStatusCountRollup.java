@@ -0,0 +1,320 @@
+package com.thinkbiganalytics.metadata.jpa.jobrepo.job;
+
+/*-
+ * #%L
+ * thinkbig-operational-metadata-jpa
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.NumberExpression;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.thinkbiganalytics.metadata.api.MetadataAccess;
+import com.thinkbiganalytics.metadata.api.jobrepo.job.JobStatusCount;
+import com.thinkbiganalytics.metadata.jpa.feed.FeedAclIndexQueryAugmentor;
+import com.thinkbiganalytics.metadata.jpa.feed.QJpaOpsManagerFeed;
+import com.thinkbiganalytics.metadata.jpa.support.JobStatusDslQueryExpressionBuilder;
+
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+/**
+ * Maintains the {@link JpaJobStatusDailyCount} rollup of job executions by feed, status and start day.
+ *
+ * Status changes are collected from the {@link JobStatusDailyCountListener} once their transaction commits, and are added to the rollup table
+ * periodically in a separate transaction. Changes made outside of JPA, such as deleting a feed's jobs, are repaired by {@link #reconcile()}.
+ */
+@Service
+public class JobStatusCountRollup {
+
+    private static final Logger log = LoggerFactory.getLogger(JobStatusCountRollup.class);
+
+    /**
+     * The rollup receiving changes from the entity listener, which is not managed by Spring
+     */
+    private static volatile JobStatusCountRollup instance;
+
+    @Inject
+    private JobStatusDailyCountRepository jobStatusDailyCountRepository;
+
+    @Inject
+    private JPAQueryFactory factory;
+
+    @Inject
+    private MetadataAccess metadataAccess;
+
+    @Value("${kylo.ops.mgr.job.status.rollup.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${kylo.ops.mgr.job.status.rollup.flush.millis:5000}")
+    private long flushIntervalMillis = 5000;
+
+    /**
+     * Changes to the counts that have not been added to the rollup table
+     */
+    private final ConcurrentMap<JpaJobStatusDailyCount.ID, AtomicLong> pendingCounts = new ConcurrentHashMap<>();
+
+    private final Object flushLock = new Object();
+
+    private ScheduledExecutorService flushExecutor;
+
+    @PostConstruct
+    private void init() {
+        instance = this;
+        if (enabled) {
+            flushExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("JobStatusCountRollup-flush-%d").setDaemon(true).build());
+            flushExecutor.scheduleWithFixedDelay(() -> {
+                try {
+                    flush();
+                } catch (Exception e) {
+                    log.warn("Unable to update the job status counts. The changes will be retried: {}", e.toString());
+                }
+            }, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    private void destroy() {
+        if (flushExecutor != null) {
+            flushExecutor.shutdown();
+            try {
+                flushExecutor.awaitTermination(flushIntervalMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            // Add any changes made since the last scheduled flush
+            try {
+                flush();
+            } catch (Exception e) {
+                log.warn("Unable to update the job status counts on shutdown. The pending changes are lost: {}", e.toString());
+            }
+        }
+    }
+
+    /**
+     * Indicates if the dashboard counts should be read from the rollup
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Records a job execution moving from one group to another.
+     *
+     * @param previous the previous group, or null for a new job execution
+     * @param current  the current group, or null for a deleted job execution
+     */
+    static void jobExecutionChanged(JpaJobStatusDailyCount.ID previous, JpaJobStatusDailyCount.ID current) {
+        JobStatusCountRollup rollup = instance;
+        if (rollup != null && rollup.enabled) {
+            rollup.recordChange(previous, current);
+        }
+    }
+
+    private void recordChange(JpaJobStatusDailyCount.ID previous, JpaJobStatusDailyCount.ID current) {
+        afterCommit(() -> {
+            if (previous != null) {
+                addPendingCount(previous, -1L);
+            }
+            if (current != null) {
+                addPendingCount(current, 1L);
+            }
+        });
+    }
+
+    /**
+     * Records job executions that were removed without JPA, such as by archiving.
+     *
+     * @param id    the group of the removed job executions
+     * @param count the number of job executions removed
+     */
+    void jobExecutionsRemoved(JpaJobStatusDailyCount.ID id, long count) {
+        if (enabled) {
+            afterCommit(() -> addPendingCount(id, -count));
+        }
+    }
+
+    /**
+     * Runs the change once the current transaction commits, or immediately if there is no transaction
+     */
+    private void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    private void addPendingCount(JpaJobStatusDailyCount.ID id, long delta) {
+        pendingCounts.computeIfAbsent(id, key -> new AtomicLong()).addAndGet(delta);
+    }
+
+    /**
+     * Removes and returns the pending changes
+     */
+    private Map<JpaJobStatusDailyCount.ID, Long> takePendingCounts() {
+        Map<JpaJobStatusDailyCount.ID, Long> counts = new HashMap<>();
+        for (JpaJobStatusDailyCount.ID id : pendingCounts.keySet()) {
+            AtomicLong count = pendingCounts.remove(id);
+            if (count != null && count.get() != 0) {
+                counts.put(id, count.get());
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Adds the pending changes to the rollup table. The changes are kept for the next flush if the update fails.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            Map<JpaJobStatusDailyCount.ID, Long> counts = takePendingCounts();
+            if (counts.isEmpty()) {
+                return;
+            }
+
+            try {
+                metadataAccess.commit(() -> {
+                    counts.forEach((id, delta) -> {
+                        int updated = jobStatusDailyCountRepository.incrementCount(id.getFeedId(), id.getStatus(), id.getStartYear(), id.getStartMonth(), id.getStartDay(), delta);
+                        if (updated == 0) {
+                            jobStatusDailyCountRepository.save(new JpaJobStatusDailyCount(id, delta));
+                        }
+                    });
+                }, MetadataAccess.SERVICE);
+            } catch (RuntimeException e) {
+                counts.forEach(this::addPendingCount);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the rollup table from the job executions, repairing any drift.
+     *
+     * The pending changes are taken once the job executions have been counted, so that only the changes included in the new counts are dropped.
+     * Changes committed after the count remain pending for the next flush.
+     */
+    public void reconcile() {
+        synchronized (flushLock) {
+            Map<JpaJobStatusDailyCount.ID, Long> included = new HashMap<>();
+            try {
+                reconcile(included);
+            } catch (RuntimeException e) {
+                included.forEach(this::addPendingCount);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Replaces the rollup table with the counts of the job executions, moving the pending changes included in the counts to the specified map.
+     */
+    private void reconcile(Map<JpaJobStatusDailyCount.ID, Long> included) {
+        metadataAccess.commit(() -> {
+            QJpaBatchJobExecution jobExecution = QJpaBatchJobExecution.jpaBatchJobExecution;
+            QJpaBatchJobInstance jobInstance = QJpaBatchJobInstance.jpaBatchJobInstance;
+            QJpaOpsManagerFeed feed = QJpaOpsManagerFeed.jpaOpsManagerFeed;
+
+            List<Tuple> rows = factory.select(feed.id.uuid, jobExecution.status, jobExecution.startYear, jobExecution.startMonth, jobExecution.startDay, jobExecution.count())
+                .from(jobExecution)
+                .innerJoin(jobInstance).on(jobExecution.jobInstance.jobInstanceId.eq(jobInstance.jobInstanceId))
+                .innerJoin(feed).on(jobInstance.feed.id.eq(feed.id))
+                .where(jobExecution.startYear.isNotNull())
+                .groupBy(feed.id.uuid, jobExecution.status, jobExecution.startYear, jobExecution.startMonth, jobExecution.startDay)
+                .fetch();
+
+            // pending changes committed before the count are included in it
+            included.putAll(takePendingCounts());
+
+            List<JpaJobStatusDailyCount> counts = rows.stream()
+                .map(row -> new JpaJobStatusDailyCount(new JpaJobStatusDailyCount.ID(row.get(feed.id.uuid), row.get(jobExecution.status).name(), row.get(jobExecution.startYear),
+                                                                                     row.get(jobExecution.startMonth), row.get(jobExecution.startDay)),
+                                                       row.get(jobExecution.count())))
+                .collect(Collectors.toList());
+
+            jobStatusDailyCountRepository.deleteAllInBatch();
+            jobStatusDailyCountRepository.save(counts);
+            log.info("Reconciled the job status counts with {} feed, status and day groups", counts.size());
+        }, MetadataAccess.SERVICE);
+    }
+
+    /**
+     * Gets the number of job executions grouped by status and start day
+     *
+     * @param entityAccessControlled true to only count the feeds the current user can access
+     * @param sinceDay               the first day to include, or null for all days
+     * @return the job status counts
+     */
+    public List<JobStatusCount> getJobStatusCountByDate(boolean entityAccessControlled, DateTime sinceDay) {
+        QJpaJobStatusDailyCount dailyCount = QJpaJobStatusDailyCount.jpaJobStatusDailyCount;
+        QJpaOpsManagerFeed feed = QJpaOpsManagerFeed.jpaOpsManagerFeed;
+        NumberExpression<Long> count = dailyCount.count.sum();
+
+        BooleanExpression where = FeedAclIndexQueryAugmentor.generateExistsExpression(feed.id, entityAccessControlled);
+        if (sinceDay != null) {
+            where = where.and(dailyCount.id.startYear.gt(sinceDay.getYear())
+                                  .or(dailyCount.id.startYear.eq(sinceDay.getYear()).and(dailyCount.id.startMonth.gt(sinceDay.getMonthOfYear())))
+                                  .or(dailyCount.id.startYear.eq(sinceDay.getYear()).and(dailyCount.id.startMonth.eq(sinceDay.getMonthOfYear()))
+                                          .and(dailyCount.id.startDay.goe(sinceDay.getDayOfMonth()))));
+        }
+
+        List<Tuple> rows = factory.select(dailyCount.id.status, dailyCount.id.startYear, dailyCount.id.startMonth, dailyCount.id.startDay, count)
+            .from(dailyCount)
+            .innerJoin(feed).on(feed.id.uuid.eq(dailyCount.id.feedId))
+            .where(where)
+            .groupBy(dailyCount.id.status, dailyCount.id.startYear, dailyCount.id.startMonth, dailyCount.id.startDay)
+            .having(count.gt(0L))
+            .fetch();
+
+        List<JobStatusCount> counts = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            counts.add(new JpaBatchJobExecutionStatusCounts(JobStatusDslQueryExpressionBuilder.jobState(row.get(dailyCount.id.status)), row.get(dailyCount.id.startYear),
+                                                            row.get(dailyCount.id.startMonth), row.get(dailyCount.id.startDay), row.get(count)));
+        }
+        return counts;
+    }
+}
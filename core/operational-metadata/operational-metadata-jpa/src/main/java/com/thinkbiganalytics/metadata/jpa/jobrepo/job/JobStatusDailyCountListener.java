@@ -0,0 +1,65 @@
+package com.thinkbiganalytics.metadata.jpa.jobrepo.job;
+
+/*-
+ * #%L
+ * thinkbig-operational-metadata-jpa
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import javax.persistence.PostLoad;
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * Reports job execution status changes to the {@link JobStatusCountRollup}
+ */
+public class JobStatusDailyCountListener {
+
+    @PostLoad
+    public void postLoad(JpaBatchJobExecution jobExecution) {
+        // the feed is resolved only when the status changes to avoid loading the job instance
+        jobExecution.setStatusCountId(JpaJobStatusDailyCount.ID.of(jobExecution));
+    }
+
+    @PostPersist
+    public void postPersist(JpaBatchJobExecution jobExecution) {
+        JpaJobStatusDailyCount.ID current = JpaJobStatusDailyCount.ID.of(jobExecution);
+        if (current != null) {
+            JobStatusCountRollup.jobExecutionChanged(null, current.withFeed(jobExecution));
+        }
+        jobExecution.setStatusCountId(current);
+    }
+
+    @PostUpdate
+    public void postUpdate(JpaBatchJobExecution jobExecution) {
+        JpaJobStatusDailyCount.ID previous = jobExecution.getStatusCountId();
+        JpaJobStatusDailyCount.ID current = JpaJobStatusDailyCount.ID.of(jobExecution);
+        if (previous == null ? current != null : !previous.equals(current)) {
+            JobStatusCountRollup.jobExecutionChanged(previous != null ? previous.withFeed(jobExecution) : null, current != null ? current.withFeed(jobExecution) : null);
+            jobExecution.setStatusCountId(current);
+        }
+    }
+
+    @PostRemove
+    public void postRemove(JpaBatchJobExecution jobExecution) {
+        JpaJobStatusDailyCount.ID previous = jobExecution.getStatusCountId();
+        if (previous != null) {
+            JobStatusCountRollup.jobExecutionChanged(previous.withFeed(jobExecution), null);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.thinkbiganalytics.metadata.jpa.jobrepo.job;
+
+/*-
+ * #%L
+ * thinkbig-operational-metadata-jpa
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.UUID;
+
+/**
+ * Spring data repository for accessing {@link JpaJobStatusDailyCount}
+ */
+public interface JobStatusDailyCountRepository extends JpaRepository<JpaJobStatusDailyCount, JpaJobStatusDailyCount.ID> {
+
+    @Modifying
+    @Query("update JpaJobStatusDailyCount as c set c.count = c.count + :delta "
+           + "where c.id.feedId = :feedId and c.id.status = :status "
+           + "and c.id.startYear = :startYear and c.id.startMonth = :startMonth and c.id.startDay = :startDay")
+    int incrementCount(@Param("feedId") UUID feedId, @Param("status") String status, @Param("startYear") Integer startYear, @Param("startMonth") Integer startMonth,
+                       @Param("startDay") Integer startDay, @Param("delta") Long delta);
+}
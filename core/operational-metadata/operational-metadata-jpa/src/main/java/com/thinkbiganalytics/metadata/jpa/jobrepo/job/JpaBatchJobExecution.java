@@ -47,6 +47,7 @@ import java.util.stream.Collectors;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
 import javax.persistence.FetchType;
@@ -60,6 +61,7 @@ import javax.persistence.OneToMany;
 import javax.persistence.OneToOne;
 import javax.persistence.Table;
 import javax.persistence.TableGenerator;
+import javax.persistence.Transient;
 import javax.persistence.Version;
 
 /**
@@ -78,6 +80,7 @@ import javax.persistence.Version;
                                                                        + "                             on maxJobs.FEED_ID = f.ID "
                                                                        + "                             and maxJobs.END_TIME =e.END_TIME ")
 @Table(name = "BATCH_JOB_EXECUTION")
+@EntityListeners(JobStatusDailyCountListener.class)
 public class JpaBatchJobExecution implements BatchJobExecution {
 
 
@@ -178,11 +181,25 @@ public class JpaBatchJobExecution implements BatchJobExecution {
     @OneToOne(targetEntity = JpaNifiEventJobExecution.class, mappedBy = "jobExecution", cascade = CascadeType.ALL, fetch = FetchType.LAZY, optional = false)
     private NifiEventJobExecution nifiEventJobExecution;
 
+    /**
+     * The status and start day as last read from or written to the database, used to maintain the {@link JpaJobStatusDailyCount}
+     */
+    @Transient
+    private JpaJobStatusDailyCount.ID statusCountId;
+
 
     public JpaBatchJobExecution() {
 
     }
 
+    JpaJobStatusDailyCount.ID getStatusCountId() {
+        return statusCountId;
+    }
+
+    void setStatusCountId(JpaJobStatusDailyCount.ID statusCountId) {
+        this.statusCountId = statusCountId;
+    }
+
     @Override
     public BatchJobInstance getJobInstance() {
         return jobInstance;
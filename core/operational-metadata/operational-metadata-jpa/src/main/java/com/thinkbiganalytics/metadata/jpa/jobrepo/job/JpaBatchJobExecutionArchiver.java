@@ -0,0 +1,333 @@
+package com.thinkbiganalytics.metadata.jpa.jobrepo.job;
+
+/*-
+ * #%L
+ * thinkbig-operational-metadata-jpa
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableList;
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.JPAExpressions;
+import com.querydsl.jpa.JPQLQueryFactory;
+import com.querydsl.jpa.hibernate.HibernateQueryFactory;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.thinkbiganalytics.DateTimeUtil;
+import com.thinkbiganalytics.metadata.api.MetadataAccess;
+import com.thinkbiganalytics.metadata.api.jobrepo.job.BatchJobExecution;
+import com.thinkbiganalytics.metadata.api.jobrepo.step.BatchStepExecution;
+import com.thinkbiganalytics.metadata.jpa.feed.QJpaOpsManagerFeed;
+
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.Oracle8iDialect;
+import org.hibernate.dialect.Oracle9Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+/**
+ * Moves finished job executions, with their steps, parameters, context values and NiFi events, to archive tables so the tables read by Operations
+ * Manager stay small. Each archive table has the name and columns of its table with an {@code _ARCHIVE} suffix. Rows are copied by listing the columns
+ * found in both tables, so the column order of an archive table does not need to match its table.
+ *
+ * Job executions are moved in chunks, each in its own transaction. A run stops after a maximum number of chunks, and the next run continues with
+ * the remaining job executions. Archived job executions are read back by {@link #findArchived(Function)} using the same entities and queries.
+ *
+ * The archive tables are not created on Oracle, as their names are longer than its identifier limit, so archiving is disabled there.
+ */
+@Service
+public class JpaBatchJobExecutionArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(JpaBatchJobExecutionArchiver.class);
+
+    /**
+     * Tables moved to the archive in the order rows are deleted. Every table has a JOB_EXECUTION_ID column.
+     */
+    static final List<String> ARCHIVED_TABLES = ImmutableList.of("BATCH_STEP_EXECUTION_CTX_VALS", "BATCH_NIFI_STEP", "BATCH_STEP_EXECUTION", "BATCH_JOB_EXECUTION_CTX_VALS",
+                                                                 "BATCH_JOB_EXECUTION_PARAMS", "BATCH_NIFI_JOB", "BATCH_JOB_EXECUTION");
+
+    static final String ARCHIVE_SUFFIX = "_ARCHIVE";
+
+    private static final Pattern ARCHIVED_TABLE_PATTERN = Pattern.compile("\\b(" + String.join("|", ARCHIVED_TABLES) + ")\\b", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * Rewrites the SQL generated for the job execution entities to read from the archive tables
+     */
+    private static final StatementInspector ARCHIVE_STATEMENT_INSPECTOR = sql -> ARCHIVED_TABLE_PATTERN.matcher(sql).replaceAll("$1" + ARCHIVE_SUFFIX);
+
+    private static final List<BatchJobExecution.JobStatus> FINISHED_STATUSES = ImmutableList.of(BatchJobExecution.JobStatus.COMPLETED, BatchJobExecution.JobStatus.FAILED,
+                                                                                                 BatchJobExecution.JobStatus.STOPPED, BatchJobExecution.JobStatus.ABANDONED);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Inject
+    private JPAQueryFactory factory;
+
+    @Inject
+    private MetadataAccess metadataAccess;
+
+    @Inject
+    private JobStatusCountRollup jobStatusCountRollup;
+
+    @Value("${kylo.ops.mgr.job.archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${kylo.ops.mgr.job.archive.days:90}")
+    private int archiveAfterDays = 90;
+
+    @Value("${kylo.ops.mgr.job.archive.chunk.size:500}")
+    private int chunkSize = 500;
+
+    @Value("${kylo.ops.mgr.job.archive.max.chunks:100}")
+    private int maxChunks = 100;
+
+    /**
+     * Indicates if the database has the archive tables
+     */
+    private boolean supported = true;
+
+    /**
+     * The columns copied from each table to its archive table
+     */
+    private final Map<String, String> archivedColumns = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    private void init() {
+        Dialect dialect = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class).getDialect();
+        if (dialect instanceof Oracle8iDialect || dialect instanceof Oracle9Dialect) {
+            supported = false;
+            if (enabled) {
+                log.warn("Job execution archiving is not supported on Oracle and has been disabled. The archive table names are longer than the Oracle identifier limit.");
+            }
+        }
+    }
+
+    /**
+     * Indicates if job executions are archived and if the archive is read
+     */
+    public boolean isEnabled() {
+        return enabled && supported;
+    }
+
+    /**
+     * Moves the job executions that finished more than the configured number of days ago to the archive tables. The latest finished job execution of
+     * each feed is kept so the feed summaries are unchanged.
+     *
+     * @return the number of job executions archived
+     */
+    public int archive() {
+        if (!isEnabled()) {
+            return 0;
+        }
+
+        DateTime cutoff = DateTimeUtil.getNowUTCTime().minusDays(archiveAfterDays);
+        int total = 0;
+        for (int chunk = 0; chunk < maxChunks; ++chunk) {
+            if (Thread.currentThread().isInterrupted()) {
+                log.info("Job execution archiving was interrupted. The remaining job executions will be archived by the next run.");
+                break;
+            }
+            Integer archived = metadataAccess.commit(() -> archiveChunk(cutoff), MetadataAccess.SERVICE);
+            total += archived;
+            if (archived < chunkSize) {
+                break;
+            }
+        }
+        log.info("Archived {} job executions that finished before {}", total, cutoff);
+        return total;
+    }
+
+    /**
+     * Moves the next chunk of job executions to the archive tables. Any rows of the chunk already in the archive, such as from a run that was
+     * interrupted on storage without transactions, are replaced.
+     *
+     * @return the number of job executions archived
+     */
+    private int archiveChunk(DateTime cutoff) {
+        QJpaBatchJobExecution jobExecution = QJpaBatchJobExecution.jpaBatchJobExecution;
+        QJpaBatchJobInstance jobInstance = QJpaBatchJobInstance.jpaBatchJobInstance;
+        QJpaBatchJobExecution newerExecution = new QJpaBatchJobExecution("newerExecution");
+        QJpaBatchJobInstance newerInstance = new QJpaBatchJobInstance("newerInstance");
+
+        List<Long> ids = factory.select(jobExecution.jobExecutionId)
+            .from(jobExecution)
+            .innerJoin(jobExecution.jobInstance, jobInstance)
+            .where(jobExecution.status.in(FINISHED_STATUSES)
+                       .and(jobExecution.endTimeMillis.lt(cutoff.getMillis()))
+                       .and(JPAExpressions.selectOne()
+                                .from(newerExecution)
+                                .innerJoin(newerExecution.jobInstance, newerInstance)
+                                .where(newerInstance.feed.eq(jobInstance.feed).and(newerExecution.endTimeMillis.gt(jobExecution.endTimeMillis)))
+                                .exists()))
+            .orderBy(jobExecution.jobExecutionId.asc())
+            .limit(chunkSize)
+            .fetch();
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        removeFromJobStatusCounts(ids);
+
+        for (String table : ARCHIVED_TABLES) {
+            String columns = getArchivedColumns(table);
+            entityManager.createNativeQuery("DELETE FROM " + table + ARCHIVE_SUFFIX + " WHERE JOB_EXECUTION_ID IN (:ids)").setParameter("ids", ids).executeUpdate();
+            entityManager.createNativeQuery("INSERT INTO " + table + ARCHIVE_SUFFIX + " (" + columns + ") SELECT " + columns + " FROM " + table + " WHERE JOB_EXECUTION_ID IN (:ids)")
+                .setParameter("ids", ids)
+                .executeUpdate();
+        }
+        for (String table : ARCHIVED_TABLES) {
+            entityManager.createNativeQuery("DELETE FROM " + table + " WHERE JOB_EXECUTION_ID IN (:ids)").setParameter("ids", ids).executeUpdate();
+        }
+        log.debug("Archived job executions {} to {}", ids.get(0), ids.get(ids.size() - 1));
+        return ids.size();
+    }
+
+    /**
+     * Gets the comma-separated list of the columns found in both the specified table and its archive table
+     */
+    private String getArchivedColumns(String table) {
+        return archivedColumns.computeIfAbsent(table, key -> entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            Set<String> columns = getColumnNames(connection, table);
+            Set<String> archiveColumns = getColumnNames(connection, table + ARCHIVE_SUFFIX);
+            if (archiveColumns.isEmpty()) {
+                throw new IllegalStateException("The archive table does not exist: " + table + ARCHIVE_SUFFIX);
+            }
+
+            Set<String> missingColumns = new LinkedHashSet<>(columns);
+            missingColumns.removeAll(archiveColumns);
+            if (!missingColumns.isEmpty()) {
+                log.warn("The columns {} of table {} are not in its archive table and will not be archived", missingColumns, table);
+            }
+
+            columns.retainAll(archiveColumns);
+            return String.join(", ", columns);
+        }));
+    }
+
+    /**
+     * Gets the upper case names of the columns of the specified table, in column order
+     */
+    private Set<String> getColumnNames(Connection connection, String table) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        String tableName = metaData.storesLowerCaseIdentifiers() ? table.toLowerCase() : (metaData.storesUpperCaseIdentifiers() ? table.toUpperCase() : table);
+
+        Set<String> columns = new LinkedHashSet<>();
+        try (ResultSet resultSet = metaData.getColumns(connection.getCatalog(), null, tableName, null)) {
+            while (resultSet.next()) {
+                // underscores in the table name are wildcards
+                if (tableName.equalsIgnoreCase(resultSet.getString("TABLE_NAME"))) {
+                    columns.add(resultSet.getString("COLUMN_NAME").toUpperCase());
+                }
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Removes the archived job executions from the job status counts, which only count the job executions that have not been archived
+     */
+    private void removeFromJobStatusCounts(List<Long> ids) {
+        QJpaBatchJobExecution jobExecution = QJpaBatchJobExecution.jpaBatchJobExecution;
+        QJpaBatchJobInstance jobInstance = QJpaBatchJobInstance.jpaBatchJobInstance;
+        QJpaOpsManagerFeed feed = QJpaOpsManagerFeed.jpaOpsManagerFeed;
+
+        List<Tuple> rows = factory.select(feed.id.uuid, jobExecution.status, jobExecution.startYear, jobExecution.startMonth, jobExecution.startDay, jobExecution.count())
+            .from(jobExecution)
+            .innerJoin(jobInstance).on(jobExecution.jobInstance.jobInstanceId.eq(jobInstance.jobInstanceId))
+            .innerJoin(feed).on(jobInstance.feed.id.eq(feed.id))
+            .where(jobExecution.jobExecutionId.in(ids).and(jobExecution.startYear.isNotNull()))
+            .groupBy(feed.id.uuid, jobExecution.status, jobExecution.startYear, jobExecution.startMonth, jobExecution.startDay)
+            .fetch();
+        for (Tuple row : rows) {
+            JpaJobStatusDailyCount.ID id = new JpaJobStatusDailyCount.ID(row.get(feed.id.uuid), row.get(jobExecution.status).name(), row.get(jobExecution.startYear),
+                                                                         row.get(jobExecution.startMonth), row.get(jobExecution.startDay));
+            jobStatusCountRollup.jobExecutionsRemoved(id, row.get(jobExecution.count()));
+        }
+    }
+
+    /**
+     * Runs a query against the archive tables. The query is written against the job execution entities as usual, and the entities returned are
+     * detached from any session with their steps, parameters, context values and NiFi events loaded.
+     *
+     * @param query the query to run with the archive query factory
+     * @return the archived job executions
+     */
+    public List<JpaBatchJobExecution> findArchived(Function<JPQLQueryFactory, List<JpaBatchJobExecution>> query) {
+        return readArchive(queryFactory -> {
+            List<JpaBatchJobExecution> jobExecutions = query.apply(queryFactory);
+            jobExecutions.forEach(this::initialize);
+            return jobExecutions;
+        });
+    }
+
+    /**
+     * Runs a read against the archive tables in a separate read-only session
+     *
+     * @param reader the function to read with the archive query factory
+     * @return the result of the reader
+     */
+    public <T> T readArchive(Function<JPQLQueryFactory, T> reader) {
+        SessionFactory sessionFactory = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class);
+        Session session = sessionFactory.withOptions().statementInspector(ARCHIVE_STATEMENT_INSPECTOR).openSession();
+        try {
+            session.setDefaultReadOnly(true);
+            return reader.apply(new HibernateQueryFactory(session));
+        } finally {
+            session.close();
+        }
+    }
+
+    /**
+     * Loads the lazy associations of an archived job execution before its session is closed
+     */
+    private void initialize(JpaBatchJobExecution jobExecution) {
+        Hibernate.initialize(jobExecution.getJobInstance());
+        Hibernate.initialize(((JpaBatchJobInstance) jobExecution.getJobInstance()).getFeed());
+        Hibernate.initialize(jobExecution.getNifiEventJobExecution());
+        Hibernate.initialize(jobExecution.getJobParameters());
+        Hibernate.initialize(jobExecution.getJobExecutionContext());
+        Hibernate.initialize(jobExecution.getStepExecutions());
+        for (BatchStepExecution stepExecution : jobExecution.getStepExecutions()) {
+            Hibernate.initialize(stepExecution.getStepExecutionContext());
+        }
+    }
+}
@@ -27,6 +27,7 @@ import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.Projections;
 import com.querydsl.jpa.JPAExpressions;
 import com.querydsl.jpa.JPQLQuery;
+import com.querydsl.jpa.JPQLQueryFactory;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import com.thinkbiganalytics.DateTimeUtil;
@@ -51,6 +52,7 @@ import com.thinkbiganalytics.metadata.api.jobrepo.job.BatchJobExecution;
 import com.thinkbiganalytics.metadata.api.jobrepo.job.BatchJobExecutionProvider;
 import com.thinkbiganalytics.metadata.api.jobrepo.job.BatchJobInstance;
 import com.thinkbiganalytics.metadata.api.jobrepo.job.BatchRelatedFlowFile;
+import com.thinkbiganalytics.metadata.api.jobrepo.job.JobExecutionCursor;
 import com.thinkbiganalytics.metadata.api.jobrepo.job.JobStatusCount;
 import com.thinkbiganalytics.metadata.api.jobrepo.nifi.NifiFeedStatisticsProvider;
 import com.thinkbiganalytics.metadata.api.jobrepo.nifi.NifiFeedStats;
@@ -83,7 +85,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
@@ -94,6 +99,7 @@ import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -156,6 +162,12 @@ public class JpaBatchJobExecutionProvider extends QueryDslPagingSupport<JpaBatch
     @Inject
     private JobExecutionChangedNotifier jobExecutionChangedNotifier;
 
+    @Inject
+    private JobStatusCountRollup jobStatusCountRollup;
+
+    @Inject
+    private JpaBatchJobExecutionArchiver jobExecutionArchiver;
+
 
     @Inject
     private MetadataAccess metadataAccess;
@@ -680,6 +692,23 @@ public class JpaBatchJobExecutionProvider extends QueryDslPagingSupport<JpaBatch
         return jobExecutionRepository.findOne(jobExecutionId);
     }
 
+    @Override
+    public BatchJobExecution findByJobExecutionId(Long jobExecutionId, boolean includeArchived) {
+        BatchJobExecution jobExecution = findByJobExecutionId(jobExecutionId);
+        if (jobExecution == null && includeArchived && jobExecutionArchiver.isEnabled()) {
+            QJpaBatchJobExecution archivedExecution = QJpaBatchJobExecution.jpaBatchJobExecution;
+            QJpaBatchJobInstance jobInstance = new QJpaBatchJobInstance("jobInstance");
+            QJpaOpsManagerFeed feed = new QJpaOpsManagerFeed("feed");
+            jobExecution = jobExecutionArchiver.findArchived(queryFactory -> queryFactory.selectFrom(archivedExecution)
+                .innerJoin(archivedExecution.jobInstance, jobInstance).fetchJoin()
+                .innerJoin(jobInstance.feed, feed).fetchJoin()
+                .where(archivedExecution.jobExecutionId.eq(jobExecutionId).and(augment(feed.id)))
+                .fetch())
+                .stream().findFirst().orElse(null);
+        }
+        return jobExecution;
+    }
+
 
     @Override
     public List<? extends BatchJobExecution> findRunningJobsForFeed(String feedName) {
@@ -751,14 +780,8 @@ public class JpaBatchJobExecutionProvider extends QueryDslPagingSupport<JpaBatch
         QJpaBatchJobExecution jobExecution = QJpaBatchJobExecution.jpaBatchJobExecution;
         //if the filter contains a filter on the feed then delegate to the findAllForFeed method to include any check data jobs
         List<SearchCriteria> searchCriterias = GenericQueryDslFilter.parseFilterString(filter);
-        SearchCriteria feedFilter = searchCriterias.stream().map(searchCriteria -> searchCriteria.withKey(CommonFilterTranslations.resolvedFilter(jobExecution, searchCriteria.getKey()))).filter(
-            sc -> sc.getKey().equalsIgnoreCase(CommonFilterTranslations.jobExecutionFeedNameFilterKey)).findFirst().orElse(null);
-        if (feedFilter != null && feedFilter.getPreviousSearchCriteria() != null && !feedFilter.isValueCollection()) {
-            //remove the feed filter from the list and filter by this feed
-            searchCriterias.remove(feedFilter.getPreviousSearchCriteria());
-            String feedValue = feedFilter.getValue().toString();
-            //remove any quotes around the feedValue
-            feedValue = feedValue.replaceAll("^\"|\"$", "");
+        String feedValue = removeFeedFilter(jobExecution, searchCriterias);
+        if (feedValue != null) {
             return findAllForFeed(feedValue, searchCriterias, pageable);
         } else {
             pageable = CommonFilterTranslations.resolveSortFilters(jobExecution, pageable);
@@ -776,6 +799,171 @@ public class JpaBatchJobExecutionProvider extends QueryDslPagingSupport<JpaBatch
 
     }
 
+    /**
+     * Find the job executions after the cursor using a seek on the start time and job execution id, which avoids both the count query and the
+     * offset scan of {@link #findAll(String, Pageable)}.
+     *
+     * @return a slice of job executions ordered by start time and job execution id descending
+     */
+    @Override
+    public Slice<? extends BatchJobExecution> findAllAfter(String filter, JobExecutionCursor cursor, int limit) {
+        //fetch one more than the limit to determine if there is another page
+        List<JpaBatchJobExecution> content = selectJobExecutionsAfter(factory, filter, cursor, null, null).limit(limit + 1).fetch();
+        return toSlice(content, limit);
+    }
+
+    /**
+     * Find the job executions started within the range after the cursor from both the job execution tables and the archive. Each source seeks
+     * past the cursor and returns at most {@code limit + 1} job executions, which are merged to build the slice.
+     */
+    @Override
+    public Slice<? extends BatchJobExecution> findAllAfter(String filter, JobExecutionCursor cursor, DateTime startedAfter, DateTime startedBefore, int limit) {
+        List<JpaBatchJobExecution> content = new ArrayList<>(selectJobExecutionsAfter(factory, filter, cursor, startedAfter, startedBefore).limit(limit + 1).fetch());
+
+        if (jobExecutionArchiver.isEnabled()) {
+            content.addAll(jobExecutionArchiver.findArchived(queryFactory -> selectJobExecutionsAfter(queryFactory, filter, cursor, startedAfter, startedBefore).limit(limit + 1).fetch()));
+            content.sort(Comparator.comparing(JpaBatchJobExecution::getStartTimeMillis).thenComparing(JpaBatchJobExecution::getJobExecutionId).reversed());
+        }
+        return toSlice(content, limit);
+    }
+
+    /**
+     * Select the job executions matching the filter that started within the range after the cursor, ordered by start time and job execution id
+     * descending
+     *
+     * @param queryFactory the factory for either the job execution tables or the archive
+     */
+    private JPQLQuery<JpaBatchJobExecution> selectJobExecutionsAfter(JPQLQueryFactory queryFactory, String filter, JobExecutionCursor cursor, DateTime startedAfter,
+                                                                     DateTime startedBefore) {
+        QJpaBatchJobExecution jobExecution = QJpaBatchJobExecution.jpaBatchJobExecution;
+        QJpaBatchJobInstance jobInstance = new QJpaBatchJobInstance("jobInstance");
+        QJpaOpsManagerFeed feed = new QJpaOpsManagerFeed("feed");
+
+        BooleanBuilder whereBuilder = buildJobExecutionFilter(jobExecution, feed, filter);
+        whereBuilder.and(jobExecution.startTimeMillis.isNotNull());
+        whereBuilder.and(buildStartTimeFilter(jobExecution, startedAfter, startedBefore));
+        if (cursor != null) {
+            whereBuilder.and(jobExecution.startTimeMillis.lt(cursor.getStartTimeMillis())
+                                 .or(jobExecution.startTimeMillis.eq(cursor.getStartTimeMillis()).and(jobExecution.jobExecutionId.lt(cursor.getJobExecutionId()))));
+        }
+
+        return queryFactory.selectFrom(jobExecution)
+            .innerJoin(jobExecution.nifiEventJobExecution).fetchJoin()
+            .innerJoin(jobExecution.jobInstance, jobInstance).fetchJoin()
+            .innerJoin(jobInstance.feed, feed).fetchJoin()
+            .where(whereBuilder)
+            .orderBy(jobExecution.startTimeMillis.desc(), jobExecution.jobExecutionId.desc());
+    }
+
+    /**
+     * Build a slice from the first {@code limit} job executions, indicating if there are more
+     */
+    private Slice<? extends BatchJobExecution> toSlice(List<JpaBatchJobExecution> content, int limit) {
+        boolean hasNext = content.size() > limit;
+        if (hasNext) {
+            content = content.subList(0, limit);
+        }
+        return new SliceImpl<>(content, new PageRequest(0, limit), hasNext);
+    }
+
+    /**
+     * Count the job executions matching the filter. A bounded count reads at most {@code maxCount + 1} job execution ids from the index instead of
+     * counting every matching row.
+     */
+    @Override
+    public long countAll(String filter, long maxCount) {
+        return countJobExecutions(factory, filter, null, null, maxCount > 0 ? maxCount + 1 : 0);
+    }
+
+    /**
+     * Count the job executions matching the filter that started within the range in both the job execution tables and the archive. A bounded count
+     * only reads from the archive if the job execution tables have fewer than {@code maxCount + 1} matches.
+     */
+    @Override
+    public long countAll(String filter, DateTime startedAfter, DateTime startedBefore, long maxCount) {
+        long limit = maxCount > 0 ? maxCount + 1 : 0;
+        long count = countJobExecutions(factory, filter, startedAfter, startedBefore, limit);
+        if (jobExecutionArchiver.isEnabled() && (limit == 0 || count < limit)) {
+            long remaining = limit > 0 ? limit - count : 0;
+            count += jobExecutionArchiver.readArchive(queryFactory -> countJobExecutions(queryFactory, filter, startedAfter, startedBefore, remaining));
+        }
+        return count;
+    }
+
+    /**
+     * Count the job executions matching the filter that started within the range
+     *
+     * @param queryFactory the factory for either the job execution tables or the archive
+     * @param limit        the maximum number of job execution ids to read, or 0 for an exact count
+     */
+    private long countJobExecutions(JPQLQueryFactory queryFactory, String filter, DateTime startedAfter, DateTime startedBefore, long limit) {
+        QJpaBatchJobExecution jobExecution = QJpaBatchJobExecution.jpaBatchJobExecution;
+        QJpaBatchJobInstance jobInstance = new QJpaBatchJobInstance("jobInstance");
+        QJpaOpsManagerFeed feed = new QJpaOpsManagerFeed("feed");
+
+        JPQLQuery<Long> query = queryFactory.select(jobExecution.jobExecutionId)
+            .from(jobExecution)
+            .innerJoin(jobExecution.nifiEventJobExecution)
+            .innerJoin(jobExecution.jobInstance, jobInstance)
+            .innerJoin(jobInstance.feed, feed)
+            .where(buildJobExecutionFilter(jobExecution, feed, filter).and(buildStartTimeFilter(jobExecution, startedAfter, startedBefore)));
+
+        if (limit > 0) {
+            return query.limit(limit).fetch().size();
+        } else {
+            return query.fetchCount();
+        }
+    }
+
+    /**
+     * Build the predicate for the range of start times, where either end may be {@code null} for no bound
+     */
+    private BooleanBuilder buildStartTimeFilter(QJpaBatchJobExecution jobExecution, DateTime startedAfter, DateTime startedBefore) {
+        BooleanBuilder whereBuilder = new BooleanBuilder();
+        if (startedAfter != null) {
+            whereBuilder.and(jobExecution.startTimeMillis.goe(startedAfter.getMillis()));
+        }
+        if (startedBefore != null) {
+            whereBuilder.and(jobExecution.startTimeMillis.lt(startedBefore.getMillis()));
+        }
+        return whereBuilder;
+    }
+
+    /**
+     * Build the predicate for the filter string, including any check data jobs if the filter is on a single feed
+     */
+    private BooleanBuilder buildJobExecutionFilter(QJpaBatchJobExecution jobExecution, QJpaOpsManagerFeed feed, String filter) {
+        List<SearchCriteria> searchCriterias = GenericQueryDslFilter.parseFilterString(filter);
+        String feedName = removeFeedFilter(jobExecution, searchCriterias);
+
+        BooleanBuilder whereBuilder = new BooleanBuilder();
+        if (feedName != null) {
+            QJpaOpsManagerFeed checkFeed = new QJpaOpsManagerFeed("checkFeed");
+            QJpaOpsManagerFeed checkDataFeed = new QJpaOpsManagerFeed("checkDataFeed");
+            JPQLQuery checkFeedQuery = JPAExpressions.select(checkDataFeed.id).from(checkFeed).join(checkFeed.checkDataFeeds, checkDataFeed).where(checkFeed.name.eq(feedName));
+            whereBuilder.and(feed.name.eq(feedName).or(feed.id.in(checkFeedQuery)));
+        }
+        return whereBuilder.and(GenericQueryDslFilter.buildFilter(jobExecution, searchCriterias))
+            .and(augment(feed.id));
+    }
+
+    /**
+     * Remove the filter on a single feed name from the search criteria
+     *
+     * @return the feed name, or null if the criteria do not filter on a single feed
+     */
+    private String removeFeedFilter(QJpaBatchJobExecution jobExecution, List<SearchCriteria> searchCriterias) {
+        SearchCriteria feedFilter = searchCriterias.stream().map(searchCriteria -> searchCriteria.withKey(CommonFilterTranslations.resolvedFilter(jobExecution, searchCriteria.getKey()))).filter(
+            sc -> sc.getKey().equalsIgnoreCase(CommonFilterTranslations.jobExecutionFeedNameFilterKey)).findFirst().orElse(null);
+        if (feedFilter != null && feedFilter.getPreviousSearchCriteria() != null && !feedFilter.isValueCollection()) {
+            //remove the feed filter from the list and filter by this feed
+            searchCriterias.remove(feedFilter.getPreviousSearchCriteria());
+            //remove any quotes around the feedValue
+            return feedFilter.getValue().toString().replaceAll("^\"|\"$", "");
+        }
+        return null;
+    }
+
     private Predicate augment(QOpsManagerFeedId id) {
         return FeedAclIndexQueryAugmentor.generateExistsExpression(id, controller.isEntityAccessControlled());
     }
@@ -919,38 +1107,40 @@ public class JpaBatchJobExecutionProvider extends QueryDslPagingSupport<JpaBatch
 
     @Override
     public List<JobStatusCount> getJobStatusCountByDate() {
-
-        QJpaBatchJobExecution jobExecution = QJpaBatchJobExecution.jpaBatchJobExecution;
-
-        QJpaBatchJobInstance jobInstance = QJpaBatchJobInstance.jpaBatchJobInstance;
-
-        QJpaOpsManagerFeed feed = QJpaOpsManagerFeed.jpaOpsManagerFeed;
-
-        JPAQuery
-            query = factory.select(
-            Projections.constructor(JpaBatchJobExecutionStatusCounts.class,
-                                    JobStatusDslQueryExpressionBuilder.jobState().as("status"),
-                                    jobExecution.startYear,
-                                    jobExecution.startMonth,
-                                    jobExecution.startDay,
-                                    jobExecution.count().as("count")))
-            .from(jobExecution)
-            .innerJoin(jobInstance).on(jobExecution.jobInstance.jobInstanceId.eq(jobInstance.jobInstanceId))
-            .innerJoin(feed).on(jobInstance.feed.id.eq(feed.id))
-            .where(FeedAclIndexQueryAugmentor.generateExistsExpression(feed.id, controller.isEntityAccessControlled()))
-            .groupBy(jobExecution.status, jobExecution.startYear, jobExecution.startMonth, jobExecution.startDay);
-
-        return (List<JobStatusCount>) query.fetch();
-
+        if (jobStatusCountRollup.isEnabled()) {
+            return jobStatusCountRollup.getJobStatusCountByDate(controller.isEntityAccessControlled(), null);
+        }
+        return getJobStatusCountByDateFromJobs(null, null, null);
     }
 
     /**
      * gets job executions grouped by status and Day looking back from Now - the supplied {@code period}
      *
+     * When no filter is supplied the complete days are read from the {@link JobStatusCountRollup} and only the partial first day is counted from the job executions.
+     *
      * @param period period to look back from the current time to get job execution status
      */
     @Override
     public List<JobStatusCount> getJobStatusCountByDateFromNow(ReadablePeriod period, String filter) {
+        DateTime since = DateTimeUtil.getNowUTCTime().minus(period);
+        if (!jobStatusCountRollup.isEnabled() || StringUtils.isNotBlank(filter)) {
+            return getJobStatusCountByDateFromJobs(since, null, filter);
+        }
+
+        DateTime nextDay = since.withTimeAtStartOfDay().plusDays(1);
+        List<JobStatusCount> stats = new ArrayList<>(getJobStatusCountByDateFromJobs(since, nextDay, null));
+        stats.addAll(jobStatusCountRollup.getJobStatusCountByDate(controller.isEntityAccessControlled(), nextDay));
+        return stats;
+    }
+
+    /**
+     * gets job executions grouped by status and Day by counting the job executions
+     *
+     * @param since  the earliest start time to include, or null for no lower bound
+     * @param before the start time to exclude jobs from, or null for no upper bound
+     * @param filter an optional filter on the job executions
+     */
+    List<JobStatusCount> getJobStatusCountByDateFromJobs(DateTime since, DateTime before, String filter) {
 
         QJpaBatchJobExecution jobExecution = QJpaBatchJobExecution.jpaBatchJobExecution;
 
@@ -959,7 +1149,12 @@ public class JpaBatchJobExecutionProvider extends QueryDslPagingSupport<JpaBatch
         QJpaOpsManagerFeed feed = QJpaOpsManagerFeed.jpaOpsManagerFeed;
 
         BooleanBuilder whereBuilder = new BooleanBuilder();
-        whereBuilder.and(jobExecution.startTime.goe(DateTimeUtil.getNowUTCTime().minus(period)));
+        if (since != null) {
+            whereBuilder.and(jobExecution.startTime.goe(since));
+        }
+        if (before != null) {
+            whereBuilder.and(jobExecution.startTime.lt(before));
+        }
         if (StringUtils.isNotBlank(filter)) {
             whereBuilder.and(GenericQueryDslFilter.buildFilter(jobExecution, filter));
         }
@@ -983,6 +1178,18 @@ public class JpaBatchJobExecutionProvider extends QueryDslPagingSupport<JpaBatch
 
     }
 
+    @Override
+    public int archiveJobExecutions() {
+        return jobExecutionArchiver.archive();
+    }
+
+    @Override
+    public void reconcileJobStatusCounts() {
+        if (jobStatusCountRollup.isEnabled()) {
+            jobStatusCountRollup.reconcile();
+        }
+    }
+
 
     public List<String> findRelatedFlowFiles(String flowFileId) {
         return relatedRootFlowFilesRepository.findRelatedFlowFiles(flowFileId);
@@ -0,0 +1,179 @@
+package com.thinkbiganalytics.metadata.jpa.jobrepo.job;
+
+/*-
+ * #%L
+ * thinkbig-operational-metadata-jpa
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.jpa.BaseJpaId;
+import com.thinkbiganalytics.metadata.api.feed.OpsManagerFeed;
+import com.thinkbiganalytics.metadata.api.jobrepo.job.BatchJobInstance;
+
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.UUID;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import javax.persistence.EmbeddedId;
+import javax.persistence.Entity;
+import javax.persistence.Table;
+
+/**
+ * Entity to store the number of job executions for each feed, status and start day.
+ * This rollup is maintained as job executions change status so the dashboard does not need to group the job execution table.
+ */
+@Entity
+@Table(name = "JOB_STATUS_DAILY_COUNT")
+public class JpaJobStatusDailyCount {
+
+    @EmbeddedId
+    private ID id;
+
+    @Column(name = "JOB_COUNT", nullable = false)
+    private Long count;
+
+    public JpaJobStatusDailyCount() {
+
+    }
+
+    public JpaJobStatusDailyCount(ID id, Long count) {
+        this.id = id;
+        this.count = count;
+    }
+
+    public ID getId() {
+        return id;
+    }
+
+    public void setId(ID id) {
+        this.id = id;
+    }
+
+    public Long getCount() {
+        return count;
+    }
+
+    public void setCount(Long count) {
+        this.count = count;
+    }
+
+    /**
+     * The feed, status and start day of a group of job executions
+     */
+    @Embeddable
+    public static class ID implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        @Column(name = "FEED_ID", nullable = false)
+        private UUID feedId;
+
+        @Column(name = "STATUS", length = 10, nullable = false)
+        private String status;
+
+        @Column(name = "START_YEAR", nullable = false)
+        private Integer startYear;
+
+        @Column(name = "START_MONTH", nullable = false)
+        private Integer startMonth;
+
+        @Column(name = "START_DAY", nullable = false)
+        private Integer startDay;
+
+        public ID() {
+        }
+
+        public ID(UUID feedId, String status, Integer startYear, Integer startMonth, Integer startDay) {
+            this.feedId = feedId;
+            this.status = status;
+            this.startYear = startYear;
+            this.startMonth = startMonth;
+            this.startDay = startDay;
+        }
+
+        /**
+         * Gets the group of the job execution, without resolving the feed
+         *
+         * @return the group with a null feed id, or null if the job execution has not started
+         */
+        public static ID of(JpaBatchJobExecution jobExecution) {
+            if (jobExecution.getStatus() == null || jobExecution.getStartYear() == null) {
+                return null;
+            }
+            return new ID(null, jobExecution.getStatus().name(), jobExecution.getStartYear(), jobExecution.getStartMonth(), jobExecution.getStartDay());
+        }
+
+        /**
+         * Return a copy of this group for the feed of the job execution
+         *
+         * @return the group, or null if the job execution does not belong to a feed
+         */
+        public ID withFeed(JpaBatchJobExecution jobExecution) {
+            BatchJobInstance jobInstance = jobExecution.getJobInstance();
+            OpsManagerFeed feed = jobInstance != null ? jobInstance.getFeed() : null;
+            if (feed == null || feed.getId() == null) {
+                return null;
+            }
+            return new ID(((BaseJpaId) feed.getId()).getUuid(), status, startYear, startMonth, startDay);
+        }
+
+        public UUID getFeedId() {
+            return feedId;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public Integer getStartYear() {
+            return startYear;
+        }
+
+        public Integer getStartMonth() {
+            return startMonth;
+        }
+
+        public Integer getStartDay() {
+            return startDay;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            ID that = (ID) o;
+            return Objects.equals(feedId, that.feedId) && Objects.equals(status, that.status) && Objects.equals(startYear, that.startYear)
+                   && Objects.equals(startMonth, that.startMonth) && Objects.equals(startDay, that.startDay);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(feedId, status, startYear, startMonth, startDay);
+        }
+
+        @Override
+        public String toString() {
+            return feedId + ":" + status + ":" + startYear + "-" + startMonth + "-" + startDay;
+        }
+    }
+}
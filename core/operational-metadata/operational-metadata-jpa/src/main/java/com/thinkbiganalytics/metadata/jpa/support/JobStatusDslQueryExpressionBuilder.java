@@ -40,4 +40,22 @@ public class JobStatusDslQueryExpressionBuilder {
         }
         return jobStateCase.otherwise(BatchJobExecution.JobStatus.UNKNOWN.name());
     }
+
+    /**
+     * Returns the display state for a job status, matching the {@link #jobState()} expression
+     *
+     * @param status the name of the job status
+     * @return the display state
+     */
+    public static String jobState(String status) {
+        if (BatchJobExecution.JobStatus.STARTED.name().equals(status) || BatchJobExecution.JobStatus.STARTING.name().equals(status)) {
+            return BatchJobExecution.RUNNING_DISPLAY_STATUS;
+        }
+        for (BatchJobExecution.JobStatus stat : BatchJobExecution.JobStatus.values()) {
+            if (stat.name().equals(status)) {
+                return stat.name();
+            }
+        }
+        return BatchJobExecution.JobStatus.UNKNOWN.name();
+    }
 }
@@ -0,0 +1,131 @@
+package com.thinkbiganalytics.metadata.jpa.feed.security;
+
+/*-
+ * #%L
+ * kylo-operational-metadata-jpa
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.metadata.api.feed.Feed;
+import com.thinkbiganalytics.metadata.api.feed.security.FeedOpsAclEntry;
+import com.thinkbiganalytics.metadata.config.RoleSetExposingSecurityExpressionRoot;
+import com.thinkbiganalytics.metadata.core.feed.BaseFeed;
+import com.thinkbiganalytics.security.AccessController;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.function.Predicate;
+
+public class FeedAclCacheTest {
+
+    private static final Feed.ID FEED_ID1 = new BaseFeed.FeedId();
+    private static final Feed.ID FEED_ID2 = new BaseFeed.FeedId();
+    private static final Feed.ID FEED_ID3 = new BaseFeed.FeedId();
+
+    private FeedAclCache cache;
+
+    private RoleSetExposingSecurityExpressionRoot user1;
+
+    @Before
+    public void setUp() {
+        AccessController accessController = Mockito.mock(AccessController.class);
+        Mockito.when(accessController.isEntityAccessControlled()).thenReturn(true);
+
+        cache = new FeedAclCache();
+        ReflectionTestUtils.setField(cache, "accessController", accessController);
+        cache.onPopulated();
+
+        user1 = new RoleSetExposingSecurityExpressionRoot(new UsernamePasswordAuthenticationToken("user1", "", AuthorityUtils.createAuthorityList("analysts", "ROLE_USER")));
+    }
+
+    @Test
+    public void testUserAndGroupAccess() {
+        grant(FEED_ID1, "user1", FeedOpsAclEntry.PrincipalType.USER);
+        grant(FEED_ID2, "analysts", FeedOpsAclEntry.PrincipalType.GROUP);
+        grant(FEED_ID3, "admin", FeedOpsAclEntry.PrincipalType.GROUP);
+
+        Assert.assertTrue(cache.hasAccess(user1, FEED_ID1.toString()));
+        Assert.assertTrue(cache.hasAccess(user1, FEED_ID2.toString()));
+        Assert.assertFalse(cache.hasAccess(user1, FEED_ID3.toString()));
+        Assert.assertFalse(cache.hasAccess(user1, new BaseFeed.FeedId().toString()));
+        Assert.assertTrue(cache.hasAccess(user1, null));
+    }
+
+    @Test
+    public void testChangesInvalidateUserFeeds() {
+        JpaFeedOpsAclEntry entry = grant(FEED_ID1, "analysts", FeedOpsAclEntry.PrincipalType.GROUP);
+        Assert.assertTrue(cache.hasAccess(user1, FEED_ID1.toString()));
+
+        cache.onRemovedItem(entry);
+        Assert.assertFalse(cache.hasAccess(user1, FEED_ID1.toString()));
+
+        grant(FEED_ID2, "user1", FeedOpsAclEntry.PrincipalType.USER);
+        Assert.assertTrue(cache.hasAccess(user1, FEED_ID2.toString()));
+
+        cache.onRemoveAll();
+        Assert.assertFalse(cache.hasAccess(user1, FEED_ID2.toString()));
+    }
+
+    @Test
+    public void testAccessFilter() {
+        grant(FEED_ID1, "analysts", FeedOpsAclEntry.PrincipalType.GROUP);
+        grant(FEED_ID3, "admin", FeedOpsAclEntry.PrincipalType.GROUP);
+
+        Predicate<String> filter = cache.getAccessFilter(user1);
+        Assert.assertTrue(filter.test(FEED_ID1.toString()));
+        Assert.assertFalse(filter.test(FEED_ID2.toString()));
+        Assert.assertFalse(filter.test(FEED_ID3.toString()));
+    }
+
+    @Test
+    public void testEntriesPublishedWhenPopulated() {
+        cache.onRemoveAll();
+        grant(FEED_ID1, "user1", FeedOpsAclEntry.PrincipalType.USER);
+        JpaFeedOpsAclEntry entry = grant(FEED_ID2, "analysts", FeedOpsAclEntry.PrincipalType.GROUP);
+        cache.onRemovedItem(entry);
+        Assert.assertFalse(cache.hasAccess(user1, FEED_ID1.toString()));
+
+        cache.onPopulated();
+        Assert.assertTrue(cache.hasAccess(user1, FEED_ID1.toString()));
+        Assert.assertFalse(cache.hasAccess(user1, FEED_ID2.toString()));
+    }
+
+    @Test
+    public void testOnlyAffectedPrincipalsInvalidated() {
+        grant(FEED_ID1, "analysts", FeedOpsAclEntry.PrincipalType.GROUP);
+        Object feeds = ReflectionTestUtils.invokeMethod(cache, "getUserFeeds", user1);
+
+        grant(FEED_ID3, "admin", FeedOpsAclEntry.PrincipalType.GROUP);
+        Assert.assertSame(feeds, ReflectionTestUtils.invokeMethod(cache, "getUserFeeds", user1));
+
+        grant(FEED_ID2, "analysts", FeedOpsAclEntry.PrincipalType.GROUP);
+        Assert.assertNotSame(feeds, ReflectionTestUtils.invokeMethod(cache, "getUserFeeds", user1));
+        Assert.assertTrue(cache.hasAccess(user1, FEED_ID2.toString()));
+    }
+
+    private JpaFeedOpsAclEntry grant(Feed.ID feedId, String principal, FeedOpsAclEntry.PrincipalType type) {
+        JpaFeedOpsAclEntry entry = new JpaFeedOpsAclEntry(feedId, principal, type);
+        cache.onAddedItem(entry.getId(), entry);
+        return entry;
+    }
+}
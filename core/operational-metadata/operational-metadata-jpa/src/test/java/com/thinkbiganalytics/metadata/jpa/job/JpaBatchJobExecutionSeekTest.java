@@ -0,0 +1,168 @@
+package com.thinkbiganalytics.metadata.jpa.job;
+
+/*-
+ * #%L
+ * thinkbig-operational-metadata-jpa
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.metadata.api.MetadataAccess;
+import com.thinkbiganalytics.metadata.api.jobrepo.job.BatchJobExecution;
+import com.thinkbiganalytics.metadata.api.jobrepo.job.BatchJobExecutionProvider;
+import com.thinkbiganalytics.metadata.api.jobrepo.job.JobExecutionCursor;
+import com.thinkbiganalytics.metadata.config.OperationalMetadataConfig;
+import com.thinkbiganalytics.metadata.jpa.TestJpaConfiguration;
+import com.thinkbiganalytics.metadata.jpa.feed.JpaOpsManagerFeed;
+import com.thinkbiganalytics.metadata.jpa.feed.OpsManagerFeedId;
+import com.thinkbiganalytics.metadata.jpa.feed.OpsManagerFeedRepository;
+import com.thinkbiganalytics.metadata.jpa.jobrepo.job.BatchJobInstanceRepository;
+import com.thinkbiganalytics.metadata.jpa.jobrepo.job.JpaBatchJobExecution;
+import com.thinkbiganalytics.metadata.jpa.jobrepo.job.JpaBatchJobInstance;
+import com.thinkbiganalytics.metadata.jpa.jobrepo.nifi.JpaNifiEventJobExecution;
+import com.thinkbiganalytics.spring.CommonsSpringConfiguration;
+import com.thinkbiganalytics.test.security.WithMockJaasUser;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.data.domain.Slice;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+
+/**
+ * Verifies seeking through job executions with a cursor
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@TestPropertySource(locations = "classpath:test-application.properties")
+@SpringApplicationConfiguration(classes = {CommonsSpringConfiguration.class, OperationalMetadataConfig.class, TestJpaConfiguration.class})
+public class JpaBatchJobExecutionSeekTest {
+
+    private static final String FEED_NAME = "seek.jobs";
+
+    private static final DateTime START_TIME = new DateTime(2017, 6, 1, 0, 0, DateTimeZone.UTC);
+
+    @Inject
+    private BatchJobExecutionProvider jobExecutionProvider;
+
+    @Inject
+    private BatchJobInstanceRepository jobInstanceRepository;
+
+    @Inject
+    private OpsManagerFeedRepository feedRepository;
+
+    @Inject
+    private MetadataAccess operationalMetadataAccess;
+
+    @WithMockJaasUser(username = "dladmin",
+                      password = "secret",
+                      authorities = {"admin"})
+    @Test
+    public void testSeekWithConcurrentInserts() {
+        String filter = "jobInstance.feed.name==" + FEED_NAME;
+
+        // Jobs are started in pairs to verify the job execution id breaks ties on the start time
+        List<JpaBatchJobExecution> jobs = operationalMetadataAccess.commit(() -> {
+            JpaOpsManagerFeed feed = feedRepository.save(new JpaOpsManagerFeed(OpsManagerFeedId.create(), FEED_NAME));
+            List<JpaBatchJobExecution> created = new ArrayList<>();
+            for (int i = 0; i < 25; ++i) {
+                created.add(createJobExecution(feed, START_TIME.plusMinutes(i / 2)));
+            }
+            return created;
+        });
+        List<Long> expected = jobs.stream()
+            .sorted(Comparator.comparing((JpaBatchJobExecution job) -> job.getStartTime().getMillis()).thenComparing(JpaBatchJobExecution::getJobExecutionId).reversed())
+            .map(JpaBatchJobExecution::getJobExecutionId)
+            .collect(Collectors.toList());
+
+        // Read the first page
+        List<Long> actual = new ArrayList<>();
+        JobExecutionCursor cursor = operationalMetadataAccess.read(() -> readPage(filter, null, 10, actual));
+        Assert.assertNotNull(cursor);
+
+        // Start more jobs while the listing is being read
+        operationalMetadataAccess.commit(() -> {
+            JpaOpsManagerFeed feed = feedRepository.findByName(FEED_NAME);
+            for (int i = 0; i < 5; ++i) {
+                createJobExecution(feed, START_TIME.plusHours(1));
+            }
+        });
+
+        // Read the remaining pages
+        while (cursor != null) {
+            JobExecutionCursor next = cursor;
+            cursor = operationalMetadataAccess.read(() -> readPage(filter, next, 10, actual));
+        }
+        Assert.assertEquals(expected, actual);
+
+        // Verify counts
+        operationalMetadataAccess.read(() -> {
+            Assert.assertEquals(30, jobExecutionProvider.countAll(filter, 0));
+            Assert.assertEquals(11, jobExecutionProvider.countAll(filter, 10));
+            Assert.assertEquals(30, jobExecutionProvider.countAll(filter, 100));
+        });
+    }
+
+    @Test
+    public void testCursorToken() {
+        JobExecutionCursor cursor = new JobExecutionCursor(START_TIME.getMillis(), 42L);
+        Assert.assertEquals(cursor, JobExecutionCursor.fromToken(cursor.toToken()));
+
+        try {
+            JobExecutionCursor.fromToken("not a cursor");
+            Assert.fail("Expected invalid token");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Reads a page of job executions into the list and returns the cursor for the next page.
+     */
+    private JobExecutionCursor readPage(String filter, JobExecutionCursor cursor, int limit, List<Long> jobExecutionIds) {
+        Slice<? extends BatchJobExecution> slice = jobExecutionProvider.findAllAfter(filter, cursor, limit);
+        Assert.assertTrue(slice.getNumberOfElements() <= limit);
+        slice.getContent().forEach(job -> jobExecutionIds.add(job.getJobExecutionId()));
+        return slice.hasNext() ? JobExecutionCursor.of(slice.getContent().get(slice.getNumberOfElements() - 1)) : null;
+    }
+
+    private JpaBatchJobExecution createJobExecution(JpaOpsManagerFeed feed, DateTime startTime) {
+        JpaBatchJobInstance jobInstance = new JpaBatchJobInstance();
+        jobInstance.setJobKey(UUID.randomUUID().toString());
+        jobInstance.setJobName(feed.getName());
+        jobInstance.setFeed(feed);
+        jobInstance = jobInstanceRepository.save(jobInstance);
+
+        JpaBatchJobExecution jobExecution = new JpaBatchJobExecution();
+        jobExecution.setJobInstance(jobInstance);
+        jobExecution.setCreateTime(startTime);
+        jobExecution.setStartTime(startTime);
+        jobExecution.setStatus(BatchJobExecution.JobStatus.COMPLETED);
+        jobExecution.setNifiEventJobExecution(new JpaNifiEventJobExecution(jobExecution, 1L, UUID.randomUUID().toString()));
+        return (JpaBatchJobExecution) jobExecutionProvider.save(jobExecution);
+    }
+}
@@ -0,0 +1,227 @@
+package com.thinkbiganalytics.metadata.jpa.jobrepo.job;
+
+/*-
+ * #%L
+ * thinkbig-operational-metadata-jpa
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.DateTimeUtil;
+import com.thinkbiganalytics.metadata.api.MetadataAccess;
+import com.thinkbiganalytics.metadata.api.jobrepo.job.BatchJobExecution;
+import com.thinkbiganalytics.metadata.api.jobrepo.job.JobStatusCount;
+import com.thinkbiganalytics.metadata.config.OperationalMetadataConfig;
+import com.thinkbiganalytics.metadata.jpa.TestJpaConfiguration;
+import com.thinkbiganalytics.metadata.jpa.feed.JpaOpsManagerFeed;
+import com.thinkbiganalytics.metadata.jpa.feed.OpsManagerFeedId;
+import com.thinkbiganalytics.metadata.jpa.feed.OpsManagerFeedRepository;
+import com.thinkbiganalytics.metadata.jpa.jobrepo.nifi.JpaNifiEventJobExecution;
+import com.thinkbiganalytics.spring.CommonsSpringConfiguration;
+import com.thinkbiganalytics.test.security.WithMockJaasUser;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.Period;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+
+/**
+ * Verifies the job status rollup matches counting the job executions
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@TestPropertySource(locations = "classpath:test-application.properties")
+@SpringApplicationConfiguration(classes = {CommonsSpringConfiguration.class, OperationalMetadataConfig.class, TestJpaConfiguration.class})
+public class JobStatusCountRollupTest {
+
+    private static final DateTime START_TIME = new DateTime(2017, 7, 1, 0, 0, DateTimeZone.UTC);
+
+    private static final BatchJobExecution.JobStatus[] STATUSES = {BatchJobExecution.JobStatus.STARTING, BatchJobExecution.JobStatus.STARTED, BatchJobExecution.JobStatus.COMPLETED,
+                                                                   BatchJobExecution.JobStatus.FAILED, BatchJobExecution.JobStatus.ABANDONED};
+
+    @Inject
+    private JpaBatchJobExecutionProvider jobExecutionProvider;
+
+    @Inject
+    private BatchJobExecutionRepository jobExecutionRepository;
+
+    @Inject
+    private BatchJobInstanceRepository jobInstanceRepository;
+
+    @Inject
+    private OpsManagerFeedRepository feedRepository;
+
+    @Inject
+    private JobStatusDailyCountRepository jobStatusDailyCountRepository;
+
+    @Inject
+    private JobStatusCountRollup rollup;
+
+    @Inject
+    private MetadataAccess operationalMetadataAccess;
+
+    @WithMockJaasUser(username = "dladmin",
+                      password = "secret",
+                      authorities = {"admin"})
+    @Test
+    public void testRandomHistories() {
+        // Start from a consistent rollup as other tests share the database
+        rollup.reconcile();
+
+        Random random = new Random(48L);
+        List<Long> jobIds = operationalMetadataAccess.commit(() -> {
+            List<JpaOpsManagerFeed> feeds = new ArrayList<>();
+            for (int i = 0; i < 3; ++i) {
+                feeds.add(feedRepository.save(new JpaOpsManagerFeed(OpsManagerFeedId.create(), "rollup.feed" + i)));
+            }
+            List<Long> created = new ArrayList<>();
+            for (int i = 0; i < 40; ++i) {
+                DateTime startTime = START_TIME.plusDays(random.nextInt(5)).plusMinutes(random.nextInt(24 * 60));
+                created.add(createJobExecution(feeds.get(random.nextInt(feeds.size())), startTime, randomStatus(random)).getJobExecutionId());
+            }
+            return created;
+        });
+
+        // Change the status and start time of random jobs in separate transactions, rolling back some of them
+        for (int i = 0; i < 30; ++i) {
+            Long jobId = jobIds.get(random.nextInt(jobIds.size()));
+            BatchJobExecution.JobStatus status = randomStatus(random);
+            boolean moveDay = random.nextInt(4) == 0;
+            boolean rollback = random.nextInt(5) == 0;
+            try {
+                operationalMetadataAccess.commit(() -> {
+                    JpaBatchJobExecution jobExecution = jobExecutionRepository.findOne(jobId);
+                    jobExecution.setStatus(status);
+                    if (moveDay) {
+                        jobExecution.setStartTime(jobExecution.getStartTime().plusDays(1));
+                    }
+                    jobExecutionProvider.save(jobExecution);
+                    if (rollback) {
+                        throw new IllegalStateException("rollback");
+                    }
+                });
+            } catch (RuntimeException e) {
+                // expected for rolled back transactions
+            }
+        }
+
+        rollup.flush();
+        assertRollupMatchesJobs();
+
+        // Verify that reconciling repairs the rollup
+        operationalMetadataAccess.commit(() -> {
+            jobStatusDailyCountRepository.deleteAllInBatch();
+        });
+        rollup.reconcile();
+        assertRollupMatchesJobs();
+    }
+
+    @WithMockJaasUser(username = "dladmin",
+                      password = "secret",
+                      authorities = {"admin"})
+    @Test
+    public void testCountsFromNow() {
+        Random random = new Random(480L);
+        DateTime now = DateTimeUtil.getNowUTCTime();
+        operationalMetadataAccess.commit(() -> {
+            JpaOpsManagerFeed feed = feedRepository.save(new JpaOpsManagerFeed(OpsManagerFeedId.create(), "rollup.recent"));
+            for (int i = 0; i < 30; ++i) {
+                // start times are on the half hour to stay clear of the period boundary
+                DateTime startTime = now.minusHours(random.nextInt(5 * 24)).minusMinutes(30);
+                createJobExecution(feed, startTime, randomStatus(random));
+            }
+        });
+        rollup.flush();
+
+        Period period = Period.days(3);
+        operationalMetadataAccess.read(() -> {
+            Map<String, Long> expected = groupByStatusAndDay(jobExecutionProvider.getJobStatusCountByDateFromJobs(DateTimeUtil.getNowUTCTime().minus(period), null, null));
+            Map<String, Long> actual = groupByStatusAndDay(jobExecutionProvider.getJobStatusCountByDateFromNow(period, null));
+            Assert.assertFalse(expected.isEmpty());
+            Assert.assertEquals(expected, actual);
+        });
+    }
+
+    @WithMockJaasUser(username = "dladmin",
+                      password = "secret",
+                      authorities = {"admin"})
+    @Test
+    public void testReconcileWithPendingChanges() {
+        rollup.reconcile();
+
+        // Reconcile before the new jobs are flushed, as their changes are already included in the rebuilt counts
+        Random random = new Random(4800L);
+        operationalMetadataAccess.commit(() -> {
+            JpaOpsManagerFeed feed = feedRepository.save(new JpaOpsManagerFeed(OpsManagerFeedId.create(), "rollup.pending"));
+            for (int i = 0; i < 10; ++i) {
+                createJobExecution(feed, START_TIME.plusDays(random.nextInt(5)), randomStatus(random));
+            }
+        });
+        rollup.reconcile();
+        rollup.flush();
+        assertRollupMatchesJobs();
+    }
+
+    private void assertRollupMatchesJobs() {
+        operationalMetadataAccess.read(() -> {
+            Map<String, Long> expected = groupByStatusAndDay(jobExecutionProvider.getJobStatusCountByDateFromJobs(null, null, null));
+            Map<String, Long> actual = groupByStatusAndDay(jobExecutionProvider.getJobStatusCountByDate());
+            Assert.assertFalse(expected.isEmpty());
+            Assert.assertEquals(expected, actual);
+        });
+    }
+
+    /**
+     * Sums the counts by display status and day, as the running statuses may be returned separately.
+     */
+    private Map<String, Long> groupByStatusAndDay(List<JobStatusCount> counts) {
+        return counts.stream()
+            .collect(Collectors.groupingBy(count -> count.getStatus() + " " + count.getDate().toLocalDate(), Collectors.summingLong(JobStatusCount::getCount)));
+    }
+
+    private BatchJobExecution.JobStatus randomStatus(Random random) {
+        return STATUSES[random.nextInt(STATUSES.length)];
+    }
+
+    private JpaBatchJobExecution createJobExecution(JpaOpsManagerFeed feed, DateTime startTime, BatchJobExecution.JobStatus status) {
+        JpaBatchJobInstance jobInstance = new JpaBatchJobInstance();
+        jobInstance.setJobKey(UUID.randomUUID().toString());
+        jobInstance.setJobName(feed.getName());
+        jobInstance.setFeed(feed);
+        jobInstance = jobInstanceRepository.save(jobInstance);
+
+        JpaBatchJobExecution jobExecution = new JpaBatchJobExecution();
+        jobExecution.setJobInstance(jobInstance);
+        jobExecution.setCreateTime(startTime);
+        jobExecution.setStartTime(startTime);
+        jobExecution.setStatus(status);
+        jobExecution.setNifiEventJobExecution(new JpaNifiEventJobExecution(jobExecution, 1L, UUID.randomUUID().toString()));
+        return (JpaBatchJobExecution) jobExecutionProvider.save(jobExecution);
+    }
+}
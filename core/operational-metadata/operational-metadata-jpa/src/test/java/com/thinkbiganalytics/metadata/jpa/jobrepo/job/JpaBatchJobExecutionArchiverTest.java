@@ -0,0 +1,238 @@
+package com.thinkbiganalytics.metadata.jpa.jobrepo.job;
+
+/*-
+ * #%L
+ * thinkbig-operational-metadata-jpa
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.metadata.api.MetadataAccess;
+import com.thinkbiganalytics.metadata.api.jobrepo.job.BatchJobExecution;
+import com.thinkbiganalytics.metadata.api.jobrepo.job.JobExecutionCursor;
+import com.thinkbiganalytics.metadata.api.jobrepo.step.BatchStepExecution;
+import com.thinkbiganalytics.metadata.config.OperationalMetadataConfig;
+import com.thinkbiganalytics.metadata.jpa.TestJpaConfiguration;
+import com.thinkbiganalytics.metadata.jpa.feed.JpaOpsManagerFeed;
+import com.thinkbiganalytics.metadata.jpa.feed.OpsManagerFeedId;
+import com.thinkbiganalytics.metadata.jpa.feed.OpsManagerFeedRepository;
+import com.thinkbiganalytics.metadata.jpa.jobrepo.nifi.JpaNifiEventJobExecution;
+import com.thinkbiganalytics.metadata.jpa.jobrepo.step.BatchStepExecutionRepository;
+import com.thinkbiganalytics.metadata.jpa.jobrepo.step.JpaBatchStepExecution;
+import com.thinkbiganalytics.metadata.jpa.jobrepo.step.JpaBatchStepExecutionContextValue;
+import com.thinkbiganalytics.spring.CommonsSpringConfiguration;
+import com.thinkbiganalytics.test.security.WithMockJaasUser;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.data.domain.Slice;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+/**
+ * Verifies finished job executions are moved to the archive tables in resumable chunks and are still readable
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@TestPropertySource(locations = "classpath:test-application.properties")
+@SpringApplicationConfiguration(classes = {CommonsSpringConfiguration.class, OperationalMetadataConfig.class, TestJpaConfiguration.class})
+public class JpaBatchJobExecutionArchiverTest {
+
+    private static final DateTime START_TIME = new DateTime(2017, 6, 1, 0, 0, DateTimeZone.UTC);
+
+    @Inject
+    private JpaBatchJobExecutionArchiver archiver;
+
+    @Inject
+    private JpaBatchJobExecutionProvider jobExecutionProvider;
+
+    @Inject
+    private BatchJobInstanceRepository jobInstanceRepository;
+
+    @Inject
+    private BatchStepExecutionRepository stepExecutionRepository;
+
+    @Inject
+    private OpsManagerFeedRepository feedRepository;
+
+    @Inject
+    private MetadataAccess operationalMetadataAccess;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @WithMockJaasUser(username = "dladmin",
+                      password = "secret",
+                      authorities = {"admin"})
+    @Test
+    public void testArchiveResumesAfterInterruptedRun() {
+        List<Long> jobIds = createFinishedJobs("archive.resume", 13);
+        Long latestJobId = jobIds.get(jobIds.size() - 1);
+
+        // An interrupted thread stops before archiving anything
+        Thread.currentThread().interrupt();
+        try {
+            Assert.assertEquals(0, archiver.archive());
+        } finally {
+            Thread.interrupted();
+        }
+
+        // Simulate a run that copied the first job's rows to the archive, except for the job execution whose archive columns are in a different order,
+        // but did not remove them from the hot tables
+        operationalMetadataAccess.commit(() -> {
+            for (String table : JpaBatchJobExecutionArchiver.ARCHIVED_TABLES.subList(0, JpaBatchJobExecutionArchiver.ARCHIVED_TABLES.size() - 1)) {
+                entityManager.createNativeQuery("INSERT INTO " + table + JpaBatchJobExecutionArchiver.ARCHIVE_SUFFIX + " SELECT * FROM " + table + " WHERE JOB_EXECUTION_ID = :id")
+                    .setParameter("id", jobIds.get(0))
+                    .executeUpdate();
+            }
+        });
+
+        // Each run is limited to 2 chunks of 5 and the latest job of the feed is never archived
+        Assert.assertEquals(10, archiver.archive());
+        assertRowCounts(jobIds, 10, 3);
+        Assert.assertEquals(2, archiver.archive());
+        assertRowCounts(jobIds, 12, 1);
+        Assert.assertEquals(0, archiver.archive());
+        assertRowCounts(jobIds, 12, 1);
+
+        operationalMetadataAccess.read(() -> {
+            Assert.assertEquals(12, countRows("BATCH_STEP_EXECUTION_ARCHIVE", jobIds));
+            Assert.assertEquals(12, countRows("BATCH_STEP_EXECUTION_CTX_VALS_ARCHIVE", jobIds));
+            Assert.assertEquals(12, countRows("BATCH_JOB_EXECUTION_CTX_VALS_ARCHIVE", jobIds));
+            Assert.assertEquals(12, countRows("BATCH_NIFI_JOB_ARCHIVE", jobIds));
+            Assert.assertNotNull(jobExecutionProvider.findByJobExecutionId(latestJobId));
+        });
+    }
+
+    @WithMockJaasUser(username = "dladmin",
+                      password = "secret",
+                      authorities = {"admin"})
+    @Test
+    public void testReadThroughArchive() {
+        List<Long> jobIds = createFinishedJobs("archive.read", 8);
+        while (archiver.archive() > 0) {
+            // archive until all eligible jobs have been moved
+        }
+        assertRowCounts(jobIds, 7, 1);
+
+        operationalMetadataAccess.read(() -> {
+            Long archivedJobId = jobIds.get(0);
+            Assert.assertNull(jobExecutionProvider.findByJobExecutionId(archivedJobId));
+
+            BatchJobExecution jobExecution = jobExecutionProvider.findByJobExecutionId(archivedJobId, true);
+            Assert.assertNotNull(jobExecution);
+            Assert.assertEquals(BatchJobExecution.JobStatus.COMPLETED, jobExecution.getStatus());
+            Assert.assertEquals("archive.read", jobExecution.getJobInstance().getFeed().getName());
+            Assert.assertNotNull(jobExecution.getNifiEventJobExecution());
+            Assert.assertEquals(1, jobExecution.getJobExecutionContext().size());
+            Assert.assertEquals(1, jobExecution.getStepExecutions().size());
+            BatchStepExecution stepExecution = jobExecution.getStepExecutions().iterator().next();
+            Assert.assertEquals(1, stepExecution.getStepExecutionContext().size());
+
+            // Pages span the hot and archive tables in start time order
+            String filter = "jobInstance.feed.name==archive.read";
+            List<Long> expected = new ArrayList<>(jobIds);
+            Collections.reverse(expected);
+            List<Long> actual = new ArrayList<>();
+            JobExecutionCursor cursor = null;
+            Slice<? extends BatchJobExecution> slice;
+            do {
+                slice = jobExecutionProvider.findAllAfter(filter, cursor, null, null, 3);
+                actual.addAll(slice.getContent().stream().map(BatchJobExecution::getJobExecutionId).collect(Collectors.toList()));
+                cursor = JobExecutionCursor.of(slice.getContent().get(slice.getNumberOfElements() - 1));
+            } while (slice.hasNext());
+            Assert.assertEquals(expected, actual);
+            Assert.assertEquals(8, jobExecutionProvider.countAll(filter, null, null, 0));
+            Assert.assertEquals(6, jobExecutionProvider.countAll(filter, null, null, 5));
+            Assert.assertEquals(2, jobExecutionProvider.countAll(filter, null, null, 1));
+
+            // The range limits the jobs from both tables
+            Slice<? extends BatchJobExecution> range = jobExecutionProvider.findAllAfter(filter, null, START_TIME.plusDays(2), START_TIME.plusDays(6), 10);
+            Assert.assertFalse(range.hasNext());
+            Assert.assertEquals(expected.subList(2, 6), range.getContent().stream().map(BatchJobExecution::getJobExecutionId).collect(Collectors.toList()));
+            Assert.assertEquals(4, jobExecutionProvider.countAll(filter, START_TIME.plusDays(2), START_TIME.plusDays(6), 0));
+        });
+    }
+
+    private void assertRowCounts(List<Long> jobIds, long archived, long hot) {
+        operationalMetadataAccess.read(() -> {
+            Assert.assertEquals(archived, countRows("BATCH_JOB_EXECUTION_ARCHIVE", jobIds));
+            Assert.assertEquals(hot, countRows("BATCH_JOB_EXECUTION", jobIds));
+            Assert.assertEquals(hot, countRows("BATCH_STEP_EXECUTION", jobIds));
+        });
+    }
+
+    private long countRows(String table, List<Long> jobIds) {
+        Object count = entityManager.createNativeQuery("SELECT COUNT(*) FROM " + table + " WHERE JOB_EXECUTION_ID IN (:ids)")
+            .setParameter("ids", jobIds)
+            .getSingleResult();
+        return ((Number) count).longValue();
+    }
+
+    /**
+     * Creates completed jobs for a new feed starting one day apart, each with a step and context values.
+     */
+    private List<Long> createFinishedJobs(String feedName, int count) {
+        return operationalMetadataAccess.commit(() -> {
+            JpaOpsManagerFeed feed = feedRepository.save(new JpaOpsManagerFeed(OpsManagerFeedId.create(), feedName));
+            List<Long> jobIds = new ArrayList<>();
+            for (int i = 0; i < count; ++i) {
+                DateTime startTime = START_TIME.plusDays(i);
+
+                JpaBatchJobInstance jobInstance = new JpaBatchJobInstance();
+                jobInstance.setJobKey(UUID.randomUUID().toString());
+                jobInstance.setJobName(feedName);
+                jobInstance.setFeed(feed);
+                jobInstance = jobInstanceRepository.save(jobInstance);
+
+                JpaBatchJobExecution jobExecution = new JpaBatchJobExecution();
+                jobExecution.setJobInstance(jobInstance);
+                jobExecution.setCreateTime(startTime);
+                jobExecution.setStartTime(startTime);
+                jobExecution.setEndTime(startTime.plusHours(1));
+                jobExecution.setStatus(BatchJobExecution.JobStatus.COMPLETED);
+                jobExecution.setNifiEventJobExecution(new JpaNifiEventJobExecution(jobExecution, 1L, UUID.randomUUID().toString()));
+                jobExecution = (JpaBatchJobExecution) jobExecutionProvider.save(jobExecution);
+                jobExecution.addJobExecutionContext(new JpaBatchJobExecutionContextValue(jobExecution, "key"));
+
+                JpaBatchStepExecution stepExecution = new JpaBatchStepExecution();
+                stepExecution.setJobExecution(jobExecution);
+                stepExecution.setStepName("step");
+                stepExecution.setStartTime(startTime);
+                stepExecution.setEndTime(startTime.plusHours(1));
+                stepExecution.setStatus(BatchStepExecution.StepStatus.COMPLETED);
+                stepExecution.addStepExecutionContext(new JpaBatchStepExecutionContextValue(stepExecution, "key"));
+                stepExecutionRepository.save(stepExecution);
+
+                jobIds.add(jobExecution.getJobExecutionId());
+            }
+            return jobIds;
+        });
+    }
+}
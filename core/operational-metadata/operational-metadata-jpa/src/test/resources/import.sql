@@ -20,3 +20,20 @@
 CREATE ALIAS IF NOT EXISTS abandon_feed_jobs FOR "com.thinkbiganalytics.metadata.jpa.feed.AbandonFeedJobsStoredProcedureMock.call"
 
 SET foreign_key_checks = 0
+
+DROP TABLE IF EXISTS BATCH_STEP_EXECUTION_CTX_VALS_ARCHIVE
+CREATE TABLE BATCH_STEP_EXECUTION_CTX_VALS_ARCHIVE AS SELECT * FROM BATCH_STEP_EXECUTION_CTX_VALS WHERE 1 = 0
+DROP TABLE IF EXISTS BATCH_NIFI_STEP_ARCHIVE
+CREATE TABLE BATCH_NIFI_STEP_ARCHIVE AS SELECT * FROM BATCH_NIFI_STEP WHERE 1 = 0
+DROP TABLE IF EXISTS BATCH_STEP_EXECUTION_ARCHIVE
+CREATE TABLE BATCH_STEP_EXECUTION_ARCHIVE AS SELECT * FROM BATCH_STEP_EXECUTION WHERE 1 = 0
+DROP TABLE IF EXISTS BATCH_JOB_EXECUTION_CTX_VALS_ARCHIVE
+CREATE TABLE BATCH_JOB_EXECUTION_CTX_VALS_ARCHIVE AS SELECT * FROM BATCH_JOB_EXECUTION_CTX_VALS WHERE 1 = 0
+DROP TABLE IF EXISTS BATCH_JOB_EXECUTION_PARAMS_ARCHIVE
+CREATE TABLE BATCH_JOB_EXECUTION_PARAMS_ARCHIVE AS SELECT * FROM BATCH_JOB_EXECUTION_PARAMS WHERE 1 = 0
+DROP TABLE IF EXISTS BATCH_NIFI_JOB_ARCHIVE
+CREATE TABLE BATCH_NIFI_JOB_ARCHIVE AS SELECT * FROM BATCH_NIFI_JOB WHERE 1 = 0
+DROP TABLE IF EXISTS BATCH_JOB_EXECUTION_ARCHIVE
+CREATE TABLE BATCH_JOB_EXECUTION_ARCHIVE AS SELECT * FROM BATCH_JOB_EXECUTION WHERE 1 = 0
+ALTER TABLE BATCH_JOB_EXECUTION_ARCHIVE DROP COLUMN STATUS
+ALTER TABLE BATCH_JOB_EXECUTION_ARCHIVE ADD COLUMN STATUS VARCHAR(10)
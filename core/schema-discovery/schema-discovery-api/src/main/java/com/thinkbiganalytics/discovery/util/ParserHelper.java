@@ -34,6 +34,7 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.nio.charset.Charset;
@@ -61,14 +62,33 @@ public class ParserHelper {
      */
     public static String extractSampleLines(InputStream is, Charset charset, int rows) throws IOException {
 
-        StringWriter sw = new StringWriter();
         Validate.notNull(is, "empty input stream");
         Validate.notNull(charset, "charset cannot be null");
+        return readSampleLines(new InputStreamReader(is, charset), rows);
+    }
+
+    /**
+     * Extracts the given number of rows from the head of the reader and then resets the reader to its original position.
+     * This allows a parser to inspect the sample and then stream the whole file from the same reader, without copying it.
+     */
+    public static String extractSampleLines(BufferedReader reader, int rows) throws IOException {
+        Validate.notNull(reader, "reader cannot be null");
+        reader.mark(MAX_CHARS);
+        try {
+            return readSampleLines(reader, rows);
+        } finally {
+            reader.reset();
+        }
+    }
+
+    private static String readSampleLines(Reader reader, int rows) throws IOException {
+
+        StringWriter sw = new StringWriter();
         Validate.exclusiveBetween(1, MAX_ROWS, rows, "invalid number of sample rows");
 
         // Sample the file in case there are no newlines
         StringWriter swBlock = new StringWriter();
-        IOUtils.copyLarge(new InputStreamReader(is, charset), swBlock, -1, MAX_CHARS);
+        IOUtils.copyLarge(reader, swBlock, -1, MAX_CHARS);
         try (BufferedReader br = new BufferedReader(new StringReader(swBlock.toString()))) {
             IOUtils.closeQuietly(swBlock);
             String line = br.readLine();
@@ -0,0 +1,75 @@
+package com.thinkbiganalytics.schema;
+
+/*-
+ * #%L
+ * kylo-schema-discovery-rdbms
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Base class for {@link QueryResultWriter} implementations that keeps count of the bytes written to the output stream.
+ */
+public abstract class AbstractQueryResultWriter implements QueryResultWriter {
+
+    /**
+     * Output stream for the query result
+     */
+    @Nonnull
+    protected final OutputStream out;
+
+    /**
+     * Number of bytes written to the output stream
+     */
+    private long bytesWritten;
+
+    /**
+     * Constructs an {@code AbstractQueryResultWriter} that writes to the specified stream.
+     *
+     * <p>The stream is not closed by this writer.</p>
+     */
+    protected AbstractQueryResultWriter(@Nonnull final OutputStream out) {
+        this.out = new FilterOutputStream(out) {
+            @Override
+            public void write(int b) throws IOException {
+                out.write(b);
+                bytesWritten++;
+            }
+
+            @Override
+            public void write(@Nonnull final byte[] b, final int off, final int len) throws IOException {
+                out.write(b, off, len);
+                bytesWritten += len;
+            }
+
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        };
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+}
@@ -0,0 +1,85 @@
+package com.thinkbiganalytics.schema;
+
+/*-
+ * #%L
+ * kylo-schema-discovery-rdbms
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.discovery.schema.QueryResultColumn;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Writes a query result as UTF-8 encoded CSV with a header row of column display names.
+ */
+public class CsvQueryResultWriter extends AbstractQueryResultWriter {
+
+    /**
+     * CSV output format
+     */
+    @Nonnull
+    private final CSVFormat format;
+
+    /**
+     * Prints the CSV records
+     */
+    private CSVPrinter printer;
+
+    /**
+     * Constructs a {@code CsvQueryResultWriter} that writes to the specified stream.
+     */
+    public CsvQueryResultWriter(@Nonnull final OutputStream out) {
+        this(out, CSVFormat.DEFAULT);
+    }
+
+    /**
+     * Constructs a {@code CsvQueryResultWriter} that writes to the specified stream using the specified format.
+     */
+    public CsvQueryResultWriter(@Nonnull final OutputStream out, @Nonnull final CSVFormat format) {
+        super(out);
+        this.format = format;
+    }
+
+    @Override
+    public void start(@Nonnull final String query, @Nonnull final List<QueryResultColumn> columns) throws IOException {
+        final String[] header = new String[columns.size()];
+        for (int i = 0; i < header.length; ++i) {
+            header[i] = columns.get(i).getDisplayName();
+        }
+        printer = new CSVPrinter(new OutputStreamWriter(out, StandardCharsets.UTF_8), format.withHeader(header));
+    }
+
+    @Override
+    public void writeRow(@Nonnull final Object[] values) throws IOException {
+        printer.printRecord(values);
+    }
+
+    @Override
+    public void end(final boolean truncated) throws IOException {
+        printer.close();
+    }
+}
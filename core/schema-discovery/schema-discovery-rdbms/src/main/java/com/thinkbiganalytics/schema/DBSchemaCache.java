@@ -0,0 +1,190 @@
+package com.thinkbiganalytics.schema;
+
+/*-
+ * #%L
+ * kylo-schema-discovery-rdbms
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.thinkbiganalytics.discovery.schema.TableSchema;
+import com.thinkbiganalytics.kerberos.KerberosTicketConfiguration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.sql.DataSource;
+
+/**
+ * Caches a {@link DBSchemaCatalog} for each data source.
+ *
+ * <p>Catalogs are crawled using a {@link DBSchemaParser} that queries each catalog or schema in parallel over pooled connections. A catalog expires after a fixed time or may be refreshed on
+ * demand. Data sources are compared by identity and entries are released once the data source is no longer referenced.</p>
+ */
+public class DBSchemaCache {
+
+    private static final Logger log = LoggerFactory.getLogger(DBSchemaCache.class);
+
+    /**
+     * Map of data source to catalog
+     */
+    @Nonnull
+    private final Cache<DataSource, DBSchemaCatalog> catalogs;
+
+    /**
+     * Executes metadata queries
+     */
+    @Nonnull
+    private final ExecutorService executor;
+
+    /**
+     * Generates catalog version numbers
+     */
+    @Nonnull
+    private final AtomicLong nextVersion = new AtomicLong(1);
+
+    /**
+     * Constructs a {@code DBSchemaCache}.
+     *
+     * @param ttl     the time to keep a catalog
+     * @param unit    the unit of the time to keep a catalog
+     * @param threads the maximum number of concurrent metadata queries
+     */
+    public DBSchemaCache(final long ttl, @Nonnull final TimeUnit unit, final int threads) {
+        catalogs = CacheBuilder.newBuilder().weakKeys().expireAfterWrite(ttl, unit).build();
+        executor = Executors.newFixedThreadPool(Math.max(1, threads), new ThreadFactoryBuilder().setDaemon(true).setNameFormat("kylo-schema-crawler-%d").build());
+    }
+
+    /**
+     * Gets the catalog for the specified data source, crawling the database if it is not cached.
+     *
+     * @param ds                          the data source
+     * @param kerberosTicketConfiguration the Kerberos configuration
+     * @return the catalog
+     * @throws DataAccessException if the database cannot be crawled
+     */
+    @Nonnull
+    public DBSchemaCatalog getCatalog(@Nonnull final DataSource ds, @Nonnull final KerberosTicketConfiguration kerberosTicketConfiguration) {
+        try {
+            return catalogs.get(ds, new Callable<DBSchemaCatalog>() {
+                @Override
+                public DBSchemaCatalog call() {
+                    final long start = System.currentTimeMillis();
+                    final List<String> tables = getParser(ds, kerberosTicketConfiguration).listTables(null, null);
+                    final DBSchemaCatalog catalog = new DBSchemaCatalog(nextVersion.getAndIncrement(), tables);
+                    log.debug("Loaded catalog version {} with {} tables in {} ms", catalog.getVersion(), tables.size(), System.currentTimeMillis() - start);
+                    return catalog;
+                }
+            });
+        } catch (final ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof DataAccessException) {
+                throw (DataAccessException) e.getCause();
+            }
+            throw new SchemaParserException("Unable to obtain table list", e.getCause());
+        }
+    }
+
+    /**
+     * Discards the cached catalog for the specified data source and crawls the database again.
+     *
+     * @param ds                          the data source
+     * @param kerberosTicketConfiguration the Kerberos configuration
+     * @return the new catalog
+     * @throws DataAccessException if the database cannot be crawled
+     */
+    @Nonnull
+    public DBSchemaCatalog refresh(@Nonnull final DataSource ds, @Nonnull final KerberosTicketConfiguration kerberosTicketConfiguration) {
+        invalidate(ds);
+        return getCatalog(ds, kerberosTicketConfiguration);
+    }
+
+    /**
+     * Discards the cached catalog for the specified data source.
+     */
+    public void invalidate(@Nonnull final DataSource ds) {
+        catalogs.invalidate(ds);
+    }
+
+    /**
+     * Lists the cached tables matching the specified JDBC search patterns.
+     *
+     * @see DBSchemaParser#listTables(String, String)
+     */
+    @Nonnull
+    public List<String> listTables(@Nonnull final DataSource ds, @Nonnull final KerberosTicketConfiguration kerberosTicketConfiguration, @Nullable final String schema,
+                                   @Nullable final String tableName) {
+        return getCatalog(ds, kerberosTicketConfiguration).match(schema, tableName);
+    }
+
+    /**
+     * Finds the cached tables whose {@code <schema>.<table>} names start with the specified prefix, ignoring case.
+     *
+     * @see DBSchemaCatalog#search(String, int)
+     */
+    @Nonnull
+    public List<String> search(@Nonnull final DataSource ds, @Nonnull final KerberosTicketConfiguration kerberosTicketConfiguration, @Nonnull final String prefix, final int limit) {
+        return getCatalog(ds, kerberosTicketConfiguration).search(prefix, limit);
+    }
+
+    /**
+     * Gets the schema for the specified table. The result is cached with the current catalog, if one has been loaded.
+     *
+     * @see DBSchemaParser#describeTable(String, String)
+     */
+    @Nullable
+    public TableSchema describeTable(@Nonnull final DataSource ds, @Nonnull final KerberosTicketConfiguration kerberosTicketConfiguration, @Nullable final String schema,
+                                     @Nonnull final String table) {
+        final DBSchemaCatalog catalog = catalogs.getIfPresent(ds);
+        TableSchema tableSchema = (catalog != null) ? catalog.getTableSchema(schema, table) : null;
+        if (tableSchema == null) {
+            tableSchema = getParser(ds, kerberosTicketConfiguration).describeTable(schema, table);
+            if (tableSchema != null && catalog != null) {
+                catalog.putTableSchema(schema, table, tableSchema);
+            }
+        }
+        return tableSchema;
+    }
+
+    /**
+     * Gets a schema parser for the specified data source that uses this cache's executor.
+     */
+    @Nonnull
+    public DBSchemaParser getParser(@Nonnull final DataSource ds, @Nonnull final KerberosTicketConfiguration kerberosTicketConfiguration) {
+        return new DBSchemaParser(ds, kerberosTicketConfiguration, executor);
+    }
+
+    /**
+     * Stops any running metadata queries.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,235 @@
+package com.thinkbiganalytics.schema;
+
+/*-
+ * #%L
+ * kylo-schema-discovery-rdbms
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.discovery.schema.TableSchema;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A snapshot of the tables in a database, as returned by {@link DBSchemaParser#listTables(String, String)}.
+ *
+ * <p>Table names are kept sorted by their lower-case form to support prefix searches. Table descriptions are added as they are requested and are discarded along with the snapshot.</p>
+ */
+public class DBSchemaCatalog {
+
+    /**
+     * Version number of this snapshot. A refreshed catalog has a higher version.
+     */
+    private final long version;
+
+    /**
+     * Time when this snapshot was loaded, in milliseconds since the epoch
+     */
+    private final long loadTime;
+
+    /**
+     * Table names like {@code <schema>.<table>} sorted by lower-case name
+     */
+    @Nonnull
+    private final List<String> tables;
+
+    /**
+     * Lower-case table names in the same order as {@link #tables}
+     */
+    @Nonnull
+    private final String[] lowerCaseTables;
+
+    /**
+     * Map of lower-case table name to table description
+     */
+    @Nonnull
+    private final ConcurrentMap<String, TableSchema> tableSchemas = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a {@code DBSchemaCatalog} containing the specified tables.
+     *
+     * @param version the version number
+     * @param tables  the table names like {@code <schema>.<table>}
+     */
+    public DBSchemaCatalog(final long version, @Nonnull final List<String> tables) {
+        this.version = version;
+        this.loadTime = System.currentTimeMillis();
+
+        // Sort by lower-case name so binary searches of lowerCaseTables are consistent
+        final String[][] entries = new String[tables.size()][];
+        for (int i = 0; i < entries.length; ++i) {
+            final String table = tables.get(i);
+            entries[i] = new String[]{table.toLowerCase(Locale.ROOT), table};
+        }
+        Arrays.sort(entries, new Comparator<String[]>() {
+            @Override
+            public int compare(final String[] o1, final String[] o2) {
+                return o1[0].compareTo(o2[0]);
+            }
+        });
+
+        final String[] sorted = new String[entries.length];
+        lowerCaseTables = new String[entries.length];
+        for (int i = 0; i < entries.length; ++i) {
+            lowerCaseTables[i] = entries[i][0];
+            sorted[i] = entries[i][1];
+        }
+        this.tables = Collections.unmodifiableList(Arrays.asList(sorted));
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getLoadTime() {
+        return loadTime;
+    }
+
+    /**
+     * Gets all table names in this catalog.
+     *
+     * @return the table names like {@code <schema>.<table>}
+     */
+    @Nonnull
+    public List<String> getTables() {
+        return tables;
+    }
+
+    /**
+     * Finds the tables whose names start with the specified prefix, ignoring case.
+     *
+     * @param prefix the prefix of {@code <schema>.<table>}
+     * @param limit  the maximum number of results, or {@code 0} for no limit
+     * @return the matching table names
+     */
+    @Nonnull
+    public List<String> search(@Nonnull final String prefix, final int limit) {
+        final String lowerCasePrefix = prefix.toLowerCase(Locale.ROOT);
+        int index = Arrays.binarySearch(lowerCaseTables, lowerCasePrefix);
+        if (index < 0) {
+            index = -index - 1;
+        }
+
+        final List<String> matches = new ArrayList<>();
+        while (index < lowerCaseTables.length && lowerCaseTables[index].startsWith(lowerCasePrefix) && (limit <= 0 || matches.size() < limit)) {
+            matches.add(tables.get(index++));
+        }
+        return matches;
+    }
+
+    /**
+     * Finds the tables matching the specified JDBC search patterns, ignoring case.
+     *
+     * @param schemaPattern the schema name pattern, or {@code null} for all schemas
+     * @param tablePattern  the table name pattern, or {@code null} for all tables
+     * @return the matching table names
+     */
+    @Nonnull
+    public List<String> match(@Nullable final String schemaPattern, @Nullable final String tablePattern) {
+        final boolean allSchemas = StringUtils.isEmpty(schemaPattern) || "%".equals(schemaPattern);
+        final boolean allTables = StringUtils.isEmpty(tablePattern) || "%".equals(tablePattern);
+        if (allSchemas && allTables) {
+            return tables;
+        }
+
+        // Use a prefix search for literal schema names with all tables
+        if (allTables && !hasWildcard(schemaPattern)) {
+            return search(schemaPattern + ".", 0);
+        }
+
+        final Pattern schemaRegex = allSchemas ? null : toRegex(schemaPattern);
+        final Pattern tableRegex = allTables ? null : toRegex(tablePattern);
+        final List<String> matches = new ArrayList<>();
+        for (final String table : tables) {
+            final int dot = table.indexOf('.');
+            if ((schemaRegex == null || schemaRegex.matcher(table.substring(0, Math.max(dot, 0))).matches())
+                && (tableRegex == null || tableRegex.matcher(table.substring(dot + 1)).matches())) {
+                matches.add(table);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Gets the cached description of the specified table.
+     *
+     * @return the table description, or {@code null} if not cached
+     */
+    @Nullable
+    public TableSchema getTableSchema(@Nullable final String schema, @Nonnull final String table) {
+        return tableSchemas.get(getTableKey(schema, table));
+    }
+
+    /**
+     * Caches the description of the specified table.
+     */
+    public void putTableSchema(@Nullable final String schema, @Nonnull final String table, @Nonnull final TableSchema tableSchema) {
+        tableSchemas.put(getTableKey(schema, table), tableSchema);
+    }
+
+    /**
+     * Gets the key for the specified table description.
+     */
+    @Nonnull
+    private String getTableKey(@Nullable final String schema, @Nonnull final String table) {
+        return (StringUtils.defaultString(schema) + "." + table).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Indicates if the specified JDBC search pattern contains wildcards.
+     */
+    private static boolean hasWildcard(@Nonnull final String pattern) {
+        return pattern.indexOf('%') != -1 || pattern.indexOf('_') != -1;
+    }
+
+    /**
+     * Converts the specified JDBC search pattern to a case-insensitive regular expression.
+     */
+    @Nonnull
+    private static Pattern toRegex(@Nonnull final String pattern) {
+        final StringBuilder regex = new StringBuilder(pattern.length() + 8);
+        final StringBuilder literal = new StringBuilder();
+        for (final char c : pattern.toCharArray()) {
+            if (c == '%' || c == '_') {
+                if (literal.length() > 0) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append(c == '%' ? ".*" : ".");
+            } else {
+                literal.append(c);
+            }
+        }
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        return Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    }
+}
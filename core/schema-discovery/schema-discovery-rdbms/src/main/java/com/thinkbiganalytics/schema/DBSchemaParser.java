@@ -46,6 +46,10 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 import java.util.Vector;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -58,9 +62,29 @@ public class DBSchemaParser {
     private DataSource ds;
     private KerberosTicketConfiguration kerberosTicketConfiguration;
 
+    /**
+     * Executes metadata queries for each catalog or schema in parallel, or {@code null} to query them one at a time
+     */
+    @Nullable
+    private final ExecutorService executor;
+
     public DBSchemaParser(DataSource ds, KerberosTicketConfiguration kerberosTicketConfiguration) {
+        this(ds, kerberosTicketConfiguration, null);
+    }
+
+    /**
+     * Constructs a {@code DBSchemaParser} that lists the tables of each catalog or schema in parallel using the specified executor.
+     *
+     * <p>Each parallel task borrows its own connection so the data source should be pooled.</p>
+     *
+     * @param ds                          the data source
+     * @param kerberosTicketConfiguration the Kerberos configuration
+     * @param executor                    the executor for metadata queries, or {@code null} to query sequentially
+     */
+    public DBSchemaParser(DataSource ds, KerberosTicketConfiguration kerberosTicketConfiguration, @Nullable ExecutorService executor) {
         this.ds = ds;
         this.kerberosTicketConfiguration = kerberosTicketConfiguration;
+        this.executor = executor;
     }
 
     public List<String> listSchemas() {
@@ -146,8 +170,6 @@ public class DBSchemaParser {
 
         final String tableNamePattern = (tableName != null) ? tableName : "%";
 
-        final List<String> tables = new ArrayList<>();
-
         List<String> catalogs = null;
         try {
             catalogs = listCatalogs();
@@ -157,65 +179,95 @@ public class DBSchemaParser {
         }
         boolean hasCatalogs = catalogs != null && !catalogs.isEmpty();
 
+        // Determine the catalog and schema pairs to search
+        final List<String[]> scopes = new ArrayList<>();
         if (StringUtils.isNotBlank(schema) || StringUtils.isNotBlank(tableName)) {
-
             //try using the catalog
-            try (final Connection conn = KerberosUtil.getConnectionWithOrWithoutKerberos(ds, kerberosTicketConfiguration)) {
-                if (hasCatalogs) {
-                    for (final String catalog : catalogs) {
-                        try (final ResultSet result = getTables(conn, catalog, schemaPattern, tableNamePattern)) {
-                            while (result != null && result.next()) {
-                                addTableToList(result, tables);
-                            }
-                        }
-                    }
-                } else {
-                    try (final ResultSet result = getTables(conn, null, schemaPattern, tableNamePattern)) {
-                        while (result != null && result.next()) {
-                            addTableToList(result, tables);
-                        }
-                    }
+            if (hasCatalogs) {
+                for (final String catalog : catalogs) {
+                    scopes.add(new String[]{catalog, schemaPattern});
                 }
-
-
-            } catch (final SQLException e) {
-                throw new SchemaParserException("Unable to obtain table list", e);
+            } else {
+                scopes.add(new String[]{null, schemaPattern});
+            }
+        } else if (hasCatalogs) {
+            for (final String catalog : catalogs) {
+                scopes.add(new String[]{catalog, "%"});
             }
-
         } else {
+            for (final String dbSchema : listSchemas()) {
+                scopes.add(new String[]{null, dbSchema});
+            }
+        }
 
+        if (executor != null && scopes.size() > 1) {
+            return listTablesInParallel(scopes, tableNamePattern);
+        }
 
-            try  {
-                if (hasCatalogs) {
-                    try (final Connection conn = KerberosUtil.getConnectionWithOrWithoutKerberos(ds, kerberosTicketConfiguration)) {
-                        for (final String catalog : catalogs) {
-                            try (final ResultSet result = getTables(conn, catalog, "%", tableNamePattern)) {
-                                while (result != null && result.next()) {
-                                    addTableToList(result, tables);
-                                }
-                            }
-                        }
-                    }
-                } else {
-                    List<String> schemas =listSchemas();
+        final List<String> tables = new ArrayList<>();
+        try (final Connection conn = KerberosUtil.getConnectionWithOrWithoutKerberos(ds, kerberosTicketConfiguration)) {
+            for (final String[] scope : scopes) {
+                addTablesToList(conn, scope[0], scope[1], tableNamePattern, tables);
+            }
+        } catch (final SQLException e) {
+            throw new SchemaParserException("Unable to obtain table list", e);
+        }
+        return tables;
+    }
+
+    /**
+     * Lists the tables in each of the specified catalog and schema pairs in parallel, using a separate connection for each pair.
+     *
+     * @param scopes           the catalog and schema patterns to search
+     * @param tableNamePattern the table name pattern
+     * @return the list of table names in the order of the scopes
+     */
+    @Nonnull
+    private List<String> listTablesInParallel(@Nonnull final List<String[]> scopes, @Nonnull final String tableNamePattern) {
+        final List<Future<List<String>>> futures = new ArrayList<>(scopes.size());
+        for (final String[] scope : scopes) {
+            futures.add(executor.submit(new Callable<List<String>>() {
+                @Override
+                public List<String> call() throws SQLException {
+                    final List<String> tables = new ArrayList<>();
                     try (final Connection conn = KerberosUtil.getConnectionWithOrWithoutKerberos(ds, kerberosTicketConfiguration)) {
-                        for (final String dbSchema : schemas) {
-                            try (final ResultSet result = getTables(conn, null, dbSchema, tableNamePattern)) {
-                                while (result != null && result.next()) {
-                                    addTableToList(result, tables);
-                                }
-                            }
-                        }
+                        addTablesToList(conn, scope[0], scope[1], tableNamePattern, tables);
                     }
+                    return tables;
                 }
-            } catch (final SQLException e) {
-                throw new SchemaParserException("Unable to obtain table list", e);
-            }
+            }));
         }
 
+        final List<String> tables = new ArrayList<>();
+        try {
+            for (final Future<List<String>> future : futures) {
+                tables.addAll(future.get());
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SchemaParserException("Interrupted while obtaining table list", e);
+        } catch (final ExecutionException e) {
+            throw new SchemaParserException("Unable to obtain table list", e.getCause());
+        } finally {
+            for (final Future<List<String>> future : futures) {
+                future.cancel(true);
+            }
+        }
         return tables;
     }
 
+    /**
+     * Adds the tables matching the specified patterns to the list.
+     */
+    private void addTablesToList(@Nonnull final Connection conn, @Nullable final String catalog, @Nullable final String schemaPattern, @Nonnull final String tableNamePattern,
+                                 @Nonnull final List<String> tables) throws SQLException {
+        try (final ResultSet result = getTables(conn, catalog, schemaPattern, tableNamePattern)) {
+            while (result != null && result.next()) {
+                addTableToList(result, tables);
+            }
+        }
+    }
+
 
     /**
      * Gets the schema for the specified table.
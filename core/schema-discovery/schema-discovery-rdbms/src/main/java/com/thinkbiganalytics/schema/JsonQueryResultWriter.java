@@ -0,0 +1,125 @@
+package com.thinkbiganalytics.schema;
+
+/*-
+ * #%L
+ * kylo-schema-discovery-rdbms
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thinkbiganalytics.discovery.schema.QueryResultColumn;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Writes a query result as JSON with the same properties as {@link com.thinkbiganalytics.discovery.model.DefaultQueryResult}.
+ *
+ * <p>Each row is an object mapping column display names to values. A {@code truncated} property indicates if the result was cut short by the byte limit.</p>
+ */
+public class JsonQueryResultWriter extends AbstractQueryResultWriter {
+
+    /**
+     * Generates the JSON output
+     */
+    @Nonnull
+    private final JsonGenerator generator;
+
+    /**
+     * Display names of the result columns
+     */
+    private String[] fieldNames;
+
+    /**
+     * Number of rows written
+     */
+    private long rowCount;
+
+    /**
+     * Constructs a {@code JsonQueryResultWriter} that writes to the specified stream.
+     *
+     * @param out the output stream
+     * @throws IOException if the JSON generator cannot be created
+     */
+    public JsonQueryResultWriter(@Nonnull final OutputStream out) throws IOException {
+        this(out, new ObjectMapper());
+    }
+
+    /**
+     * Constructs a {@code JsonQueryResultWriter} that writes to the specified stream and serializes values with the specified mapper.
+     *
+     * @param out    the output stream
+     * @param mapper the object mapper
+     * @throws IOException if the JSON generator cannot be created
+     */
+    public JsonQueryResultWriter(@Nonnull final OutputStream out, @Nonnull final ObjectMapper mapper) throws IOException {
+        super(out);
+        generator = mapper.getFactory().createGenerator(this.out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    @Override
+    public void start(@Nonnull final String query, @Nonnull final List<QueryResultColumn> columns) throws IOException {
+        fieldNames = new String[columns.size()];
+        final Map<String, QueryResultColumn> columnFieldMap = new LinkedHashMap<>();
+        final Map<String, QueryResultColumn> columnDisplayNameMap = new LinkedHashMap<>();
+        for (int i = 0; i < fieldNames.length; ++i) {
+            final QueryResultColumn column = columns.get(i);
+            column.setIndex(i);
+            fieldNames[i] = column.getDisplayName();
+            columnFieldMap.put(column.getField(), column);
+            columnDisplayNameMap.put(column.getDisplayName(), column);
+        }
+
+        generator.writeStartObject();
+        generator.writeStringField("query", query);
+        generator.writeFieldName("columns");
+        generator.writeObject(columns);
+        generator.writeFieldName("columnFieldMap");
+        generator.writeObject(columnFieldMap);
+        generator.writeFieldName("columnDisplayNameMap");
+        generator.writeObject(columnDisplayNameMap);
+        generator.writeArrayFieldStart("rows");
+    }
+
+    @Override
+    public void writeRow(@Nonnull final Object[] values) throws IOException {
+        generator.writeStartObject();
+        for (int i = 0; i < fieldNames.length; ++i) {
+            generator.writeFieldName(fieldNames[i]);
+            generator.writeObject(values[i]);
+        }
+        generator.writeEndObject();
+        ++rowCount;
+    }
+
+    @Override
+    public void end(final boolean truncated) throws IOException {
+        generator.writeEndArray();
+        generator.writeBooleanField("empty", rowCount == 0);
+        generator.writeBooleanField("truncated", truncated);
+        generator.writeEndObject();
+        generator.close();
+        out.flush();
+    }
+}
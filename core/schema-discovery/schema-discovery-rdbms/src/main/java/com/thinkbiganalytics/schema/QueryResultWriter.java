@@ -0,0 +1,68 @@
+package com.thinkbiganalytics.schema;
+
+/*-
+ * #%L
+ * kylo-schema-discovery-rdbms
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.discovery.schema.QueryResultColumn;
+
+import java.io.IOException;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Writes the rows of a query result as they are read from the JDBC cursor.
+ *
+ * <p>Implementations must not retain the values array passed to {@link #writeRow(Object[])} as it is reused for every row.</p>
+ */
+public interface QueryResultWriter {
+
+    /**
+     * Writes the beginning of the result.
+     *
+     * @param query   the query being executed
+     * @param columns the result columns
+     * @throws IOException if the result cannot be written
+     */
+    void start(@Nonnull String query, @Nonnull List<QueryResultColumn> columns) throws IOException;
+
+    /**
+     * Writes the next row of the result.
+     *
+     * @param values the column values in the order of the columns
+     * @throws IOException if the row cannot be written
+     */
+    void writeRow(@Nonnull Object[] values) throws IOException;
+
+    /**
+     * Writes the end of the result and flushes the output.
+     *
+     * @param truncated {@code true} if rows were skipped because the byte limit was reached
+     * @throws IOException if the result cannot be written
+     */
+    void end(boolean truncated) throws IOException;
+
+    /**
+     * Gets the number of bytes written to the underlying stream so far. Buffered output may not be included.
+     *
+     * @return the number of bytes
+     */
+    long getBytesWritten();
+}
@@ -27,14 +27,20 @@ import com.thinkbiganalytics.discovery.schema.QueryResultColumn;
 import com.thinkbiganalytics.discovery.util.ParserHelper;
 
 import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.DataRetrievalFailureException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.StatementCallback;
+import org.springframework.jdbc.support.JdbcUtils;
 
+import java.io.IOException;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
@@ -49,6 +55,8 @@ import javax.sql.DataSource;
  */
 public class QueryRunner {
 
+    private static final Logger log = LoggerFactory.getLogger(QueryRunner.class);
+
     /**
      * A JDBC data source.
      */
@@ -105,6 +113,76 @@ public class QueryRunner {
         return queryResult;
     }
 
+    /**
+     * Executes the specified SELECT query and writes each row to the specified writer as it is read from the JDBC cursor.
+     *
+     * <p>If the writer fails, such as when the client disconnects, the statement is cancelled so the database can release its resources.</p>
+     *
+     * @param query     the SELECT query
+     * @param writer    the writer for the query result
+     * @param fetchSize the number of rows to fetch from the database at a time, or {@code 0} for the driver default
+     * @param maxBytes  the approximate maximum number of bytes to write before truncating the result, or {@code 0} for no limit
+     * @return the number of rows written
+     * @throws DataAccessException if the query cannot be executed or the result cannot be written
+     */
+    public int stream(@Nonnull final String query, @Nonnull final QueryResultWriter writer, final int fetchSize, final long maxBytes) {
+        // Validate the query
+        if (!validateQuery(query)) {
+            throw new DataRetrievalFailureException("Invalid query: " + query);
+        }
+
+        // Execute the query
+        return jdbcTemplate.execute(new StatementCallback<Integer>() {
+            @Override
+            public Integer doInStatement(Statement stmt) throws SQLException {
+                if (fetchSize > 0) {
+                    stmt.setFetchSize(fetchSize);
+                }
+
+                ResultSet rs = null;
+                try {
+                    rs = stmt.executeQuery(query);
+                    final List<QueryResultColumn> columns = createColumns(rs.getMetaData());
+                    final Object[] values = new Object[columns.size()];
+                    boolean truncated = false;
+                    int rowCount = 0;
+
+                    writer.start(query, columns);
+                    while (rs.next()) {
+                        if (maxBytes > 0 && writer.getBytesWritten() >= maxBytes) {
+                            truncated = true;
+                            break;
+                        }
+                        for (int i = 0; i < values.length; ++i) {
+                            values[i] = rs.getObject(i + 1);
+                        }
+                        writer.writeRow(values);
+                        ++rowCount;
+                    }
+                    writer.end(truncated);
+                    return rowCount;
+                } catch (final IOException e) {
+                    log.debug("Cancelling query after failing to write result: {}", e.toString());
+                    cancel(stmt);
+                    throw new DataRetrievalFailureException("Unable to write query result: " + e.getMessage(), e);
+                } finally {
+                    JdbcUtils.closeResultSet(rs);
+                }
+            }
+        });
+    }
+
+    /**
+     * Cancels the specified statement, ignoring any errors.
+     */
+    private void cancel(@Nonnull final Statement stmt) {
+        try {
+            stmt.cancel();
+        } catch (final SQLException e) {
+            log.debug("Unable to cancel statement: {}", e.toString());
+        }
+    }
+
     /**
      * Initializes the query result with the specified metadata.
      *
@@ -113,6 +191,18 @@ public class QueryRunner {
      * @throws SQLException if the metadata is not available
      */
     private void initQueryResult(@Nonnull final DefaultQueryResult queryResult, @Nonnull final ResultSetMetaData rsMetaData) throws SQLException {
+        queryResult.setColumns(createColumns(rsMetaData));
+    }
+
+    /**
+     * Creates the query result columns from the specified metadata.
+     *
+     * @param rsMetaData the result set metadata for the query
+     * @return the query result columns
+     * @throws SQLException if the metadata is not available
+     */
+    @Nonnull
+    private List<QueryResultColumn> createColumns(@Nonnull final ResultSetMetaData rsMetaData) throws SQLException {
         final List<QueryResultColumn> columns = new ArrayList<>();
         final Map<String, Integer> displayNameMap = new HashMap<>();
 
@@ -146,7 +236,7 @@ public class QueryRunner {
             columns.add(column);
         }
 
-        queryResult.setColumns(columns);
+        return columns;
     }
 
     /**
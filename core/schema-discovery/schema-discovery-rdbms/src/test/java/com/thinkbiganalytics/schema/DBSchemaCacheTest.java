@@ -0,0 +1,187 @@
+package com.thinkbiganalytics.schema;
+
+/*-
+ * #%L
+ * kylo-schema-discovery-rdbms
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.kerberos.KerberosTicketConfiguration;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nonnull;
+import javax.sql.DataSource;
+
+public class DBSchemaCacheTest {
+
+    /**
+     * Number of schemas in the mock database
+     */
+    private static final int SCHEMA_COUNT = 20;
+
+    /**
+     * Schema cache for testing
+     */
+    private DBSchemaCache cache;
+
+    /**
+     * Number of connections opened
+     */
+    private final AtomicInteger connectionCount = new AtomicInteger();
+
+    /**
+     * Mock data source without catalogs
+     */
+    private DataSource dataSource;
+
+    /**
+     * Mock database metadata
+     */
+    private DatabaseMetaData metaData;
+
+    /**
+     * Set up test environment.
+     */
+    @Before
+    public void setUp() throws SQLException {
+        cache = new DBSchemaCache(1, TimeUnit.HOURS, 4);
+
+        final List<Map<String, String>> schemas = new ArrayList<>();
+        for (int i = 0; i < SCHEMA_COUNT; ++i) {
+            schemas.add(Collections.singletonMap("TABLE_SCHEM", "schema" + i));
+        }
+
+        metaData = Mockito.mock(DatabaseMetaData.class);
+        Mockito.when(metaData.getCatalogs()).then(resultSet(Collections.<Map<String, String>>emptyList()));
+        Mockito.when(metaData.getSchemas()).then(resultSet(schemas));
+        Mockito.when(metaData.getTables(Mockito.anyString(), Mockito.anyString(), Mockito.anyString(), Mockito.any(String[].class))).then(new Answer<ResultSet>() {
+            @Override
+            public ResultSet answer(final InvocationOnMock invocation) throws Throwable {
+                final String schema = (String) invocation.getArguments()[1];
+                return resultSet(Arrays.asList(table(schema, "table_a"), table(schema, "table_b"))).answer(invocation);
+            }
+        });
+
+        dataSource = Mockito.mock(DataSource.class);
+        Mockito.when(dataSource.getConnection()).then(new Answer<Connection>() {
+            @Override
+            public Connection answer(final InvocationOnMock invocation) throws Throwable {
+                connectionCount.incrementAndGet();
+                final Connection connection = Mockito.mock(Connection.class);
+                Mockito.when(connection.getMetaData()).thenReturn(metaData);
+                return connection;
+            }
+        });
+    }
+
+    /**
+     * Clean up test environment.
+     */
+    @After
+    public void tearDown() {
+        cache.shutdown();
+    }
+
+    /**
+     * Verify crawling schemas in parallel and caching the result.
+     */
+    @Test
+    public void listTables() throws SQLException {
+        final List<String> tables = cache.listTables(dataSource, new KerberosTicketConfiguration(), null, null);
+        Assert.assertEquals(SCHEMA_COUNT * 2, tables.size());
+        Assert.assertEquals("schema0.table_a", tables.get(0));
+        Assert.assertTrue(connectionCount.get() > SCHEMA_COUNT);
+        Mockito.verify(metaData, Mockito.times(SCHEMA_COUNT)).getTables(Mockito.anyString(), Mockito.anyString(), Mockito.anyString(), Mockito.any(String[].class));
+
+        // Test cached results
+        Assert.assertEquals(Arrays.asList("schema12.table_a", "schema12.table_b"), cache.listTables(dataSource, new KerberosTicketConfiguration(), "schema12", null));
+        Assert.assertEquals(Arrays.asList("schema1.table_a", "schema1.table_b", "schema10.table_a"), cache.search(dataSource, new KerberosTicketConfiguration(), "SCHEMA1", 3));
+        Mockito.verify(metaData, Mockito.times(SCHEMA_COUNT)).getTables(Mockito.anyString(), Mockito.anyString(), Mockito.anyString(), Mockito.any(String[].class));
+    }
+
+    /**
+     * Verify refreshing a catalog.
+     */
+    @Test
+    public void refresh() throws SQLException {
+        final DBSchemaCatalog catalog = cache.getCatalog(dataSource, new KerberosTicketConfiguration());
+        Assert.assertSame(catalog, cache.getCatalog(dataSource, new KerberosTicketConfiguration()));
+
+        final DBSchemaCatalog refreshed = cache.refresh(dataSource, new KerberosTicketConfiguration());
+        Assert.assertTrue(refreshed.getVersion() > catalog.getVersion());
+        Assert.assertEquals(catalog.getTables(), refreshed.getTables());
+        Mockito.verify(metaData, Mockito.times(SCHEMA_COUNT * 2)).getTables(Mockito.anyString(), Mockito.anyString(), Mockito.anyString(), Mockito.any(String[].class));
+    }
+
+    /**
+     * Creates a row of table metadata.
+     */
+    @Nonnull
+    private static Map<String, String> table(@Nonnull final String schema, @Nonnull final String table) {
+        final Map<String, String> row = new HashMap<>();
+        row.put("TABLE_SCHEM", schema);
+        row.put("TABLE_NAME", table);
+        return row;
+    }
+
+    /**
+     * Creates an answer that returns a new mock result set containing the specified rows.
+     */
+    @Nonnull
+    private static Answer<ResultSet> resultSet(@Nonnull final List<Map<String, String>> rows) {
+        return new Answer<ResultSet>() {
+            @Override
+            public ResultSet answer(final InvocationOnMock invocation) throws Throwable {
+                final AtomicInteger index = new AtomicInteger(-1);
+                final ResultSet rs = Mockito.mock(ResultSet.class);
+                Mockito.when(rs.next()).then(new Answer<Boolean>() {
+                    @Override
+                    public Boolean answer(final InvocationOnMock invocation) {
+                        return index.incrementAndGet() < rows.size();
+                    }
+                });
+                Mockito.when(rs.getString(Mockito.anyString())).then(new Answer<String>() {
+                    @Override
+                    public String answer(final InvocationOnMock invocation) {
+                        return rows.get(index.get()).get((String) invocation.getArguments()[0]);
+                    }
+                });
+                return rs;
+            }
+        };
+    }
+}
@@ -0,0 +1,67 @@
+package com.thinkbiganalytics.schema;
+
+/*-
+ * #%L
+ * kylo-schema-discovery-rdbms
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class DBSchemaCatalogTest {
+
+    /**
+     * Catalog for testing
+     */
+    private final DBSchemaCatalog catalog = new DBSchemaCatalog(1, Arrays.asList("sales.Orders", "HR.employees", "sales.order_items", "hr_archive.employees", "sales.customers"));
+
+    /**
+     * Verify tables are sorted by lower-case name.
+     */
+    @Test
+    public void getTables() {
+        Assert.assertEquals(Arrays.asList("HR.employees", "hr_archive.employees", "sales.customers", "sales.order_items", "sales.Orders"), catalog.getTables());
+    }
+
+    /**
+     * Verify searching by prefix.
+     */
+    @Test
+    public void search() {
+        Assert.assertEquals(Arrays.asList("sales.order_items", "sales.Orders"), catalog.search("SALES.ORD", 0));
+        Assert.assertEquals(Collections.singletonList("sales.customers"), catalog.search("sales.", 1));
+        Assert.assertEquals(Arrays.asList("HR.employees", "hr_archive.employees"), catalog.search("hr", 0));
+        Assert.assertEquals(Collections.emptyList(), catalog.search("zzz", 0));
+    }
+
+    /**
+     * Verify matching JDBC search patterns.
+     */
+    @Test
+    public void match() {
+        Assert.assertEquals(catalog.getTables(), catalog.match(null, "%"));
+        Assert.assertEquals(Collections.singletonList("HR.employees"), catalog.match("hr", null));
+        Assert.assertEquals(Arrays.asList("HR.employees", "hr_archive.employees"), catalog.match("hr%", null));
+        Assert.assertEquals(Arrays.asList("sales.order_items", "sales.Orders"), catalog.match("sales", "%ORDER%"));
+        Assert.assertEquals(Collections.singletonList("sales.Orders"), catalog.match(null, "order_"));
+        Assert.assertEquals(Collections.emptyList(), catalog.match("h.", null));
+    }
+}
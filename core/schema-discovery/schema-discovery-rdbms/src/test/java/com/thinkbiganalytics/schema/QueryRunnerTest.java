@@ -0,0 +1,167 @@
+package com.thinkbiganalytics.schema;
+
+/*-
+ * #%L
+ * kylo-schema-discovery-rdbms
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thinkbiganalytics.discovery.schema.QueryResultColumn;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+public class QueryRunnerTest {
+
+    /**
+     * Number of rows in the test table
+     */
+    private static final int ROW_COUNT = 100;
+
+    /**
+     * Query runner for the test database
+     */
+    private QueryRunner queryRunner;
+
+    /**
+     * Set up test environment.
+     */
+    @Before
+    public void setUp() {
+        final JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:QueryRunnerTest;DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbcTemplate.execute("DROP TABLE IF EXISTS people");
+        jdbcTemplate.execute("CREATE TABLE people (id INT, name VARCHAR(20))");
+        for (int i = 0; i < ROW_COUNT; ++i) {
+            jdbcTemplate.update("INSERT INTO people VALUES (?, ?)", i, "name," + i);
+        }
+        queryRunner = new QueryRunner(jdbcTemplate);
+    }
+
+    /**
+     * Verify streaming the result as JSON.
+     */
+    @Test
+    public void streamJson() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final int rowCount = queryRunner.stream("SELECT id, name FROM people ORDER BY id", new JsonQueryResultWriter(out), 10, 0);
+        Assert.assertEquals(ROW_COUNT, rowCount);
+
+        final JsonNode result = new ObjectMapper().readTree(out.toByteArray());
+        Assert.assertEquals("SELECT id, name FROM people ORDER BY id", result.get("query").asText());
+        Assert.assertEquals("ID", result.get("columns").get(0).get("displayName").asText());
+        Assert.assertEquals(ROW_COUNT, result.get("rows").size());
+        Assert.assertEquals(42, result.get("rows").get(42).get("ID").asInt());
+        Assert.assertEquals("name,42", result.get("rows").get(42).get("NAME").asText());
+        Assert.assertFalse(result.get("truncated").asBoolean());
+
+        // Same properties as a serialized DefaultQueryResult
+        Assert.assertFalse(result.get("empty").asBoolean());
+        Assert.assertEquals(1, result.get("columnDisplayNameMap").get("NAME").get("index").asInt());
+        Assert.assertEquals("NAME", result.get("columnFieldMap").get("NAME").get("displayName").asText());
+    }
+
+    /**
+     * Verify streaming the result as CSV.
+     */
+    @Test
+    public void streamCsv() {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final int rowCount = queryRunner.stream("SELECT id, name FROM people ORDER BY id", new CsvQueryResultWriter(out), 0, 0);
+        Assert.assertEquals(ROW_COUNT, rowCount);
+
+        final String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\r\n");
+        Assert.assertEquals(ROW_COUNT + 1, lines.length);
+        Assert.assertEquals("ID,NAME", lines[0]);
+        Assert.assertEquals("0,\"name,0\"", lines[1]);
+    }
+
+    /**
+     * Verify truncating the result when the byte limit is reached.
+     */
+    @Test
+    public void streamWithByteLimit() {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final StringBuilder end = new StringBuilder();
+        final int rowCount = queryRunner.stream("SELECT id, name FROM people", new AbstractQueryResultWriter(out) {
+            @Override
+            public void start(@Nonnull final String query, @Nonnull final List<QueryResultColumn> columns) {
+            }
+
+            @Override
+            public void writeRow(@Nonnull final Object[] values) throws IOException {
+                this.out.write(new byte[10]);
+            }
+
+            @Override
+            public void end(final boolean truncated) {
+                end.append(truncated);
+            }
+        }, 0, 64);
+
+        Assert.assertEquals(7, rowCount);
+        Assert.assertEquals(70, out.size());
+        Assert.assertEquals("true", end.toString());
+    }
+
+    /**
+     * Verify the query fails when the result cannot be written.
+     */
+    @Test(expected = DataRetrievalFailureException.class)
+    public void streamWithWriteFailure() {
+        queryRunner.stream("SELECT id, name FROM people", new QueryResultWriter() {
+            @Override
+            public void start(@Nonnull final String query, @Nonnull final List<QueryResultColumn> columns) {
+            }
+
+            @Override
+            public void writeRow(@Nonnull final Object[] values) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+
+            @Override
+            public void end(final boolean truncated) {
+                Assert.fail("Result should not be completed");
+            }
+
+            @Override
+            public long getBytesWritten() {
+                return 0;
+            }
+        }, 0, 0);
+    }
+
+    /**
+     * Verify that only SELECT-like queries are executed.
+     */
+    @Test(expected = DataRetrievalFailureException.class)
+    public void streamInvalidQuery() throws Exception {
+        queryRunner.stream("DROP TABLE people", new JsonQueryResultWriter(new ByteArrayOutputStream()), 0, 0);
+    }
+}
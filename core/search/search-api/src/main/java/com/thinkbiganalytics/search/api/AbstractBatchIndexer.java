@@ -0,0 +1,501 @@
+package com.thinkbiganalytics.search.api;
+
+/*-
+ * #%L
+ * kylo-search-api
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Accumulates requests into batches and sends them from a background thread, retrying failures.
+ *
+ * <p>Subclasses implement {@link #execute(List)} to send a batch using the native bulk API of the search engine.</p>
+ *
+ * <p>Batches are queued in the order they are taken, whether they are full, flushed, or due to the flush interval. They are sent one at a time from the
+ * queue, and a batch is retried until it succeeds or the retries are exhausted before the next is sent. Within a batch only the last request for each
+ * document is sent, and the earlier ones complete with its result, so retrying a failed request can never overwrite a later change to the same document.</p>
+ */
+public abstract class AbstractBatchIndexer implements BatchIndexer {
+
+    private static final Logger log = LoggerFactory.getLogger(AbstractBatchIndexer.class);
+
+    /**
+     * Number used to name the sender threads
+     */
+    private static final AtomicInteger threadNumber = new AtomicInteger();
+
+    /**
+     * Batch configuration
+     */
+    @Nonnull
+    protected final BatchIndexerConfig config;
+
+    /**
+     * Sends batches in order, and partial batches after the flush interval
+     */
+    @Nonnull
+    private final ScheduledExecutorService executor;
+
+    /**
+     * Batches waiting to be sent, in the order they were taken
+     */
+    @Nonnull
+    private final Deque<List<Request>> queue = new ArrayDeque<>();
+
+    /**
+     * Number of batches queued or being sent
+     */
+    private int pendingBatches;
+
+    /**
+     * Requests accumulated for the next batch
+     */
+    @Nonnull
+    private List<Request> batch = new ArrayList<>();
+
+    /**
+     * Estimated size of the next batch in bytes
+     */
+    private long batchBytes;
+
+    /**
+     * Indicates that no more requests are accepted
+     */
+    private boolean closed;
+
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong retryCount = new AtomicLong();
+    private final AtomicLong sentCount = new AtomicLong();
+
+    /**
+     * Constructs an {@code AbstractBatchIndexer} with the specified configuration.
+     */
+    protected AbstractBatchIndexer(@Nonnull final BatchIndexerConfig config) {
+        this.config = config;
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "search-batch-indexer-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        if (config.getFlushIntervalMillis() > 0) {
+            executor.scheduleWithFixedDelay(this::flushInterval, config.getFlushIntervalMillis(), config.getFlushIntervalMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Nonnull
+    @Override
+    public CompletableFuture<Void> index(@Nonnull final String indexName, @Nonnull final String typeName, @Nonnull final String id, @Nonnull final Map<String, Object> fields) {
+        return add(new Request(Action.INDEX, indexName, typeName, id, fields));
+    }
+
+    @Nonnull
+    @Override
+    public CompletableFuture<Void> delete(@Nonnull final String indexName, @Nonnull final String typeName, @Nonnull final String id) {
+        return add(new Request(Action.DELETE, indexName, typeName, id, null));
+    }
+
+    @Nonnull
+    @Override
+    public CompletableFuture<Void> flush() {
+        final List<Request> requests;
+        synchronized (this) {
+            requests = queueBatchLocked();
+        }
+        if (requests.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        dispatch();
+        return CompletableFuture.allOf(requests.stream().map(Request::getFuture).toArray(CompletableFuture[]::new));
+    }
+
+    @Override
+    public void close() {
+        final List<Request> requests;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            requests = queueBatchLocked();
+        }
+
+        if (!requests.isEmpty()) {
+            dispatch();
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                log.warn("Timed out waiting for batches to be sent to the search engine");
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            onClose();
+        }
+    }
+
+    /**
+     * Gets the number of batches sent to the search engine, including retries.
+     */
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    /**
+     * Gets the number of requests that failed after all retries.
+     */
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    /**
+     * Gets the number of requests that were retried.
+     */
+    public long getRetryCount() {
+        return retryCount.get();
+    }
+
+    /**
+     * Gets the number of requests acknowledged by the search engine.
+     */
+    public long getSentCount() {
+        return sentCount.get();
+    }
+
+    /**
+     * Sends the specified batch to the search engine.
+     *
+     * <p>Implementations should call {@link Request#setError(String)} for each request that was rejected.</p>
+     *
+     * @param requests the batch of requests
+     * @return the requests that failed and should be retried, or an empty list if all succeeded
+     * @throws Exception if the entire batch failed and should be retried
+     */
+    @Nonnull
+    protected abstract Collection<Request> execute(@Nonnull List<Request> requests) throws Exception;
+
+    /**
+     * Estimates the size of the specified request when sent to the search engine.
+     *
+     * @param request the request
+     * @return the size in bytes
+     */
+    protected long estimateSize(@Nonnull final Request request) {
+        return (request.getFields() != null) ? request.getFields().toString().length() : request.getId().length();
+    }
+
+    /**
+     * Releases any resources held by the implementation. Called after all batches have been sent.
+     */
+    protected void onClose() {
+    }
+
+    /**
+     * Adds the specified request to the next batch, and sends the batch if it is full.
+     */
+    @Nonnull
+    private CompletableFuture<Void> add(@Nonnull final Request request) {
+        final long size = estimateSize(request);
+        List<Request> fullBatch = null;
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("Batch indexer is closed");
+            }
+            batch.add(request);
+            batchBytes += size;
+            if (batch.size() >= config.getMaxActions() || batchBytes >= config.getMaxBytes()) {
+                fullBatch = queueBatchLocked();
+            }
+        }
+
+        if (fullBatch != null) {
+            dispatch();
+        }
+        return request.getFuture();
+    }
+
+    /**
+     * Queues the partial batch and sends the queue from the sender thread once the flush interval elapses.
+     */
+    private void flushInterval() {
+        synchronized (this) {
+            queueBatchLocked();
+        }
+        sendQueued();
+    }
+
+    /**
+     * Has the sender thread send the queued batches, then waits if too many batches are pending.
+     */
+    private void dispatch() {
+        try {
+            executor.execute(this::sendQueued);
+        } catch (final RejectedExecutionException e) {
+            failQueued(e);
+            return;
+        }
+
+        final int maxPendingBatches = Math.max(1, config.getMaxPendingBatches());
+        boolean interrupted = false;
+        synchronized (this) {
+            while (pendingBatches > maxPendingBatches && !executor.isTerminated()) {
+                try {
+                    wait(100);
+                } catch (final InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Sends the queued batches in order. Called only from the sender thread.
+     */
+    private void sendQueued() {
+        while (true) {
+            final List<Request> requests;
+            synchronized (this) {
+                requests = queue.poll();
+            }
+            if (requests == null) {
+                return;
+            }
+
+            try {
+                send(requests);
+            } finally {
+                synchronized (this) {
+                    --pendingBatches;
+                    notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Completes the futures of the queued batches exceptionally.
+     */
+    private void failQueued(@Nonnull final Exception cause) {
+        while (true) {
+            final List<Request> requests;
+            synchronized (this) {
+                requests = queue.poll();
+                if (requests != null) {
+                    --pendingBatches;
+                    notifyAll();
+                }
+            }
+            if (requests == null) {
+                return;
+            }
+            for (final Request request : requests) {
+                request.getFuture().completeExceptionally(cause);
+            }
+        }
+    }
+
+    /**
+     * Sends the specified batch, retrying any failures, and completes the futures of the requests.
+     */
+    private void send(@Nonnull final List<Request> requests) {
+        // Only send the last request for each document, in the order of those last requests
+        final Map<String, Request> latest = new LinkedHashMap<>();
+        for (final Request request : requests) {
+            final String key = request.getDocumentKey();
+            latest.remove(key);
+            latest.put(key, request);
+        }
+
+        Collection<Request> failed = new ArrayList<>(latest.values());
+        Exception error = null;
+
+        for (int attempt = 0; ; ++attempt) {
+            try {
+                batchCount.incrementAndGet();
+                failed = execute(new ArrayList<>(failed));
+                error = null;
+            } catch (final Exception e) {
+                log.debug("Failed to send batch of {} requests: {}", failed.size(), e.toString());
+                error = e;
+            }
+
+            if (failed.isEmpty() || attempt >= config.getMaxRetries()) {
+                break;
+            }
+
+            retryCount.addAndGet(failed.size());
+            try {
+                Thread.sleep(config.getRetryBackoffMillis() << attempt);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        final Set<Request> failedSet = Collections.newSetFromMap(new IdentityHashMap<>());
+        failedSet.addAll(failed);
+
+        for (final Request request : requests) {
+            final Request sent = latest.get(request.getDocumentKey());
+            if (failedSet.contains(sent)) {
+                failedCount.incrementAndGet();
+                final Exception cause = (error != null) ? error : new IOException("Failed to " + sent.getAction().name().toLowerCase() + " document in index:" + sent.getIndexName()
+                                                                                    + " type:" + sent.getTypeName() + " id:" + sent.getId() + ": " + sent.getError());
+                request.getFuture().completeExceptionally(cause);
+            } else {
+                sentCount.incrementAndGet();
+                request.getFuture().complete(null);
+            }
+        }
+
+        if (!failed.isEmpty()) {
+            log.warn("Failed to send {} of {} requests to the search engine", failed.size(), latest.size());
+        }
+    }
+
+    /**
+     * Removes the accumulated requests and adds them to the end of the queue, if any. Must hold the lock.
+     *
+     * @return the queued requests, or an empty list if none were accumulated
+     */
+    @Nonnull
+    private List<Request> queueBatchLocked() {
+        final List<Request> requests = batch;
+        if (!requests.isEmpty()) {
+            batch = new ArrayList<>();
+            batchBytes = 0;
+            queue.add(requests);
+            ++pendingBatches;
+        }
+        return requests;
+    }
+
+    /**
+     * Type of request.
+     */
+    public enum Action {
+        INDEX, DELETE
+    }
+
+    /**
+     * A request to index or delete an object.
+     */
+    public static class Request {
+
+        private final Action action;
+        private final String indexName;
+        private final String typeName;
+        private final String id;
+        private final Map<String, Object> fields;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private volatile String error;
+
+        Request(@Nonnull final Action action, @Nonnull final String indexName, @Nonnull final String typeName, @Nonnull final String id, @Nullable final Map<String, Object> fields) {
+            this.action = action;
+            this.indexName = indexName;
+            this.typeName = typeName;
+            this.id = id;
+            this.fields = fields;
+        }
+
+        @Nonnull
+        public Action getAction() {
+            return action;
+        }
+
+        @Nonnull
+        public String getIndexName() {
+            return indexName;
+        }
+
+        @Nonnull
+        public String getTypeName() {
+            return typeName;
+        }
+
+        @Nonnull
+        public String getId() {
+            return id;
+        }
+
+        /**
+         * Gets the key identifying the document changed by this request.
+         */
+        @Nonnull
+        String getDocumentKey() {
+            return indexName + '\u0000' + typeName + '\u0000' + id;
+        }
+
+        /**
+         * Gets the properties of the object, or {@code null} for a delete request.
+         */
+        @Nullable
+        public Map<String, Object> getFields() {
+            return fields;
+        }
+
+        /**
+         * Gets the reason the search engine rejected this request.
+         */
+        @Nullable
+        public String getError() {
+            return error;
+        }
+
+        /**
+         * Sets the reason the search engine rejected this request.
+         */
+        public void setError(@Nullable final String error) {
+            this.error = error;
+        }
+
+        @Nonnull
+        CompletableFuture<Void> getFuture() {
+            return future;
+        }
+    }
+}
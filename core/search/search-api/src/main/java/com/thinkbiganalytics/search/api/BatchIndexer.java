@@ -0,0 +1,76 @@
+package com.thinkbiganalytics.search.api;
+
+/*-
+ * #%L
+ * kylo-search-api
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Accumulates index and delete requests and sends them to the search engine in bulk.
+ *
+ * <p>Requests are sent once the batch reaches the maximum number of actions or size, or once the flush interval elapses, as specified by the
+ * {@link BatchIndexerConfig}. Failed requests are retried before their futures complete exceptionally.</p>
+ *
+ * <p>Changes are not visible in search results until the index is committed with {@link Search#commit(String)}.</p>
+ */
+public interface BatchIndexer extends AutoCloseable {
+
+    /**
+     * Adds a request to index the specified object.
+     *
+     * @param indexName the name of the index
+     * @param typeName  the type of object
+     * @param id        the unique identifier for the object
+     * @param fields    the properties of the object
+     * @return a future that completes when the search engine acknowledges the request
+     */
+    @Nonnull
+    CompletableFuture<Void> index(@Nonnull String indexName, @Nonnull String typeName, @Nonnull String id, @Nonnull Map<String, Object> fields);
+
+    /**
+     * Adds a request to delete the specified object if it exists.
+     *
+     * <p>Unlike {@link Search#delete(String, String, String, String, String)}, only the object itself is deleted.</p>
+     *
+     * @param indexName the name of the index
+     * @param typeName  the type of object
+     * @param id        the unique identifier for the object
+     * @return a future that completes when the search engine acknowledges the request
+     */
+    @Nonnull
+    CompletableFuture<Void> delete(@Nonnull String indexName, @Nonnull String typeName, @Nonnull String id);
+
+    /**
+     * Sends any accumulated requests.
+     *
+     * @return a future that completes when the search engine acknowledges every accumulated request
+     */
+    @Nonnull
+    CompletableFuture<Void> flush();
+
+    /**
+     * Sends any accumulated requests, waits for them to complete, and releases all resources.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,105 @@
+package com.thinkbiganalytics.search.api;
+
+/*-
+ * #%L
+ * kylo-search-api
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * Configuration for a {@link BatchIndexer}.
+ */
+public class BatchIndexerConfig {
+
+    /**
+     * Maximum number of requests in a batch
+     */
+    private int maxActions = 500;
+
+    /**
+     * Maximum estimated size of a batch in bytes
+     */
+    private long maxBytes = 5 * 1024 * 1024;
+
+    /**
+     * Time between sending partial batches in milliseconds, or 0 to only send full batches
+     */
+    private long flushIntervalMillis = 1000;
+
+    /**
+     * Maximum number of batches waiting to be sent before new requests are blocked
+     */
+    private int maxPendingBatches = 4;
+
+    /**
+     * Number of times to retry failed requests
+     */
+    private int maxRetries = 3;
+
+    /**
+     * Time to wait before the first retry in milliseconds, doubled for each following retry
+     */
+    private long retryBackoffMillis = 100;
+
+    public int getMaxActions() {
+        return maxActions;
+    }
+
+    public void setMaxActions(int maxActions) {
+        this.maxActions = maxActions;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public long getFlushIntervalMillis() {
+        return flushIntervalMillis;
+    }
+
+    public void setFlushIntervalMillis(long flushIntervalMillis) {
+        this.flushIntervalMillis = flushIntervalMillis;
+    }
+
+    public int getMaxPendingBatches() {
+        return maxPendingBatches;
+    }
+
+    public void setMaxPendingBatches(int maxPendingBatches) {
+        this.maxPendingBatches = maxPendingBatches;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public void setMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries;
+    }
+
+    public long getRetryBackoffMillis() {
+        return retryBackoffMillis;
+    }
+
+    public void setRetryBackoffMillis(long retryBackoffMillis) {
+        this.retryBackoffMillis = retryBackoffMillis;
+    }
+}
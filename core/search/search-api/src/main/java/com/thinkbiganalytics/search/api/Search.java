@@ -63,6 +63,17 @@ public interface Search extends Serializable {
      */
     void index(@Nonnull String indexName, @Nonnull String typeName, @Nonnull String id, @Nonnull Map<String, Object> fields);
 
+    /**
+     * Creates a batch indexer that sends index and delete requests to the search engine in bulk.
+     *
+     * <p>The batch indexer should be closed once all requests have been added.</p>
+     *
+     * @param config the batch configuration
+     * @return the batch indexer
+     */
+    @Nonnull
+    BatchIndexer newBatchIndexer(@Nonnull BatchIndexerConfig config);
+
     /**
      * Execute a search
      *
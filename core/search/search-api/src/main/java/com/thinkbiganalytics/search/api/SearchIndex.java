@@ -29,4 +29,9 @@ public interface SearchIndex {
      * Name of the index storing datasources.
      */
     String DATASOURCES = "kylo-datasources";
+
+    /**
+     * Name of the index storing Hive table schemas.
+     */
+    String SCHEMA_METADATA = "kylo-schema-metadata";
 }
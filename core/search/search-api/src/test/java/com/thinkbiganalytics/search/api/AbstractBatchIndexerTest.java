@@ -0,0 +1,264 @@
+package com.thinkbiganalytics.search.api;
+
+/*-
+ * #%L
+ * kylo-search-api
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+
+public class AbstractBatchIndexerTest {
+
+    private static final Map<String, Object> FIELDS = Collections.singletonMap("name", "value");
+
+    /**
+     * Verify sending a batch once the maximum number of actions is reached.
+     */
+    @Test
+    public void flushByCount() throws Exception {
+        final BatchIndexerConfig config = new BatchIndexerConfig();
+        config.setMaxActions(10);
+        config.setFlushIntervalMillis(0);
+
+        final MockBatchIndexer indexer = new MockBatchIndexer(config);
+        final List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 25; ++i) {
+            futures.add(indexer.index("index", "type", Integer.toString(i), FIELDS));
+        }
+
+        CompletableFuture.allOf(futures.subList(0, 20).toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(2, indexer.batches.size());
+        Assert.assertFalse(futures.get(20).isDone());
+
+        indexer.close();
+        Assert.assertTrue(futures.get(24).isDone());
+        Assert.assertEquals(3, indexer.batches.size());
+        Assert.assertEquals(25, indexer.getSentCount());
+    }
+
+    /**
+     * Verify sending a partial batch once the flush interval elapses.
+     */
+    @Test
+    public void flushByInterval() throws Exception {
+        final BatchIndexerConfig config = new BatchIndexerConfig();
+        config.setFlushIntervalMillis(50);
+
+        try (MockBatchIndexer indexer = new MockBatchIndexer(config)) {
+            indexer.index("index", "type", "1", FIELDS).get(10, TimeUnit.SECONDS);
+            indexer.delete("index", "type", "1").get(10, TimeUnit.SECONDS);
+            Assert.assertEquals(2, indexer.getSentCount());
+        }
+    }
+
+    /**
+     * Verify batches are sent in the order they are taken, even when a partial batch is taken by the flush interval while a full batch is waiting.
+     */
+    @Test
+    public void sendInOrder() throws Exception {
+        final BatchIndexerConfig config = new BatchIndexerConfig();
+        config.setMaxActions(2);
+        config.setMaxPendingBatches(1);
+        config.setFlushIntervalMillis(20);
+
+        final CountDownLatch sending = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final MockBatchIndexer indexer = new MockBatchIndexer(config) {
+            @Nonnull
+            @Override
+            protected Collection<Request> execute(@Nonnull final List<Request> requests) throws Exception {
+                sending.countDown();
+                release.await();
+                return super.execute(requests);
+            }
+        };
+
+        // Block sending the first batch and queue a second full batch
+        indexer.index("index", "type", "1", FIELDS);
+        indexer.index("index", "type", "2", FIELDS);
+        Assert.assertTrue(sending.await(10, TimeUnit.SECONDS));
+
+        final Thread producer = new Thread(() -> {
+            indexer.index("index", "type", "3", FIELDS);
+            indexer.index("index", "type", "4", FIELDS);
+        });
+        producer.start();
+        while (producer.getState() == Thread.State.NEW || producer.getState() == Thread.State.RUNNABLE) {
+            Thread.sleep(1);
+        }
+
+        // Add a partial batch for the flush interval
+        final CompletableFuture<Void> last = indexer.index("index", "type", "5", FIELDS);
+        Thread.sleep(50);
+        release.countDown();
+        last.get(10, TimeUnit.SECONDS);
+        producer.join(10000);
+        indexer.close();
+
+        final List<String> ids = new ArrayList<>();
+        for (final List<AbstractBatchIndexer.Request> batch : indexer.batches) {
+            for (final AbstractBatchIndexer.Request request : batch) {
+                ids.add(request.getId());
+            }
+        }
+        Assert.assertEquals(Arrays.asList("1", "2", "3", "4", "5"), ids);
+        Assert.assertEquals(3, indexer.batches.size());
+    }
+
+    /**
+     * Verify retrying failed requests and failing the future once the retries are exhausted.
+     */
+    @Test
+    public void retry() throws Exception {
+        final BatchIndexerConfig config = new BatchIndexerConfig();
+        config.setMaxRetries(2);
+        config.setRetryBackoffMillis(1);
+        config.setFlushIntervalMillis(0);
+
+        final MockBatchIndexer indexer = new MockBatchIndexer(config) {
+            @Nonnull
+            @Override
+            protected Collection<Request> execute(@Nonnull final List<Request> requests) throws Exception {
+                super.execute(requests);
+                final List<Request> failed = new ArrayList<>();
+                for (final Request request : requests) {
+                    if (request.getId().equals("bad")) {
+                        request.setError("rejected");
+                        failed.add(request);
+                    }
+                }
+                return failed;
+            }
+        };
+        final CompletableFuture<Void> good = indexer.index("index", "type", "good", FIELDS);
+        final CompletableFuture<Void> bad = indexer.index("index", "type", "bad", FIELDS);
+        indexer.flush();
+        indexer.close();
+
+        Assert.assertNull(good.get());
+        try {
+            bad.get();
+            Assert.fail("Expected request to fail");
+        } catch (final ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof IOException);
+            Assert.assertTrue(e.getCause().getMessage().endsWith("rejected"));
+        }
+        Assert.assertEquals(3, indexer.batches.size());
+        Assert.assertEquals(1, indexer.batches.get(2).size());
+        Assert.assertEquals(2, indexer.getRetryCount());
+        Assert.assertEquals(1, indexer.getFailedCount());
+        Assert.assertEquals(1, indexer.getSentCount());
+    }
+
+    /**
+     * Verify that only the last request for a document is sent, so a retried request cannot overwrite a later one.
+     */
+    @Test
+    public void supersededRequests() throws Exception {
+        final BatchIndexerConfig config = new BatchIndexerConfig();
+        config.setMaxRetries(1);
+        config.setRetryBackoffMillis(1);
+        config.setFlushIntervalMillis(0);
+
+        final List<AbstractBatchIndexer.Request> attempted = new CopyOnWriteArrayList<>();
+        final MockBatchIndexer indexer = new MockBatchIndexer(config) {
+            @Nonnull
+            @Override
+            protected Collection<Request> execute(@Nonnull final List<Request> requests) throws Exception {
+                super.execute(requests);
+                attempted.addAll(requests);
+                // Fail the first attempt of every request
+                return (batches.size() == 1) ? requests : Collections.emptyList();
+            }
+        };
+        final CompletableFuture<Void> first = indexer.index("index", "type", "1", FIELDS);
+        final CompletableFuture<Void> delete = indexer.delete("index", "type", "1");
+        final CompletableFuture<Void> other = indexer.index("index", "type", "2", FIELDS);
+        indexer.close();
+
+        Assert.assertNull(first.get());
+        Assert.assertNull(delete.get());
+        Assert.assertNull(other.get());
+        Assert.assertEquals(2, indexer.batches.size());
+        for (final List<AbstractBatchIndexer.Request> batch : indexer.batches) {
+            Assert.assertEquals(2, batch.size());
+            Assert.assertEquals(AbstractBatchIndexer.Action.DELETE, batch.get(0).getAction());
+            Assert.assertEquals("2", batch.get(1).getId());
+        }
+        Assert.assertEquals(4, attempted.size());
+        Assert.assertEquals(3, indexer.getSentCount());
+    }
+
+    /**
+     * Verify many requests are sent in full batches.
+     */
+    @Test
+    public void throughput() {
+        final BatchIndexerConfig config = new BatchIndexerConfig();
+        config.setFlushIntervalMillis(0);
+        final int count = 100000;
+
+        final MockBatchIndexer indexer = new MockBatchIndexer(config);
+        for (int i = 0; i < count; ++i) {
+            indexer.index("index", "type", Integer.toString(i), FIELDS);
+        }
+        indexer.close();
+
+        Assert.assertEquals(count, indexer.getSentCount());
+        Assert.assertEquals(0, indexer.getFailedCount());
+        Assert.assertEquals(count / config.getMaxActions(), indexer.batches.size());
+        for (final List<AbstractBatchIndexer.Request> batch : indexer.batches) {
+            Assert.assertEquals(config.getMaxActions(), batch.size());
+        }
+    }
+
+    /**
+     * Records the batches sent to the search engine.
+     */
+    private static class MockBatchIndexer extends AbstractBatchIndexer {
+
+        final List<List<Request>> batches = new CopyOnWriteArrayList<>();
+
+        MockBatchIndexer(@Nonnull final BatchIndexerConfig config) {
+            super(config);
+        }
+
+        @Nonnull
+        @Override
+        protected Collection<Request> execute(@Nonnull final List<Request> requests) throws Exception {
+            batches.add(requests);
+            return Collections.emptyList();
+        }
+    }
+}
@@ -48,6 +48,12 @@ public class EscapedLineReader {
     // the current position of the buffer
     private int bufferPos;
     private byte escapeChar;
+    // true if the previous byte was the escape character
+    private boolean prevEscape;
+    // true if the previous byte was an escaped CR
+    private boolean escapedCR;
+    // true if the previous byte was an unescaped CR that ends the line
+    private boolean pendingCR;
 
     /**
      * Create a multi-line reader that reads from the given stream using the
@@ -100,6 +106,22 @@ public class EscapedLineReader {
         in.close();
     }
 
+    /**
+     * Sets the escape state from the bytes that precede the stream, for a reader that starts in the middle of a file.
+     *
+     * <p>A newline is escaped when the byte before it is the escape character, or when it follows an escaped CR. Seeding
+     * these two bytes makes a reader opened at a split boundary find the same record boundaries as a reader that started
+     * at the beginning of the file.</p>
+     *
+     * @param beforePrevious the byte two positions before the stream, or -1 if none
+     * @param previous       the byte just before the stream, or -1 if none
+     */
+    public void setPrecedingBytes(int beforePrevious, int previous) {
+        prevEscape = (previous == escapeChar);
+        escapedCR = (previous == CR && beforePrevious == escapeChar);
+        pendingCR = false;
+    }
+
     /**
      * Read one line from the InputStream into the given Text. A line
      * can be terminated by one of the following: '\n' (LF), '\r' (CR),
@@ -116,66 +138,77 @@ public class EscapedLineReader {
     public int readLine(Text str, int maxLineLength, int maxBytesToConsume)
         throws IOException {
         /* We're reading data from in, but the head of the stream may be
-         * already buffered in buffer, so we have several cases:
-	     * 1. No newline characters are in the buffer, so we need to copy
-	     *    everything and read another buffer from the stream.
-	     * 2. An unambiguously terminated line is in buffer, so we just
-	     *    copy to str.
-	     * 3. Ambiguously terminated line is in buffer, i.e. buffer ends
-	     *    in CR.  In this case we copy everything up to CR to str, but
-	     *    we also need to see what follows CR: if it's LF, then we
-	     *    need consume LF as well, so next call to readLine will read
-	     *    from after that.
-	     * We use a flag prevCharCR to signal if previous character was CR
-	     * and, if it happens to be at the end of the buffer, delay
-	     * consuming it until we have a chance to look at the char that
-	     * follows.
-	     */
+         * already buffered in buffer. The escape state is kept in fields
+         * so that it carries over buffer refills and calls:
+         * 1. prevEscape is set if the previous byte was the escape character,
+         *    which escapes the current byte.
+         * 2. escapedCR is set if the previous byte was an escaped CR, which
+         *    also escapes a following LF.
+         * 3. pendingCR is set if the previous byte was an unescaped CR. The
+         *    line ends there, but we need to see the next byte to know if
+         *    it is a CR+LF; a CR at the end of the buffer is excluded from
+         *    the text and the decision is made after the next read.
+         */
         str.clear();
         int txtLength = 0; // tracks str.getLength() as an optimization
         int newLineLength = 0; // length of the terminating newline
-        boolean prevCharCR = false; // true if prev char was \r
         long bytesConsumed = 0;
 
         do {
-            int startPos = bufferPos; // starting from where we left off
             if (bufferPos >= bufferLength) {
-                startPos = bufferPos = 0;
-                if (prevCharCR) {
-                    ++bytesConsumed; // account for CR from previous read
-                }
+                bufferPos = 0;
                 bufferLength = in.read(buffer);
                 if (bufferLength <= 0) {
+                    bufferLength = 0;
+                    if (pendingCR) {
+                        pendingCR = false;
+                        newLineLength = 1; // CR already consumed
+                    }
                     break; // EOF
                 }
             }
-            for (; bufferPos < bufferLength; ++bufferPos) {
-                boolean escaped = false;
-                if (prevCharCR && bufferPos > 1) {
-                    escaped = (buffer[bufferPos - 2] == escapeChar);
-                }
-                if (!prevCharCR && bufferPos > 0) {
-                    escaped = (buffer[bufferPos - 1] == escapeChar);
-                }
 
-                if (buffer[bufferPos] == LF && !escaped) {
-                    newLineLength = prevCharCR ? 2 : 1;
-                    ++bufferPos; // at next loop proceed from following byte
+            int startPos = bufferPos; // starting from where we left off
+            int textEnd = -1; // end of the text in the buffer, if a newline is found
+            int crPos = -1; // position of an unescaped CR in this buffer
+            for (; bufferPos < bufferLength; ++bufferPos) {
+                byte b = buffer[bufferPos];
+                if (pendingCR) {
+                    pendingCR = false;
+                    textEnd = (crPos >= 0) ? crPos : startPos;
+                    if (b == LF) {
+                        newLineLength = 2;
+                        prevEscape = false;
+                        ++bufferPos; // at next loop proceed from following byte
+                    } else {
+                        newLineLength = 1; // CR + notLF, we are at notLF
+                    }
                     break;
                 }
-                if (prevCharCR && !escaped) { // CR + notLF, we are at notLF
-                    newLineLength = 1;
-                    break;
+
+                boolean escaped = prevEscape || (escapedCR && b == LF);
+                prevEscape = (b == escapeChar);
+                escapedCR = escaped && b == CR;
+                if (!escaped) {
+                    if (b == LF) {
+                        newLineLength = 1;
+                        textEnd = bufferPos;
+                        ++bufferPos;
+                        break;
+                    }
+                    if (b == CR) {
+                        pendingCR = true;
+                        crPos = bufferPos;
+                    }
                 }
-                prevCharCR = (buffer[bufferPos] == CR);
-                //prevCharCR = (buffer[bufferPos] == CR && !escaped);
             }
-            int readLength = bufferPos - startPos;
-            if (prevCharCR && newLineLength == 0) {
-                --readLength;
+            if (textEnd < 0) {
+                // Exclude a CR at the end of the buffer until we know what follows it
+                textEnd = pendingCR ? crPos : bufferPos;
             }
-            bytesConsumed += readLength;
-            int appendLength = readLength - newLineLength;
+
+            bytesConsumed += bufferPos - startPos;
+            int appendLength = textEnd - startPos;
             if (appendLength > maxLineLength - txtLength) {
                 appendLength = maxLineLength - txtLength;
             }
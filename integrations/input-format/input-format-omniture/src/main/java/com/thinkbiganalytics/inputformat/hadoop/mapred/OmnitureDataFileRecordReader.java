@@ -31,10 +31,15 @@ import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.Seekable;
 import org.apache.hadoop.io.LongWritable;
 import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.compress.CodecPool;
 import org.apache.hadoop.io.compress.CompressionCodec;
 import org.apache.hadoop.io.compress.CompressionCodecFactory;
+import org.apache.hadoop.io.compress.Decompressor;
+import org.apache.hadoop.io.compress.SplitCompressionInputStream;
+import org.apache.hadoop.io.compress.SplittableCompressionCodec;
 import org.apache.hadoop.mapred.FileSplit;
 import org.apache.hadoop.mapred.RecordReader;
 
@@ -44,17 +49,29 @@ import java.io.IOException;
  * EscapedLineReader gets around Omniture's pesky escaped tabs and newlines.
  * For more information about format, please refer to Omniture Documentation at
  * https://marketing.adobe.com/resources/help/en_US/sc/clickstream/analytics_clickstream.pdf.
+ *
+ * <p>Like Hadoop's LineRecordReader, each split reads the records that start after its first byte and up to and including
+ * its last byte, so large uncompressed or bzip2 files can be processed in parallel. Non-splittable codecs read the whole file.</p>
  */
 public class OmnitureDataFileRecordReader implements RecordReader<LongWritable, Text> {
 
     private static final Log LOG = LogFactory.getLog(OmnitureDataFileRecordReader.class);
 
+    private static final byte ESCAPE = '\\';
+    private static final byte TAB = '\t';
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+    private static final byte SPACE = ' ';
+
     private int maxLineLength;
     private long start;
     private long pos;
     private long end;
     private CompressionCodecFactory compressionCodecs;
     private EscapedLineReader lineReader;
+    private Seekable filePosition;
+    private boolean isCompressedInput;
+    private Decompressor decompressor;
 
     public OmnitureDataFileRecordReader(Configuration job, FileSplit split)
         throws IOException {
@@ -68,38 +85,56 @@ public class OmnitureDataFileRecordReader implements RecordReader<LongWritable,
 
         // Open the file and seek to the start of the split
         FileSystem fs = file.getFileSystem(job);
-        FSDataInputStream fileIn = fs.open(split.getPath());
-        boolean skipFirstLine = false;
+        FSDataInputStream fileIn = fs.open(file);
         if (codec != null) {
-            lineReader = new EscapedLineReader(codec.createInputStream(fileIn), job);
-            end = Long.MAX_VALUE;
+            isCompressedInput = true;
+            decompressor = CodecPool.getDecompressor(codec);
+            if (codec instanceof SplittableCompressionCodec) {
+                final SplitCompressionInputStream cIn = ((SplittableCompressionCodec) codec).createInputStream(fileIn, decompressor, start, end,
+                                                                                                               SplittableCompressionCodec.READ_MODE.BYBLOCK);
+                lineReader = new EscapedLineReader(cIn, job);
+                start = cIn.getAdjustedStart();
+                end = cIn.getAdjustedEnd();
+                filePosition = cIn;
+            } else {
+                lineReader = new EscapedLineReader(codec.createInputStream(fileIn, decompressor), job);
+                filePosition = fileIn;
+            }
         } else {
             if (start != 0) {
-                skipFirstLine = true;
-                --start;
-                fileIn.seek(start);
+                // Read the bytes before the split so that an escaped newline at the boundary is recognized
+                final long contextStart = Math.max(0, start - 2);
+                fileIn.seek(contextStart);
+                final int beforePrevious = (start >= 2) ? fileIn.read() : -1;
+                final int previous = fileIn.read();
+                lineReader = new EscapedLineReader(fileIn, job);
+                lineReader.setPrecedingBytes(beforePrevious, previous);
+            } else {
+                lineReader = new EscapedLineReader(fileIn, job);
             }
-            lineReader = new EscapedLineReader(fileIn, job);
+            filePosition = fileIn;
         }
-        if (skipFirstLine) {
-            start += lineReader.readLine(new Text(), 0, (int) Math.min((long) Integer.MAX_VALUE, end - start));
+
+        // If this is not the first split, we always throw away the first record because the previous split reads it
+        if (start != 0) {
+            start += lineReader.readLine(new Text(), 0, maxBytesToConsume(start));
         }
         this.pos = start;
     }
 
     public boolean next(LongWritable key, Text value) throws IOException {
-        while (pos <= end) {
+        // We always read one extra line, which lies outside the upper split limit i.e. (end - 1)
+        while (getFilePosition() <= end) {
             key.set(pos);
 
-            int newSize = lineReader.readLine(value, maxLineLength, Math.max((int) Math.min(Integer.MAX_VALUE, end - pos), maxLineLength));
+            int newSize = lineReader.readLine(value, maxLineLength, maxBytesToConsume(pos));
             pos += newSize;
 
             if (newSize == 0) {
                 return false;
             }
 
-            String line = value.toString().replaceAll("\\\\\\\\", "").replaceAll("\\\\\t", " ").replaceAll("\\\\(\n|\r|\r\n)", " ");
-            value.set(line);
+            unescape(value);
 
             if (newSize < maxLineLength) {
                 return true;
@@ -112,6 +147,42 @@ public class OmnitureDataFileRecordReader implements RecordReader<LongWritable,
         return false;
     }
 
+    /**
+     * Replaces escaped tabs and newlines (including CR+LF) with spaces, and removes escaped backslashes, in place.
+     *
+     * <p>The result is never longer than the line, so the bytes are rewritten in the buffer of the {@code Text} without
+     * decoding the line to a {@code String}.</p>
+     *
+     * @param value the line
+     */
+    static void unescape(Text value) {
+        final byte[] bytes = value.getBytes();
+        final int length = value.getLength();
+        int out = 0;
+        int i = 0;
+        while (i < length) {
+            final byte b = bytes[i++];
+            if (b == ESCAPE && i < length) {
+                final byte next = bytes[i];
+                if (next == ESCAPE) {
+                    ++i;
+                    continue;
+                } else if (next == TAB || next == LF || next == CR) {
+                    bytes[out++] = SPACE;
+                    ++i;
+                    if (next == CR && i < length && bytes[i] == LF) {
+                        ++i; // escaped CR+LF
+                    }
+                    continue;
+                }
+            }
+            bytes[out++] = b;
+        }
+        if (out < length) {
+            value.set(bytes, 0, out);
+        }
+    }
+
     public LongWritable createKey() {
         return new LongWritable();
     }
@@ -125,8 +196,15 @@ public class OmnitureDataFileRecordReader implements RecordReader<LongWritable,
     }
 
     public void close() throws IOException {
-        if (lineReader != null) {
-            lineReader.close();
+        try {
+            if (lineReader != null) {
+                lineReader.close();
+            }
+        } finally {
+            if (decompressor != null) {
+                CodecPool.returnDecompressor(decompressor);
+                decompressor = null;
+            }
         }
     }
 
@@ -134,7 +212,24 @@ public class OmnitureDataFileRecordReader implements RecordReader<LongWritable,
         if (start == end) {
             return 0.0f;
         } else {
-            return Math.min(1.0f, (pos - start) / (float) (end - start));
+            return Math.min(1.0f, (getFilePosition() - start) / (float) (end - start));
+        }
+    }
+
+    /**
+     * Gets the position in the underlying file, which is the compressed position for compressed input.
+     */
+    private long getFilePosition() throws IOException {
+        if (isCompressedInput && filePosition != null) {
+            return filePosition.getPos();
         }
+        return pos;
+    }
+
+    /**
+     * Gets the maximum number of bytes to read for a line starting at the specified position.
+     */
+    private int maxBytesToConsume(long pos) {
+        return isCompressedInput ? Integer.MAX_VALUE : (int) Math.max(Math.min(Integer.MAX_VALUE, end - pos), maxLineLength);
     }
 }
@@ -0,0 +1,94 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 mikes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+package com.thinkbiganalytics.inputformat.hadoop.mapred;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapred.FileSplit;
+import org.apache.hadoop.mapred.JobConf;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+
+/**
+ * Measures the local read throughput of {@link OmnitureDataFileRecordReader} over synthetic Omniture data.
+ *
+ * <p>Not run as part of the build. Usage: {@code OmnitureDataFileRecordReaderBenchmark [rows] [splitSizeMB] [iterations]}</p>
+ */
+public class OmnitureDataFileRecordReaderBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        final int rows = (args.length > 0) ? Integer.parseInt(args[0]) : 2000000;
+        final long splitSize = ((args.length > 1) ? Long.parseLong(args[1]) : 64L) * 1024 * 1024;
+        final int iterations = (args.length > 2) ? Integer.parseInt(args[2]) : 5;
+
+        final File tempDir = Files.createTempDirectory("omniture-benchmark").toFile();
+        try {
+            final File file = new File(tempDir, "clickstream.tsv");
+            try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+                new SyntheticOmnitureData(42).write(out, rows);
+            }
+            System.out.printf("Generated %d rows, %.1f MB%n", rows, file.length() / 1048576.0);
+
+            final JobConf job = new JobConf();
+            job.set("fs.defaultFS", "file:///");
+            for (int i = 0; i <= iterations; ++i) {
+                final long startTime = System.nanoTime();
+                final long records = readSplits(job, file, splitSize);
+                final double seconds = (System.nanoTime() - startTime) / 1e9;
+                System.out.printf("%s: %d records in %.2f s, %.1f MB/s, %.0f records/s%n", (i == 0) ? "warm-up" : "run " + i, records, seconds,
+                                  file.length() / 1048576.0 / seconds, records / seconds);
+            }
+        } finally {
+            FileUtils.deleteDirectory(tempDir);
+        }
+    }
+
+    private static long readSplits(JobConf job, File file, long splitSize) throws IOException {
+        long records = 0;
+        for (long start = 0; start < file.length(); start += splitSize) {
+            final FileSplit split = new FileSplit(new Path(file.toURI()), start, Math.min(splitSize, file.length() - start), (String[]) null);
+            final OmnitureDataFileRecordReader reader = new OmnitureDataFileRecordReader(job, split);
+            try {
+                final LongWritable key = reader.createKey();
+                final Text value = reader.createValue();
+                while (reader.next(key, value)) {
+                    ++records;
+                }
+            } finally {
+                reader.close();
+            }
+        }
+        return records;
+    }
+}
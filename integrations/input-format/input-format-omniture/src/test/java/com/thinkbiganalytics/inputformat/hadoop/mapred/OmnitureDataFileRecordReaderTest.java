@@ -0,0 +1,156 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 mikes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+package com.thinkbiganalytics.inputformat.hadoop.mapred;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.compress.BZip2Codec;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.mapred.FileSplit;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.util.ReflectionUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class OmnitureDataFileRecordReaderTest {
+
+    private File tempDir;
+
+    private JobConf job;
+
+    @Before
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("omniture").toFile();
+        job = new JobConf();
+        job.set("fs.defaultFS", "file:///");
+        job.set("io.compression.codecs", BZip2Codec.class.getName());
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(tempDir);
+    }
+
+    /**
+     * Verify escaped newlines, tabs and backslashes are handled, including across buffer refills.
+     */
+    @Test
+    public void readEscapedLines() throws IOException {
+        final String data = "a\\\tb\tc\\\nd\n"
+                            + "e\\\r\nf\r\n"
+                            + "g\\\\h\rlast";
+        final List<String> expected = Arrays.asList("a b\tc d", "e f", "gh", "last");
+
+        for (int bufferSize = 1; bufferSize <= 8; ++bufferSize) {
+            final EscapedLineReader reader = new EscapedLineReader(new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8)), bufferSize, (byte) '\\');
+            final List<String> lines = new ArrayList<>();
+            final Text line = new Text();
+            while (reader.readLine(line) > 0) {
+                OmnitureDataFileRecordReader.unescape(line);
+                lines.add(line.toString());
+            }
+            Assert.assertEquals("buffer size " + bufferSize, expected, lines);
+        }
+    }
+
+    /**
+     * Verify every record is read exactly once for any split size of an uncompressed file.
+     */
+    @Test
+    public void readSplits() throws IOException {
+        final File file = new File(tempDir, "clickstream.tsv");
+        try (OutputStream out = new FileOutputStream(file)) {
+            new SyntheticOmnitureData(42).write(out, 200);
+        }
+
+        final List<String> expected = readAll(file, new long[]{file.length()});
+        Assert.assertEquals(200, expected.size());
+
+        for (long splitSize = 1; splitSize < 200; splitSize += 7) {
+            Assert.assertEquals("split size " + splitSize, expected, readAll(file, splits(file.length(), splitSize)));
+        }
+    }
+
+    /**
+     * Verify splits of a bzip2 file do not read the same records twice.
+     */
+    @Test
+    public void readCompressedSplits() throws IOException {
+        final File file = new File(tempDir, "clickstream.tsv.bz2");
+        final CompressionCodec codec = ReflectionUtils.newInstance(BZip2Codec.class, job);
+        try (OutputStream out = codec.createOutputStream(new FileOutputStream(file))) {
+            new SyntheticOmnitureData(42).write(out, 200);
+        }
+
+        final List<String> expected = readAll(file, new long[]{file.length()});
+        Assert.assertEquals(200, expected.size());
+        Assert.assertEquals(expected, readAll(file, splits(file.length(), file.length() / 3 + 1)));
+    }
+
+    private long[] splits(long length, long splitSize) {
+        final int count = (int) ((length + splitSize - 1) / splitSize);
+        final long[] sizes = new long[count];
+        for (int i = 0; i < count; ++i) {
+            sizes[i] = Math.min(splitSize, length - i * splitSize);
+        }
+        return sizes;
+    }
+
+    private List<String> readAll(File file, long[] splitSizes) throws IOException {
+        final List<String> records = new ArrayList<>();
+        long start = 0;
+        for (long size : splitSizes) {
+            final OmnitureDataFileRecordReader reader = new OmnitureDataFileRecordReader(job, new FileSplit(new Path(file.toURI()), start, size, (String[]) null));
+            try {
+                final LongWritable key = reader.createKey();
+                final Text value = reader.createValue();
+                while (reader.next(key, value)) {
+                    records.add(value.toString());
+                }
+            } finally {
+                reader.close();
+            }
+            start += size;
+        }
+        return records;
+    }
+}
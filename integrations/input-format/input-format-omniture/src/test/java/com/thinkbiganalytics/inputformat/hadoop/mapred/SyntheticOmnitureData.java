@@ -0,0 +1,70 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 mikes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+package com.thinkbiganalytics.inputformat.hadoop.mapred;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Generates synthetic Omniture clickstream rows with escaped tabs, newlines and backslashes.
+ */
+class SyntheticOmnitureData {
+
+    private static final String[] PAGES = {"home", "search", "product\\\tdetail", "cart", "multi\\\nline", "checkout\\\r\nconfirm", "back\\\\slash"};
+
+    private final Random random;
+
+    SyntheticOmnitureData(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Writes the specified number of rows. Rows are terminated by LF, or CR+LF for every tenth row.
+     *
+     * @return the number of bytes written
+     */
+    long write(OutputStream out, int rows) throws IOException {
+        long bytes = 0;
+        StringBuilder row = new StringBuilder(256);
+        for (int i = 0; i < rows; ++i) {
+            row.setLength(0);
+            row.append(i).append('\t')
+                .append(1480000000L + random.nextInt(1000000)).append('\t')
+                .append(Long.toHexString(random.nextLong())).append('\t')
+                .append(PAGES[random.nextInt(PAGES.length)]).append('\t')
+                .append("http://www.example.com/").append(random.nextInt(10000)).append("?q=a\\\tb").append('\t')
+                .append(random.nextInt(100) < 5 ? "" : "Mozilla/5.0 (X11; Linux x86_64)")
+                .append(i % 10 == 0 ? "\r\n" : "\n");
+            byte[] data = row.toString().getBytes(StandardCharsets.UTF_8);
+            out.write(data);
+            bytes += data.length;
+        }
+        return bytes;
+    }
+}
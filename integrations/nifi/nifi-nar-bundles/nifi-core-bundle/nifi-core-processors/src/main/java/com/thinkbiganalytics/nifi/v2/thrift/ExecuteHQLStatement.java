@@ -21,12 +21,14 @@ package com.thinkbiganalytics.nifi.v2.thrift;
  */
 
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.thinkbiganalytics.nifi.processor.AbstractNiFiProcessor;
 import com.thinkbiganalytics.nifi.v2.ingest.IngestProperties;
 
-import org.apache.commons.lang3.StringUtils;
 import org.apache.nifi.annotation.behavior.EventDriven;
 import org.apache.nifi.annotation.behavior.InputRequirement;
+import org.apache.nifi.annotation.behavior.WritesAttribute;
+import org.apache.nifi.annotation.behavior.WritesAttributes;
 import org.apache.nifi.annotation.documentation.CapabilityDescription;
 import org.apache.nifi.annotation.documentation.Tags;
 import org.apache.nifi.components.PropertyDescriptor;
@@ -39,22 +41,53 @@ import org.apache.nifi.processor.util.StandardValidators;
 import org.apache.nifi.util.StopWatch;
 
 import java.sql.Connection;
+import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
+import javax.annotation.Nonnull;
+
 
 @EventDriven
 @InputRequirement(InputRequirement.Requirement.INPUT_REQUIRED)
 @Tags({"hive", "ddl", "dml", "jdbc", "thinkbig"})
-@CapabilityDescription("Execute provided HIVE or Spark statement. This can be any HQL DML or DDL statement that results in no results."
+@CapabilityDescription("Execute provided HIVE or Spark statement. This can be any HQL DML or DDL statement that results in no results. Multiple statements may be separated by "
+                       + "semicolons. Independent DDL statements may be run concurrently on separate connections."
 )
+@WritesAttributes({
+    @WritesAttribute(attribute = "hql.statement.count", description = "Number of statements executed"),
+    @WritesAttribute(attribute = "hql.statement.N.millis", description = "Time taken to execute the Nth statement, starting at 1"),
+    @WritesAttribute(attribute = "hql.statements.millis", description = "Total time taken to execute all statements")
+})
 public class ExecuteHQLStatement extends AbstractNiFiProcessor {
 
+    /**
+     * Attribute for the number of statements executed
+     */
+    public static final String STATEMENT_COUNT_ATTRIBUTE = "hql.statement.count";
+
+    /**
+     * Prefix of the attributes for the time taken by each statement
+     */
+    public static final String STATEMENT_MILLIS_ATTRIBUTE_PREFIX = "hql.statement.";
+
+    /**
+     * Attribute for the total time taken by all statements
+     */
+    public static final String TOTAL_MILLIS_ATTRIBUTE = "hql.statements.millis";
+
     public static final PropertyDescriptor THRIFT_SERVICE = new PropertyDescriptor.Builder()
         .name("Database Connection Pooling Service")
         .description("The Controller Service that is used to obtain connection to database")
@@ -68,6 +101,15 @@ public class ExecuteHQLStatement extends AbstractNiFiProcessor {
         .addValidator(StandardValidators.NON_EMPTY_VALIDATOR)
         .expressionLanguageSupported(true)
         .build();
+    public static final PropertyDescriptor MAX_CONCURRENT_STATEMENTS = new PropertyDescriptor.Builder()
+        .name("Max Concurrent Statements")
+        .description("The maximum number of statements to run at the same time, each on its own connection from the pool. Statements that modify the same database or table, "
+                     + "and statements that are not simple DDL, are always run in order. If any statement changes the connection, such as SET, USE, or ADD JAR, then all "
+                     + "statements are run in order on a single connection.")
+        .required(true)
+        .defaultValue("1")
+        .addValidator(StandardValidators.POSITIVE_INTEGER_VALIDATOR)
+        .build();
     private final Set<Relationship> relationships;
     private final List<PropertyDescriptor> propDescriptors;
 
@@ -80,6 +122,7 @@ public class ExecuteHQLStatement extends AbstractNiFiProcessor {
         final List<PropertyDescriptor> pds = new ArrayList<>();
         pds.add(THRIFT_SERVICE);
         pds.add(SQL_DDL_STATEMENT);
+        pds.add(MAX_CONCURRENT_STATEMENTS);
         propDescriptors = Collections.unmodifiableList(pds);
     }
 
@@ -101,10 +144,10 @@ public class ExecuteHQLStatement extends AbstractNiFiProcessor {
         }
 
         final String ddlQuery = context.getProperty(SQL_DDL_STATEMENT).evaluateAttributeExpressions(flowFile).getValue();
-        String[] hiveStatements = StringUtils.split(ddlQuery, ';');
+        final List<String> hiveStatements = HQLStatementParser.split(ddlQuery);
         final ThriftService thriftService = context.getProperty(THRIFT_SERVICE).asControllerService(ThriftService.class);
 
-        executeStatements(context,session, flowFile, hiveStatements, thriftService);
+        executeStatements(context, session, flowFile, hiveStatements.toArray(new String[hiveStatements.size()]), thriftService);
     }
 
     public void executeStatements(ProcessContext context,ProcessSession session, FlowFile flowFile, String[] hiveStatements, ThriftService thriftService) {
@@ -113,28 +156,109 @@ public class ExecuteHQLStatement extends AbstractNiFiProcessor {
         String EXCEPTION_STATUS_KEY = "HQLStmt Status ";
 
         final StopWatch stopWatch = new StopWatch(true);
+        final List<HQLStatement> statements = HQLStatementParser.parse(Arrays.asList(hiveStatements));
+        final long[] durations = new long[statements.size()];
+        Arrays.fill(durations, -1);
 
-        try (final Connection con = thriftService.getConnection();
-             final Statement st = con.createStatement()) {
-            boolean result = false;
+        // Subclasses may not support the concurrency property
+        final Integer maxConcurrent = context.getProperty(MAX_CONCURRENT_STATEMENTS).asInteger();
+
+        try {
+            final boolean result;
             EXCEPTION_STATUS_KEY = context.getName() + EXCEPTION_STATUS_KEY;
 
-            for (String statement : hiveStatements) {
-                //  leading whitespace will cause Hive statement to fail
-                statement = statement.trim();
-                logger.debug("Executing statement: '{}'", new Object[] {statement} );
-                result = st.execute(statement);
+            if (maxConcurrent != null && maxConcurrent > 1 && statements.size() > 1 && !HQLStatementParser.requiresSession(statements)) {
+                result = executeConcurrently(statements, thriftService, maxConcurrent, durations);
+            } else {
+                result = executeSerially(statements, thriftService, durations);
             }
 
-            session.getProvenanceReporter().modifyContent(flowFile, "Execution result " + result, stopWatch.getElapsed(TimeUnit.MILLISECONDS));
+            final long elapsed = stopWatch.getElapsed(TimeUnit.MILLISECONDS);
+            flowFile = session.putAllAttributes(flowFile, getTimingAttributes(durations, elapsed));
+            session.getProvenanceReporter().modifyContent(flowFile, "Execution result " + result + "; statement times (ms) " + Arrays.toString(durations), elapsed);
             session.transfer(flowFile, IngestProperties.REL_SUCCESS);
         } catch (final Exception e) {
             logger.error("Unable to execute SQL DDL {} for {} due to {}; routing to failure", new Object[]{hiveStatements, flowFile, e});
             logger.error(e.getMessage());
             //add the exception to the flow file
+            flowFile = session.putAllAttributes(flowFile, getTimingAttributes(durations, stopWatch.getElapsed(TimeUnit.MILLISECONDS)));
             flowFile = session.putAttribute(flowFile, EXCEPTION_STATUS_KEY, "Failed With Exception: "+(e.getMessage().length() > 300 ? e.getMessage().substring(0,300) : e.getMessage()));
             session.transfer(flowFile, IngestProperties.REL_FAILURE);
         }
     }
 
-}
\ No newline at end of file
+    /**
+     * Executes the statements in order on a single connection.
+     *
+     * @return the result of the last statement
+     */
+    private boolean executeSerially(@Nonnull final List<HQLStatement> statements, @Nonnull final ThriftService thriftService, @Nonnull final long[] durations) throws SQLException {
+        boolean result = false;
+        try (final Connection con = thriftService.getConnection();
+             final Statement st = con.createStatement()) {
+            for (final HQLStatement statement : statements) {
+                result = executeStatement(st, statement, durations);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Executes each statement on its own connection once the statements it depends on have completed.
+     *
+     * @return the result of the last statement
+     */
+    private boolean executeConcurrently(@Nonnull final List<HQLStatement> statements, @Nonnull final ThriftService thriftService, final int maxConcurrent,
+                                        @Nonnull final long[] durations) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(maxConcurrent, statements.size()),
+                                                                      new ThreadFactoryBuilder().setDaemon(true).setNameFormat("hql-statement-%d").build());
+        try {
+            final List<CompletableFuture<Boolean>> futures = new ArrayList<>(statements.size());
+            for (final HQLStatement statement : statements) {
+                final CompletableFuture<?>[] dependencies = statement.getDependencies().stream().map(futures::get).toArray(CompletableFuture[]::new);
+                futures.add(CompletableFuture.allOf(dependencies).thenApplyAsync(ignored -> {
+                    try (final Connection con = thriftService.getConnection();
+                         final Statement st = con.createStatement()) {
+                        return executeStatement(st, statement, durations);
+                    } catch (final SQLException e) {
+                        throw new CompletionException(e);
+                    }
+                }, executor));
+            }
+
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()])).join();
+            return futures.get(futures.size() - 1).join();
+        } catch (final CompletionException e) {
+            throw (e.getCause() instanceof Exception) ? (Exception) e.getCause() : e;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Executes the specified statement and records how long it took.
+     */
+    private boolean executeStatement(@Nonnull final Statement st, @Nonnull final HQLStatement statement, @Nonnull final long[] durations) throws SQLException {
+        getLog().debug("Executing statement: '{}'", new Object[]{statement.getSql()});
+        final long start = System.currentTimeMillis();
+        final boolean result = st.execute(statement.getSql());
+        durations[statement.getIndex()] = System.currentTimeMillis() - start;
+        return result;
+    }
+
+    /**
+     * Gets the flow file attributes for the time taken by each completed statement.
+     */
+    @Nonnull
+    private Map<String, String> getTimingAttributes(@Nonnull final long[] durations, final long elapsed) {
+        final Map<String, String> attributes = new HashMap<>();
+        attributes.put(STATEMENT_COUNT_ATTRIBUTE, Integer.toString(durations.length));
+        attributes.put(TOTAL_MILLIS_ATTRIBUTE, Long.toString(elapsed));
+        for (int i = 0; i < durations.length; ++i) {
+            if (durations[i] >= 0) {
+                attributes.put(STATEMENT_MILLIS_ATTRIBUTE_PREFIX + (i + 1) + ".millis", Long.toString(durations[i]));
+            }
+        }
+        return attributes;
+    }
+}
@@ -0,0 +1,82 @@
+package com.thinkbiganalytics.nifi.v2.thrift;
+
+/*-
+ * #%L
+ * thinkbig-nifi-core-processors
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+/**
+ * A single HQL statement and the earlier statements that must complete before it may run.
+ *
+ * @see HQLStatementParser
+ */
+public class HQLStatement {
+
+    private final int index;
+    private final String sql;
+    private final boolean sessionStatement;
+    private final List<Integer> dependencies;
+
+    HQLStatement(final int index, @Nonnull final String sql, final boolean sessionStatement, @Nonnull final List<Integer> dependencies) {
+        this.index = index;
+        this.sql = sql;
+        this.sessionStatement = sessionStatement;
+        this.dependencies = Collections.unmodifiableList(dependencies);
+    }
+
+    /**
+     * Gets the position of this statement in the script, starting at 0.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Gets the statement text without the terminating semicolon.
+     */
+    @Nonnull
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * Indicates that this statement changes the state of the connection, such as {@code SET}, {@code USE}, or {@code ADD JAR}, and so every following
+     * statement must run on the same connection.
+     */
+    public boolean isSessionStatement() {
+        return sessionStatement;
+    }
+
+    /**
+     * Gets the indexes of the earlier statements that must complete before this statement.
+     */
+    @Nonnull
+    public List<Integer> getDependencies() {
+        return dependencies;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{index=" + index + ", sql='" + sql + "', dependencies=" + dependencies + "}";
+    }
+}
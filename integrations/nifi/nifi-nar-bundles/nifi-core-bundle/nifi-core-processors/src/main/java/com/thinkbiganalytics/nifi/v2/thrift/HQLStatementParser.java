@@ -0,0 +1,333 @@
+package com.thinkbiganalytics.nifi.v2.thrift;
+
+/*-
+ * #%L
+ * thinkbig-nifi-core-processors
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Splits an HQL script into statements and determines which statements may run at the same time.
+ *
+ * <p>Statements that create, alter, or drop a single database or table are recognized. Two such statements depend on each other if they modify the same
+ * object, or if one modifies a database and the other uses a table in that database. Any other statement, such as an {@code INSERT} or a
+ * {@code CREATE TABLE ... AS SELECT}, depends on every statement before it and every statement after it depends on it.</p>
+ */
+public class HQLStatementParser {
+
+    /**
+     * Matches a database or table identifier, either plain or quoted with backticks
+     */
+    private static final String IDENTIFIER = "(`(?:[^`]|``)+`|[\\w$]+)";
+
+    /**
+     * Matches an optional {@code IF EXISTS} or {@code IF NOT EXISTS} clause
+     */
+    private static final String IF_EXISTS = "(?:IF\\s+(?:NOT\\s+)?EXISTS\\s+)?";
+
+    /**
+     * Matches statements that change the state of the connection
+     */
+    private static final Pattern SESSION = Pattern.compile("^(?:SET|USE|RESET|RELOAD|(?:ADD|DELETE|LIST)\\s+(?:JARS?|FILES?|ARCHIVES?)"
+                                                           + "|(?:CREATE|DROP)\\s+TEMPORARY\\s+(?:FUNCTION|MACRO|TABLE))\\b",
+                                                           Pattern.CASE_INSENSITIVE);
+
+    /**
+     * Matches statements that modify a database
+     */
+    private static final Pattern DATABASE = Pattern.compile("^(?:CREATE|DROP|ALTER)\\s+(?:DATABASE|SCHEMA)\\s+" + IF_EXISTS + IDENTIFIER, Pattern.CASE_INSENSITIVE);
+
+    /**
+     * Matches statements that modify a table or view
+     */
+    private static final Pattern TABLE = Pattern.compile("^(?:CREATE\\s+(?:EXTERNAL\\s+)?TABLE|ALTER\\s+TABLE|DROP\\s+TABLE|DROP\\s+VIEW|TRUNCATE\\s+TABLE|MSCK\\s+(?:REPAIR\\s+)?TABLE"
+                                                         + "|ANALYZE\\s+TABLE)\\s+" + IF_EXISTS + IDENTIFIER + "(?:\\s*\\.\\s*" + IDENTIFIER + ")?",
+                                                         Pattern.CASE_INSENSITIVE);
+
+    /**
+     * Matches a reference to another table in a table statement
+     */
+    private static final Pattern TABLE_REFERENCE = Pattern.compile("\\b(?:LIKE|RENAME\\s+TO|EXCHANGE\\s+PARTITION\\s*\\([^)]*\\)\\s+WITH\\s+TABLE)\\s+" + IDENTIFIER
+                                                                   + "(?:\\s*\\.\\s*" + IDENTIFIER + ")?", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * Matches a query within a table statement
+     */
+    private static final Pattern QUERY = Pattern.compile("\\bSELECT\\b", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * Instances of {@code HQLStatementParser} should not be constructed.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    private HQLStatementParser() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Splits the specified script into statements.
+     *
+     * <p>Semicolons within quoted strings and identifiers do not end a statement. Comments starting with {@code --} are removed, and blank statements are
+     * skipped.</p>
+     *
+     * @param script the HQL script
+     * @return the statements
+     */
+    @Nonnull
+    public static List<String> split(@Nullable final String script) {
+        if (script == null) {
+            return Collections.emptyList();
+        }
+
+        final List<String> statements = new ArrayList<>();
+        final StringBuilder statement = new StringBuilder();
+        char quote = 0;
+
+        for (int i = 0; i < script.length(); ++i) {
+            final char c = script.charAt(i);
+            if (quote != 0) {
+                statement.append(c);
+                if (c == '\\' && quote != '`' && i + 1 < script.length()) {
+                    statement.append(script.charAt(++i));
+                } else if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"' || c == '`') {
+                quote = c;
+                statement.append(c);
+            } else if (c == '-' && i + 1 < script.length() && script.charAt(i + 1) == '-') {
+                while (i + 1 < script.length() && script.charAt(i + 1) != '\n') {
+                    ++i;
+                }
+            } else if (c == ';') {
+                addStatement(statements, statement);
+            } else {
+                statement.append(c);
+            }
+        }
+
+        addStatement(statements, statement);
+        return statements;
+    }
+
+    /**
+     * Parses the specified statements and determines the dependencies between them.
+     *
+     * @param statements the statements in the order they should be executed
+     * @return the parsed statements
+     */
+    @Nonnull
+    public static List<HQLStatement> parse(@Nonnull final List<String> statements) {
+        final List<Access> accesses = new ArrayList<>(statements.size());
+        final List<HQLStatement> result = new ArrayList<>(statements.size());
+
+        for (final String sql : statements) {
+            final String trimmed = sql.trim();
+            final Access access = getAccess(trimmed);
+            final List<Integer> dependencies = new ArrayList<>();
+
+            for (int i = 0; i < accesses.size(); ++i) {
+                if (access.dependsOn(accesses.get(i))) {
+                    dependencies.add(i);
+                }
+            }
+
+            result.add(new HQLStatement(result.size(), trimmed, access.session, dependencies));
+            accesses.add(access);
+        }
+
+        return result;
+    }
+
+    /**
+     * Indicates that any of the specified statements changes the state of the connection.
+     *
+     * @param statements the parsed statements
+     * @return {@code true} if the statements must all run on the same connection
+     */
+    public static boolean requiresSession(@Nonnull final List<HQLStatement> statements) {
+        for (final HQLStatement statement : statements) {
+            if (statement.isSessionStatement()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds the specified statement to the list if it is not blank, and clears the buffer.
+     */
+    private static void addStatement(@Nonnull final List<String> statements, @Nonnull final StringBuilder statement) {
+        final String sql = statement.toString().trim();
+        if (!sql.isEmpty()) {
+            statements.add(sql);
+        }
+        statement.setLength(0);
+    }
+
+    /**
+     * Determines the objects used by the specified statement.
+     */
+    @Nonnull
+    private static Access getAccess(@Nonnull final String sql) {
+        if (SESSION.matcher(sql).find()) {
+            return Access.barrier(true);
+        }
+
+        final Matcher database = DATABASE.matcher(sql);
+        if (database.find()) {
+            final Access access = new Access();
+            access.writes.add(new Target(unquote(database.group(1)), null));
+            return access;
+        }
+
+        final Matcher table = TABLE.matcher(sql);
+        if (table.find() && !QUERY.matcher(sql).find(table.end())) {
+            final Access access = new Access();
+            access.writes.add(getTable(table.group(1), table.group(2)));
+
+            final Matcher reference = TABLE_REFERENCE.matcher(sql);
+            if (reference.find(table.end())) {
+                final Target target = getTable(reference.group(1), reference.group(2));
+                if (reference.group().regionMatches(true, 0, "LIKE", 0, 4)) {
+                    access.reads.add(target);
+                } else {
+                    access.writes.add(target);
+                }
+            }
+            return access;
+        }
+
+        return Access.barrier(false);
+    }
+
+    /**
+     * Creates a table target from the matched identifiers.
+     */
+    @Nonnull
+    private static Target getTable(@Nonnull final String first, @Nullable final String second) {
+        return (second != null) ? new Target(unquote(first), unquote(second)) : new Target(null, unquote(first));
+    }
+
+    /**
+     * Removes the backticks from the specified identifier and converts it to lower case.
+     */
+    @Nonnull
+    private static String unquote(@Nonnull final String identifier) {
+        final String name = (identifier.startsWith("`") && identifier.endsWith("`")) ? identifier.substring(1, identifier.length() - 1).replace("``", "`") : identifier;
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * A database, or a table within a database.
+     */
+    private static class Target {
+
+        /**
+         * Name of the database, or {@code null} for the current database
+         */
+        @Nullable
+        final String database;
+
+        /**
+         * Name of the table, or {@code null} for the database itself
+         */
+        @Nullable
+        final String table;
+
+        Target(@Nullable final String database, @Nullable final String table) {
+            this.database = database;
+            this.table = table;
+        }
+
+        /**
+         * Indicates that this target may be the same as, or contain, the specified target.
+         */
+        boolean overlaps(@Nonnull final Target other) {
+            final boolean sameDatabase = database == null || other.database == null || database.equals(other.database);
+            return sameDatabase && (table == null || other.table == null || table.equals(other.table));
+        }
+    }
+
+    /**
+     * The objects modified and used by a statement.
+     */
+    private static class Access {
+
+        /**
+         * Indicates that the statement must run after all previous statements and before all following statements
+         */
+        boolean barrier;
+
+        /**
+         * Indicates that the statement changes the state of the connection
+         */
+        boolean session;
+
+        /**
+         * Objects used by the statement
+         */
+        final List<Target> reads = new ArrayList<>();
+
+        /**
+         * Objects modified by the statement
+         */
+        final List<Target> writes = new ArrayList<>();
+
+        /**
+         * Creates an access for a statement that cannot run concurrently with any other statement.
+         */
+        @Nonnull
+        static Access barrier(final boolean session) {
+            final Access access = new Access();
+            access.barrier = true;
+            access.session = session;
+            return access;
+        }
+
+        /**
+         * Indicates that this statement must run after the specified earlier statement.
+         */
+        boolean dependsOn(@Nonnull final Access previous) {
+            return barrier || previous.barrier || overlaps(previous.writes, writes) || overlaps(previous.writes, reads) || overlaps(writes, previous.reads);
+        }
+
+        /**
+         * Indicates that any target in the first list overlaps any target in the second list.
+         */
+        private static boolean overlaps(@Nonnull final List<Target> first, @Nonnull final List<Target> second) {
+            for (final Target a : first) {
+                for (final Target b : second) {
+                    if (a.overlaps(b)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+}
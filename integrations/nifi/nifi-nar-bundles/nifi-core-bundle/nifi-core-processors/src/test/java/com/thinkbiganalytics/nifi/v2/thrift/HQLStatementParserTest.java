@@ -0,0 +1,86 @@
+package com.thinkbiganalytics.nifi.v2.thrift;
+
+/*-
+ * #%L
+ * thinkbig-nifi-core-processors
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class HQLStatementParserTest {
+
+    /**
+     * Verify splitting a script into statements.
+     */
+    @Test
+    public void split() {
+        final String script = "-- create tables; for the feed\n"
+                              + "CREATE TABLE a (id INT COMMENT 'id; the key') ROW FORMAT DELIMITED FIELDS TERMINATED BY ';';\n"
+                              + "CREATE TABLE `b;c` (name STRING COMMENT \"it\\\"s; quoted\");;\n"
+                              + "  ALTER TABLE a SET TBLPROPERTIES ('x'='\\';') -- trailing; comment\n";
+        Assert.assertEquals(Arrays.asList("CREATE TABLE a (id INT COMMENT 'id; the key') ROW FORMAT DELIMITED FIELDS TERMINATED BY ';'",
+                                          "CREATE TABLE `b;c` (name STRING COMMENT \"it\\\"s; quoted\")",
+                                          "ALTER TABLE a SET TBLPROPERTIES ('x'='\\';')"),
+                            HQLStatementParser.split(script));
+        Assert.assertEquals(Collections.emptyList(), HQLStatementParser.split(" ; -- nothing\n"));
+        Assert.assertEquals(Collections.emptyList(), HQLStatementParser.split(null));
+    }
+
+    /**
+     * Verify dependencies between feed table statements.
+     */
+    @Test
+    public void parse() {
+        final List<HQLStatement> statements = HQLStatementParser.parse(Arrays.asList(
+            "CREATE DATABASE IF NOT EXISTS `cat`",
+            "CREATE EXTERNAL TABLE IF NOT EXISTS `cat`.`feed_feed` (id STRING) LOCATION '/etl/cat/feed/feed'",
+            "CREATE TABLE IF NOT EXISTS cat.feed_valid (id STRING) STORED AS ORC",
+            "CREATE TABLE IF NOT EXISTS `cat`.`feed_invalid` (id STRING)",
+            "CREATE TABLE IF NOT EXISTS `cat`.`feed` LIKE `cat`.`feed_valid`",
+            "ALTER TABLE cat.feed_valid SET TBLPROPERTIES ('orc.compress'='SNAPPY')",
+            "INSERT INTO TABLE cat.feed SELECT * FROM cat.feed_valid",
+            "DROP TABLE IF EXISTS other.feed_valid"));
+
+        Assert.assertEquals(Collections.emptyList(), statements.get(0).getDependencies());
+        Assert.assertEquals(Collections.singletonList(0), statements.get(1).getDependencies());
+        Assert.assertEquals(Collections.singletonList(0), statements.get(2).getDependencies());
+        Assert.assertEquals(Collections.singletonList(0), statements.get(3).getDependencies());
+        Assert.assertEquals(Arrays.asList(0, 2), statements.get(4).getDependencies());
+        Assert.assertEquals(Arrays.asList(0, 2, 4), statements.get(5).getDependencies());
+        Assert.assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5), statements.get(6).getDependencies());
+        Assert.assertEquals(Collections.singletonList(6), statements.get(7).getDependencies());
+        Assert.assertFalse(HQLStatementParser.requiresSession(statements));
+    }
+
+    /**
+     * Verify statements that change the connection.
+     */
+    @Test
+    public void parseWithSession() {
+        final List<HQLStatement> statements = HQLStatementParser.parse(Arrays.asList("ADD JAR /opt/es-hadoop.jar", "CREATE TABLE t (id INT)", "set hive.exec.dynamic.partition=true"));
+        Assert.assertTrue(statements.get(0).isSessionStatement());
+        Assert.assertEquals(Collections.singletonList(0), statements.get(1).getDependencies());
+        Assert.assertTrue(statements.get(2).isSessionStatement());
+        Assert.assertTrue(HQLStatementParser.requiresSession(statements));
+    }
+}
@@ -27,10 +27,16 @@ import com.google.gson.reflect.TypeToken;
 import com.thinkbiganalytics.nifi.processor.AbstractNiFiProcessor;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.nifi.annotation.behavior.InputRequirement;
+import org.apache.nifi.annotation.behavior.Stateful;
+import org.apache.nifi.annotation.behavior.WritesAttribute;
+import org.apache.nifi.annotation.behavior.WritesAttributes;
 import org.apache.nifi.annotation.documentation.CapabilityDescription;
 import org.apache.nifi.annotation.documentation.Tags;
 import org.apache.nifi.components.PropertyDescriptor;
+import org.apache.nifi.components.state.Scope;
+import org.apache.nifi.components.state.StateMap;
 import org.apache.nifi.flowfile.FlowFile;
 import org.apache.nifi.logging.ComponentLog;
 import org.apache.nifi.processor.ProcessContext;
@@ -41,6 +47,7 @@ import org.apache.nifi.processor.io.InputStreamCallback;
 import org.apache.nifi.processor.io.OutputStreamCallback;
 import org.apache.nifi.processor.util.StandardValidators;
 import org.codehaus.jettison.json.JSONArray;
+import org.codehaus.jettison.json.JSONException;
 import org.codehaus.jettison.json.JSONObject;
 
 import java.io.IOException;
@@ -55,6 +62,8 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This processor aggregates JSON metadata about a hive table so that a table and it's columns are in one JSON document
@@ -62,8 +71,41 @@ import java.util.Set;
 @InputRequirement(InputRequirement.Requirement.INPUT_REQUIRED)
 @Tags({"hive", "metadata", "thinkbig", "elasticsearch", "solr"})
 @CapabilityDescription("Aggregate JSON across multiple documents into one document representing a Hive table (V2)")
+@Stateful(scopes = Scope.LOCAL, description = "In incremental mode, stores the last modified time of each table and the time of the last reconciliation.")
+@WritesAttributes({
+    @WritesAttribute(attribute = "hive.metadata.table.count", description = "Number of tables in the output"),
+    @WritesAttribute(attribute = "hive.metadata.removed.tables", description = "In incremental mode, JSON array of the tables, as database.table, that are no longer in the "
+                                                                            + "table listing, or in the input if no listing is configured. Post it to "
+                                                                            + "/proxy/v1/feedmgr/search/hive-tables/delete to remove the tables from the search index."),
+    @WritesAttribute(attribute = "hive.metadata.reconciled", description = "In incremental mode, true if every table was output because the reconciliation interval elapsed")
+})
 public class MergeHiveTableMetadata extends AbstractNiFiProcessor {
 
+    /**
+     * Attribute for the number of tables in the output
+     */
+    public static final String TABLE_COUNT_ATTRIBUTE = "hive.metadata.table.count";
+
+    /**
+     * Attribute for the tables no longer in the input
+     */
+    public static final String REMOVED_TABLES_ATTRIBUTE = "hive.metadata.removed.tables";
+
+    /**
+     * Attribute indicating that every table was output
+     */
+    public static final String RECONCILED_ATTRIBUTE = "hive.metadata.reconciled";
+
+    /**
+     * State key for the time of the last reconciliation
+     */
+    private static final String RECONCILED_STATE = "reconciled";
+
+    /**
+     * Prefix of the state keys for the modified time of each table
+     */
+    private static final String TABLE_STATE_PREFIX = "table:";
+
     /**
      * Success Relationship for when JSON objects are successfully merged
      */
@@ -177,6 +219,57 @@ public class MergeHiveTableMetadata extends AbstractNiFiProcessor {
         .defaultValue("COMMENT")
         .build();
 
+    /**
+     * A property for the table last DDL time
+     */
+    public static final PropertyDescriptor TABLE_LAST_DDL_TIME = new PropertyDescriptor.Builder()
+        .name("Table Last DDL Time Field")
+        .description("Field representing the time the table was last altered, such as the transient_lastDdlTime table parameter. The metastore query must join "
+                     + "TABLE_PARAMS on PARAM_KEY = 'transient_lastDdlTime' and select PARAM_VALUE as this field. If missing then the table create time is used, "
+                     + "and altered tables are only output when the reconciliation interval elapses.")
+        .required(false)
+        .addValidator(StandardValidators.NON_EMPTY_VALIDATOR)
+        .expressionLanguageSupported(true)
+        .defaultValue("LAST_DDL_TIME")
+        .build();
+
+    /**
+     * A property to only output tables that have changed
+     */
+    public static final PropertyDescriptor INCREMENTAL = new PropertyDescriptor.Builder()
+        .name("Incremental")
+        .description("If true, only tables that are new or whose create time or last DDL time has changed since the previous run are output. Tables that are no longer in "
+                     + "the Table Listing, or in the input if no listing is set, are listed in the hive.metadata.removed.tables attribute.")
+        .required(true)
+        .allowableValues("true", "false")
+        .defaultValue("false")
+        .build();
+
+    /**
+     * A property for how often to output every table in incremental mode
+     */
+    public static final PropertyDescriptor RECONCILIATION_INTERVAL = new PropertyDescriptor.Builder()
+        .name("Reconciliation Interval")
+        .description("In incremental mode, the time after which every table is output again, to correct any changes missed by the index.")
+        .required(true)
+        .addValidator(StandardValidators.TIME_PERIOD_VALIDATOR)
+        .defaultValue("24 hours")
+        .build();
+
+    /**
+     * A property listing every table, for inputs that contain only the changed tables
+     */
+    public static final PropertyDescriptor TABLE_LISTING = new PropertyDescriptor.Builder()
+        .name("Table Listing")
+        .description("In incremental mode, JSON listing every table as database.table, either as an array or as the keys of an object such as the response of "
+                     + "/v1/hive/table-modified-times. If set, the input may contain only the tables that changed, such as the result of /v1/hive/table-schemas?modifiedSince, "
+                     + "and removed tables are those missing from this listing. If not set, the input must contain every table and tables missing from the input are "
+                     + "reported as removed.")
+        .required(false)
+        .addValidator(StandardValidators.NON_EMPTY_VALIDATOR)
+        .expressionLanguageSupported(true)
+        .build();
+
     private final Set<Relationship> relationships;
     private final List<PropertyDescriptor> propDescriptors;
 
@@ -198,6 +291,10 @@ public class MergeHiveTableMetadata extends AbstractNiFiProcessor {
         pds.add(COLUMN_NAME);
         pds.add(COLUMN_TYPE);
         pds.add(COLUMN_COMMENT);
+        pds.add(TABLE_LAST_DDL_TIME);
+        pds.add(INCREMENTAL);
+        pds.add(RECONCILIATION_INTERVAL);
+        pds.add(TABLE_LISTING);
         propDescriptors = Collections.unmodifiableList(pds);
     }
 
@@ -219,6 +316,8 @@ public class MergeHiveTableMetadata extends AbstractNiFiProcessor {
         if (flowFile == null) {
             return;
         }
+
+        final Map<String, String> newState = new HashMap<>();
         try {
             final String databaseNameField = context.getProperty(DATABASE_NAME).evaluateAttributeExpressions(flowFile).getValue();
             final String databaseOwnerField = context.getProperty(DATABASE_OWNER).evaluateAttributeExpressions(flowFile).getValue();
@@ -228,6 +327,9 @@ public class MergeHiveTableMetadata extends AbstractNiFiProcessor {
             final String columnNameField = context.getProperty(COLUMN_NAME).evaluateAttributeExpressions(flowFile).getValue();
             final String columnTypeField = context.getProperty(COLUMN_TYPE).evaluateAttributeExpressions(flowFile).getValue();
             final String columnCommentField = context.getProperty(COLUMN_COMMENT).evaluateAttributeExpressions(flowFile).getValue();
+            final String tableLastDdlTimeField = context.getProperty(TABLE_LAST_DDL_TIME).evaluateAttributeExpressions(flowFile).getValue();
+            final boolean incremental = context.getProperty(INCREMENTAL).asBoolean();
+            final String tableListing = context.getProperty(TABLE_LISTING).evaluateAttributeExpressions(flowFile).getValue();
 
             final StringBuffer sb = new StringBuffer();
             session.read(flowFile, new InputStreamCallback() {
@@ -241,77 +343,149 @@ public class MergeHiveTableMetadata extends AbstractNiFiProcessor {
 
             logger.debug("The json that was received is: " + sb.toString());
 
+            JSONArray array = new JSONArray(sb.toString());
+            Map<String, Metadata> tables = new HashMap<>();
+            Map<String, String> modifiedTimes = new HashMap<>();
+
+            for (int i = 0; i < array.length(); i++) {
+                JSONObject jsonObj = array.getJSONObject(i);
+                String databaseName = jsonObj.getString(databaseNameField);
+                String databaseOwner = jsonObj.getString(databaseOwnerField);
+                String tableName = jsonObj.getString(tableNameField);
+                String tableCreateTime = jsonObj.getString(tableCreateTimeField);
+                String tableType = jsonObj.getString(tableTypeField);
+                String columnName = jsonObj.getString(columnNameField);
+                String columnType = jsonObj.getString(columnTypeField);
+                String columnComment = jsonObj.getString(columnCommentField);
+                String key = databaseName + "." + tableName;
+
+                if (tables.containsKey(key)) {
+                    Metadata meta = tables.get(key);
+                    HiveColumn column = new HiveColumn();
+                    column.setColumnName(columnName);
+                    column.setColumnType(columnType);
+                    column.setColumnComment(columnComment);
+                    meta.getHiveColumns().add(column);
+
+                } else {
+                    Metadata meta = new Metadata();
+                    meta.setTableId(key);
+                    meta.setDatabaseName(databaseName);
+                    meta.setDatabaseOwner(databaseOwner);
+                    meta.setTableCreateTime(tableCreateTime);
+                    meta.setTableName(tableName);
+                    meta.setTableType(tableType);
+                    HiveColumn column = new HiveColumn();
+                    column.setColumnName(columnName);
+                    column.setColumnType(columnType);
+                    column.setColumnComment(columnComment);
+                    meta.getHiveColumns().add(column);
+                    tables.put(key, meta);
+
+                    String lastDdlTime = (tableLastDdlTimeField != null) ? jsonObj.optString(tableLastDdlTimeField, null) : null;
+                    modifiedTimes.put(key, (lastDdlTime != null) ? tableCreateTime + "/" + lastDdlTime : tableCreateTime);
+                }
+            }
+
+            // Determine which tables have changed
+            final Map<String, String> attributes = new HashMap<>();
+            final List<Metadata> tablesAsList = new ArrayList<>();
+
+            if (incremental) {
+                final StateMap state = context.getStateManager().getState(Scope.LOCAL);
+                final long now = System.currentTimeMillis();
+                final long reconciliationInterval = context.getProperty(RECONCILIATION_INTERVAL).asTimePeriod(TimeUnit.MILLISECONDS);
+                final String lastReconciled = state.get(RECONCILED_STATE);
+                final boolean reconcile = lastReconciled == null || now - Long.parseLong(lastReconciled) >= reconciliationInterval;
+
+                // Keep the state of tables not in the input, unless they have been removed
+                final Set<String> allTables = StringUtils.isNotBlank(tableListing) ? parseTableListing(tableListing) : tables.keySet();
+                final Set<String> removedTables = new TreeSet<>();
+                for (Map.Entry<String, String> entry : state.toMap().entrySet()) {
+                    if (entry.getKey().startsWith(TABLE_STATE_PREFIX)) {
+                        final String table = entry.getKey().substring(TABLE_STATE_PREFIX.length());
+                        if (allTables.contains(table) || tables.containsKey(table)) {
+                            newState.put(entry.getKey(), entry.getValue());
+                        } else {
+                            removedTables.add(table);
+                        }
+                    }
+                }
+
+                for (Map.Entry<String, Metadata> entry : tables.entrySet()) {
+                    final String stateKey = TABLE_STATE_PREFIX + entry.getKey();
+                    final String modifiedTime = modifiedTimes.get(entry.getKey());
+                    if (reconcile || !modifiedTime.equals(state.get(stateKey))) {
+                        tablesAsList.add(entry.getValue());
+                    }
+                    newState.put(stateKey, modifiedTime);
+                }
+
+                newState.put(RECONCILED_STATE, reconcile ? Long.toString(now) : lastReconciled);
+                attributes.put(REMOVED_TABLES_ATTRIBUTE, new Gson().toJson(removedTables));
+                attributes.put(RECONCILED_ATTRIBUTE, Boolean.toString(reconcile));
+                logger.info("Merged metadata for {} tables with {} changed and {} removed", new Object[]{tables.size(), tablesAsList.size(), removedTables.size()});
+            } else {
+                tablesAsList.addAll(tables.values());
+            }
+            attributes.put(TABLE_COUNT_ATTRIBUTE, Integer.toString(tablesAsList.size()));
+
             flowFile = session.write(flowFile, new OutputStreamCallback() {
                 @Override
                 public void process(final OutputStream out) throws IOException {
-                    try {
-                        JSONArray array = new JSONArray(sb.toString());
-                        Map<String, Metadata> tables = new HashMap<>();
-
-                        for (int i = 0; i < array.length(); i++) {
-                            JSONObject jsonObj = array.getJSONObject(i);
-                            String databaseName = jsonObj.getString(databaseNameField);
-                            String databaseOwner = jsonObj.getString(databaseOwnerField);
-                            String tableName = jsonObj.getString(tableNameField);
-                            String tableCreateTime = jsonObj.getString(tableCreateTimeField);
-                            String tableType = jsonObj.getString(tableTypeField);
-                            String columnName = jsonObj.getString(columnNameField);
-                            String columnType = jsonObj.getString(columnTypeField);
-                            String columnComment = jsonObj.getString(columnCommentField);
-                            String key = databaseName + tableName;
-
-                            if (tables.containsKey(key)) {
-                                Metadata meta = tables.get(key);
-                                HiveColumn column = new HiveColumn();
-                                column.setColumnName(columnName);
-                                column.setColumnType(columnType);
-                                column.setColumnComment(columnComment);
-                                meta.getHiveColumns().add(column);
-
-                            } else {
-                                Metadata meta = new Metadata();
-                                meta.setDatabaseName(databaseName);
-                                meta.setDatabaseOwner(databaseOwner);
-                                meta.setTableCreateTime(tableCreateTime);
-                                meta.setTableName(tableName);
-                                meta.setTableType(tableType);
-                                HiveColumn column = new HiveColumn();
-                                column.setColumnName(columnName);
-                                column.setColumnType(columnType);
-                                column.setColumnComment(columnComment);
-                                meta.getHiveColumns().add(column);
-                                tables.put(key, meta);
-                            }
-                        }
-                        List<Metadata> tablesAsList = new ArrayList<>();
-                        Iterator iter = tables.entrySet().iterator();
-                        while (iter.hasNext()) {
-                            Map.Entry pair = (Map.Entry) iter.next();
-                            tablesAsList.add((Metadata) pair.getValue());
-                        }
-                        Gson gson = new Gson();
-                        JsonElement element = gson.toJsonTree(tablesAsList, new TypeToken<List<Metadata>>() {
-                        }.getType());
-                        JsonArray jsonArray = element.getAsJsonArray();
-
-                        out.write(jsonArray.toString().getBytes());
-                    } catch (final Exception e) {
-                        throw new ProcessException(e);
-                    }
+                    Gson gson = new Gson();
+                    JsonElement element = gson.toJsonTree(tablesAsList, new TypeToken<List<Metadata>>() {
+                    }.getType());
+                    JsonArray jsonArray = element.getAsJsonArray();
+
+                    out.write(jsonArray.toString().getBytes());
                 }
             });
+            flowFile = session.putAllAttributes(flowFile, attributes);
 
             logger.info("*** Completed with status ");
             session.transfer(flowFile, REL_SUCCESS);
         } catch (final Exception e) {
             logger.error("Unable to execute merge hive json job", new Object[]{flowFile, e});
             session.transfer(flowFile, REL_FAILURE);
+            return;
+        }
+
+        // Record the modified times only once the output has been committed
+        if (!newState.isEmpty()) {
+            session.commit();
+            try {
+                context.getStateManager().setState(newState, Scope.LOCAL);
+            } catch (final IOException e) {
+                logger.error("Unable to save the modified times of the Hive tables; changed tables will be output again", e);
+            }
         }
 
     }
 
+    /**
+     * Parses a listing of tables, as either a JSON array of names or a JSON object keyed by name.
+     */
+    private Set<String> parseTableListing(final String listing) throws JSONException {
+        final Set<String> tables = new HashSet<>();
+        final String trimmed = listing.trim();
+        if (trimmed.startsWith("[")) {
+            final JSONArray array = new JSONArray(trimmed);
+            for (int i = 0; i < array.length(); i++) {
+                tables.add(array.getString(i));
+            }
+        } else {
+            final Iterator<?> keys = new JSONObject(trimmed).keys();
+            while (keys.hasNext()) {
+                tables.add(keys.next().toString());
+            }
+        }
+        return tables;
+    }
+
     private class Metadata {
 
+        private String tableId;
         private String databaseName;
         private String databaseOwner;
         private String tableCreateTime;
@@ -328,6 +502,14 @@ public class MergeHiveTableMetadata extends AbstractNiFiProcessor {
         }
 
 
+        public String getTableId() {
+            return tableId;
+        }
+
+        public void setTableId(String tableId) {
+            this.tableId = tableId;
+        }
+
         public String getDatabaseName() {
             return databaseName;
         }
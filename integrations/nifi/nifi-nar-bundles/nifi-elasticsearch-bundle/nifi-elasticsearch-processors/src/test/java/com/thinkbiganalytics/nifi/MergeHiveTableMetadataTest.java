@@ -23,15 +23,20 @@ package com.thinkbiganalytics.nifi;
 import com.thinkbiganalytics.nifi.v2.elasticsearch.IndexElasticSearch;
 import com.thinkbiganalytics.nifi.v2.elasticsearch.MergeHiveTableMetadata;
 
+import org.apache.nifi.components.state.Scope;
 import org.apache.nifi.util.MockFlowFile;
 import org.apache.nifi.util.TestRunner;
 import org.apache.nifi.util.TestRunners;
 import org.junit.Before;
+import org.junit.Test;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.Map;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
@@ -75,4 +80,37 @@ public class MergeHiveTableMetadataTest {
         assertNotNull(out);
         out.assertAttributeEquals("doc_id", "8736522777");
     }
+
+    /**
+     * Verify that unchanged tables missing from an incremental input are not reported as removed when a table listing is set.
+     */
+    @Test
+    public void incrementalWithTableListing() throws IOException {
+        final TestRunner runner = TestRunners.newTestRunner(new MergeHiveTableMetadata());
+        runner.setProperty(MergeHiveTableMetadata.INCREMENTAL, "true");
+        runner.setProperty(MergeHiveTableMetadata.TABLE_LISTING, "${tables}");
+
+        final Map<String, String> state = new HashMap<>();
+        state.put("reconciled", Long.toString(System.currentTimeMillis()));
+        state.put("table:db.changed", "100/100");
+        state.put("table:db.unchanged", "100/100");
+        state.put("table:db.dropped", "100/100");
+        runner.getStateManager().setState(state, Scope.LOCAL);
+
+        final String input = "[{\"NAME\": \"db\", \"OWNER_NAME\": \"hive\", \"CREATE_TIME\": \"100\", \"TBL_NAME\": \"changed\", \"TBL_TYPE\": \"MANAGED_TABLE\", "
+                             + "\"COLUMN_NAME\": \"id\", \"TYPE_NAME\": \"int\", \"COMMENT\": \"\", \"LAST_DDL_TIME\": \"200\"}]";
+        final Map<String, String> attributes = new HashMap<>();
+        attributes.put("tables", "{\"db.changed\": 200, \"db.unchanged\": 100}");
+        runner.enqueue(input.getBytes(StandardCharsets.UTF_8), attributes);
+        runner.run();
+
+        runner.assertAllFlowFilesTransferred(MergeHiveTableMetadata.REL_SUCCESS, 1);
+        final MockFlowFile out = runner.getFlowFilesForRelationship(MergeHiveTableMetadata.REL_SUCCESS).get(0);
+        out.assertAttributeEquals(MergeHiveTableMetadata.TABLE_COUNT_ATTRIBUTE, "1");
+        out.assertAttributeEquals(MergeHiveTableMetadata.REMOVED_TABLES_ATTRIBUTE, "[\"db.dropped\"]");
+        runner.getStateManager().assertStateEquals("table:db.changed", "100/200", Scope.LOCAL);
+        runner.getStateManager().assertStateEquals("table:db.unchanged", "100/100", Scope.LOCAL);
+        runner.getStateManager().assertStateNotSet("table:db.dropped", Scope.LOCAL);
+        assertEquals(3, runner.getStateManager().getState(Scope.LOCAL).toMap().size());
+    }
 }
@@ -26,6 +26,9 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import com.google.gson.Gson;
 import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.MalformedJsonException;
 
 import org.apache.hadoop.fs.FileChecksum;
 import org.apache.hadoop.fs.FileSystem;
@@ -43,10 +46,13 @@ import org.apache.nifi.processor.util.StandardValidators;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.util.Base64;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.annotation.Nonnull;
 
@@ -115,6 +121,17 @@ public class ComputeHDFSChecksums extends AbstractHadoopProcessor {
         .expressionLanguageSupported(true)
         .build();
 
+    /**
+     * the maximum number of checksums computed at the same time for a flow file
+     */
+    public static final PropertyDescriptor MAX_CONCURRENT_REQUESTS = new PropertyDescriptor.Builder()
+        .name("maxConcurrentRequests")
+        .description("Maximum number of checksums computed at the same time for each flow file. Increase for feeds that land many files per batch.")
+        .required(true)
+        .defaultValue("1")
+        .addValidator(StandardValidators.POSITIVE_INTEGER_VALIDATOR)
+        .build();
+
     /**
      * Output paths to other NiFi processors
      */
@@ -128,7 +145,7 @@ public class ComputeHDFSChecksums extends AbstractHadoopProcessor {
     @Override
     protected List<PropertyDescriptor> getSupportedPropertyDescriptors() {
         return ImmutableList.<PropertyDescriptor>builder().addAll(super.getSupportedPropertyDescriptors()).
-            add(DIRECTORY).add(FAIL_IF_INCORRECT_CHECKSUM).add(FILES).build();
+            add(DIRECTORY).add(FAIL_IF_INCORRECT_CHECKSUM).add(FILES).add(MAX_CONCURRENT_REQUESTS).build();
     }
 
     /**
@@ -157,34 +174,46 @@ public class ComputeHDFSChecksums extends AbstractHadoopProcessor {
         String absolutePath = context.getProperty(DIRECTORY).evaluateAttributeExpressions(flowFile).getValue();
         Boolean failIfWrongChecksum = context.getProperty(FAIL_IF_INCORRECT_CHECKSUM).
             evaluateAttributeExpressions(flowFile).asBoolean();
+        int maxConcurrentRequests = context.getProperty(MAX_CONCURRENT_REQUESTS).asInteger();
         Gson jsonParser = new Gson();
-        File[] filesList;
+        HDFSSupport hdfsSupport = new HDFSSupport(fs);
+        StringWriter output = new StringWriter();
+        AtomicLong count = new AtomicLong();
+        AtomicLong totalMillis = new AtomicLong();
+
+        // Stream the expected checksums in and the computed checksums out to avoid holding the list in memory
+        JsonReader reader = new JsonReader(new StringReader(filesJSON != null ? filesJSON : ""));
+        JsonWriter writer = new JsonWriter(output);
         try {
-            filesList = jsonParser.fromJson(filesJSON, File[].class);
-            if (filesList == null) {
-                filesList = new File[0];
-            }
-
-            for (File f : filesList) {
-                String name = f.getName();
-                Path filePath;
-                if (absolutePath == null || absolutePath.isEmpty()) {
-                    filePath = new Path(name);
-                } else {
-                    filePath = new Path(absolutePath, name);
-                }
-                FileChecksum computed_checksum = fs.getFileChecksum(filePath);
-                String b64_checksum = Base64.getEncoder().encodeToString(computed_checksum.getBytes());
-                f.setComputedChecksum(new Checksum(b64_checksum.length(), b64_checksum,
-                                                   computed_checksum.getAlgorithmName()));
-                if (failIfWrongChecksum && !Objects.equals(b64_checksum, f.getChecksum().getValue())) {
-                    getLog().error("Checksums don't match! File: " + filePath.toString() + " checksum provided: " +
-                                   f.getChecksum().getValue() + " checksum computed: " + b64_checksum);
+            writer.beginArray();
+            if (filesJSON != null && !filesJSON.trim().isEmpty()) {
+                reader.beginArray();
+                HDFSSupport.Source<File> source = () -> reader.hasNext() ? jsonParser.fromJson(reader, File.class) : null;
+
+                boolean matched = hdfsSupport.computeChecksums(source, f -> getPath(absolutePath, f), maxConcurrentRequests, (f, computed_checksum, elapsedMillis) -> {
+                    Path filePath = getPath(absolutePath, f);
+                    getLog().debug("Computed checksum of " + filePath + " in " + elapsedMillis + " ms");
+                    count.incrementAndGet();
+                    totalMillis.addAndGet(elapsedMillis);
+
+                    String b64_checksum = Base64.getEncoder().encodeToString(computed_checksum.getBytes());
+                    f.setComputedChecksum(new Checksum(b64_checksum.length(), b64_checksum,
+                                                       computed_checksum.getAlgorithmName()));
+                    if (failIfWrongChecksum && !Objects.equals(b64_checksum, f.getChecksum().getValue())) {
+                        getLog().error("Checksums don't match! File: " + filePath.toString() + " checksum provided: " +
+                                       f.getChecksum().getValue() + " checksum computed: " + b64_checksum);
+                        return false;
+                    }
+                    jsonParser.toJson(f, File.class, writer);
+                    return true;
+                });
+                if (!matched) {
                     session.transfer(flowFile, REL_FAILURE);
                     return;
                 }
             }
-        } catch (JsonSyntaxException e) {
+            writer.endArray();
+        } catch (JsonSyntaxException | MalformedJsonException | IllegalStateException e) {
             getLog().error("Files list attribute does not contain a proper JSON array");
             session.transfer(flowFile, REL_FAILURE);
             return;
@@ -194,11 +223,31 @@ public class ComputeHDFSChecksums extends AbstractHadoopProcessor {
             return;
         } catch (IOException e) {
             throw new ProcessException(e);
+        } finally {
+            session.adjustCounter("HDFS Checksums Computed", count.get(), false);
+            session.adjustCounter("HDFS Checksum Time (ms)", totalMillis.get(), false);
         }
-        flowFile = session.putAttribute(flowFile, FILES.getName(), jsonParser.toJson(filesList));
+        flowFile = session.putAttribute(flowFile, FILES.getName(), output.toString());
         session.transfer(flowFile, REL_SUCCESS);
     }
 
+    /**
+     * Gets the HDFS path of the specified file.
+     *
+     * @param absolutePath the base directory, or {@code null} if file names are absolute paths
+     * @param file         the file
+     * @return the HDFS path
+     */
+    @Nonnull
+    private Path getPath(String absolutePath, @Nonnull File file) {
+        String name = file.getName();
+        if (absolutePath == null || absolutePath.isEmpty()) {
+            return new Path(name);
+        } else {
+            return new Path(absolutePath, name);
+        }
+    }
+
     class File {
 
         private String name;
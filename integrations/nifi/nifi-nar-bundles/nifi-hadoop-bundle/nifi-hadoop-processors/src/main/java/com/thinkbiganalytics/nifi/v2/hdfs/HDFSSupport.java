@@ -20,6 +20,9 @@ package com.thinkbiganalytics.nifi.v2.hdfs;
  * #L%
  */
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.apache.hadoop.fs.FileChecksum;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.slf4j.Logger;
@@ -27,14 +30,35 @@ import org.slf4j.LoggerFactory;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 /**
- * Provides support for HDFS folder creation
+ * Provides support for HDFS folder creation, checksums, and removal
  */
 public class HDFSSupport {
 
     private static final Logger logger = LoggerFactory.getLogger(HDFSSupport.class);
 
+    /**
+     * Executes HDFS requests for all processors. The number of concurrent requests is bounded by each caller.
+     */
+    private static final ExecutorService executor = Executors.newCachedThreadPool(new ThreadFactoryBuilder().setDaemon(true).setNameFormat("hdfs-support-%d").build());
+
     private FileSystem hdfs;
 
     public HDFSSupport(FileSystem hdfs) {
@@ -88,4 +112,166 @@ public class HDFSSupport {
         }
     }
 
+    /**
+     * Computes the checksums of the specified files with up to {@code maxConcurrent} requests running at the same time.
+     *
+     * <p>Files are read from the source only as requests complete, so the full list is never held in memory. The consumer is called on the calling thread
+     * as each checksum is computed, in order of completion.</p>
+     *
+     * @param source        the files to check
+     * @param toPath        gets the path of a file
+     * @param maxConcurrent the maximum number of concurrent requests
+     * @param consumer      receives each checksum and returns {@code false} to stop
+     * @param <T>           the type of file
+     * @return {@code true} if every file was checked, or {@code false} if stopped by the consumer
+     * @throws IOException if a checksum cannot be computed
+     */
+    public <T> boolean computeChecksums(@Nonnull final Source<T> source, @Nonnull final Function<T, Path> toPath, final int maxConcurrent,
+                                       @Nonnull final ResultConsumer<T, FileChecksum> consumer) throws IOException {
+        return execute(source, maxConcurrent, file -> hdfs.getFileChecksum(toPath.apply(file)), consumer);
+    }
+
+    /**
+     * Permanently deletes the specified paths with up to {@code maxConcurrent} requests running at the same time.
+     *
+     * @param paths         the paths to delete
+     * @param maxConcurrent the maximum number of concurrent requests
+     * @throws IOException if a path cannot be deleted
+     */
+    public void deletePaths(@Nonnull final List<Path> paths, final int maxConcurrent) throws IOException {
+        final Iterator<Path> iterator = paths.iterator();
+        execute(() -> iterator.hasNext() ? iterator.next() : null, maxConcurrent,
+                path -> {
+                    if (!hdfs.delete(path, true) && hdfs.exists(path)) {
+                        throw new IOException("Failed to remove path: " + path);
+                    }
+                    return null;
+                },
+                (path, result, elapsedMillis) -> {
+                    logger.debug("Deleted path {} in {} ms", path, elapsedMillis);
+                    return true;
+                });
+    }
+
+    /**
+     * Executes a request for each item with up to {@code maxConcurrent} requests running at the same time.
+     */
+    private <T, R> boolean execute(@Nonnull final Source<T> source, final int maxConcurrent, @Nonnull final Request<T, R> request, @Nonnull final ResultConsumer<T, R> consumer)
+        throws IOException {
+        final CompletionService<Result<T, R>> completionService = new ExecutorCompletionService<>(executor);
+        final Set<Future<Result<T, R>>> running = new HashSet<>();
+        boolean hasNext = true;
+
+        try {
+            while (true) {
+                // Fill available slots
+                while (hasNext && running.size() < Math.max(1, maxConcurrent)) {
+                    final T item = source.next();
+                    if (item != null) {
+                        running.add(completionService.submit(() -> {
+                            final long start = System.nanoTime();
+                            final R value = request.apply(item);
+                            return new Result<>(item, value, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                        }));
+                    } else {
+                        hasNext = false;
+                    }
+                }
+                if (running.isEmpty()) {
+                    return true;
+                }
+
+                // Wait for the next result
+                final Future<Result<T, R>> future = completionService.take();
+                running.remove(future);
+
+                final Result<T, R> result;
+                try {
+                    result = future.get();
+                } catch (final ExecutionException e) {
+                    if (e.getCause() instanceof IOException) {
+                        throw (IOException) e.getCause();
+                    } else if (e.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) e.getCause();
+                    } else {
+                        throw new IOException(e.getCause());
+                    }
+                }
+                if (!consumer.accept(result.item, result.value, result.elapsedMillis)) {
+                    return false;
+                }
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for HDFS requests");
+        } finally {
+            for (final Future<Result<T, R>> future : running) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Provides items to process.
+     *
+     * @param <T> the type of item
+     */
+    @FunctionalInterface
+    public interface Source<T> {
+
+        /**
+         * Reads the next item.
+         *
+         * @return the next item, or {@code null} if there are no more items
+         * @throws IOException if the item cannot be read
+         */
+        @Nullable
+        T next() throws IOException;
+    }
+
+    /**
+     * Receives the result of a request.
+     *
+     * @param <T> the type of item
+     * @param <R> the type of result
+     */
+    @FunctionalInterface
+    public interface ResultConsumer<T, R> {
+
+        /**
+         * Accepts the result for the specified item.
+         *
+         * @param item          the item
+         * @param result        the result
+         * @param elapsedMillis the time taken by the request in milliseconds
+         * @return {@code true} to continue, or {@code false} to stop
+         * @throws IOException if the result cannot be processed
+         */
+        boolean accept(T item, R result, long elapsedMillis) throws IOException;
+    }
+
+    /**
+     * A request to HDFS for an item.
+     */
+    @FunctionalInterface
+    private interface Request<T, R> {
+
+        R apply(T item) throws IOException;
+    }
+
+    /**
+     * The result of a request.
+     */
+    private static class Result<T, R> {
+
+        final T item;
+        final R value;
+        final long elapsedMillis;
+
+        Result(final T item, final R value, final long elapsedMillis) {
+            this.item = item;
+            this.value = value;
+            this.elapsedMillis = elapsedMillis;
+        }
+    }
 }
@@ -38,6 +38,7 @@ import org.apache.nifi.processor.exception.ProcessException;
 import org.apache.nifi.processor.util.StandardValidators;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
@@ -63,6 +64,17 @@ public class RemoveHDFSFolder extends AbstractHadoopProcessor {
         .expressionLanguageSupported(true)
         .build();
 
+    /**
+     * Property for the maximum number of directories removed at the same time
+     */
+    public static final PropertyDescriptor MAX_CONCURRENT_DELETES = new PropertyDescriptor.Builder()
+        .name("Max Concurrent Deletes")
+        .description("Maximum number of directories removed at the same time for each flow file.")
+        .required(true)
+        .defaultValue("1")
+        .addValidator(StandardValidators.POSITIVE_INTEGER_VALIDATOR)
+        .build();
+
     /**
      * Relationship for failure
      */
@@ -86,7 +98,7 @@ public class RemoveHDFSFolder extends AbstractHadoopProcessor {
 
     @Override
     protected List<PropertyDescriptor> getSupportedPropertyDescriptors() {
-        return ImmutableList.<PropertyDescriptor>builder().addAll(super.getSupportedPropertyDescriptors()).add(DIRECTORY).build();
+        return ImmutableList.<PropertyDescriptor>builder().addAll(super.getSupportedPropertyDescriptors()).add(DIRECTORY).add(MAX_CONCURRENT_DELETES).build();
     }
 
     @Override
@@ -109,8 +121,9 @@ public class RemoveHDFSFolder extends AbstractHadoopProcessor {
             return;
         }
 
-        // Delete the specified paths
+        // Validate the specified paths
         String[] directories = context.getProperty(DIRECTORY).evaluateAttributeExpressions(flowFile).getValue().split("\\r?\\n");
+        List<Path> paths = new ArrayList<>(directories.length);
 
         for (String string : directories) {
             // Check for possible missing properties - accidentally deleting parent directory instead of child
@@ -133,20 +146,17 @@ public class RemoveHDFSFolder extends AbstractHadoopProcessor {
                 session.transfer(flowFile, REL_FAILURE);
                 return;
             }
+            paths.add(path);
+        }
 
-            // Delete path
-            getLog().debug("Deleting path: " + path);
-            try {
-                if (!fileSystem.delete(path, true) && fileSystem.exists(path)) {
-                    getLog().error("Failed to remove path: " + path);
-                    session.transfer(flowFile, REL_FAILURE);
-                    return;
-                }
-            } catch (IOException e) {
-                getLog().error("Failed to remove path: " + path, e);
-                session.transfer(flowFile, REL_FAILURE);
-                return;
-            }
+        // Delete paths
+        getLog().debug("Deleting paths: " + paths);
+        try {
+            new HDFSSupport(fileSystem).deletePaths(paths, context.getProperty(MAX_CONCURRENT_DELETES).asInteger());
+        } catch (IOException e) {
+            getLog().error("Failed to remove paths: " + paths, e);
+            session.transfer(flowFile, REL_FAILURE);
+            return;
         }
 
         // Return success
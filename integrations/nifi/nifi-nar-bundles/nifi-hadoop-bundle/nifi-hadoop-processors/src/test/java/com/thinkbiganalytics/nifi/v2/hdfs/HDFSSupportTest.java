@@ -0,0 +1,129 @@
+package com.thinkbiganalytics.nifi.v2.hdfs;
+
+/*-
+ * #%L
+ * thinkbig-nifi-hadoop-processors
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.hadoop.fs.FileChecksum;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.MD5MD5CRC32FileChecksum;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.MD5Hash;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Matchers.any;
+
+public class HDFSSupportTest {
+
+    /**
+     * Verify computing checksums with a limit on concurrent requests.
+     */
+    @Test
+    public void computeChecksums() throws Exception {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final FileChecksum checksum = new MD5MD5CRC32FileChecksum(0, 512, new MD5Hash("112233445566778899aabbccddeeff00"));
+
+        final FileSystem fileSystem = Mockito.mock(FileSystem.class);
+        Mockito.when(fileSystem.getFileChecksum(any(Path.class))).thenAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            running.decrementAndGet();
+            return checksum;
+        });
+
+        final Iterator<String> names = Arrays.asList("a", "b", "c", "d", "e", "f").iterator();
+        final List<String> results = new ArrayList<>();
+
+        final boolean complete = new HDFSSupport(fileSystem).computeChecksums(() -> names.hasNext() ? names.next() : null, name -> new Path("/dropzone", name), 2,
+                                                                             (name, result, elapsedMillis) -> {
+                                                                                 Assert.assertSame(checksum, result);
+                                                                                 Assert.assertTrue(elapsedMillis >= 0);
+                                                                                 results.add(name);
+                                                                                 return true;
+                                                                             });
+        Assert.assertTrue(complete);
+        Assert.assertEquals(6, results.size());
+        Assert.assertEquals(2, maxRunning.get());
+    }
+
+    /**
+     * Verify stopping when the consumer rejects a checksum.
+     */
+    @Test
+    public void computeChecksumsWithStop() throws Exception {
+        final FileSystem fileSystem = Mockito.mock(FileSystem.class);
+        Mockito.when(fileSystem.getFileChecksum(any(Path.class))).thenReturn(new MD5MD5CRC32FileChecksum(0, 512, new MD5Hash("112233445566778899aabbccddeeff00")));
+
+        final Iterator<String> names = Arrays.asList("a", "b", "c").iterator();
+        final boolean complete = new HDFSSupport(fileSystem).computeChecksums(() -> names.hasNext() ? names.next() : null, Path::new, 1,
+                                                                             (name, result, elapsedMillis) -> !"b".equals(name));
+        Assert.assertFalse(complete);
+        Mockito.verify(fileSystem).getFileChecksum(new Path("a"));
+        Mockito.verify(fileSystem).getFileChecksum(new Path("b"));
+        Mockito.verifyNoMoreInteractions(fileSystem);
+    }
+
+    /**
+     * Verify failure when a file does not exist.
+     */
+    @Test(expected = FileNotFoundException.class)
+    public void computeChecksumsWithMissingFile() throws Exception {
+        final FileSystem fileSystem = Mockito.mock(FileSystem.class);
+        Mockito.when(fileSystem.getFileChecksum(any(Path.class))).thenThrow(new FileNotFoundException("/dropzone/a"));
+
+        final Iterator<String> names = Arrays.asList("a", "b").iterator();
+        new HDFSSupport(fileSystem).computeChecksums(() -> names.hasNext() ? names.next() : null, Path::new, 2, (name, result, elapsedMillis) -> true);
+    }
+
+    /**
+     * Verify deleting paths.
+     */
+    @Test
+    public void deletePaths() throws Exception {
+        final FileSystem fileSystem = Mockito.mock(FileSystem.class);
+        Mockito.when(fileSystem.delete(any(Path.class), Mockito.eq(true))).thenReturn(true);
+
+        new HDFSSupport(fileSystem).deletePaths(Arrays.asList(new Path("/target"), new Path("/etl/movies/actors")), 4);
+        Mockito.verify(fileSystem).delete(new Path("/target"), true);
+        Mockito.verify(fileSystem).delete(new Path("/etl/movies/actors"), true);
+    }
+
+    /**
+     * Verify failure when a path cannot be deleted.
+     */
+    @Test(expected = IOException.class)
+    public void deletePathsWithFailure() throws Exception {
+        final FileSystem fileSystem = Mockito.mock(FileSystem.class);
+        Mockito.when(fileSystem.delete(any(Path.class), Mockito.eq(true))).thenReturn(false);
+        Mockito.when(fileSystem.exists(any(Path.class))).thenReturn(true);
+
+        new HDFSSupport(fileSystem).deletePaths(Arrays.asList(new Path("/target"), new Path("/etl")), 1);
+    }
+}
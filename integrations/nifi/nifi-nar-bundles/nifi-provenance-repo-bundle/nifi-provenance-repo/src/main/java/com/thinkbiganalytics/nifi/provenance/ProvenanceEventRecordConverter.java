@@ -23,7 +23,6 @@ package com.thinkbiganalytics.nifi.provenance;
 import com.thinkbiganalytics.nifi.provenance.model.ProvenanceEventRecordDTO;
 
 import org.apache.nifi.provenance.ProvenanceEventRecord;
-import org.apache.nifi.util.FormatUtils;
 
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -53,7 +52,6 @@ public class ProvenanceEventRecordConverter implements Serializable {
         dto.setEventId(event.getEventId());
         dto.setEventTime(event.getEventTime());
         dto.setEventType(event.getEventType().name());
-        dto.setFileSize(FormatUtils.formatDataSize(event.getFileSize()));
         dto.setFileSizeBytes(event.getFileSize());
         dto.setComponentId(event.getComponentId());
         dto.setComponentType(event.getComponentType());
@@ -65,14 +63,10 @@ public class ProvenanceEventRecordConverter implements Serializable {
         dto.setPreviousAttributes(previousAttrs);
         dto.setAttributeMap(event.getAttributes());
 
+        // the formatted sizes are derived from the byte counts
         dto.setInputContentClaimFileSizeBytes(event.getPreviousFileSize());
-        dto.setOutputContentClaimFileSize(FormatUtils.formatDataSize(event.getFileSize()));
         dto.setOutputContentClaimFileSizeBytes(event.getFileSize());
 
-        if (event.getPreviousFileSize() != null) {
-            dto.setInputContentClaimFileSize(FormatUtils.formatDataSize(event.getPreviousFileSize()));
-        }
-
         dto.setSourceConnectionIdentifier(event.getSourceQueueIdentifier());
 
         dto.setStartTime(event.getFlowFileEntryDate());
@@ -97,7 +97,7 @@ public class ExecuteSparkContextJob extends AbstractNiFiProcessor {
 
     public static final PropertyDescriptor CONTEXT_NAME = new PropertyDescriptor.Builder()
         .name("Context Name")
-        .description("Name of the Long Running Spark Context")
+        .description("Name of the Long Running Spark Context. With the Kylo Spark Shell job service this is the FAIR scheduler pool, such as the feed category.")
         .required(true)
         .addValidator(StandardValidators.NON_EMPTY_VALIDATOR)
         .expressionLanguageSupported(true)
@@ -113,7 +113,7 @@ public class ExecuteSparkContextJob extends AbstractNiFiProcessor {
 
     public static final PropertyDescriptor JOB_SERVICE = new PropertyDescriptor.Builder()
         .name("Spark Job Service")
-        .description("The Controller Service that is used to manage long running spark contexts.")
+        .description("The Controller Service that is used to manage long running spark contexts, such as Spark Jobserver or the Kylo Spark Shell server.")
         .required(true)
         .identifiesControllerService(JobService.class)
         .build();
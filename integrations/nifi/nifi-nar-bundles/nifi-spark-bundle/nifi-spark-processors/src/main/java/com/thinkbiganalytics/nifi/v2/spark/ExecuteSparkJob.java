@@ -39,11 +39,14 @@ import org.apache.nifi.annotation.behavior.EventDriven;
 import org.apache.nifi.annotation.behavior.InputRequirement;
 import org.apache.nifi.annotation.documentation.CapabilityDescription;
 import org.apache.nifi.annotation.documentation.Tags;
+import org.apache.nifi.annotation.lifecycle.OnRemoved;
+import org.apache.nifi.annotation.lifecycle.OnUnscheduled;
 import org.apache.nifi.components.PropertyDescriptor;
 import org.apache.nifi.components.ValidationContext;
 import org.apache.nifi.components.ValidationResult;
 import org.apache.nifi.components.Validator;
 import org.apache.nifi.flowfile.FlowFile;
+import org.apache.nifi.flowfile.attributes.CoreAttributes;
 import org.apache.nifi.logging.ComponentLog;
 import org.apache.nifi.logging.LogLevel;
 import org.apache.nifi.processor.ProcessContext;
@@ -52,6 +55,7 @@ import org.apache.nifi.processor.ProcessorInitializationContext;
 import org.apache.nifi.processor.Relationship;
 import org.apache.nifi.processor.exception.ProcessException;
 import org.apache.nifi.processor.util.StandardValidators;
+import org.apache.spark.launcher.SparkAppHandle;
 import org.apache.spark.launcher.SparkLauncher;
 
 import java.io.File;
@@ -74,7 +78,8 @@ import javax.annotation.Nonnull;
 @EventDriven
 @InputRequirement(InputRequirement.Requirement.INPUT_REQUIRED)
 @Tags({"spark", "thinkbig"})
-@CapabilityDescription("Execute a Spark job.")
+@CapabilityDescription("Execute a Spark job. In asynchronous mode the flow file waits in the incoming queue while the Spark application runs, "
+                        + "and the number of applications running in each YARN queue may be limited.")
 public class ExecuteSparkJob extends AbstractNiFiProcessor {
 
     public static final String SPARK_NETWORK_TIMEOUT_CONFIG_NAME = "spark.network.timeout";
@@ -85,6 +90,16 @@ public class ExecuteSparkJob extends AbstractNiFiProcessor {
     public static final String SPARK_EXTRA_FILES_CONFIG_NAME = "--files";
     public static final String SPARK_NUM_EXECUTORS = "spark.executor.instances";
 
+    /**
+     * Suffix of the attribute marking a flow file whose application was launched asynchronously, prefixed with the processor name
+     */
+    public static final String LAUNCH_KEY_ATTRIBUTE = " Spark Launch Key";
+
+    /**
+     * Suffix of the attribute holding the Spark application id, prefixed with the processor name
+     */
+    public static final String APP_ID_ATTRIBUTE = " Spark Application Id";
+
     // Relationships
     public static final Relationship REL_SUCCESS = new Relationship.Builder()
         .name("success")
@@ -231,6 +246,25 @@ public class ExecuteSparkJob extends AbstractNiFiProcessor {
         .addValidator(StandardValidators.TIME_PERIOD_VALIDATOR)
         .expressionLanguageSupported(true)
         .build();
+    public static final PropertyDescriptor ASYNC = new PropertyDescriptor.Builder()
+        .name("Async")
+        .description("Launches the Spark application without waiting for it to complete. The flow file is penalized and returned to the incoming queue "
+                     + "until the application completes, so the penalty duration sets how often the application is checked. Running applications are tracked "
+                     + "only in memory: if NiFi restarts while an application runs, its flow file is routed to failure with the application id, if known, "
+                     + "instead of launching the application again. Applications that exceed the Spark Process Timeout are killed.")
+        .required(true)
+        .allowableValues("true", "false")
+        .defaultValue("false")
+        .addValidator(StandardValidators.BOOLEAN_VALIDATOR)
+        .build();
+    public static final PropertyDescriptor MAX_CONCURRENT_APPLICATIONS = new PropertyDescriptor.Builder()
+        .name("Max Concurrent Applications")
+        .description("The maximum number of Spark applications launched asynchronously by all ExecuteSparkJob processors that may run at the same time "
+                     + "in the same YARN queue. Set to 0 for no limit. Only applies when Async is true.")
+        .required(true)
+        .defaultValue("0")
+        .addValidator(StandardValidators.NON_NEGATIVE_INTEGER_VALIDATOR)
+        .build();
     public static final PropertyDescriptor DATASOURCES = new PropertyDescriptor.Builder()
         .name("Data Sources")
         .description("A comma-separated list of data source ids to include in the environment for Spark.")
@@ -253,6 +287,11 @@ public class ExecuteSparkJob extends AbstractNiFiProcessor {
 
     private final Set<Relationship> relationships;
 
+    /**
+     * Tracks the Spark applications launched asynchronously
+     */
+    private final SparkJobScheduler scheduler = SparkJobScheduler.getInstance();
+
     /**
      * Kerberos service keytab
      */
@@ -340,6 +379,8 @@ public class ExecuteSparkJob extends AbstractNiFiProcessor {
         pds.add(SPARK_YARN_DEPLOY_MODE);
         pds.add(SPARK_HOME);
         pds.add(PROCESS_TIMEOUT);
+        pds.add(ASYNC);
+        pds.add(MAX_CONCURRENT_APPLICATIONS);
         pds.add(DRIVER_MEMORY);
         pds.add(EXECUTOR_MEMORY);
         pds.add(NUMBER_EXECUTORS);
@@ -367,6 +408,25 @@ public class ExecuteSparkJob extends AbstractNiFiProcessor {
         return propDescriptors;
     }
 
+    /**
+     * Evicts the asynchronous applications that have timed out or were never collected.
+     */
+    @OnUnscheduled
+    public void onUnscheduled() {
+        final int evicted = scheduler.evictExpired();
+        if (evicted > 0) {
+            getLog().info("Evicted {} expired Spark applications", new Object[]{evicted});
+        }
+    }
+
+    /**
+     * Kills the asynchronous applications launched by this processor.
+     */
+    @OnRemoved
+    public void onRemoved() {
+        scheduler.removeAll(getIdentifier() + ":");
+    }
+
     @Override
     public void onTrigger(final ProcessContext context, final ProcessSession session) throws ProcessException {
         final ComponentLog logger = getLog();
@@ -382,6 +442,26 @@ public class ExecuteSparkJob extends AbstractNiFiProcessor {
             PROVENANCE_JOB_STATUS_KEY = context.getName() + " Job Status";
             PROVENANCE_SPARK_EXIT_CODE_KEY = context.getName() + " Spark Exit Code";
 
+            /* Check for an application launched asynchronously for this flow file */
+            final boolean async = context.getProperty(ASYNC).asBoolean();
+            final String jobKey = getJobKey(flowFile);
+            if (async) {
+                final SparkJobScheduler.Job job = scheduler.getJob(jobKey);
+                if (job != null) {
+                    checkJob(context, session, flowFile, job, PROVENANCE_JOB_STATUS_KEY);
+                    return;
+                }
+                if (jobKey.equals(flowFile.getAttribute(context.getName() + LAUNCH_KEY_ATTRIBUTE))) {
+                    // Launched before NiFi restarted or the job was evicted; never launch the application twice
+                    final String appId = flowFile.getAttribute(context.getName() + APP_ID_ATTRIBUTE);
+                    logger.error("Spark application {} was launched for flow file {} but is no longer tracked, possibly because NiFi restarted. Check its status in YARN.",
+                                 new Object[]{StringUtils.defaultIfBlank(appId, "with unknown id"), flowFile});
+                    flowFile = session.putAttribute(flowFile, PROVENANCE_JOB_STATUS_KEY, "Failed");
+                    session.transfer(flowFile, REL_FAILURE);
+                    return;
+                }
+            }
+
               /* Configuration parameters for spark launcher */
             String appJar = context.getProperty(APPLICATION_JAR).evaluateAttributeExpressions(flowFile).getValue().trim();
             String extraJars = context.getProperty(EXTRA_JARS).evaluateAttributeExpressions(flowFile).getValue();
@@ -471,6 +551,21 @@ public class ExecuteSparkJob extends AbstractNiFiProcessor {
                 .setYarnQueue(yarnQueue)
                 .setExtraFiles(extraFiles);
 
+            if (async) {
+                final int maxApplications = context.getProperty(MAX_CONCURRENT_APPLICATIONS).asInteger();
+                final long timeout = context.getProperty(PROCESS_TIMEOUT).evaluateAttributeExpressions(flowFile).asTimePeriod(TimeUnit.MILLISECONDS);
+                final SparkJobScheduler.Job job = scheduler.start(jobKey, yarnQueue, maxApplications, timeout, optionalSparkConf.getLaucnher()::startApplication);
+                if (job == null) {
+                    logger.debug("Too many Spark applications running in YARN queue {}. Delaying flow file: {}", new Object[]{StringUtils.defaultIfBlank(yarnQueue, SparkJobScheduler.DEFAULT_QUEUE), flowFile});
+                } else {
+                    logger.info("Launched Spark application asynchronously for flow file: {}", new Object[]{flowFile});
+                    session.adjustCounter("Spark Applications Launched", 1, false);
+                    flowFile = session.putAttribute(flowFile, context.getName() + LAUNCH_KEY_ATTRIBUTE, jobKey);
+                }
+                session.transfer(session.penalize(flowFile));
+                return;
+            }
+
             Process spark = optionalSparkConf.getLaucnher().launch();
 
             /* Read/clear the process input stream */
@@ -514,6 +609,57 @@ public class ExecuteSparkJob extends AbstractNiFiProcessor {
         }
     }
 
+    /**
+     * Gets the key of the asynchronous application for the specified flow file.
+     */
+    @Nonnull
+    private String getJobKey(@Nonnull final FlowFile flowFile) {
+        return getIdentifier() + ":" + flowFile.getAttribute(CoreAttributes.UUID.key());
+    }
+
+    /**
+     * Routes the flow file if its Spark application is complete, or returns it to the incoming queue if the application is still running.
+     */
+    private void checkJob(@Nonnull final ProcessContext context, @Nonnull final ProcessSession session, @Nonnull FlowFile flowFile, @Nonnull final SparkJobScheduler.Job job,
+                          @Nonnull final String statusKey) {
+        final String appIdAttribute = context.getName() + APP_ID_ATTRIBUTE;
+        if (job.getAppId() != null && !job.getAppId().equals(flowFile.getAttribute(appIdAttribute))) {
+            flowFile = session.putAttribute(flowFile, appIdAttribute, job.getAppId());
+        }
+
+        if (!job.isComplete()) {
+            final long timeout = context.getProperty(PROCESS_TIMEOUT).evaluateAttributeExpressions(flowFile).asTimePeriod(TimeUnit.MILLISECONDS);
+            if (job.getElapsedTime() < timeout) {
+                session.transfer(session.penalize(flowFile));
+                return;
+            }
+
+            job.kill();
+            scheduler.remove(job.getKey());
+            getLog().error("Spark application {} timed out after {} seconds using flow file: {}  ", new Object[]{job.getAppId(), TimeUnit.MILLISECONDS.toSeconds(timeout), flowFile});
+            session.transfer(flowFile, REL_FAILURE);
+            return;
+        }
+
+        scheduler.remove(job.getKey());
+        if (job.getRunTime() >= 0) {
+            session.adjustCounter("Spark Launch Latency (ms)", job.getLaunchLatency(), false);
+            session.adjustCounter("Spark Run Time (ms)", job.getRunTime(), false);
+        }
+
+        final SparkAppHandle.State state = job.getState();
+        if (state == SparkAppHandle.State.FINISHED) {
+            getLog().info("Spark application {} for {} and flowfile: {} finished in {} ms after waiting {} ms to launch",
+                          new Object[]{job.getAppId(), context.getName(), flowFile, job.getRunTime(), job.getLaunchLatency()});
+            flowFile = session.putAttribute(flowFile, statusKey, "Success");
+            session.transfer(flowFile, REL_SUCCESS);
+        } else {
+            getLog().error("Spark application {} for {} and flowfile: {} completed with state {}", new Object[]{job.getAppId(), context.getName(), flowFile, state});
+            flowFile = session.putAttribute(flowFile, statusKey, "Failed");
+            session.transfer(flowFile, REL_FAILURE);
+        }
+    }
+
     private Map<String, String> getDatasources(ProcessSession session, FlowFile flowFile, String PROVENANCE_JOB_STATUS_KEY, String datasourceIds, MetadataProviderService metadataService,
                                                List<String> extraJarPaths) throws JsonProcessingException {
         final Map<String, String> env = new HashMap<>();
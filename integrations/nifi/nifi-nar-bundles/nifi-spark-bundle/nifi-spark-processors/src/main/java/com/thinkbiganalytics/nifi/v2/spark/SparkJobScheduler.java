@@ -0,0 +1,434 @@
+package com.thinkbiganalytics.nifi.v2.spark;
+
+/*-
+ * #%L
+ * thinkbig-nifi-spark-processors
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.spark.launcher.SparkAppHandle;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Tracks the Spark applications launched asynchronously by {@link ExecuteSparkJob} processors and limits how many may run at the same time in each YARN
+ * queue.
+ *
+ * <p>A single instance is shared by every processor in the JVM. While an application runs, its flow file waits in the incoming queue of the processor and is
+ * matched back to the application by its key.</p>
+ *
+ * <p>Applications are tracked only in memory. Jobs that exceed their timeout are killed and evicted, and completed jobs that are not collected within
+ * {@link #COMPLETED_RETENTION_MILLIS} are evicted, so jobs whose flow files were removed from the queue do not accumulate.</p>
+ */
+public class SparkJobScheduler {
+
+    /**
+     * Name of the queue used when no YARN queue is specified
+     */
+    public static final String DEFAULT_QUEUE = "default";
+
+    /**
+     * Time that a completed job is kept for its flow file to collect it
+     */
+    public static final long COMPLETED_RETENTION_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    /**
+     * Shared instance
+     */
+    private static final SparkJobScheduler INSTANCE = new SparkJobScheduler();
+
+    /**
+     * Applications that have been launched, by key
+     */
+    private final ConcurrentMap<String, Job> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * Statistics for each queue
+     */
+    private final ConcurrentMap<String, QueueStatistics> statistics = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the shared instance.
+     *
+     * @return the scheduler
+     */
+    @Nonnull
+    public static SparkJobScheduler getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Gets the application with the specified key.
+     *
+     * @param key the job key
+     * @return the job, or {@code null} if no application was launched with the key
+     */
+    @Nullable
+    public Job getJob(@Nonnull final String key) {
+        return jobs.get(key);
+    }
+
+    /**
+     * Launches an application if the queue has an available slot.
+     *
+     * @param key             the job key
+     * @param queue           the YARN queue, or {@code null} for the default queue
+     * @param maxApplications the maximum number of applications running in the queue, or 0 for no limit
+     * @param timeoutMillis   the time after which the application is killed and evicted if it has not completed
+     * @param starter         starts the application
+     * @return the job, or {@code null} if the queue is full
+     * @throws IOException if the application cannot be started
+     */
+    @Nullable
+    public Job start(@Nonnull final String key, @Nullable final String queue, final int maxApplications, final long timeoutMillis, @Nonnull final ApplicationStarter starter)
+        throws IOException {
+        evictExpired();
+        final QueueStatistics queueStatistics = getStatistics(queue);
+        if (!queueStatistics.tryAcquire(maxApplications)) {
+            return null;
+        }
+
+        queueStatistics.launched.incrementAndGet();
+        final Job job = new Job(key, queueStatistics, timeoutMillis);
+        jobs.put(key, job);
+        try {
+            job.setHandle(starter.start(job));
+        } catch (final IOException | RuntimeException e) {
+            remove(key);
+            throw e;
+        }
+        return job;
+    }
+
+    /**
+     * Stops tracking the application with the specified key and releases its slot.
+     *
+     * @param key the job key
+     */
+    public void remove(@Nonnull final String key) {
+        final Job job = jobs.remove(key);
+        if (job != null) {
+            job.release();
+        }
+    }
+
+    /**
+     * Kills and evicts the jobs that have exceeded their timeout, and evicts the completed jobs that have not been collected within
+     * {@link #COMPLETED_RETENTION_MILLIS}.
+     *
+     * @return the number of jobs evicted
+     */
+    public int evictExpired() {
+        final long now = System.currentTimeMillis();
+        int evicted = 0;
+        for (final Job job : jobs.values()) {
+            final boolean expired = job.isComplete() ? (job.finishTime > 0 && now - job.finishTime > COMPLETED_RETENTION_MILLIS)
+                                                     : (job.timeoutMillis > 0 && job.getElapsedTime() > job.timeoutMillis);
+            if (expired && jobs.remove(job.getKey(), job)) {
+                job.kill();
+                job.release();
+                ++evicted;
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Kills and evicts every job whose key starts with the specified prefix, such as all the jobs of a processor.
+     *
+     * @param keyPrefix the job key prefix
+     * @return the number of jobs evicted
+     */
+    public int removeAll(@Nonnull final String keyPrefix) {
+        int evicted = 0;
+        for (final Job job : jobs.values()) {
+            if (job.getKey().startsWith(keyPrefix) && jobs.remove(job.getKey(), job)) {
+                job.kill();
+                job.release();
+                ++evicted;
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Gets the statistics for the specified queue.
+     *
+     * @param queue the YARN queue, or {@code null} for the default queue
+     * @return the queue statistics
+     */
+    @Nonnull
+    public QueueStatistics getStatistics(@Nullable final String queue) {
+        return statistics.computeIfAbsent(StringUtils.defaultIfBlank(queue, DEFAULT_QUEUE), QueueStatistics::new);
+    }
+
+    /**
+     * Gets the statistics for every queue.
+     *
+     * @return the statistics by queue name
+     */
+    @Nonnull
+    public Map<String, QueueStatistics> getStatistics() {
+        return new TreeMap<>(statistics);
+    }
+
+    /**
+     * Starts a Spark application, such as {@link org.apache.spark.launcher.SparkLauncher#startApplication(SparkAppHandle.Listener...)}.
+     */
+    @FunctionalInterface
+    public interface ApplicationStarter {
+
+        /**
+         * Starts the application.
+         *
+         * @param listeners listeners for changes to the application state
+         * @return the application handle
+         * @throws IOException if the application cannot be started
+         */
+        SparkAppHandle start(SparkAppHandle.Listener... listeners) throws IOException;
+    }
+
+    /**
+     * A Spark application launched by a processor.
+     */
+    public static class Job implements SparkAppHandle.Listener {
+
+        private final String key;
+        private final QueueStatistics queue;
+        private final long timeoutMillis;
+        private final long submitTime = System.currentTimeMillis();
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        private volatile SparkAppHandle handle;
+        private volatile long runningTime;
+        private volatile long finishTime;
+
+        Job(@Nonnull final String key, @Nonnull final QueueStatistics queue, final long timeoutMillis) {
+            this.key = key;
+            this.queue = queue;
+            this.timeoutMillis = timeoutMillis;
+        }
+
+        @Override
+        public void stateChanged(@Nonnull final SparkAppHandle handle) {
+            this.handle = handle;
+            final SparkAppHandle.State state = handle.getState();
+            if (state == SparkAppHandle.State.RUNNING && runningTime == 0) {
+                runningTime = System.currentTimeMillis();
+            } else if (state != null && state.isFinal() && finishTime == 0) {
+                finishTime = System.currentTimeMillis();
+                release();
+            }
+        }
+
+        @Override
+        public void infoChanged(@Nonnull final SparkAppHandle handle) {
+            this.handle = handle;
+        }
+
+        @Nonnull
+        public String getKey() {
+            return key;
+        }
+
+        @Nullable
+        public String getAppId() {
+            return (handle != null) ? handle.getAppId() : null;
+        }
+
+        @Nonnull
+        public SparkAppHandle.State getState() {
+            final SparkAppHandle.State state = (handle != null) ? handle.getState() : null;
+            return (state != null) ? state : SparkAppHandle.State.UNKNOWN;
+        }
+
+        /**
+         * Indicates that the application has finished, failed, or been killed.
+         *
+         * @return {@code true} if the application is complete
+         */
+        public boolean isComplete() {
+            return getState().isFinal();
+        }
+
+        /**
+         * Gets the time from submitting the application until it started running.
+         *
+         * @return the launch latency in milliseconds, or -1 if the application never ran
+         */
+        public long getLaunchLatency() {
+            return (runningTime > 0) ? runningTime - submitTime : -1;
+        }
+
+        /**
+         * Gets the time the application spent running.
+         *
+         * @return the run time in milliseconds, or -1 if the application is not complete or never ran
+         */
+        public long getRunTime() {
+            return (runningTime > 0 && finishTime > 0) ? finishTime - runningTime : -1;
+        }
+
+        /**
+         * Gets the time since the application was submitted.
+         *
+         * @return the elapsed time in milliseconds
+         */
+        public long getElapsedTime() {
+            return System.currentTimeMillis() - submitTime;
+        }
+
+        /**
+         * Kills the application if it has not completed.
+         */
+        public void kill() {
+            if (handle != null && !isComplete()) {
+                handle.kill();
+            }
+        }
+
+        void setHandle(@Nullable final SparkAppHandle handle) {
+            if (handle != null && this.handle == null) {
+                this.handle = handle;
+            }
+        }
+
+        /**
+         * Releases the queue slot and records the statistics, if not already released.
+         */
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                queue.release(this);
+            }
+        }
+    }
+
+    /**
+     * Statistics for the applications launched in a YARN queue.
+     */
+    public static class QueueStatistics {
+
+        private final String name;
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicLong launched = new AtomicLong();
+        private final AtomicLong completed = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong totalLaunchLatency = new AtomicLong();
+        private final AtomicLong totalRunTime = new AtomicLong();
+        private final AtomicLong ran = new AtomicLong();
+
+        QueueStatistics(@Nonnull final String name) {
+            this.name = name;
+        }
+
+        @Nonnull
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Gets the number of applications holding a slot in the queue.
+         */
+        public int getRunning() {
+            return running.get();
+        }
+
+        /**
+         * Gets the number of applications launched.
+         */
+        public long getLaunched() {
+            return launched.get();
+        }
+
+        /**
+         * Gets the number of applications that released their slot.
+         */
+        public long getCompleted() {
+            return completed.get();
+        }
+
+        /**
+         * Gets the number of launches delayed because the queue was full.
+         */
+        public long getRejected() {
+            return rejected.get();
+        }
+
+        /**
+         * Gets the average time from submitting an application until it started running, in milliseconds.
+         */
+        public long getAverageLaunchLatency() {
+            final long count = ran.get();
+            return (count > 0) ? totalLaunchLatency.get() / count : 0;
+        }
+
+        /**
+         * Gets the average time an application spent running, in milliseconds.
+         */
+        public long getAverageRunTime() {
+            final long count = ran.get();
+            return (count > 0) ? totalRunTime.get() / count : 0;
+        }
+
+        @Override
+        public String toString() {
+            return getClass().getSimpleName() + "{name=" + name + ", running=" + running + ", launched=" + launched + ", completed=" + completed + ", rejected=" + rejected
+                   + ", averageLaunchLatency=" + getAverageLaunchLatency() + ", averageRunTime=" + getAverageRunTime() + "}";
+        }
+
+        /**
+         * Takes a slot in the queue if one is available.
+         */
+        boolean tryAcquire(final int maxApplications) {
+            while (true) {
+                final int current = running.get();
+                if (maxApplications > 0 && current >= maxApplications) {
+                    rejected.incrementAndGet();
+                    return false;
+                }
+                if (running.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * Returns the slot of the specified job and records its timings.
+         */
+        void release(@Nonnull final Job job) {
+            running.decrementAndGet();
+            completed.incrementAndGet();
+            if (job.getRunTime() >= 0) {
+                totalLaunchLatency.addAndGet(job.getLaunchLatency());
+                totalRunTime.addAndGet(job.getRunTime());
+                ran.incrementAndGet();
+            }
+        }
+    }
+}
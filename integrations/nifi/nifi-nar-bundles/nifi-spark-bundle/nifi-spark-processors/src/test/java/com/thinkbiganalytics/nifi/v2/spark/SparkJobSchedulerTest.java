@@ -0,0 +1,170 @@
+package com.thinkbiganalytics.nifi.v2.spark;
+
+/*-
+ * #%L
+ * thinkbig-nifi-spark-processors
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.spark.launcher.SparkAppHandle;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import javax.annotation.Nonnull;
+
+public class SparkJobSchedulerTest {
+
+    /**
+     * Verify limiting the number of applications in a queue.
+     */
+    @Test
+    public void start() throws Exception {
+        final SparkJobScheduler scheduler = new SparkJobScheduler();
+        final MockSparkAppHandle handle1 = new MockSparkAppHandle();
+        final MockSparkAppHandle handle2 = new MockSparkAppHandle();
+
+        // Test launching up to the limit
+        final SparkJobScheduler.Job job1 = scheduler.start("p1:f1", "etl", 1, 60000, handle1::start);
+        Assert.assertNotNull(job1);
+        Assert.assertSame(job1, scheduler.getJob("p1:f1"));
+        Assert.assertNull(scheduler.start("p1:f2", "etl", 1, 60000, handle2::start));
+        Assert.assertNotNull(scheduler.start("p1:f3", null, 1, 60000, new MockSparkAppHandle()::start));
+
+        // Test completing an application releases its slot
+        handle1.setState(SparkAppHandle.State.RUNNING);
+        Assert.assertFalse(job1.isComplete());
+        handle1.setState(SparkAppHandle.State.FINISHED);
+        Assert.assertTrue(job1.isComplete());
+        Assert.assertTrue(job1.getRunTime() >= 0);
+        Assert.assertNotNull(scheduler.start("p1:f2", "etl", 1, 60000, handle2::start));
+
+        // Test statistics
+        scheduler.remove("p1:f1");
+        Assert.assertNull(scheduler.getJob("p1:f1"));
+
+        final SparkJobScheduler.QueueStatistics stats = scheduler.getStatistics("etl");
+        Assert.assertEquals(1, stats.getRunning());
+        Assert.assertEquals(2, stats.getLaunched());
+        Assert.assertEquals(1, stats.getCompleted());
+        Assert.assertEquals(1, stats.getRejected());
+        Assert.assertEquals(1, scheduler.getStatistics(SparkJobScheduler.DEFAULT_QUEUE).getRunning());
+    }
+
+    /**
+     * Verify releasing the slot when an application cannot be started.
+     */
+    @Test
+    public void startWithError() {
+        final SparkJobScheduler scheduler = new SparkJobScheduler();
+        try {
+            scheduler.start("p1:f1", "etl", 1, 60000, listeners -> {
+                throw new IOException("spark-submit not found");
+            });
+            Assert.fail("Expected IOException");
+        } catch (final IOException e) {
+            Assert.assertNull(scheduler.getJob("p1:f1"));
+            Assert.assertEquals(0, scheduler.getStatistics("etl").getRunning());
+        }
+    }
+
+    /**
+     * Verify evicting jobs that exceed their timeout.
+     */
+    @Test
+    public void evictExpired() throws Exception {
+        final SparkJobScheduler scheduler = new SparkJobScheduler();
+        final MockSparkAppHandle handle1 = new MockSparkAppHandle();
+        final SparkJobScheduler.Job job2 = scheduler.start("p1:f2", "etl", 2, 60000, new MockSparkAppHandle()::start);
+        final SparkJobScheduler.Job job1 = scheduler.start("p1:f1", "etl", 2, 1, handle1::start);
+        Thread.sleep(10);
+
+        Assert.assertEquals(1, scheduler.evictExpired());
+        Assert.assertNull(scheduler.getJob("p1:f1"));
+        Assert.assertEquals(SparkAppHandle.State.KILLED, job1.getState());
+        Assert.assertSame(job2, scheduler.getJob("p1:f2"));
+        Assert.assertEquals(1, scheduler.getStatistics("etl").getRunning());
+    }
+
+    /**
+     * Verify killing the jobs of a processor.
+     */
+    @Test
+    public void removeAll() throws Exception {
+        final SparkJobScheduler scheduler = new SparkJobScheduler();
+        final SparkJobScheduler.Job job1 = scheduler.start("p1:f1", "etl", 0, 60000, new MockSparkAppHandle()::start);
+        final SparkJobScheduler.Job job2 = scheduler.start("p2:f1", "etl", 0, 60000, new MockSparkAppHandle()::start);
+
+        Assert.assertEquals(1, scheduler.removeAll("p1:"));
+        Assert.assertEquals(SparkAppHandle.State.KILLED, job1.getState());
+        Assert.assertNull(scheduler.getJob("p1:f1"));
+        Assert.assertSame(job2, scheduler.getJob("p2:f1"));
+        Assert.assertEquals(1, scheduler.getStatistics("etl").getRunning());
+    }
+
+    /**
+     * A mock Spark application handle that notifies its listeners of state changes.
+     */
+    private static class MockSparkAppHandle implements SparkAppHandle {
+
+        private SparkAppHandle.Listener[] listeners = new SparkAppHandle.Listener[0];
+        private State state = State.UNKNOWN;
+
+        SparkAppHandle start(@Nonnull final SparkAppHandle.Listener... listeners) {
+            this.listeners = listeners;
+            setState(State.SUBMITTED);
+            return this;
+        }
+
+        void setState(@Nonnull final State state) {
+            this.state = state;
+            for (final SparkAppHandle.Listener listener : listeners) {
+                listener.stateChanged(this);
+            }
+        }
+
+        @Override
+        public void addListener(@Nonnull final Listener listener) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public State getState() {
+            return state;
+        }
+
+        @Override
+        public String getAppId() {
+            return "application_1_0001";
+        }
+
+        @Override
+        public void stop() {
+            setState(State.FINISHED);
+        }
+
+        @Override
+        public void kill() {
+            setState(State.KILLED);
+        }
+
+        @Override
+        public void disconnect() {
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.thinkbiganalytics.nifi.v2.core.metadata;
+
+/*-
+ * #%L
+ * thinkbig-nifi-core-service
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.metadata.api.op.FeedDependencyDeltaResults;
+import com.thinkbiganalytics.metadata.rest.model.data.Datasource;
+import com.thinkbiganalytics.metadata.rest.model.data.DirectoryDatasource;
+import com.thinkbiganalytics.metadata.rest.model.data.HiveTableDatasource;
+import com.thinkbiganalytics.metadata.rest.model.feed.Feed;
+import com.thinkbiganalytics.metadata.rest.model.feed.FeedDestination;
+import com.thinkbiganalytics.metadata.rest.model.op.DataOperation;
+import com.thinkbiganalytics.metadata.rest.model.op.DataOperation.State;
+import com.thinkbiganalytics.metadata.rest.model.op.Dataset;
+import com.thinkbiganalytics.metadata.rest.model.op.HiveTablePartitions;
+import com.thinkbiganalytics.metadata.sla.api.Metric;
+import com.thinkbiganalytics.nifi.core.api.metadata.MetadataProvider;
+
+import org.joda.time.DateTime;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.Properties;
+
+import javax.annotation.Nonnull;
+
+/**
+ * A {@link MetadataProvider} that caches feed lookups in a {@link MetadataCache}, and delegates everything else.
+ */
+public class CachingMetadataProvider implements MetadataProvider {
+
+    /**
+     * Provider for uncached requests
+     */
+    @Nonnull
+    private final MetadataProvider delegate;
+
+    /**
+     * Cache of metadata
+     */
+    @Nonnull
+    private final MetadataCache cache;
+
+    /**
+     * Constructs a {@code CachingMetadataProvider}.
+     *
+     * @param delegate the provider for uncached requests
+     * @param cache    the metadata cache
+     */
+    public CachingMetadataProvider(@Nonnull final MetadataProvider delegate, @Nonnull final MetadataCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public String getFeedId(String category, String feedName) {
+        Feed feed = getFeed(category, feedName);
+        return feed == null ? null : feed.getId();
+    }
+
+    @Override
+    public Feed getFeed(@Nonnull String category, @Nonnull String feedName) {
+        return cache.getFeed(category, feedName, () -> delegate.getFeed(category, feedName));
+    }
+
+    @Override
+    public FeedDependencyDeltaResults getFeedDependentResultDeltas(String feedId) {
+        return delegate.getFeedDependentResultDeltas(feedId);
+    }
+
+    @Override
+    public Feed ensureFeed(String categoryName, String feedName, String description) {
+        final Feed feed = delegate.ensureFeed(categoryName, feedName, description);
+        cache.putFeed(feed);
+        return feed;
+    }
+
+    @Override
+    public Datasource getDatasourceByName(String dsName) {
+        return delegate.getDatasourceByName(dsName);
+    }
+
+    @Override
+    public Feed ensureFeedSource(String feedId, String datasourceId) {
+        final Feed feed = delegate.ensureFeedSource(feedId, datasourceId);
+        cache.putFeed(feed);
+        return feed;
+    }
+
+    @Override
+    public Feed ensureFeedDestination(String feedId, String datasourceId) {
+        final Feed feed = delegate.ensureFeedDestination(feedId, datasourceId);
+        cache.putFeed(feed);
+        return feed;
+    }
+
+    @Override
+    public Feed ensurePrecondition(String feedId, Metric... metrics) {
+        final Feed feed = delegate.ensurePrecondition(feedId, metrics);
+        cache.putFeed(feed);
+        return feed;
+    }
+
+    @Override
+    public Properties updateFeedProperties(String feedId, Properties props) {
+        return delegate.updateFeedProperties(feedId, props);
+    }
+
+    @Override
+    public DirectoryDatasource ensureDirectoryDatasource(String datasetName, String descr, Path path) {
+        return delegate.ensureDirectoryDatasource(datasetName, descr, path);
+    }
+
+    @Override
+    public HiveTableDatasource ensureHiveTableDatasource(String datasetName, String descr, String databaseName, String tableName) {
+        return delegate.ensureHiveTableDatasource(datasetName, descr, databaseName, tableName);
+    }
+
+    @Override
+    public Dataset createDataset(DirectoryDatasource dds, Path... paths) {
+        return delegate.createDataset(dds, paths);
+    }
+
+    @Override
+    public Dataset createDataset(DirectoryDatasource dds, ArrayList<Path> paths) {
+        return delegate.createDataset(dds, paths);
+    }
+
+    @Override
+    public Dataset createDataset(HiveTableDatasource hds, HiveTablePartitions partitions) {
+        return delegate.createDataset(hds, partitions);
+    }
+
+    @Override
+    public DataOperation beginOperation(FeedDestination feedDestination, DateTime opStart) {
+        return delegate.beginOperation(feedDestination, opStart);
+    }
+
+    @Override
+    public DataOperation completeOperation(String id, String status, Dataset changeSet) {
+        return delegate.completeOperation(id, status, changeSet);
+    }
+
+    @Override
+    public DataOperation completeOperation(String id, String status, State state) {
+        return delegate.completeOperation(id, status, state);
+    }
+
+    @Override
+    public Properties getFeedProperties(@Nonnull String id) {
+        return delegate.getFeedProperties(id);
+    }
+
+    @Override
+    public Properties mergeFeedProperties(@Nonnull String id, @Nonnull Properties props) {
+        return delegate.mergeFeedProperties(id, props);
+    }
+
+    @Override
+    public Optional<Datasource> getDatasource(@Nonnull String id) {
+        return delegate.getDatasource(id);
+    }
+}
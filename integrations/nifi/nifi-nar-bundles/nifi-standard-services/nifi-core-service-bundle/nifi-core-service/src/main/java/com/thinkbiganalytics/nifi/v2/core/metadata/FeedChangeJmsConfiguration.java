@@ -0,0 +1,75 @@
+package com.thinkbiganalytics.nifi.v2.core.metadata;
+
+/*-
+ * #%L
+ * thinkbig-nifi-core-service
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.jms.JmsService;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jms.config.DefaultJmsListenerContainerFactory;
+import org.springframework.jms.config.JmsListenerContainerFactory;
+import org.springframework.jms.support.converter.SimpleMessageConverter;
+
+import javax.annotation.Nonnull;
+import javax.jms.ConnectionFactory;
+
+/**
+ * Bean configuration for invalidating the {@link MetadataCache} of the {@link MetadataProviderSelectorService}.
+ */
+@Configuration
+public class FeedChangeJmsConfiguration {
+
+    /**
+     * Name of the listener container factory for feed change events
+     */
+    public static final String FEED_CHANGE_CONTAINER_FACTORY = "feedChangeContainerFactory";
+
+    /**
+     * Gets the feed change event consumer.
+     *
+     * @return the feed change event consumer
+     */
+    @Bean
+    @Nonnull
+    public JmsFeedChangeEventConsumer feedChangeEventConsumer() {
+        return new JmsFeedChangeEventConsumer();
+    }
+
+    /**
+     * Gets the listener container factory for feed change events. Kylo publishes them to a topic, so each NiFi node subscribes with a single
+     * consumer, unless the JMS provider does not support topics.
+     *
+     * @param connectionFactory the JMS connection factory
+     * @param jmsService        the JMS provider
+     * @return the listener container factory
+     */
+    @Bean(name = FEED_CHANGE_CONTAINER_FACTORY)
+    @Nonnull
+    public JmsListenerContainerFactory<?> feedChangeContainerFactory(@Nonnull final ConnectionFactory connectionFactory, @Nonnull final JmsService jmsService) {
+        final DefaultJmsListenerContainerFactory factory = new DefaultJmsListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setConcurrency("1");
+        factory.setMessageConverter(new SimpleMessageConverter());
+        jmsService.configureContainerFactory(factory);
+        factory.setPubSubDomain(jmsService.isTopicSupported());
+        return factory;
+    }
+}
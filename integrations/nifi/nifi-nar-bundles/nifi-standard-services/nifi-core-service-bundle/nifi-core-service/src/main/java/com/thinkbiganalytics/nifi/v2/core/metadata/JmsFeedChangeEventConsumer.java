@@ -0,0 +1,85 @@
+package com.thinkbiganalytics.nifi.v2.core.metadata;
+
+/*-
+ * #%L
+ * thinkbig-nifi-core-service
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.metadata.event.jms.MetadataQueues;
+import com.thinkbiganalytics.metadata.rest.model.event.FeedChangedEvent;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jms.annotation.JmsListener;
+
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.function.Consumer;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Gets the JMS consumer for feed change events, and forwards them to listeners such as the {@link MetadataCache}.
+ */
+public class JmsFeedChangeEventConsumer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JmsFeedChangeEventConsumer.class);
+
+    /**
+     * Listeners to be notified of feed changes
+     */
+    @Nonnull
+    private final Set<Consumer<FeedChangedEvent>> listeners = new CopyOnWriteArraySet<>();
+
+    /**
+     * adds a listener to be notified on receipt of feed change events
+     *
+     * @param listener the listener to be added
+     */
+    public void addListener(@Nonnull final Consumer<FeedChangedEvent> listener) {
+        LOG.debug("Adding feed change listener {}", listener);
+        listeners.add(listener);
+    }
+
+    /**
+     * Processes feed change events.
+     *
+     * @param event the feed change event
+     */
+    @JmsListener(destination = MetadataQueues.FEED_CHANGE, containerFactory = FeedChangeJmsConfiguration.FEED_CHANGE_CONTAINER_FACTORY)
+    public void receiveEvent(@Nonnull final FeedChangedEvent event) {
+        LOG.debug("Received JMS message - topic: {}, message: {}", MetadataQueues.FEED_CHANGE, event);
+        for (final Consumer<FeedChangedEvent> listener : listeners) {
+            try {
+                listener.accept(event);
+            } catch (final Exception e) {
+                LOG.error("Feed change listener {} failed for event {}", listener, event, e);
+            }
+        }
+    }
+
+    /**
+     * removes the listener that was previously added with addListener
+     *
+     * @param listener the listener to be removed
+     */
+    public void removeListener(@Nonnull final Consumer<FeedChangedEvent> listener) {
+        LOG.debug("Remove feed change listener {}", listener);
+        listeners.remove(listener);
+    }
+}
@@ -0,0 +1,149 @@
+package com.thinkbiganalytics.nifi.v2.core.metadata;
+
+/*-
+ * #%L
+ * thinkbig-nifi-core-service
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.thinkbiganalytics.metadata.rest.model.event.FeedChangedEvent;
+import com.thinkbiganalytics.metadata.rest.model.feed.Feed;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Local cache of the feeds that NiFi processors look up for every flow file.
+ *
+ * <p>Entries expire after a fixed time and are invalidated when Kylo sends a {@link FeedChangedEvent}. Feeds returned by changes made through this NiFi instance
+ * update the cache directly. High-water marks, initialization statuses, and feed properties are not cached as they may be changed by Kylo or another NiFi
+ * node at any time.</p>
+ */
+public class MetadataCache implements Consumer<FeedChangedEvent> {
+
+    private static final Logger log = LoggerFactory.getLogger(MetadataCache.class);
+
+    /**
+     * Feeds by {@code category.feed} name
+     */
+    private final Cache<String, Feed> feeds;
+
+    /**
+     * Constructs a {@code MetadataCache}.
+     *
+     * @param maximumSize     the maximum number of feeds to cache
+     * @param expireAfterSecs the number of seconds before an entry expires
+     */
+    public MetadataCache(final long maximumSize, final long expireAfterSecs) {
+        feeds = CacheBuilder.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(expireAfterSecs, TimeUnit.SECONDS)
+            .recordStats()
+            .build();
+    }
+
+    /**
+     * Gets the feed with the specified name, loading it if not cached. Feeds that are not found are not cached.
+     *
+     * @param category the category system name
+     * @param feedName the feed system name
+     * @param loader   loads the feed
+     * @return the feed, or {@code null} if not found
+     */
+    @Nullable
+    public Feed getFeed(@Nonnull final String category, @Nonnull final String feedName, @Nonnull final Supplier<Feed> loader) {
+        final String key = feedKey(category, feedName);
+        Feed feed = feeds.getIfPresent(key);
+        if (feed == null) {
+            feed = loader.get();
+            if (feed != null) {
+                feeds.put(key, feed);
+            }
+        }
+        return feed;
+    }
+
+    /**
+     * Adds or replaces the specified feed.
+     *
+     * @param feed the feed
+     */
+    public void putFeed(@Nullable final Feed feed) {
+        if (feed != null && feed.getCategory() != null && feed.getSystemName() != null) {
+            feeds.put(feedKey(feed.getCategory().getSystemName(), feed.getSystemName()), feed);
+        }
+    }
+
+    /**
+     * Invalidates the cached metadata for the changed feed.
+     *
+     * @param event the feed change event
+     */
+    @Override
+    public void accept(@Nonnull final FeedChangedEvent event) {
+        log.debug("Invalidating cached metadata for {}", event);
+        if (event.getCategoryName() != null && event.getFeedName() != null) {
+            feeds.invalidate(feedKey(event.getCategoryName(), event.getFeedName()));
+        }
+
+        final String feedId = event.getFeedId();
+        if (feedId != null) {
+            feeds.asMap().values().removeIf(feed -> feedId.equals(feed.getId()));
+        }
+    }
+
+    /**
+     * Removes all entries from the cache.
+     */
+    public void invalidateAll() {
+        feeds.invalidateAll();
+    }
+
+    /**
+     * Gets the statistics of all lookups.
+     *
+     * @return the cache statistics
+     */
+    @Nonnull
+    public CacheStats getStats() {
+        return feeds.stats();
+    }
+
+    /**
+     * Gets the number of cached entries.
+     *
+     * @return the number of entries
+     */
+    public long size() {
+        return feeds.size();
+    }
+
+    @Nonnull
+    private static String feedKey(@Nonnull final String category, @Nonnull final String feedName) {
+        return category + "." + feedName;
+    }
+}
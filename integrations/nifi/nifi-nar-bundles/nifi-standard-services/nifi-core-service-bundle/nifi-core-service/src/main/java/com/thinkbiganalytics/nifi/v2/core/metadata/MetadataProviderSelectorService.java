@@ -20,15 +20,19 @@ package com.thinkbiganalytics.nifi.v2.core.metadata;
  * #L%
  */
 
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.thinkbiganalytics.metadata.rest.client.MetadataClient;
 import com.thinkbiganalytics.nifi.core.api.metadata.KyloNiFiFlowProvider;
 import com.thinkbiganalytics.nifi.core.api.metadata.MetadataProvider;
 import com.thinkbiganalytics.nifi.core.api.metadata.MetadataProviderService;
 import com.thinkbiganalytics.nifi.core.api.metadata.MetadataRecorder;
+import com.thinkbiganalytics.nifi.core.api.spring.SpringContextService;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.conn.ssl.TrustSelfSignedStrategy;
 import org.apache.http.ssl.SSLContextBuilder;
+import org.apache.nifi.annotation.lifecycle.OnDisabled;
 import org.apache.nifi.annotation.lifecycle.OnEnabled;
 import org.apache.nifi.components.AllowableValue;
 import org.apache.nifi.components.PropertyDescriptor;
@@ -53,11 +57,21 @@ import java.security.cert.CertificateException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
 
 import javax.net.ssl.SSLContext;
 
 /**
+ * Provides the metadata provider and recorder that NiFi processors use to access Kylo.
  *
+ * <p>Feed lookups are cached locally when the cache size is greater than zero. High-water marks, initialization statuses, and feed properties are always
+ * read from Kylo. If a Spring context service is configured then cached feeds are invalidated when Kylo sends a feed change message over JMS, otherwise
+ * only the expiration applies.
+ * Cache statistics are logged every {@value #STATS_LOG_INTERVAL_MINUTES} minutes.</p>
  */
 public class MetadataProviderSelectorService extends AbstractControllerService implements MetadataProviderService {
 
@@ -92,6 +106,29 @@ public class MetadataProviderSelectorService extends AbstractControllerService i
         .required(false)
         .identifiesControllerService(SSLContextService.class)
         .build();
+    public static final PropertyDescriptor CACHE_SIZE = new PropertyDescriptor.Builder()
+        .name("metadata-cache-size")
+        .displayName("Metadata Cache Size")
+        .description("The maximum number of feeds to cache locally. High-water marks, initialization statuses, and feed properties are never cached. Set to 0 to disable the cache.")
+        .defaultValue("1000")
+        .addValidator(StandardValidators.NON_NEGATIVE_INTEGER_VALIDATOR)
+        .required(true)
+        .build();
+    public static final PropertyDescriptor CACHE_EXPIRE_DURATION = new PropertyDescriptor.Builder()
+        .name("metadata-cache-expire-duration")
+        .displayName("Metadata Cache Expiry Duration")
+        .description("The length of time after which a cached feed is requested again from Kylo, even if no feed change message was received. Feed change messages are only "
+                     + "sent when kylo.metadata.feed.change.jms.enabled is set in Kylo.")
+        .defaultValue("60 secs")
+        .addValidator(StandardValidators.TIME_PERIOD_VALIDATOR)
+        .required(true)
+        .build();
+    public static final PropertyDescriptor SPRING_SERVICE = new PropertyDescriptor.Builder()
+        .name("Spring Context Service")
+        .description("Optional service for receiving feed change messages from Kylo to invalidate the metadata cache.")
+        .identifiesControllerService(SpringContextService.class)
+        .required(false)
+        .build();
     private static final AllowableValue[] ALLOWABLE_IMPLEMENATIONS = {
         new AllowableValue("LOCAL", "Local, In-memory storage", "An implemenation that stores metadata locally in memory (for development-only)"),
         new AllowableValue("REMOTE", "REST API", "An implementation that accesses metadata via the metadata service REST API")
@@ -113,6 +150,9 @@ public class MetadataProviderSelectorService extends AbstractControllerService i
         props.add(CLIENT_USERNAME);
         props.add(CLIENT_PASSWORD);
         props.add(SSL_CONTEXT_SERVICE);
+        props.add(CACHE_SIZE);
+        props.add(CACHE_EXPIRE_DURATION);
+        props.add(SPRING_SERVICE);
         properties = Collections.unmodifiableList(props);
     }
 
@@ -121,6 +161,31 @@ public class MetadataProviderSelectorService extends AbstractControllerService i
     private volatile MetadataRecorder recorder;
     private volatile KyloProvenanceClientProvider kyloProvenanceClientProvider;
 
+    /**
+     * Interval for logging the cache statistics
+     */
+    private static final long STATS_LOG_INTERVAL_MINUTES = 5;
+
+    /**
+     * Local cache of metadata, or {@code null} if disabled
+     */
+    private volatile MetadataCache cache;
+
+    /**
+     * Consumer of feed change messages, or {@code null} if not configured
+     */
+    private volatile JmsFeedChangeEventConsumer feedChangeConsumer;
+
+    /**
+     * Logs the cache statistics
+     */
+    private volatile ScheduledExecutorService statsExecutor;
+
+    /**
+     * Number of cache requests at the last time the statistics were logged
+     */
+    private volatile long lastRequestCount;
+
     /**
      * The Service holding the SSL Context information
      */
@@ -153,7 +218,16 @@ public class MetadataProviderSelectorService extends AbstractControllerService i
                 client = new MetadataClient(uri, user, password, sslContext);
             }
 
-            this.provider = new MetadataClientProvider(client);
+            final int cacheSize = context.getProperty(CACHE_SIZE).asInteger();
+            if (cacheSize > 0) {
+                this.cache = new MetadataCache(cacheSize, context.getProperty(CACHE_EXPIRE_DURATION).asTimePeriod(TimeUnit.SECONDS));
+                this.provider = new CachingMetadataProvider(new MetadataClientProvider(client), cache);
+                subscribeToFeedChanges(context);
+                startStatsLogging();
+            } else {
+                this.cache = null;
+                this.provider = new MetadataClientProvider(client);
+            }
             this.recorder = new MetadataClientRecorder(client);
             this.kyloProvenanceClientProvider = new KyloProvenanceClientProvider(client);
         } else {
@@ -162,6 +236,34 @@ public class MetadataProviderSelectorService extends AbstractControllerService i
     }
 
 
+    /**
+     * Stops invalidating and reporting on the metadata cache.
+     */
+    @OnDisabled
+    public void onDisabled() {
+        if (feedChangeConsumer != null && cache != null) {
+            feedChangeConsumer.removeListener(cache);
+        }
+        feedChangeConsumer = null;
+
+        if (statsExecutor != null) {
+            statsExecutor.shutdownNow();
+            statsExecutor = null;
+        }
+        logCacheStats();
+    }
+
+    /**
+     * Gets the statistics of the metadata cache.
+     *
+     * @return the cache statistics, or {@code null} if the cache is disabled
+     */
+    @Nullable
+    public CacheStats getCacheStats() {
+        final MetadataCache current = cache;
+        return (current != null) ? current.getStats() : null;
+    }
+
     @Override
     public MetadataProvider getProvider() {
         return this.provider;
@@ -177,6 +279,49 @@ public class MetadataProviderSelectorService extends AbstractControllerService i
     }
 
 
+    /**
+     * Registers the cache for feed change messages if a Spring context service is configured.
+     */
+    private void subscribeToFeedChanges(final ConfigurationContext context) {
+        final PropertyValue springProperty = context.getProperty(SPRING_SERVICE);
+        if (springProperty != null && springProperty.isSet()) {
+            try {
+                feedChangeConsumer = springProperty.asControllerService(SpringContextService.class).getBean(JmsFeedChangeEventConsumer.class);
+                feedChangeConsumer.addListener(cache);
+            } catch (final Exception e) {
+                getLogger().warn("Unable to receive feed change messages. Cached metadata will only be refreshed when it expires.", e);
+            }
+        } else {
+            getLogger().debug("No Spring context service configured. Cached metadata will only be refreshed when it expires.");
+        }
+    }
+
+    /**
+     * Periodically logs the cache statistics.
+     */
+    private void startStatsLogging() {
+        lastRequestCount = 0;
+        statsExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setDaemon(true).setNameFormat("metadata-cache-stats-%d").build());
+        statsExecutor.scheduleWithFixedDelay(this::logCacheStats, STATS_LOG_INTERVAL_MINUTES, STATS_LOG_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Logs the cache statistics if there were any requests since they were last logged.
+     */
+    private void logCacheStats() {
+        final MetadataCache current = cache;
+        if (current == null) {
+            return;
+        }
+
+        final CacheStats stats = current.getStats();
+        if (stats.requestCount() != lastRequestCount) {
+            lastRequestCount = stats.requestCount();
+            getLogger().info("Metadata cache: {} requests, {}% hit rate, {} loads, {} evictions, {} entries",
+                             new Object[]{stats.requestCount(), Math.round(stats.hitRate() * 100), stats.loadCount(), stats.evictionCount(), current.size()});
+        }
+    }
+
     /**
      * Taken from NiFi GetHttp Processor
      */
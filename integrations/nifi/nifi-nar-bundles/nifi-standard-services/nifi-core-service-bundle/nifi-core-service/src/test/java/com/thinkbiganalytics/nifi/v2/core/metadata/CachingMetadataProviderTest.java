@@ -0,0 +1,108 @@
+package com.thinkbiganalytics.nifi.v2.core.metadata;
+
+/*-
+ * #%L
+ * thinkbig-nifi-core-service
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.metadata.rest.model.event.FeedChangedEvent;
+import com.thinkbiganalytics.metadata.rest.model.feed.Feed;
+import com.thinkbiganalytics.metadata.rest.model.feed.FeedCategory;
+import com.thinkbiganalytics.nifi.core.api.metadata.MetadataProvider;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.Properties;
+
+public class CachingMetadataProviderTest {
+
+    /**
+     * Verify caching feed lookups and invalidating them from feed change events.
+     */
+    @Test
+    public void getFeed() {
+        // Mock provider
+        final Feed feed = new Feed();
+        feed.setId("FEEDID");
+        feed.setSystemName("feed");
+
+        final MetadataProvider delegate = Mockito.mock(MetadataProvider.class);
+        Mockito.when(delegate.getFeed("cat", "feed")).thenReturn(feed);
+
+        // Test caching feeds
+        final MetadataCache cache = new MetadataCache(10, 60);
+        final CachingMetadataProvider provider = new CachingMetadataProvider(delegate, cache);
+        Assert.assertEquals("FEEDID", provider.getFeedId("cat", "feed"));
+        Assert.assertEquals(feed, provider.getFeed("cat", "feed"));
+        Assert.assertNull(provider.getFeed("cat", "missing"));
+        Assert.assertNull(provider.getFeed("cat", "missing"));
+        Mockito.verify(delegate, Mockito.times(1)).getFeed("cat", "feed");
+        Mockito.verify(delegate, Mockito.times(2)).getFeed("cat", "missing");
+
+        // Test invalidating feeds
+        final JmsFeedChangeEventConsumer consumer = new JmsFeedChangeEventConsumer();
+        consumer.addListener(cache);
+        consumer.receiveEvent(new FeedChangedEvent("FEEDID", "UPDATE"));
+        provider.getFeed("cat", "feed");
+        Mockito.verify(delegate, Mockito.times(2)).getFeed("cat", "feed");
+
+        final FeedChangedEvent event = new FeedChangedEvent("OTHERID", "DELETE");
+        event.setCategoryName("cat");
+        event.setFeedName("feed");
+        consumer.receiveEvent(event);
+        provider.getFeed("cat", "feed");
+        Mockito.verify(delegate, Mockito.times(3)).getFeed("cat", "feed");
+
+        Assert.assertEquals(6, cache.getStats().requestCount());
+        Assert.assertEquals(1, cache.getStats().hitCount());
+    }
+
+    /**
+     * Verify caching ensured feeds and always reading feed properties from Kylo.
+     */
+    @Test
+    public void getFeedProperties() {
+        // Mock provider
+        final Properties properties = new Properties();
+        properties.setProperty("key", "value");
+
+        final MetadataProvider delegate = Mockito.mock(MetadataProvider.class);
+        Mockito.when(delegate.getFeedProperties("FEEDID")).thenReturn(properties);
+
+        final FeedCategory category = new FeedCategory();
+        category.setSystemName("cat");
+        final Feed feed = new Feed();
+        feed.setId("FEEDID");
+        feed.setSystemName("feed");
+        feed.setCategory(category);
+        Mockito.when(delegate.ensureFeed("cat", "feed", "")).thenReturn(feed);
+
+        // Test properties are not cached
+        final CachingMetadataProvider provider = new CachingMetadataProvider(delegate, new MetadataCache(10, 60));
+        Assert.assertEquals("value", provider.getFeedProperties("FEEDID").getProperty("key"));
+        Assert.assertEquals("value", provider.getFeedProperties("FEEDID").getProperty("key"));
+        Mockito.verify(delegate, Mockito.times(2)).getFeedProperties("FEEDID");
+
+        // Test caching ensured feeds
+        provider.ensureFeed("cat", "feed", "");
+        Assert.assertEquals(feed, provider.getFeed("cat", "feed"));
+        Mockito.verify(delegate, Mockito.never()).getFeed("cat", "feed");
+    }
+}
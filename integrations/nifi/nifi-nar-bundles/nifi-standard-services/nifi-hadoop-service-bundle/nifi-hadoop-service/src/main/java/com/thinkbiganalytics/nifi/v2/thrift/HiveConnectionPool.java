@@ -0,0 +1,495 @@
+package com.thinkbiganalytics.nifi.v2.thrift;
+
+/*-
+ * #%L
+ * thinkbig-nifi-hadoop-service
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnull;
+
+/**
+ * A pool of JDBC connections to HiveServer2 that never validates connections on borrow.
+ *
+ * <p>Idle connections are kept in a lock-free deque and the number of connections is bounded by a semaphore. Connections that have been idle for longer
+ * than the validation interval are tested by a background thread, and connections that have been idle for longer than the max idle time are closed.</p>
+ */
+public class HiveConnectionPool implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(HiveConnectionPool.class);
+
+    /**
+     * Creates new connections
+     */
+    @Nonnull
+    private final ConnectionFactory factory;
+
+    /**
+     * Idle connections, most recently used first
+     */
+    private final ConcurrentLinkedDeque<PooledConnection> idle = new ConcurrentLinkedDeque<>();
+
+    /**
+     * Maximum time to idle before a connection is closed, in milliseconds
+     */
+    private final long maxIdleMillis;
+
+    /**
+     * Maximum time to wait for a connection, in milliseconds, or -1 to wait indefinitely
+     */
+    private final long maxWaitMillis;
+
+    /**
+     * Permits for borrowing connections
+     */
+    @Nonnull
+    private final Semaphore permits;
+
+    /**
+     * Validates idle connections
+     */
+    @Nonnull
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Time a connection may idle before it is validated, in milliseconds
+     */
+    private final long validationIntervalMillis;
+
+    /**
+     * Query for validating connections
+     */
+    @Nonnull
+    private final String validationQuery;
+
+    /**
+     * Time to wait for a validation query, in seconds
+     */
+    private final int validationTimeoutSeconds;
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicLong borrowed = new AtomicLong();
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong destroyed = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong validationFailures = new AtomicLong();
+
+    /**
+     * Constructs a {@code HiveConnectionPool} and starts validating idle connections.
+     *
+     * @param factory                  creates new connections
+     * @param maxTotal                 the maximum number of connections, or negative for no limit
+     * @param maxWaitMillis            the maximum time to wait for a connection, or -1 to wait indefinitely
+     * @param validationQuery          the query for validating connections
+     * @param validationTimeoutSeconds the time to wait for a validation query
+     * @param validationIntervalMillis the time a connection may idle before it is validated
+     * @param maxIdleMillis            the time a connection may idle before it is closed
+     */
+    public HiveConnectionPool(@Nonnull final ConnectionFactory factory, final int maxTotal, final long maxWaitMillis, @Nonnull final String validationQuery,
+                              final int validationTimeoutSeconds, final long validationIntervalMillis, final long maxIdleMillis) {
+        this.factory = factory;
+        this.maxIdleMillis = maxIdleMillis;
+        this.maxWaitMillis = maxWaitMillis;
+        this.validationIntervalMillis = validationIntervalMillis;
+        this.validationQuery = validationQuery;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        permits = new Semaphore(maxTotal > 0 ? maxTotal : Integer.MAX_VALUE);
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setDaemon(true).setNameFormat("hive-pool-validator-%d").build());
+        final long period = Math.max(1000, Math.min(validationIntervalMillis, maxIdleMillis) / 2);
+        scheduler.scheduleWithFixedDelay(this::validateIdleConnections, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection from this pool. The connection is returned to the pool when closed.
+     *
+     * @return the connection
+     * @throws SQLException if a connection is not available within the max wait time or cannot be created
+     */
+    @Nonnull
+    public Connection getConnection() throws SQLException {
+        if (closed.get()) {
+            throw new SQLException("Connection pool is closed");
+        }
+
+        // Wait for a permit
+        final long start = System.nanoTime();
+        try {
+            if (maxWaitMillis < 0) {
+                permits.acquire();
+            } else if (!permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+                timeouts.incrementAndGet();
+                throw new SQLException("Timed out waiting for a Hive connection after " + maxWaitMillis + " ms");
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted waiting for a Hive connection", e);
+        }
+
+        final long waitNanos = System.nanoTime() - start;
+        totalWaitNanos.addAndGet(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+        borrowed.incrementAndGet();
+
+        // Take an idle connection or create a new one
+        try {
+            PooledConnection connection = idle.pollFirst();
+            if (connection == null) {
+                connection = new PooledConnection(factory.create());
+                created.incrementAndGet();
+            }
+            active.incrementAndGet();
+            return connection.borrow();
+        } catch (final SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Gets a snapshot of the statistics for this pool.
+     *
+     * @return the pool statistics
+     */
+    @Nonnull
+    public Statistics getStatistics() {
+        return new Statistics(this);
+    }
+
+    /**
+     * Closes this pool and all idle connections. Borrowed connections are closed when they are returned.
+     */
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            scheduler.shutdownNow();
+            PooledConnection connection;
+            while ((connection = idle.pollFirst()) != null) {
+                destroy(connection);
+            }
+        }
+    }
+
+    /**
+     * Validates connections that have idled longer than the validation interval, and closes connections that have idled longer than the max idle time.
+     */
+    void validateIdleConnections() {
+        final long now = System.currentTimeMillis();
+        final List<PooledConnection> candidates = new ArrayList<>();
+        for (final PooledConnection connection : idle) {
+            if (now - connection.lastChecked >= Math.min(validationIntervalMillis, maxIdleMillis)) {
+                candidates.add(connection);
+            }
+        }
+
+        for (final PooledConnection connection : candidates) {
+            // Skip connections that have been borrowed
+            if (!idle.remove(connection)) {
+                continue;
+            }
+
+            if (now - connection.lastUsed >= maxIdleMillis) {
+                log.debug("Closing Hive connection idle for {} ms", now - connection.lastUsed);
+                destroy(connection);
+            } else if (isValid(connection.delegate)) {
+                connection.lastChecked = System.currentTimeMillis();
+                idle.offerLast(connection);
+                if (closed.get() && idle.remove(connection)) {
+                    destroy(connection);
+                }
+            } else {
+                log.info("Closing Hive connection that failed validation");
+                validationFailures.incrementAndGet();
+                destroy(connection);
+            }
+        }
+
+        log.debug("Hive connection pool: {}", getStatistics());
+    }
+
+    /**
+     * Tests the specified connection using {@link Connection#isValid(int)} or the validation query.
+     */
+    private boolean isValid(@Nonnull final Connection connection) {
+        try {
+            return connection.isValid(validationTimeoutSeconds);
+        } catch (final SQLException e) {
+            log.trace("The isValid() method is not supported by the Hive driver", e);
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            try {
+                statement.setQueryTimeout(validationTimeoutSeconds);
+            } catch (final SQLException e) {
+                log.trace("The setQueryTimeout() method is not supported by the Hive driver", e);
+            }
+            statement.execute(validationQuery);
+            return true;
+        } catch (final SQLException e) {
+            log.debug("Failed to execute validation query: {}", validationQuery, e);
+            return false;
+        }
+    }
+
+    /**
+     * Closes the specified connection.
+     */
+    private void destroy(@Nonnull final PooledConnection connection) {
+        destroyed.incrementAndGet();
+        try {
+            connection.delegate.close();
+        } catch (final SQLException e) {
+            log.debug("Failed to close Hive connection", e);
+        }
+    }
+
+    /**
+     * Returns the specified connection to this pool.
+     */
+    private void release(@Nonnull final PooledConnection connection) {
+        active.decrementAndGet();
+        try {
+            boolean reusable;
+            try {
+                reusable = !closed.get() && !connection.delegate.isClosed();
+            } catch (final SQLException e) {
+                reusable = false;
+            }
+
+            if (reusable) {
+                connection.lastUsed = connection.lastChecked = System.currentTimeMillis();
+                idle.offerFirst(connection);
+                if (closed.get() && idle.remove(connection)) {
+                    destroy(connection);
+                }
+            } else {
+                destroy(connection);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Creates connections to HiveServer2.
+     */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+
+        /**
+         * Creates a new connection.
+         *
+         * @return the connection
+         * @throws SQLException if the connection cannot be created
+         */
+        @Nonnull
+        Connection create() throws SQLException;
+    }
+
+    /**
+     * A snapshot of the statistics for a connection pool.
+     */
+    public static class Statistics {
+
+        private final int active;
+        private final int idle;
+        private final long borrowed;
+        private final long created;
+        private final long destroyed;
+        private final long maxWaitMillis;
+        private final long timeouts;
+        private final long totalWaitNanos;
+        private final long validationFailures;
+
+        Statistics(@Nonnull final HiveConnectionPool pool) {
+            active = pool.active.get();
+            idle = pool.idle.size();
+            borrowed = pool.borrowed.get();
+            created = pool.created.get();
+            destroyed = pool.destroyed.get();
+            maxWaitMillis = TimeUnit.NANOSECONDS.toMillis(pool.maxWaitNanos.get());
+            timeouts = pool.timeouts.get();
+            totalWaitNanos = pool.totalWaitNanos.get();
+            validationFailures = pool.validationFailures.get();
+        }
+
+        /**
+         * Gets the number of borrowed connections.
+         */
+        public int getActive() {
+            return active;
+        }
+
+        /**
+         * Gets the number of idle connections.
+         */
+        public int getIdle() {
+            return idle;
+        }
+
+        /**
+         * Gets the number of times a connection was borrowed.
+         */
+        public long getBorrowed() {
+            return borrowed;
+        }
+
+        /**
+         * Gets the number of connections created.
+         */
+        public long getCreated() {
+            return created;
+        }
+
+        /**
+         * Gets the number of connections closed by the pool.
+         */
+        public long getDestroyed() {
+            return destroyed;
+        }
+
+        /**
+         * Gets the average time spent waiting for a connection, in milliseconds.
+         */
+        public double getAverageWaitMillis() {
+            return (borrowed > 0) ? totalWaitNanos / 1e6 / borrowed : 0;
+        }
+
+        /**
+         * Gets the longest time spent waiting for a connection, in milliseconds.
+         */
+        public long getMaxWaitMillis() {
+            return maxWaitMillis;
+        }
+
+        /**
+         * Gets the number of times no connection was available within the max wait time.
+         */
+        public long getTimeouts() {
+            return timeouts;
+        }
+
+        /**
+         * Gets the number of idle connections that failed validation.
+         */
+        public long getValidationFailures() {
+            return validationFailures;
+        }
+
+        @Override
+        public String toString() {
+            return getClass().getSimpleName() + "{active=" + active + ", idle=" + idle + ", borrowed=" + borrowed + ", created=" + created + ", destroyed=" + destroyed
+                   + ", averageWaitMillis=" + String.format("%.3f", getAverageWaitMillis()) + ", maxWaitMillis=" + maxWaitMillis + ", timeouts=" + timeouts
+                   + ", validationFailures=" + validationFailures + "}";
+        }
+    }
+
+    /**
+     * A connection managed by the pool.
+     */
+    private class PooledConnection {
+
+        /**
+         * The physical connection
+         */
+        @Nonnull
+        final Connection delegate;
+
+        /**
+         * Time the connection was last returned or validated
+         */
+        volatile long lastChecked = System.currentTimeMillis();
+
+        /**
+         * Time the connection was last returned
+         */
+        volatile long lastUsed = lastChecked;
+
+        PooledConnection(@Nonnull final Connection delegate) {
+            this.delegate = delegate;
+        }
+
+        /**
+         * Creates a handle to this connection that returns it to the pool when closed.
+         */
+        @Nonnull
+        Connection borrow() {
+            final AtomicBoolean returned = new AtomicBoolean(false);
+            final InvocationHandler handler = (proxy, method, args) -> invoke(proxy, returned, method, args);
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, handler);
+        }
+
+        private Object invoke(@Nonnull final Object proxy, @Nonnull final AtomicBoolean returned, @Nonnull final Method method, final Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (returned.compareAndSet(false, true)) {
+                        release(this);
+                    }
+                    return null;
+
+                case "isClosed":
+                    return returned.get() || delegate.isClosed();
+
+                case "equals":
+                    return proxy == args[0];
+
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+
+                case "toString":
+                    return "PooledConnection[" + delegate + "]";
+
+                default:
+                    if (returned.get()) {
+                        throw new SQLException("Connection has been returned to the pool");
+                    }
+                    try {
+                        return method.invoke(delegate, args);
+                    } catch (final InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+    }
+}
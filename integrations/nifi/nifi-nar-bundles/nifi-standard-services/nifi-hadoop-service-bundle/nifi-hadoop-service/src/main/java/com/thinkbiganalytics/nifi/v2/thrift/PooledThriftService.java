@@ -0,0 +1,304 @@
+package com.thinkbiganalytics.nifi.v2.thrift;
+
+/*-
+ * #%L
+ * thinkbig-nifi-hadoop-service
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.nifi.security.ApplySecurityPolicy;
+import com.thinkbiganalytics.nifi.security.KerberosProperties;
+import com.thinkbiganalytics.nifi.security.KerberosTicketRenewer;
+import com.thinkbiganalytics.nifi.security.SecurityUtil;
+import com.thinkbiganalytics.nifi.security.SpringSecurityContextLoader;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.security.UserGroupInformation;
+import org.apache.nifi.annotation.documentation.CapabilityDescription;
+import org.apache.nifi.annotation.documentation.Tags;
+import org.apache.nifi.annotation.lifecycle.OnDisabled;
+import org.apache.nifi.annotation.lifecycle.OnEnabled;
+import org.apache.nifi.components.PropertyDescriptor;
+import org.apache.nifi.controller.AbstractControllerService;
+import org.apache.nifi.controller.ConfigurationContext;
+import org.apache.nifi.controller.ControllerServiceInitializationContext;
+import org.apache.nifi.processor.exception.ProcessException;
+import org.apache.nifi.processor.util.StandardValidators;
+import org.apache.nifi.reporting.InitializationException;
+
+import java.io.IOException;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.security.PrivilegedExceptionAction;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A Thrift connection service that pools HiveServer2 connections without validating them on borrow.
+ *
+ * <p>Idle connections are validated on a schedule by a background thread. When Kerberos is enabled, the service logs in once and renews the ticket in the
+ * background before it expires, instead of logging in for every connection.</p>
+ */
+@Tags({"hive", "spark", "thrift", "jdbc", "database", "connection", "pooling", "store", "thinkbig"})
+@CapabilityDescription("Provides a pooled Thrift connection service that validates idle connections in the background and renews Kerberos tickets ahead of expiry.")
+public class PooledThriftService extends AbstractControllerService implements ThriftService {
+
+    /**
+     * A property to get the time a connection may idle before it is validated
+     */
+    public static final PropertyDescriptor VALIDATION_INTERVAL = new PropertyDescriptor.Builder()
+        .name("Validation Interval")
+        .description("Connections that have been idle for longer than this are validated by a background thread. Connections are never validated when borrowed.")
+        .defaultValue("5 min")
+        .required(true)
+        .addValidator(StandardValidators.TIME_PERIOD_VALIDATOR)
+        .build();
+
+    /**
+     * A property to get the time a connection may idle before it is closed
+     */
+    public static final PropertyDescriptor MAX_IDLE_TIME = new PropertyDescriptor.Builder()
+        .name("Max Idle Time")
+        .description("Connections that have been idle for longer than this are closed.")
+        .defaultValue("30 min")
+        .required(true)
+        .addValidator(StandardValidators.TIME_PERIOD_VALIDATOR)
+        .build();
+
+    /**
+     * A property to get the time between checks of the Kerberos ticket
+     */
+    public static final PropertyDescriptor KERBEROS_RENEWAL_PERIOD = new PropertyDescriptor.Builder()
+        .name("Kerberos Renewal Period")
+        .description("Time between checks of the Kerberos ticket. The ticket is renewed from the keytab once 80% of its lifetime has passed.")
+        .defaultValue("1 min")
+        .required(true)
+        .addValidator(StandardValidators.TIME_PERIOD_VALIDATOR)
+        .build();
+
+    /**
+     * Property for Kerberos service keytab
+     */
+    private PropertyDescriptor kerberosKeytab;
+
+    /**
+     * Property for Kerberos service principal
+     */
+    private PropertyDescriptor kerberosPrincipal;
+
+    /**
+     * List of properties
+     */
+    private List<PropertyDescriptor> properties;
+
+    private volatile HiveConnectionPool pool;
+    private volatile KerberosTicketRenewer ticketRenewer;
+
+    @Override
+    protected void init(@Nonnull final ControllerServiceInitializationContext config) throws InitializationException {
+        // Create Kerberos properties
+        final SpringSecurityContextLoader securityContextLoader = SpringSecurityContextLoader.create(config);
+        final KerberosProperties kerberosProperties = securityContextLoader.getKerberosProperties();
+        kerberosKeytab = kerberosProperties.createKerberosKeytabProperty();
+        kerberosPrincipal = kerberosProperties.createKerberosPrincipalProperty();
+
+        // Create list of properties
+        final List<PropertyDescriptor> props = new ArrayList<>();
+        props.add(ThriftConnectionPool.DATABASE_URL);
+        props.add(ThriftConnectionPool.DB_DRIVERNAME);
+        props.add(ThriftConnectionPool.DB_DRIVER_JAR_URL);
+        props.add(ThriftConnectionPool.DB_USER);
+        props.add(ThriftConnectionPool.DB_PASSWORD);
+        props.add(ThriftConnectionPool.DB_VALIDATION_QUERY);
+        props.add(ThriftConnectionPool.DB_VALIDATION_QUERY_TIMEOUT);
+        props.add(VALIDATION_INTERVAL);
+        props.add(MAX_IDLE_TIME);
+        props.add(ThriftConnectionPool.MAX_WAIT_TIME);
+        props.add(ThriftConnectionPool.MAX_TOTAL_CONNECTIONS);
+        props.add(ThriftConnectionPool.HADOOP_CONFIGURATION_RESOURCES);
+        props.add(kerberosPrincipal);
+        props.add(kerberosKeytab);
+        props.add(KERBEROS_RENEWAL_PERIOD);
+        properties = Collections.unmodifiableList(props);
+    }
+
+    @Override
+    protected List<PropertyDescriptor> getSupportedPropertyDescriptors() {
+        return properties;
+    }
+
+    /**
+     * Creates the connection pool and, if Kerberos is enabled, logs in and starts renewing the ticket.
+     *
+     * @param context the configuration context
+     * @throws InitializationException if the driver cannot be loaded or the Kerberos login fails
+     */
+    @OnEnabled
+    public void onConfigured(final ConfigurationContext context) throws InitializationException {
+        final String url = context.getProperty(ThriftConnectionPool.DATABASE_URL).getValue();
+        final Driver driver = loadDriver(context.getProperty(ThriftConnectionPool.DB_DRIVER_JAR_URL).getValue(), context.getProperty(ThriftConnectionPool.DB_DRIVERNAME).getValue());
+
+        final Properties info = new Properties();
+        final String user = context.getProperty(ThriftConnectionPool.DB_USER).getValue();
+        final String password = context.getProperty(ThriftConnectionPool.DB_PASSWORD).getValue();
+        if (user != null) {
+            info.setProperty("user", user);
+        }
+        if (password != null) {
+            info.setProperty("password", password);
+        }
+
+        final UserGroupInformation ugi = loginKerberos(context);
+        final HiveConnectionPool.ConnectionFactory factory = () -> connect(driver, url, info, ugi);
+
+        pool = new HiveConnectionPool(factory,
+                                      context.getProperty(ThriftConnectionPool.MAX_TOTAL_CONNECTIONS).asInteger(),
+                                      context.getProperty(ThriftConnectionPool.MAX_WAIT_TIME).asTimePeriod(TimeUnit.MILLISECONDS),
+                                      context.getProperty(ThriftConnectionPool.DB_VALIDATION_QUERY).getValue(),
+                                      context.getProperty(ThriftConnectionPool.DB_VALIDATION_QUERY_TIMEOUT).asTimePeriod(TimeUnit.SECONDS).intValue(),
+                                      context.getProperty(VALIDATION_INTERVAL).asTimePeriod(TimeUnit.MILLISECONDS),
+                                      context.getProperty(MAX_IDLE_TIME).asTimePeriod(TimeUnit.MILLISECONDS));
+        getLogger().info("Created new PooledThriftService for {}", new Object[]{url});
+    }
+
+    /**
+     * Closes all connections and stops renewing the Kerberos ticket.
+     */
+    @OnDisabled
+    public void shutdown() {
+        if (ticketRenewer != null) {
+            ticketRenewer.stop();
+            ticketRenewer = null;
+        }
+        if (pool != null) {
+            getLogger().info("Closing PooledThriftService: {}", new Object[]{pool.getStatistics()});
+            pool.close();
+            pool = null;
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws ProcessException {
+        final HiveConnectionPool pool = this.pool;
+        if (pool == null) {
+            throw new ProcessException("PooledThriftService is not enabled");
+        }
+        try {
+            return pool.getConnection();
+        } catch (final SQLException e) {
+            throw new ProcessException(e);
+        }
+    }
+
+    /**
+     * Gets the statistics for the connection pool, including wait times, active and idle connections, and validation failures.
+     *
+     * @return the pool statistics, or {@code null} if the service is not enabled
+     */
+    @Nullable
+    public HiveConnectionPool.Statistics getStatistics() {
+        final HiveConnectionPool pool = this.pool;
+        return (pool != null) ? pool.getStatistics() : null;
+    }
+
+    @Override
+    public String toString() {
+        return "PooledThriftService[id=" + getIdentifier() + "]";
+    }
+
+    /**
+     * Opens a new connection, as the Kerberos user if specified.
+     */
+    @Nonnull
+    private Connection connect(@Nonnull final Driver driver, @Nonnull final String url, @Nonnull final Properties info, @Nullable final UserGroupInformation ugi) throws SQLException {
+        final Connection connection;
+        if (ugi != null) {
+            try {
+                connection = ugi.doAs((PrivilegedExceptionAction<Connection>) () -> driver.connect(url, info));
+            } catch (final IOException | InterruptedException | UndeclaredThrowableException e) {
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new SQLException("Unable to connect as " + ugi.getUserName() + ": " + e, e);
+            }
+        } else {
+            connection = driver.connect(url, info);
+        }
+
+        if (connection == null) {
+            throw new SQLException("Driver does not accept URL: " + url);
+        }
+        return connection;
+    }
+
+    /**
+     * Loads the JDBC driver from the specified jar, or from the NAR class loader.
+     */
+    @Nonnull
+    private Driver loadDriver(@Nullable final String urlString, @Nonnull final String driverName) throws InitializationException {
+        try {
+            final ClassLoader classLoader = StringUtils.isNotEmpty(urlString) ? new URLClassLoader(new URL[]{new URL(urlString)}) : Thread.currentThread().getContextClassLoader();
+            return (Driver) Class.forName(driverName, true, classLoader).newInstance();
+        } catch (final MalformedURLException e) {
+            throw new InitializationException("Invalid Database Driver Jar Url", e);
+        } catch (final Exception e) {
+            throw new InitializationException("Can't load Database Driver", e);
+        }
+    }
+
+    /**
+     * Logs in to Kerberos if it is enabled for the cluster and starts the ticket renewal thread.
+     *
+     * @return the Kerberos user, or {@code null} if Kerberos is not enabled
+     */
+    @Nullable
+    private UserGroupInformation loginKerberos(@Nonnull final ConfigurationContext context) throws InitializationException {
+        final String principal = context.getProperty(kerberosPrincipal).getValue();
+        final String keytab = context.getProperty(kerberosKeytab).getValue();
+        final String configResources = context.getProperty(ThriftConnectionPool.HADOOP_CONFIGURATION_RESOURCES).getValue();
+        if (StringUtils.isEmpty(principal) || StringUtils.isEmpty(keytab)) {
+            return null;
+        }
+
+        try {
+            final Configuration configuration = ApplySecurityPolicy.getConfigurationFromResources(configResources);
+            if (!SecurityUtil.isSecurityEnabled(configuration)) {
+                return null;
+            }
+
+            final UserGroupInformation ugi = SecurityUtil.loginKerberos(configuration, principal, keytab);
+            final long renewalPeriod = context.getProperty(KERBEROS_RENEWAL_PERIOD).asTimePeriod(TimeUnit.MILLISECONDS);
+            ticketRenewer = SecurityUtil.startTicketRenewalThread(getIdentifier(), ugi, renewalPeriod, getLogger());
+            getLogger().info("Logged in to Kerberos as {}", new Object[]{ugi.getUserName()});
+            return ugi;
+        } catch (final IOException e) {
+            throw new InitializationException("Kerberos login failed for " + principal, e);
+        }
+    }
+}
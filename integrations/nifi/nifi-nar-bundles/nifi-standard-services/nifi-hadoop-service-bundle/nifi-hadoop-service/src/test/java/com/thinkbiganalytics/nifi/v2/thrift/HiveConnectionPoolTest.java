@@ -0,0 +1,127 @@
+package com.thinkbiganalytics.nifi.v2.thrift;
+
+/*-
+ * #%L
+ * thinkbig-nifi-hadoop-service
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public class HiveConnectionPoolTest {
+
+    /**
+     * Verify reusing connections without validating them on borrow.
+     */
+    @Test
+    public void getConnection() throws Exception {
+        final Connection physical = Mockito.mock(Connection.class);
+        try (HiveConnectionPool pool = new HiveConnectionPool(() -> physical, 2, 100, "show tables 'test'", 10, 60000, 60000)) {
+            final Connection first = pool.getConnection();
+            first.close();
+            Assert.assertTrue(first.isClosed());
+
+            final Connection second = pool.getConnection();
+            Assert.assertNotSame(first, second);
+            second.setAutoCommit(true);
+            second.close();
+
+            Mockito.verify(physical).setAutoCommit(true);
+            Mockito.verify(physical, Mockito.never()).isValid(Mockito.anyInt());
+            Mockito.verify(physical, Mockito.never()).createStatement();
+
+            final HiveConnectionPool.Statistics statistics = pool.getStatistics();
+            Assert.assertEquals(0, statistics.getActive());
+            Assert.assertEquals(1, statistics.getIdle());
+            Assert.assertEquals(2, statistics.getBorrowed());
+            Assert.assertEquals(1, statistics.getCreated());
+        }
+        Mockito.verify(physical).close();
+    }
+
+    /**
+     * Verify failing when no connection is available within the max wait time.
+     */
+    @Test
+    public void getConnectionWithTimeout() throws Exception {
+        try (HiveConnectionPool pool = new HiveConnectionPool(() -> Mockito.mock(Connection.class), 1, 10, "show tables 'test'", 10, 60000, 60000)) {
+            final Connection connection = pool.getConnection();
+            try {
+                pool.getConnection();
+                Assert.fail("Expected SQLException");
+            } catch (final SQLException e) {
+                Assert.assertEquals(1, pool.getStatistics().getTimeouts());
+            }
+
+            connection.close();
+            pool.getConnection().close();
+            Assert.assertEquals(1, pool.getStatistics().getCreated());
+        }
+    }
+
+    /**
+     * Verify using a connection after it has been returned to the pool.
+     */
+    @Test(expected = SQLException.class)
+    public void getConnectionAfterClose() throws Exception {
+        try (HiveConnectionPool pool = new HiveConnectionPool(() -> Mockito.mock(Connection.class), 1, 10, "show tables 'test'", 10, 60000, 60000)) {
+            final Connection connection = pool.getConnection();
+            connection.close();
+            connection.createStatement();
+        }
+    }
+
+    /**
+     * Verify validating and evicting idle connections in the background.
+     */
+    @Test
+    public void validateIdleConnections() throws Exception {
+        // Mock a connection that fails validation
+        final Statement statement = Mockito.mock(Statement.class);
+        Mockito.when(statement.execute("show tables 'test'")).thenThrow(new SQLException("Connection reset"));
+
+        final Connection invalid = Mockito.mock(Connection.class);
+        Mockito.when(invalid.isValid(10)).thenThrow(new SQLException("Method not supported"));
+        Mockito.when(invalid.createStatement()).thenReturn(statement);
+
+        // Mock a connection that passes validation
+        final Connection valid = Mockito.mock(Connection.class);
+        Mockito.when(valid.isValid(10)).thenReturn(true);
+
+        // Test validation
+        final Connection[] physical = {invalid, valid};
+        final int[] index = {0};
+        try (HiveConnectionPool pool = new HiveConnectionPool(() -> physical[index[0]++], 2, 10, "show tables 'test'", 10, 0, 60000)) {
+            final Connection first = pool.getConnection();
+            final Connection second = pool.getConnection();
+            first.close();
+            second.close();
+
+            pool.validateIdleConnections();
+            Mockito.verify(invalid).close();
+            Mockito.verify(valid, Mockito.never()).close();
+            Assert.assertEquals(1, pool.getStatistics().getIdle());
+            Assert.assertEquals(1, pool.getStatistics().getValidationFailures());
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.thinkbiganalytics.nifi.v2.spark;
+
+/*-
+ * #%L
+ * thinkbig-nifi-spark-service
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Converts the arguments of an {@code ExecuteSparkContextJob} processor into requests for the feed job endpoints of the Kylo Spark Shell server.
+ *
+ * <p>The arguments are the comma-separated command-line arguments of the standalone Spark application:</p>
+ * <ul>
+ * <li>validator: {@code database,entity,partition,fieldPolicyJsonPath[,--hiveConf,key=value][,--storageLevel,level][,--numPartitions,n]}</li>
+ * <li>profiler: {@code objectType,objectDesc,topN,outputTable,fieldPolicyJsonPath[,partitionKey]}</li>
+ * </ul>
+ */
+class SparkShellJobRequests {
+
+    /**
+     * Endpoint for profile jobs
+     */
+    static final String PROFILE = "profile";
+
+    /**
+     * Endpoint for validate jobs
+     */
+    static final String VALIDATE = "validate";
+
+    /**
+     * Determines the feed job endpoint for the specified Spark application class.
+     *
+     * @param classPath the Spark application class
+     * @return the endpoint name
+     * @throws IllegalArgumentException if the class is not a validator or profiler
+     */
+    @Nonnull
+    static String getJobType(@Nonnull final String classPath) {
+        final String name = classPath.toLowerCase();
+        if (name.contains("datavalidator") || name.endsWith(".validator")) {
+            return VALIDATE;
+        } else if (name.contains("dataprofiler") || name.endsWith(".profiler")) {
+            return PROFILE;
+        } else {
+            throw new IllegalArgumentException("Only the Kylo validator and profiler can run in the Spark Shell: " + classPath);
+        }
+    }
+
+    /**
+     * Creates the request body for the specified job.
+     *
+     * @param jobType the feed job endpoint
+     * @param args    the comma-separated arguments
+     * @param pool    the Spark scheduler pool
+     * @return the request body
+     * @throws IllegalArgumentException if the arguments are not valid
+     */
+    @Nonnull
+    static Map<String, Object> createRequest(@Nonnull final String jobType, @Nonnull final String args, @Nonnull final String pool) {
+        final List<String> values = Arrays.stream(args.split(",")).map(String::trim).filter(StringUtils::isNotEmpty).collect(Collectors.toList());
+        final Map<String, Object> request = VALIDATE.equals(jobType) ? createValidateRequest(values) : createProfileRequest(values);
+        request.put("pool", pool);
+        return request;
+    }
+
+    /**
+     * Creates a profile request from the profiler arguments.
+     */
+    @Nonnull
+    private static Map<String, Object> createProfileRequest(@Nonnull final List<String> args) {
+        if (args.size() < 5) {
+            throw new IllegalArgumentException("Profiler requires arguments: objectType,objectDesc,topN,outputTable,fieldPolicyJsonPath[,partitionKey]");
+        }
+
+        final Map<String, Object> request = new LinkedHashMap<>();
+        request.put("objectType", args.get(0));
+        request.put("objectDesc", args.get(1));
+        try {
+            request.put("topN", Integer.parseInt(args.get(2)));
+        } catch (final NumberFormatException e) {
+            throw new IllegalArgumentException("Profiler topN must be a number: " + args.get(2));
+        }
+        request.put("outputTable", args.get(3));
+        request.put("fieldPolicyJsonPath", args.get(4));
+        if (args.size() > 5) {
+            request.put("partitionKey", args.get(5));
+        }
+        return request;
+    }
+
+    /**
+     * Creates a validate request from the validator arguments.
+     */
+    @Nonnull
+    private static Map<String, Object> createValidateRequest(@Nonnull final List<String> args) {
+        if (args.size() < 4) {
+            throw new IllegalArgumentException("Validator requires arguments: database,entity,partition,fieldPolicyJsonPath");
+        }
+
+        final Map<String, Object> request = new LinkedHashMap<>();
+        request.put("database", args.get(0));
+        request.put("entity", args.get(1));
+        request.put("partition", args.get(2));
+        request.put("fieldPolicyJsonPath", args.get(3));
+
+        final Map<String, String> hiveConf = new HashMap<>();
+        final Iterator<String> options = args.subList(4, args.size()).iterator();
+        while (options.hasNext()) {
+            final String option = options.next();
+            if (!options.hasNext()) {
+                throw new IllegalArgumentException("Validator option is missing a value: " + option);
+            }
+            final String value = options.next();
+
+            if ("--hiveConf".equals(option)) {
+                final int index = value.indexOf('=');
+                if (index < 1) {
+                    throw new IllegalArgumentException("Validator --hiveConf must be key=value: " + value);
+                }
+                hiveConf.put(value.substring(0, index), value.substring(index + 1));
+            } else if ("--storageLevel".equals(option)) {
+                request.put("storageLevel", value);
+            } else if ("--numPartitions".equals(option)) {
+                try {
+                    request.put("numPartitions", Integer.parseInt(value));
+                } catch (final NumberFormatException e) {
+                    throw new IllegalArgumentException("Validator --numPartitions must be a number: " + value);
+                }
+            } else {
+                throw new IllegalArgumentException("Unknown validator option: " + option);
+            }
+        }
+        if (!hiveConf.isEmpty()) {
+            request.put("hiveConf", hiveConf);
+        }
+        return request;
+    }
+
+    private SparkShellJobRequests() {
+    }
+}
@@ -0,0 +1,246 @@
+package com.thinkbiganalytics.nifi.v2.spark;
+
+/*-
+ * #%L
+ * thinkbig-nifi-spark-service
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.nifi.annotation.documentation.CapabilityDescription;
+import org.apache.nifi.annotation.documentation.Tags;
+import org.apache.nifi.annotation.lifecycle.OnEnabled;
+import org.apache.nifi.components.PropertyDescriptor;
+import org.apache.nifi.controller.AbstractControllerService;
+import org.apache.nifi.controller.ConfigurationContext;
+import org.apache.nifi.controller.ControllerServiceInitializationContext;
+import org.apache.nifi.processor.util.StandardValidators;
+import org.apache.nifi.reporting.InitializationException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Runs the Kylo validator and profiler in the long-lived Spark context of a Kylo Spark Shell server.
+ *
+ * <p>Jobs are submitted to the feed job endpoints of the server instead of launching a new Spark application for each flow file. The context name is used as
+ * the FAIR scheduler pool, so jobs from different feeds or categories share the executors of the server.</p>
+ */
+@Tags({"thinkbig", "spark", "shell"})
+@CapabilityDescription("Runs the Kylo validator and profiler in the long-lived Spark context of a Kylo Spark Shell server.")
+public class SparkShellJobService extends AbstractControllerService implements JobService {
+
+    /**
+     * A property to get the Spark Shell URL
+     */
+    public static final PropertyDescriptor SPARK_SHELL_URL = new PropertyDescriptor.Builder()
+        .name("Spark Shell URL")
+        .description("A URL used to connect to the Kylo Spark Shell server.")
+        .defaultValue("http://localhost:8450")
+        .addValidator(StandardValidators.URL_VALIDATOR)
+        .required(true)
+        .build();
+
+    /**
+     * A property to set the timeout for Sync jobs
+     */
+    public static final PropertyDescriptor SYNC_TIMEOUT = new PropertyDescriptor.Builder()
+        .name("Sync Timeout")
+        .description("Number of seconds to wait for a Sync job to complete.")
+        .defaultValue("6000")
+        .addValidator(StandardValidators.LONG_VALIDATOR)
+        .required(true)
+        .build();
+
+    /**
+     * A property to set the interval between status requests
+     */
+    public static final PropertyDescriptor POLL_INTERVAL = new PropertyDescriptor.Builder()
+        .name("Poll Interval")
+        .description("Time to wait between requests for the status of a Sync job.")
+        .defaultValue("1 sec")
+        .addValidator(StandardValidators.TIME_PERIOD_VALIDATOR)
+        .required(true)
+        .build();
+
+    /**
+     * Path to the feed job endpoints
+     */
+    private static final String FEEDS_PATH = "/api/v1/spark/shell/feeds/";
+
+    /**
+     * Converts requests and responses
+     */
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    /**
+     * List of properties
+     */
+    private List<PropertyDescriptor> properties;
+    private volatile long pollInterval;
+    private volatile String sparkShellUrl;
+    private volatile long syncTimeout;
+
+    @Override
+    protected void init(@Nonnull final ControllerServiceInitializationContext config) throws InitializationException {
+        final List<PropertyDescriptor> props = new ArrayList<>();
+        props.add(SPARK_SHELL_URL);
+        props.add(SYNC_TIMEOUT);
+        props.add(POLL_INTERVAL);
+        properties = Collections.unmodifiableList(props);
+    }
+
+    @Override
+    protected List<PropertyDescriptor> getSupportedPropertyDescriptors() {
+        return properties;
+    }
+
+    /**
+     * Reads the Spark Shell server configuration.
+     *
+     * @param context the configuration context
+     */
+    @OnEnabled
+    public void onConfigured(final ConfigurationContext context) {
+        sparkShellUrl = StringUtils.removeEnd(context.getProperty(SPARK_SHELL_URL).getValue(), "/");
+        syncTimeout = TimeUnit.SECONDS.toMillis(context.getProperty(SYNC_TIMEOUT).asLong());
+        pollInterval = context.getProperty(POLL_INTERVAL).asTimePeriod(TimeUnit.MILLISECONDS);
+        getLogger().info("Using Kylo Spark Shell server: {}", new Object[]{sparkShellUrl});
+    }
+
+    /**
+     * Checks that the Spark Shell server is available. Every context name maps to a scheduler pool in the same Spark context.
+     */
+    @Override
+    public boolean checkIfContextExists(String contextName) {
+        try {
+            final HttpURLConnection connection = open("/api/v1/spark/shell/data-sources", "GET");
+            try {
+                return connection.getResponseCode() == HttpURLConnection.HTTP_OK;
+            } finally {
+                connection.disconnect();
+            }
+        } catch (final IOException e) {
+            getLogger().warn("Kylo Spark Shell server {} is not available: {}", new Object[]{sparkShellUrl, e.toString()});
+            return false;
+        }
+    }
+
+    /**
+     * The Spark context is owned by the Spark Shell server, so only its availability is checked. The executor settings are ignored.
+     */
+    @Override
+    public boolean createContext(String contextName, String numExecutors, String memPerNode, String numCPUCores, SparkContextType contextType, int contextTimeout, boolean async) {
+        return checkIfContextExists(contextName);
+    }
+
+    /**
+     * The Spark context is owned by the Spark Shell server and is never deleted.
+     */
+    @Override
+    public boolean deleteContext(String contextName) {
+        return true;
+    }
+
+    @Override
+    public SparkJobResult executeSparkContextJob(String appName, String classPath, String contextName, String args, boolean async) {
+        try {
+            final String jobType = SparkShellJobRequests.getJobType(classPath);
+            final Map<String, Object> request = SparkShellJobRequests.createRequest(jobType, StringUtils.defaultString(args), contextName);
+            getLogger().info("Executing {} {} in pool {} on Kylo Spark Shell server {}", new Object[]{appName, jobType, contextName, sparkShellUrl});
+
+            JsonNode response = send(FEEDS_PATH + jobType, "POST", request);
+            final String id = response.path("id").asText();
+            if (async) {
+                return new SparkJobResult(true, id);
+            }
+
+            final long deadline = System.currentTimeMillis() + syncTimeout;
+            while ("PENDING".equals(response.path("status").asText())) {
+                if (System.currentTimeMillis() > deadline) {
+                    getLogger().error("Timed out waiting for {} job {} on Kylo Spark Shell server {}", new Object[]{jobType, id, sparkShellUrl});
+                    return new SparkJobResult(false, null);
+                }
+                Thread.sleep(pollInterval);
+                response = send(FEEDS_PATH + id, "GET", null);
+            }
+
+            getLogger().info("Executed {} {} in pool {} on Kylo Spark Shell server {}", new Object[]{appName, jobType, contextName, sparkShellUrl});
+            return new SparkJobResult(true, response.path("message").asText(null));
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (final Exception e) {
+            getLogger().error("Failed to execute {} on Kylo Spark Shell server {}: {}", new Object[]{classPath, sparkShellUrl, e.getMessage()}, e);
+        }
+        return new SparkJobResult(false, null);
+    }
+
+    /**
+     * Opens a connection to the Spark Shell server.
+     */
+    @Nonnull
+    private HttpURLConnection open(@Nonnull final String path, @Nonnull final String method) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) new URL(sparkShellUrl + path).openConnection();
+        connection.setRequestMethod(method);
+        connection.setRequestProperty("Accept", "application/json");
+        return connection;
+    }
+
+    /**
+     * Sends a request to the Spark Shell server and reads the response.
+     *
+     * @throws IOException if the server returns an error
+     */
+    @Nonnull
+    private JsonNode send(@Nonnull final String path, @Nonnull final String method, @Nullable final Object body) throws IOException {
+        final HttpURLConnection connection = open(path, method);
+        try {
+            if (body != null) {
+                connection.setDoOutput(true);
+                connection.setRequestProperty("Content-Type", "application/json");
+                try (OutputStream out = connection.getOutputStream()) {
+                    mapper.writeValue(out, body);
+                }
+            }
+
+            final int status = connection.getResponseCode();
+            try (InputStream in = (status < HttpURLConnection.HTTP_BAD_REQUEST) ? connection.getInputStream() : connection.getErrorStream()) {
+                final JsonNode response = (in != null) ? mapper.readTree(in) : mapper.createObjectNode();
+                if (status >= HttpURLConnection.HTTP_BAD_REQUEST) {
+                    throw new IOException("Kylo Spark Shell server returned " + status + ": " + response.path("message").asText());
+                }
+                return response;
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
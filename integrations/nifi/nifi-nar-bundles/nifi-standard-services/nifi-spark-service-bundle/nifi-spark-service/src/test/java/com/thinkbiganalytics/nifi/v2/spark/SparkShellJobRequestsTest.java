@@ -0,0 +1,91 @@
+package com.thinkbiganalytics.nifi.v2.spark;
+
+/*-
+ * #%L
+ * thinkbig-nifi-spark-service
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Map;
+
+public class SparkShellJobRequestsTest {
+
+    /**
+     * Verify determining the endpoint from the Spark application class.
+     */
+    @Test
+    public void getJobType() {
+        Assert.assertEquals(SparkShellJobRequests.VALIDATE, SparkShellJobRequests.getJobType("com.thinkbiganalytics.spark.datavalidator.Validator"));
+        Assert.assertEquals(SparkShellJobRequests.PROFILE, SparkShellJobRequests.getJobType("com.thinkbiganalytics.spark.dataprofiler.core.Profiler"));
+    }
+
+    /**
+     * Verify rejecting other Spark applications.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void getJobTypeWithUnknownClass() {
+        SparkShellJobRequests.getJobType("com.example.WordCount");
+    }
+
+    /**
+     * Verify converting profiler arguments.
+     */
+    @Test
+    public void createProfileRequest() {
+        final Map<String, Object> request = SparkShellJobRequests.createRequest(SparkShellJobRequests.PROFILE, "table, sales.orders, 10, sales.orders_profile, /tmp/policy.json, 1490000000", "sales");
+        Assert.assertEquals(ImmutableMap.builder()
+                                .put("objectType", "table")
+                                .put("objectDesc", "sales.orders")
+                                .put("topN", 10)
+                                .put("outputTable", "sales.orders_profile")
+                                .put("fieldPolicyJsonPath", "/tmp/policy.json")
+                                .put("partitionKey", "1490000000")
+                                .put("pool", "sales")
+                                .build(), request);
+    }
+
+    /**
+     * Verify converting validator arguments and options.
+     */
+    @Test
+    public void createValidateRequest() {
+        final Map<String, Object> request = SparkShellJobRequests.createRequest(SparkShellJobRequests.VALIDATE,
+                                                                                 "sales,orders,1490000000,/tmp/policy.json,--hiveConf,hive.exec.dynamic.partition=true,--numPartitions,8", "sales");
+        Assert.assertEquals(ImmutableMap.builder()
+                                .put("database", "sales")
+                                .put("entity", "orders")
+                                .put("partition", "1490000000")
+                                .put("fieldPolicyJsonPath", "/tmp/policy.json")
+                                .put("numPartitions", 8)
+                                .put("hiveConf", ImmutableMap.of("hive.exec.dynamic.partition", "true"))
+                                .put("pool", "sales")
+                                .build(), request);
+    }
+
+    /**
+     * Verify rejecting missing validator arguments.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void createValidateRequestWithMissingArgs() {
+        SparkShellJobRequests.createRequest(SparkShellJobRequests.VALIDATE, "sales,orders", "sales");
+    }
+}
@@ -27,13 +27,18 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.thinkbiganalytics.nifi.provenance.KyloProcessorFlowType;
 import com.thinkbiganalytics.nifi.provenance.model.util.ProvenanceEventDtoUtil;
+import com.thinkbiganalytics.nifi.provenance.model.util.StringInterner;
 
 import org.joda.time.DateTime;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -47,14 +52,23 @@ import java.util.concurrent.atomic.AtomicBoolean;
  *
  *
  * Note: Any modifications to this class will result in the need to update kylo-services and the KyloReportingTask nar
+ *
+ * Events are sent in batches of thousands so they are kept compact: timings and sizes are stored as primitives, the formatted sizes are derived from the
+ * byte counts, and component metadata and attribute names are interned. The attribute maps are written as flat key/value arrays and are only converted back
+ * to maps when they are read.
  */
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public class ProvenanceEventRecordDTO implements Serializable {
 
-    private static final long serialVersionUID = 4464985246055158127L;
+    private static final long serialVersionUID = -3175473287458021734L;
 
     private static final Logger log = LoggerFactory.getLogger(ProvenanceEventRecordDTO.class);
 
+    /**
+     * Value of a timing or size that is not set
+     */
+    private static final long UNSET = Long.MIN_VALUE;
+
 
     private transient AtomicBoolean processed = new AtomicBoolean(false);
 
@@ -71,16 +85,19 @@ public class ProvenanceEventRecordDTO implements Serializable {
 
 
 
-    private Long startTime;
+    private long startTime = UNSET;
 
-    private Long eventId;
-    private Long eventTime;
+    private long eventId = UNSET;
+    private long eventTime = UNSET;
 
-    private Long eventDuration;
+    private long eventDuration = UNSET;
     private String eventType;
     private String flowFileUuid;
+    /**
+     * formatted size, only when it was set explicitly instead of being derived from {@link #fileSizeBytes}
+     */
     private String fileSize;
-    private Long fileSizeBytes;
+    private long fileSizeBytes = UNSET;
     private String clusterNodeId;
     private String clusterNodeAddress;
     private String groupId;
@@ -93,9 +110,9 @@ public class ProvenanceEventRecordDTO implements Serializable {
 
     private String sourceConnectionIdentifier;
 
-    private Long inputContentClaimFileSizeBytes;
+    private long inputContentClaimFileSizeBytes = UNSET;
     private String inputContentClaimFileSize;
-    private Long outputContentClaimFileSizeBytes;
+    private long outputContentClaimFileSizeBytes = UNSET;
     private String outputContentClaimFileSize;
 
     private Set<String> relatedRootFlowFiles;
@@ -118,18 +135,20 @@ public class ProvenanceEventRecordDTO implements Serializable {
     private String firstEventProcessorId;
 
 
-    @JsonProperty("updatedAttributes")
-    private Map<String, String> updatedAttributes;
-
-    @JsonProperty("previousAttributes")
-    private Map<String, String> previousAttributes;
+    /**
+     * The attribute maps are serialized by {@link #writeObject(ObjectOutputStream)}. A deserialized map is kept in its packed form until it is read.
+     */
+    private transient Map<String, String> updatedAttributes;
+    private transient String[] packedUpdatedAttributes;
 
+    private transient Map<String, String> previousAttributes;
+    private transient String[] packedPreviousAttributes;
 
     @JsonIgnore
-    private Map<String, Object> additionalProperties = new HashMap<String, Object>();
+    private Map<String, Object> additionalProperties;
 
-    @JsonProperty("attributes")
-    private Map<String, String> attributeMap;
+    private transient Map<String, String> attributeMap;
+    private transient String[] packedAttributeMap;
 
 
 
@@ -160,7 +179,7 @@ public class ProvenanceEventRecordDTO implements Serializable {
     }
 
     public void setFeedName(String feedName) {
-        this.feedName = feedName;
+        this.feedName = StringInterner.intern(feedName);
     }
 
     public boolean isTerminatedByFailureRelationship() {
@@ -176,13 +195,13 @@ public class ProvenanceEventRecordDTO implements Serializable {
     }
 
     public void setRelationship(String relationship) {
-        this.relationship = relationship;
+        this.relationship = StringInterner.intern(relationship);
     }
 
 
     @JsonAnyGetter
     public Map<String, Object> getAdditionalProperties() {
-        return this.additionalProperties;
+        return (additionalProperties != null) ? additionalProperties : Collections.emptyMap();
     }
 
     public void setAdditionalProperties(Map<String, Object> additionalProperties) {
@@ -191,42 +210,63 @@ public class ProvenanceEventRecordDTO implements Serializable {
 
     @JsonAnySetter
     public void setAdditionalProperty(String name, Object value) {
+        if (additionalProperties == null) {
+            additionalProperties = new HashMap<>();
+        }
         this.additionalProperties.put(name, value);
     }
 
     @JsonProperty("attributes")
     public Map<String, String> getAttributeMap() {
+        if (attributeMap == null && packedAttributeMap != null) {
+            attributeMap = unpack(packedAttributeMap);
+            packedAttributeMap = null;
+        }
         return attributeMap;
     }
 
     @JsonProperty("attributes")
     public void setAttributeMap(Map<String, String> attributeMap) {
         this.attributeMap = attributeMap;
+        this.packedAttributeMap = null;
     }
 
     @JsonAnySetter
     public void setUpdatedAttribute(String key, String value){
+        if (getUpdatedAttributes() == null) {
+            updatedAttributes = new HashMap<>();
+        }
         getUpdatedAttributes().put(key,value);
     }
 
     @JsonProperty("updatedAttributes")
     public Map<String, String> getUpdatedAttributes() {
+        if (updatedAttributes == null && packedUpdatedAttributes != null) {
+            updatedAttributes = unpack(packedUpdatedAttributes);
+            packedUpdatedAttributes = null;
+        }
         return updatedAttributes;
     }
 
     @JsonProperty("updatedAttributes")
     public void setUpdatedAttributes(Map<String, String> updatedAttributes) {
         this.updatedAttributes = updatedAttributes;
+        this.packedUpdatedAttributes = null;
     }
 
     @JsonProperty("previousAttributes")
     public Map<String, String> getPreviousAttributes() {
+        if (previousAttributes == null && packedPreviousAttributes != null) {
+            previousAttributes = unpack(packedPreviousAttributes);
+            packedPreviousAttributes = null;
+        }
         return previousAttributes;
     }
 
     @JsonProperty("previousAttributes")
     public void setPreviousAttributes(Map<String, String> previousAttributes) {
         this.previousAttributes = previousAttributes;
+        this.packedPreviousAttributes = null;
     }
 
     public String getSourceConnectionIdentifier() {
@@ -234,24 +274,24 @@ public class ProvenanceEventRecordDTO implements Serializable {
     }
 
     public void setSourceConnectionIdentifier(String sourceConnectionIdentifier) {
-        this.sourceConnectionIdentifier = sourceConnectionIdentifier;
+        this.sourceConnectionIdentifier = StringInterner.intern(sourceConnectionIdentifier);
     }
 
     public Long getEventId() {
-        return eventId;
+        return box(eventId);
     }
 
     public void setEventId(Long eventId) {
-        this.eventId = eventId;
+        this.eventId = unbox(eventId);
     }
 
 
     public Long getEventDuration() {
-        return eventDuration;
+        return box(eventDuration);
     }
 
     public void setEventDuration(Long eventDuration) {
-        this.eventDuration = eventDuration;
+        this.eventDuration = unbox(eventDuration);
     }
 
     public String getEventType() {
@@ -259,7 +299,7 @@ public class ProvenanceEventRecordDTO implements Serializable {
     }
 
     public void setEventType(String eventType) {
-        this.eventType = eventType;
+        this.eventType = StringInterner.intern(eventType);
     }
 
     public String getFlowFileUuid() {
@@ -271,7 +311,7 @@ public class ProvenanceEventRecordDTO implements Serializable {
     }
 
     public String getFileSize() {
-        return fileSize;
+        return (fileSize != null) ? fileSize : ProvenanceEventDtoUtil.formatDataSize(getFileSizeBytes());
     }
 
     public void setFileSize(String fileSize) {
@@ -279,11 +319,11 @@ public class ProvenanceEventRecordDTO implements Serializable {
     }
 
     public Long getFileSizeBytes() {
-        return fileSizeBytes;
+        return box(fileSizeBytes);
     }
 
     public void setFileSizeBytes(Long fileSizeBytes) {
-        this.fileSizeBytes = fileSizeBytes;
+        this.fileSizeBytes = unbox(fileSizeBytes);
     }
 
     public String getClusterNodeId() {
@@ -291,7 +331,7 @@ public class ProvenanceEventRecordDTO implements Serializable {
     }
 
     public void setClusterNodeId(String clusterNodeId) {
-        this.clusterNodeId = clusterNodeId;
+        this.clusterNodeId = StringInterner.intern(clusterNodeId);
     }
 
     public String getClusterNodeAddress() {
@@ -299,7 +339,7 @@ public class ProvenanceEventRecordDTO implements Serializable {
     }
 
     public void setClusterNodeAddress(String clusterNodeAddress) {
-        this.clusterNodeAddress = clusterNodeAddress;
+        this.clusterNodeAddress = StringInterner.intern(clusterNodeAddress);
     }
 
     public String getGroupId() {
@@ -307,7 +347,7 @@ public class ProvenanceEventRecordDTO implements Serializable {
     }
 
     public void setGroupId(String groupId) {
-        this.groupId = groupId;
+        this.groupId = StringInterner.intern(groupId);
     }
 
     public String getComponentId() {
@@ -315,7 +355,7 @@ public class ProvenanceEventRecordDTO implements Serializable {
     }
 
     public void setComponentId(String componentId) {
-        this.componentId = componentId;
+        this.componentId = StringInterner.intern(componentId);
     }
 
     public String getComponentType() {
@@ -323,7 +363,7 @@ public class ProvenanceEventRecordDTO implements Serializable {
     }
 
     public void setComponentType(String componentType) {
-        this.componentType = componentType;
+        this.componentType = StringInterner.intern(componentType);
     }
 
     public String getComponentName() {
@@ -331,7 +371,7 @@ public class ProvenanceEventRecordDTO implements Serializable {
     }
 
     public void setComponentName(String componentName) {
-        this.componentName = componentName;
+        this.componentName = StringInterner.intern(componentName);
     }
 
     public List<String> getParentUuids() {
@@ -339,7 +379,7 @@ public class ProvenanceEventRecordDTO implements Serializable {
     }
 
     public void setParentUuids(List<String> parentUuids) {
-        this.parentUuids = parentUuids;
+        this.parentUuids = (parentUuids != null && parentUuids.isEmpty()) ? Collections.emptyList() : parentUuids;
     }
 
     public List<String> getChildUuids() {
@@ -347,11 +387,11 @@ public class ProvenanceEventRecordDTO implements Serializable {
     }
 
     public void setChildUuids(List<String> childUuids) {
-        this.childUuids = childUuids;
+        this.childUuids = (childUuids != null && childUuids.isEmpty()) ? Collections.emptyList() : childUuids;
     }
 
     public void addChildUuid(String childFlowFileId) {
-        if (childUuids == null) {
+        if (childUuids == null || childUuids == Collections.<String>emptyList()) {
             childUuids = new ArrayList<>();
         }
         if (!childUuids.contains(childFlowFileId)) {
@@ -368,11 +408,11 @@ public class ProvenanceEventRecordDTO implements Serializable {
     }
 
     public Long getEventTime() {
-        return eventTime;
+        return box(eventTime);
     }
 
     public void setEventTime(Long eventTime) {
-        this.eventTime = eventTime;
+        this.eventTime = unbox(eventTime);
     }
 
     public Set<String> getParentFlowFileIds() {
@@ -384,15 +424,15 @@ public class ProvenanceEventRecordDTO implements Serializable {
 
 
     public Long getInputContentClaimFileSizeBytes() {
-        return inputContentClaimFileSizeBytes;
+        return box(inputContentClaimFileSizeBytes);
     }
 
     public void setInputContentClaimFileSizeBytes(Long inputContentClaimFileSizeBytes) {
-        this.inputContentClaimFileSizeBytes = inputContentClaimFileSizeBytes;
+        this.inputContentClaimFileSizeBytes = unbox(inputContentClaimFileSizeBytes);
     }
 
     public String getInputContentClaimFileSize() {
-        return inputContentClaimFileSize;
+        return (inputContentClaimFileSize != null) ? inputContentClaimFileSize : ProvenanceEventDtoUtil.formatDataSize(getInputContentClaimFileSizeBytes());
     }
 
     public void setInputContentClaimFileSize(String inputContentClaimFileSize) {
@@ -400,15 +440,15 @@ public class ProvenanceEventRecordDTO implements Serializable {
     }
 
     public Long getOutputContentClaimFileSizeBytes() {
-        return outputContentClaimFileSizeBytes;
+        return box(outputContentClaimFileSizeBytes);
     }
 
     public void setOutputContentClaimFileSizeBytes(Long outputContentClaimFileSizeBytes) {
-        this.outputContentClaimFileSizeBytes = outputContentClaimFileSizeBytes;
+        this.outputContentClaimFileSizeBytes = unbox(outputContentClaimFileSizeBytes);
     }
 
     public String getOutputContentClaimFileSize() {
-        return outputContentClaimFileSize;
+        return (outputContentClaimFileSize != null) ? outputContentClaimFileSize : ProvenanceEventDtoUtil.formatDataSize(getOutputContentClaimFileSizeBytes());
     }
 
     public void setOutputContentClaimFileSize(String outputContentClaimFileSize) {
@@ -424,7 +464,7 @@ public class ProvenanceEventRecordDTO implements Serializable {
     }
 
     public void setFeedProcessGroupId(String feedProcessGroupId) {
-        this.feedProcessGroupId = feedProcessGroupId;
+        this.feedProcessGroupId = StringInterner.intern(feedProcessGroupId);
     }
 
 
@@ -462,11 +502,11 @@ public class ProvenanceEventRecordDTO implements Serializable {
     }
 
     public Long getStartTime() {
-        return startTime;
+        return box(startTime);
     }
 
     public void setStartTime(Long startTime) {
-        this.startTime = startTime;
+        this.startTime = unbox(startTime);
     }
 
     public String getFirstEventProcessorId() {
@@ -474,7 +514,7 @@ public class ProvenanceEventRecordDTO implements Serializable {
     }
 
     public void setFirstEventProcessorId(String firstEventProcessorId) {
-        this.firstEventProcessorId = firstEventProcessorId;
+        this.firstEventProcessorId = StringInterner.intern(firstEventProcessorId);
     }
 
     public KyloProcessorFlowType getProcessorType() {
@@ -504,7 +544,7 @@ public class ProvenanceEventRecordDTO implements Serializable {
 
         ProvenanceEventRecordDTO that = (ProvenanceEventRecordDTO) o;
 
-        if (eventId != null ? !eventId.equals(that.eventId) : that.eventId != null) {
+        if (eventId != that.eventId) {
             return false;
         }
         return !(flowFileUuid != null ? !flowFileUuid.equals(that.flowFileUuid) : that.flowFileUuid != null);
@@ -514,7 +554,7 @@ public class ProvenanceEventRecordDTO implements Serializable {
 
     @Override
     public int hashCode() {
-        int result = eventId != null ? eventId.hashCode() : 0;
+        int result = eventId != UNSET ? Long.hashCode(eventId) : 0;
         result = 31 * result + (flowFileUuid != null ? flowFileUuid.hashCode() : 0);
         return result;
     }
@@ -541,14 +581,14 @@ public class ProvenanceEventRecordDTO implements Serializable {
     public void reset() {
         this.isStartOfJob = false;
         this.isFinalJobEvent = false;
-        this.startTime = null;
-        this.eventId = null;
-        this.eventTime = null;
-        this.eventDuration = null;
+        this.startTime = UNSET;
+        this.eventId = UNSET;
+        this.eventTime = UNSET;
+        this.eventDuration = UNSET;
         this.eventType = null;
         this.flowFileUuid = null;
         this.fileSize = null;
-        this.fileSizeBytes = null;
+        this.fileSizeBytes = UNSET;
         this.clusterNodeId = null;
         this.clusterNodeAddress = null;
         this.groupId = null;
@@ -559,9 +599,9 @@ public class ProvenanceEventRecordDTO implements Serializable {
         this.childUuids = null;
         this.details = null;
         this.sourceConnectionIdentifier = null;
-        this.inputContentClaimFileSizeBytes = null;
+        this.inputContentClaimFileSizeBytes = UNSET;
         this.inputContentClaimFileSize = null;
-        this.outputContentClaimFileSizeBytes = null;
+        this.outputContentClaimFileSizeBytes = UNSET;
         this.outputContentClaimFileSize = null;
         this.relatedRootFlowFiles = null;
         this.isFailure = false;
@@ -570,9 +610,100 @@ public class ProvenanceEventRecordDTO implements Serializable {
         this.feedProcessGroupId = null;
         this.relationship = null;
         this.updatedAttributes = null;
+        this.packedUpdatedAttributes = null;
         this.previousAttributes = null;
+        this.packedPreviousAttributes = null;
         this.additionalProperties = null;
         this.attributeMap = null;
+        this.packedAttributeMap = null;
         this.firstEventProcessorId = null;
     }
+
+    /**
+     * Writes the fields followed by the attribute maps as flat key/value lists.
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        writeAttributes(out, updatedAttributes, packedUpdatedAttributes);
+        writeAttributes(out, previousAttributes, packedPreviousAttributes);
+        writeAttributes(out, attributeMap, packedAttributeMap);
+    }
+
+    /**
+     * Reads the fields, interning the component metadata, and keeps the attribute maps packed until they are read.
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        processed = new AtomicBoolean(false);
+        eventType = StringInterner.intern(eventType);
+        clusterNodeId = StringInterner.intern(clusterNodeId);
+        clusterNodeAddress = StringInterner.intern(clusterNodeAddress);
+        groupId = StringInterner.intern(groupId);
+        componentId = StringInterner.intern(componentId);
+        componentType = StringInterner.intern(componentType);
+        componentName = StringInterner.intern(componentName);
+        sourceConnectionIdentifier = StringInterner.intern(sourceConnectionIdentifier);
+        relationship = StringInterner.intern(relationship);
+        firstEventProcessorId = StringInterner.intern(firstEventProcessorId);
+        feedName = StringInterner.intern(feedName);
+        feedProcessGroupId = StringInterner.intern(feedProcessGroupId);
+        packedUpdatedAttributes = readAttributes(in);
+        packedPreviousAttributes = readAttributes(in);
+        packedAttributeMap = readAttributes(in);
+    }
+
+    /**
+     * Writes the specified attributes as a count followed by the keys and values, or {@code -1} if there are no attributes.
+     */
+    private static void writeAttributes(ObjectOutputStream out, Map<String, String> attributes, String[] packed) throws IOException {
+        if (attributes != null) {
+            out.writeInt(attributes.size());
+            for (Map.Entry<String, String> entry : attributes.entrySet()) {
+                out.writeObject(StringInterner.intern(entry.getKey()));
+                out.writeObject(entry.getValue());
+            }
+        } else if (packed != null) {
+            out.writeInt(packed.length / 2);
+            for (String value : packed) {
+                out.writeObject(value);
+            }
+        } else {
+            out.writeInt(-1);
+        }
+    }
+
+    /**
+     * Reads attributes written by {@link #writeAttributes(ObjectOutputStream, Map, String[])} into an array of alternating keys and values.
+     */
+    private static String[] readAttributes(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        final int size = in.readInt();
+        if (size < 0) {
+            return null;
+        }
+        final String[] packed = new String[size * 2];
+        for (int i = 0; i < packed.length; i += 2) {
+            packed[i] = StringInterner.intern((String) in.readObject());
+            packed[i + 1] = (String) in.readObject();
+        }
+        return packed;
+    }
+
+    /**
+     * Converts an array of alternating keys and values to a map.
+     */
+    private static Map<String, String> unpack(String[] packed) {
+        final Map<String, String> attributes = new HashMap<>((int) (packed.length / 2 / 0.75f) + 1);
+        for (int i = 0; i < packed.length; i += 2) {
+            attributes.put(packed[i], packed[i + 1]);
+        }
+        return attributes;
+    }
+
+    private static Long box(long value) {
+        return (value != UNSET) ? value : null;
+    }
+
+    private static long unbox(Long value) {
+        return (value != null) ? value : UNSET;
+    }
 }
@@ -24,6 +24,7 @@ import com.thinkbiganalytics.nifi.provenance.model.ProvenanceEventRecordDTO;
 
 import org.apache.commons.lang3.StringUtils;
 
+import java.text.NumberFormat;
 import java.util.Arrays;
 import java.util.Comparator;
 
@@ -39,6 +40,11 @@ public class ProvenanceEventDtoUtil {
 
     protected static final String[] ENDING_EVENT_TYPES = {"DROP", "EXPIRE"};
 
+    private static final double BYTES_IN_KILOBYTE = 1024;
+    private static final double BYTES_IN_MEGABYTE = BYTES_IN_KILOBYTE * 1024;
+    private static final double BYTES_IN_GIGABYTE = BYTES_IN_MEGABYTE * 1024;
+    private static final double BYTES_IN_TERABYTE = BYTES_IN_GIGABYTE * 1024;
+
     public static boolean contains(String[] allowedEvents, String event) {
         return Arrays.stream(allowedEvents).anyMatch(event::equals);
     }
@@ -63,4 +69,33 @@ public class ProvenanceEventDtoUtil {
         return (isEndingFlowFileEvent(event) && StringUtils.isNotBlank(event.getDetails()) && event.getDetails().toLowerCase().startsWith(FLOWFILE_QUEUE_EMPTIED));
     }
 
+    /**
+     * Formats the specified number of bytes the same way as NiFi's {@code FormatUtils.formatDataSize}, for example {@code 1.5 KB}.
+     *
+     * @param dataSize the size in bytes, may be {@code null}
+     * @return the formatted size, or {@code null} if the size is {@code null}
+     */
+    public static String formatDataSize(Long dataSize) {
+        if (dataSize == null) {
+            return null;
+        }
+
+        final NumberFormat format = NumberFormat.getNumberInstance();
+        format.setMaximumFractionDigits(2);
+
+        if (dataSize / BYTES_IN_TERABYTE > 1) {
+            return format.format(dataSize / BYTES_IN_TERABYTE) + " TB";
+        }
+        if (dataSize / BYTES_IN_GIGABYTE > 1) {
+            return format.format(dataSize / BYTES_IN_GIGABYTE) + " GB";
+        }
+        if (dataSize / BYTES_IN_MEGABYTE > 1) {
+            return format.format(dataSize / BYTES_IN_MEGABYTE) + " MB";
+        }
+        if (dataSize / BYTES_IN_KILOBYTE > 1) {
+            return format.format(dataSize / BYTES_IN_KILOBYTE) + " KB";
+        }
+        return format.format(dataSize) + " bytes";
+    }
+
 }
@@ -0,0 +1,63 @@
+package com.thinkbiganalytics.nifi.provenance.model.util;
+
+/*-
+ * #%L
+ * thinkbig-nifi-provenance-model
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Shares a single instance of strings that repeat across provenance events, such as component ids, types and names, and attribute names.
+ *
+ * <p>The pool is bounded. Once it is full, new strings are returned as-is instead of being added.</p>
+ */
+public class StringInterner {
+
+    /**
+     * Maximum number of strings in the pool
+     */
+    static final int MAX_SIZE = 50000;
+
+    private static final ConcurrentMap<String, String> pool = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the shared instance of the specified string.
+     *
+     * @param value the string, may be {@code null}
+     * @return the shared instance, or {@code value} if the pool is full
+     */
+    public static String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        final String existing = pool.get(value);
+        if (existing != null) {
+            return existing;
+        }
+        if (pool.size() >= MAX_SIZE) {
+            return value;
+        }
+        final String previous = pool.putIfAbsent(value, value);
+        return (previous != null) ? previous : value;
+    }
+
+    private StringInterner() {
+    }
+}
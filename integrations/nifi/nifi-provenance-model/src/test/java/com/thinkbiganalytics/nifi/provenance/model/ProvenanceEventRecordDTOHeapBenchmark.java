@@ -0,0 +1,212 @@
+package com.thinkbiganalytics.nifi.provenance.model;
+
+/*-
+ * #%L
+ * thinkbig-nifi-provenance-model
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Measures the heap retained per deserialized {@link ProvenanceEventRecordDTO}, as received by Kylo Operations Manager, compared to the previous event layout.
+ *
+ * <p>Not run as part of the build. Usage: {@code ProvenanceEventRecordDTOHeapBenchmark [events] [components] [attributes]}</p>
+ */
+public class ProvenanceEventRecordDTOHeapBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        final int events = (args.length > 0) ? Integer.parseInt(args[0]) : 20000;
+        final int components = (args.length > 1) ? Integer.parseInt(args[1]) : 50;
+        final int attributes = (args.length > 2) ? Integer.parseInt(args[2]) : 20;
+
+        final byte[] legacyBatch = serialize(generate(events, components, attributes, LegacyEvent::new));
+        final byte[] compactBatch = serialize(generate(events, components, attributes, ProvenanceEventRecordDTO::new));
+
+        for (int i = 0; i <= 3; ++i) {
+            final String run = (i == 0) ? "warm-up" : "run " + i;
+            measure(run, "previous DTO", legacyBatch, events, null);
+            measure(run, "compact DTO", compactBatch, events, null);
+            measure(run, "compact DTO, attributes read", compactBatch, events, event -> ((ProvenanceEventRecordDTO) event).getAttributeMap());
+        }
+    }
+
+    /**
+     * Deserializes the batch and prints the heap retained per event.
+     */
+    private static void measure(String run, String name, byte[] batch, int events, Function<Object, Object> reader) throws Exception {
+        final long before = usedHeap();
+        final List<?> received = deserialize(batch);
+        if (reader != null) {
+            received.forEach(reader::apply);
+        }
+        final long after = usedHeap();
+        System.out.printf("%s: %-30s %6d bytes/event on heap, %5d bytes/event serialized%n", run, name, (after - before) / events, batch.length / events);
+        if (received.isEmpty()) {
+            throw new IllegalStateException();
+        }
+    }
+
+    /**
+     * Generates events for the specified number of components with realistic attributes.
+     */
+    private static List<Object> generate(int events, int components, int attributes, Supplier<Object> factory) {
+        final List<Object> batch = new ArrayList<>(events);
+        for (int i = 0; i < events; ++i) {
+            final String component = "component-" + (i % components);
+            final String flowFile = UUID.randomUUID().toString();
+            final Map<String, String> attributeMap = new HashMap<>();
+            for (int a = 0; a < attributes; ++a) {
+                attributeMap.put(new String("attribute." + a), (a == 0) ? flowFile : "value-" + i + "-" + a);
+            }
+            final Map<String, String> updated = new HashMap<>();
+            final Map<String, String> previous = new HashMap<>();
+            for (int a = 0; a < attributes / 4; ++a) {
+                updated.put(new String("attribute." + a), attributeMap.get("attribute." + a));
+                previous.put(new String("attribute." + a), "previous-" + i + "-" + a);
+            }
+
+            final Object event = factory.get();
+            if (event instanceof ProvenanceEventRecordDTO) {
+                final ProvenanceEventRecordDTO dto = (ProvenanceEventRecordDTO) event;
+                dto.setEventId((long) i);
+                dto.setEventTime(System.currentTimeMillis());
+                dto.setStartTime(System.currentTimeMillis());
+                dto.setEventType(new String("ATTRIBUTES_MODIFIED"));
+                dto.setFlowFileUuid(flowFile);
+                dto.setFileSizeBytes(1536L);
+                dto.setInputContentClaimFileSizeBytes(1536L);
+                dto.setOutputContentClaimFileSizeBytes(1536L);
+                dto.setComponentId(new String(component));
+                dto.setComponentType(new String("UpdateAttribute"));
+                dto.setComponentName(new String("Update " + component));
+                dto.setGroupId(new String("group-" + (i % components)));
+                dto.setParentUuids(new ArrayList<>());
+                dto.setChildUuids(new ArrayList<>());
+                dto.setAttributeMap(attributeMap);
+                dto.setUpdatedAttributes(updated);
+                dto.setPreviousAttributes(previous);
+            } else {
+                final LegacyEvent legacy = (LegacyEvent) event;
+                legacy.eventId = (long) i;
+                legacy.eventTime = System.currentTimeMillis();
+                legacy.startTime = System.currentTimeMillis();
+                legacy.eventType = new String("ATTRIBUTES_MODIFIED");
+                legacy.flowFileUuid = flowFile;
+                legacy.fileSize = "1.5 KB";
+                legacy.fileSizeBytes = 1536L;
+                legacy.inputContentClaimFileSize = "1.5 KB";
+                legacy.inputContentClaimFileSizeBytes = 1536L;
+                legacy.outputContentClaimFileSize = "1.5 KB";
+                legacy.outputContentClaimFileSizeBytes = 1536L;
+                legacy.componentId = new String(component);
+                legacy.componentType = new String("UpdateAttribute");
+                legacy.componentName = new String("Update " + component);
+                legacy.groupId = new String("group-" + (i % components));
+                legacy.parentUuids = new ArrayList<>();
+                legacy.childUuids = new ArrayList<>();
+                legacy.attributeMap = attributeMap;
+                legacy.updatedAttributes = updated;
+                legacy.previousAttributes = previous;
+            }
+            batch.add(event);
+        }
+        return batch;
+    }
+
+    private static byte[] serialize(List<Object> batch) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(batch);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static List<?> deserialize(byte[] batch) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(batch))) {
+            return (List<?>) in.readObject();
+        }
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; ++i) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Field layout of {@link ProvenanceEventRecordDTO} before it was made compact.
+     */
+    @SuppressWarnings("unused")
+    private static class LegacyEvent implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private boolean isStartOfJob;
+        private boolean isFinalJobEvent;
+        private Long startTime;
+        private Long eventId;
+        private Long eventTime;
+        private Long eventDuration;
+        private String eventType;
+        private String flowFileUuid;
+        private String fileSize;
+        private Long fileSizeBytes;
+        private String clusterNodeId;
+        private String clusterNodeAddress;
+        private String groupId;
+        private String componentId;
+        private String componentType;
+        private String componentName;
+        private List<String> parentUuids;
+        private List<String> childUuids;
+        private String details;
+        private String sourceConnectionIdentifier;
+        private Long inputContentClaimFileSizeBytes;
+        private String inputContentClaimFileSize;
+        private Long outputContentClaimFileSizeBytes;
+        private String outputContentClaimFileSize;
+        private Set<String> relatedRootFlowFiles;
+        private boolean isFailure;
+        private String jobFlowFileId;
+        private String relationship;
+        private String firstEventProcessorId;
+        private Map<String, String> updatedAttributes;
+        private Map<String, String> previousAttributes;
+        private Map<String, Object> additionalProperties = new HashMap<>();
+        private Map<String, String> attributeMap;
+        private String feedName;
+        private String feedProcessGroupId;
+        private boolean isStream;
+    }
+}
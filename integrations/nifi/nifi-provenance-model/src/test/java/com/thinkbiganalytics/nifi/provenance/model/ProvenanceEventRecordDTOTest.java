@@ -0,0 +1,111 @@
+package com.thinkbiganalytics.nifi.provenance.model;
+
+/*-
+ * #%L
+ * thinkbig-nifi-provenance-model
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ProvenanceEventRecordDTOTest {
+
+    /**
+     * Verify the event is unchanged after being serialized and deserialized.
+     */
+    @Test
+    public void serialize() throws Exception {
+        final Map<String, String> attributes = new HashMap<>();
+        attributes.put("filename", "orders.csv");
+        attributes.put("uuid", "ff-1");
+
+        final ProvenanceEventRecordDTO event = new ProvenanceEventRecordDTO();
+        event.setEventId(42L);
+        event.setEventTime(1500000000000L);
+        event.setComponentId(new String("processor-1"));
+        event.setFlowFileUuid("ff-1");
+        event.setFileSizeBytes(2048L);
+        event.setAttributeMap(attributes);
+        event.setUpdatedAttributes(Collections.singletonMap("filename", "orders.csv"));
+        event.setParentUuids(Collections.singletonList("ff-0"));
+        event.setChildUuids(new ArrayList<>());
+
+        final List<ProvenanceEventRecordDTO> events = roundTrip(Arrays.asList(event, event));
+        final ProvenanceEventRecordDTO copy = events.get(0);
+        Assert.assertEquals(event, copy);
+        Assert.assertEquals(Long.valueOf(1500000000000L), copy.getEventTime());
+        Assert.assertNull(copy.getEventDuration());
+        Assert.assertNull(copy.getStartTime());
+        Assert.assertEquals("2 KB", copy.getFileSize());
+        Assert.assertNull(copy.getInputContentClaimFileSize());
+        Assert.assertEquals(attributes, copy.getAttributeMap());
+        Assert.assertEquals(Collections.singletonMap("filename", "orders.csv"), copy.getUpdatedAttributes());
+        Assert.assertNull(copy.getPreviousAttributes());
+        Assert.assertEquals(Collections.singletonList("ff-0"), copy.getParentUuids());
+        Assert.assertTrue(copy.getChildUuids().isEmpty());
+        Assert.assertTrue(copy.getAdditionalProperties().isEmpty());
+        Assert.assertFalse(copy.getProcessed().get());
+
+        // Verify component metadata is interned
+        Assert.assertSame(copy.getComponentId(), roundTrip(Collections.singletonList(event)).get(0).getComponentId());
+    }
+
+    /**
+     * Verify modifying the attributes after they have been deserialized.
+     */
+    @Test
+    public void updateAttributes() throws Exception {
+        final ProvenanceEventRecordDTO event = new ProvenanceEventRecordDTO();
+        event.setUpdatedAttribute("path", "/tmp");
+        event.addChildUuid("ff-2");
+
+        final ProvenanceEventRecordDTO copy = roundTrip(Collections.singletonList(event)).get(0);
+        copy.setUpdatedAttribute("filename", "orders.csv");
+        copy.addChildUuid("ff-3");
+
+        final ProvenanceEventRecordDTO second = roundTrip(Collections.singletonList(copy)).get(0);
+        Assert.assertEquals("/tmp", second.getUpdatedAttributes().get("path"));
+        Assert.assertEquals("orders.csv", second.getUpdatedAttributes().get("filename"));
+        Assert.assertEquals(Arrays.asList("ff-2", "ff-3"), second.getChildUuids());
+    }
+
+    /**
+     * Serializes and deserializes the specified events.
+     */
+    @SuppressWarnings("unchecked")
+    private List<ProvenanceEventRecordDTO> roundTrip(List<ProvenanceEventRecordDTO> events) throws Exception {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(new ArrayList<>(events));
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (List<ProvenanceEventRecordDTO>) in.readObject();
+        }
+    }
+}
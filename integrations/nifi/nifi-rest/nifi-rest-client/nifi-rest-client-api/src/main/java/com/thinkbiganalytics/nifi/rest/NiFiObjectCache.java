@@ -32,7 +32,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -171,9 +170,7 @@ public class NiFiObjectCache {
      */
     public PortDTO getCategoryOutputPort(String categoryProcessGroupId, String outputPortName) {
 
-        if (!categoryProcessGroupIdToOutputPortByName.containsKey(categoryProcessGroupId)) {
-            categoryProcessGroupIdToOutputPortByName.put(categoryProcessGroupId, new ConcurrentHashMap<>());
-        }
+        categoryProcessGroupIdToOutputPortByName.computeIfAbsent(categoryProcessGroupId, id -> new ConcurrentHashMap<>());
 
         PortDTO outputPort = categoryProcessGroupIdToOutputPortByName.get(categoryProcessGroupId).get(outputPortName);
         if (outputPort == null) {
@@ -188,10 +185,7 @@ public class NiFiObjectCache {
     }
 
     public void addCategoryOutputPort(String categoryProcessGroupId, PortDTO portDTO) {
-        if(!categoryProcessGroupIdToOutputPortByName.containsKey(categoryProcessGroupId)) {
-            categoryProcessGroupIdToOutputPortByName.put(categoryProcessGroupId, new ConcurrentHashMap<>());
-        }
-        categoryProcessGroupIdToOutputPortByName.get(categoryProcessGroupId).put(portDTO.getName(), portDTO);
+        categoryProcessGroupIdToOutputPortByName.computeIfAbsent(categoryProcessGroupId, id -> new ConcurrentHashMap<>()).put(portDTO.getName(), portDTO);
     }
 
     public Set<ConnectionDTO> getConnections(String processGroupId){
@@ -222,7 +216,10 @@ public class NiFiObjectCache {
             Set<ConnectionDTO> connectionsEntity = restClient.getNiFiRestClient().processGroups().getConnections(processGroupId);
             if (connectionsEntity != null) {
                 if(cacheConnections) {
-                    processGroupConnections.put(processGroupId, connectionsEntity);
+                    //feeds in the same category may be saved concurrently, so keep a concurrent copy
+                    Set<ConnectionDTO> cachedConnections = ConcurrentHashMap.newKeySet();
+                    cachedConnections.addAll(connectionsEntity);
+                    processGroupConnections.put(processGroupId, cachedConnections);
                 }
                 connectionDTOS = connectionsEntity;
             }
@@ -239,10 +236,7 @@ public class NiFiObjectCache {
     }
 
     public void addConnection(String processGroupId, ConnectionDTO connectionDTO) {
-        if(!processGroupConnections.containsKey(processGroupId)){
-            processGroupConnections.put(processGroupId, new HashSet<>());
-        }
-            processGroupConnections.get(processGroupId).add(connectionDTO);
+        processGroupConnections.computeIfAbsent(processGroupId, id -> ConcurrentHashMap.newKeySet()).add(connectionDTO);
 
     }
 
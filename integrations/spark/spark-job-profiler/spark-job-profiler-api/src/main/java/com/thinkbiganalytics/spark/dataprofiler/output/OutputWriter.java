@@ -45,8 +45,10 @@ public class OutputWriter implements Serializable {
 
     /**
      * Write the profile statistics to Hive.
+     *
+     * @return {@code true} if the statistics were written, or {@code false} if the output table is not configured
      */
-    public static void writeModel(@Nonnull final StatisticsModel model, @Nonnull final ProfilerConfiguration profilerConfiguration, @Nonnull final SQLContext sqlContext,
+    public static boolean writeModel(@Nonnull final StatisticsModel model, @Nonnull final ProfilerConfiguration profilerConfiguration, @Nonnull final SQLContext sqlContext,
                                   @Nonnull final SparkContextService scs) {
         final OutputWriter writer = new OutputWriter(profilerConfiguration);
 
@@ -54,7 +56,7 @@ public class OutputWriter implements Serializable {
             writer.addRows(column.getStatistics());
         }
 
-        writer.writeResultToTable(sqlContext, scs);
+        return writer.writeResultToTable(sqlContext, scs);
     }
 
     private final List<OutputRow> outputRows = new ArrayList<>();
@@ -111,6 +113,7 @@ public class OutputWriter implements Serializable {
 
             createOutputTableIfNotExists(sqlContext, scs);
             writeResultToOutputTable(sqlContext, scs, tempTable);
+            sqlContext.dropTempTable(tempTable);
             retVal = true;
         }
 
@@ -30,7 +30,9 @@ import com.thinkbiganalytics.security.core.SecurityCoreConfig;
 import com.thinkbiganalytics.spark.dataprofiler.Profiler;
 import com.thinkbiganalytics.spark.datavalidator.DataValidator;
 import com.thinkbiganalytics.spark.metadata.TransformScript;
+import com.thinkbiganalytics.spark.policy.FieldPolicyLoader;
 import com.thinkbiganalytics.spark.repl.SparkScriptEngine;
+import com.thinkbiganalytics.spark.service.FeedJobService;
 import com.thinkbiganalytics.spark.service.IdleMonitorService;
 import com.thinkbiganalytics.spark.service.JobTrackerService;
 import com.thinkbiganalytics.spark.service.SparkListenerService;
@@ -127,6 +129,18 @@ public class SparkShellApp {
         return new TomcatEmbeddedServletContainerFactory();
     }
 
+    /**
+     * Creates the service for running feed validate and profile jobs.
+     *
+     * @param threads the maximum number of feed jobs running at the same time
+     */
+    @Bean(destroyMethod = "shutdown")
+    public FeedJobService feedJobService(final SparkContext sparkContext, final SQLContext sqlContext, final SparkContextService sparkContextService, final JobTrackerService tracker,
+                                         final DataValidator validator, final Profiler profiler, final FieldPolicyLoader fieldPolicyLoader,
+                                         @Value("${spark.shell.feeds.threads:4}") final int threads) {
+        return new FeedJobService(sparkContext, sqlContext, sparkContextService, tracker, validator, profiler, fieldPolicyLoader, threads);
+    }
+
     /**
      * Gets the Hadoop File System.
      */
@@ -151,12 +165,14 @@ public class SparkShellApp {
      * @return the Jersey configuration
      */
     @Bean
-    public ResourceConfig jerseyConfig(final TransformService transformService, final FileSystem fileSystem, final SparkLocatorService sparkLocatorService) {
+    public ResourceConfig jerseyConfig(final TransformService transformService, final FeedJobService feedJobService, final FileSystem fileSystem,
+                                       final SparkLocatorService sparkLocatorService) {
         final ResourceConfig config = new ResourceConfig(ApiListingResource.class, SwaggerSerializers.class);
         config.packages("com.thinkbiganalytics.spark.rest");
         config.register(new AbstractBinder() {
             @Override
             protected void configure() {
+                bind(feedJobService).to(FeedJobService.class);
                 bind(fileSystem).to(FileSystem.class);
                 bind(transformService).to(TransformService.class);
                 bind(sparkLocatorService).to(SparkLocatorService.class);
@@ -0,0 +1,80 @@
+package com.thinkbiganalytics.spark.metadata;
+
+/*-
+ * #%L
+ * kylo-spark-shell-client-app
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.base.Supplier;
+
+import org.apache.spark.SparkContext;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Monitors a validate or profile job for a feed.
+ *
+ * <p>The job runs in the specified FAIR scheduler pool so that feeds in one pool do not starve those in another.</p>
+ */
+public class FeedJob extends Job<String> {
+
+    /**
+     * Spark property for the scheduler pool
+     */
+    private static final String SPARK_SCHEDULER_POOL = "spark.scheduler.pool";
+
+    /**
+     * Scheduler pool name
+     */
+    @Nullable
+    private final String pool;
+
+    /**
+     * Spark context
+     */
+    @Nonnull
+    private final SparkContext sparkContext;
+
+    /**
+     * Constructs a {@code FeedJob} with the specified job configuration.
+     */
+    public FeedJob(@Nonnull final String groupId, @Nonnull final Supplier<String> supplier, @Nonnull final SparkContext sparkContext, @Nullable final String pool) {
+        super(groupId, supplier, sparkContext);
+        this.pool = pool;
+        this.sparkContext = sparkContext;
+    }
+
+    /**
+     * Gets the scheduler pool name.
+     */
+    @Nullable
+    public String getPool() {
+        return pool;
+    }
+
+    @Override
+    public void run() {
+        sparkContext.setLocalProperty(SPARK_SCHEDULER_POOL, pool);
+        try {
+            super.run();
+        } finally {
+            sparkContext.setLocalProperty(SPARK_SCHEDULER_POOL, null);
+        }
+    }
+}
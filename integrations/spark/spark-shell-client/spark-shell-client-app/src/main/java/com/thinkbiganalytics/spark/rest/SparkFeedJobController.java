@@ -0,0 +1,205 @@
+package com.thinkbiganalytics.spark.rest;
+
+/*-
+ * #%L
+ * kylo-spark-shell-client-app
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.spark.metadata.FeedJob;
+import com.thinkbiganalytics.spark.rest.model.FeedJobResponse;
+import com.thinkbiganalytics.spark.rest.model.ProfileRequest;
+import com.thinkbiganalytics.spark.rest.model.ValidateRequest;
+import com.thinkbiganalytics.spark.service.FeedJobService;
+
+import org.springframework.stereotype.Component;
+
+import java.util.MissingResourceException;
+import java.util.ResourceBundle;
+import java.util.concurrent.ExecutionException;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+
+/**
+ * Endpoint for running feed validate and profile jobs in the long-lived Spark context.
+ */
+@Api(tags = "spark")
+@Component
+@Path("/api/v1/spark/shell/feeds")
+public class SparkFeedJobController {
+
+    /**
+     * Resources for error messages
+     */
+    private static final ResourceBundle STRINGS = ResourceBundle.getBundle("spark-shell");
+
+    /**
+     * Service for running feed jobs
+     */
+    @Context
+    public FeedJobService feedJobService;
+
+    /**
+     * Requests the status of a feed job.
+     *
+     * @param id the job id
+     * @return the job status
+     */
+    @GET
+    @Path("{job}")
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation("Fetches the status of a validate or profile job.")
+    @ApiResponses({
+                      @ApiResponse(code = 200, message = "Returns the status of the job.", response = FeedJobResponse.class),
+                      @ApiResponse(code = 404, message = "The job does not exist.", response = FeedJobResponse.class),
+                      @ApiResponse(code = 500, message = "The job failed.", response = FeedJobResponse.class)
+                  })
+    @Nonnull
+    public Response getJob(@Nonnull @PathParam("job") final String id) {
+        final FeedJob job;
+        try {
+            job = feedJobService.getFeedJob(id);
+        } catch (final IllegalArgumentException e) {
+            return error(Response.Status.NOT_FOUND, id, "getFeedJob.notFound");
+        }
+
+        final FeedJobResponse response = new FeedJobResponse();
+        response.setId(job.getGroupId());
+
+        if (job.isDone()) {
+            try {
+                response.setMessage(job.get());
+                response.setStatus(FeedJobResponse.Status.SUCCESS);
+            } catch (final ExecutionException e) {
+                final Throwable cause = (e.getCause() != null) ? e.getCause() : e;
+                return error(Response.Status.INTERNAL_SERVER_ERROR, id, (cause.getMessage() != null) ? cause.getMessage() : cause.getClass().getSimpleName());
+            } catch (final Exception e) {
+                return error(Response.Status.INTERNAL_SERVER_ERROR, id, (e.getMessage() != null) ? e.getMessage() : e.getClass().getSimpleName());
+            }
+        } else {
+            response.setProgress(job.progress());
+            response.setStatus(FeedJobResponse.Status.PENDING);
+        }
+
+        return Response.ok(response).build();
+    }
+
+    /**
+     * Submits a job to profile a table or query.
+     *
+     * @param request the profile request
+     * @return the job status
+     */
+    @POST
+    @Path("profile")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation("Generates profile statistics for a table or query.")
+    @ApiResponses({
+                      @ApiResponse(code = 200, message = "Returns the status of the job.", response = FeedJobResponse.class),
+                      @ApiResponse(code = 400, message = "The request is not valid.", response = FeedJobResponse.class)
+                  })
+    @Nonnull
+    public Response profile(@Nullable final ProfileRequest request) {
+        if (request == null) {
+            return error(Response.Status.BAD_REQUEST, null, "feedJob.missingRequest");
+        }
+        try {
+            return pending(feedJobService.profile(request));
+        } catch (final IllegalArgumentException e) {
+            return error(Response.Status.BAD_REQUEST, null, e.getMessage());
+        }
+    }
+
+    /**
+     * Submits a job to validate and cleanse a feed partition.
+     *
+     * @param request the validate request
+     * @return the job status
+     */
+    @POST
+    @Path("validate")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation("Validates and cleanses a feed partition.")
+    @ApiResponses({
+                      @ApiResponse(code = 200, message = "Returns the status of the job.", response = FeedJobResponse.class),
+                      @ApiResponse(code = 400, message = "The request is not valid.", response = FeedJobResponse.class)
+                  })
+    @Nonnull
+    public Response validate(@Nullable final ValidateRequest request) {
+        if (request == null) {
+            return error(Response.Status.BAD_REQUEST, null, "feedJob.missingRequest");
+        }
+        try {
+            return pending(feedJobService.validate(request));
+        } catch (final IllegalArgumentException e) {
+            return error(Response.Status.BAD_REQUEST, null, e.getMessage());
+        }
+    }
+
+    /**
+     * Generates an error response for the specified message.
+     *
+     * @param status the response status
+     * @param id     the job id
+     * @param key    the resource key or the error message
+     * @return the error response
+     */
+    @Nonnull
+    private Response error(@Nonnull final Response.Status status, @Nullable final String id, @Nonnull final String key) {
+        String message;
+        try {
+            message = STRINGS.getString(key);
+        } catch (final MissingResourceException e) {
+            message = key;
+        }
+
+        final FeedJobResponse entity = new FeedJobResponse();
+        entity.setId(id);
+        entity.setMessage(message);
+        entity.setStatus(FeedJobResponse.Status.ERROR);
+        return Response.status(status).entity(entity).build();
+    }
+
+    /**
+     * Generates a response for a submitted job.
+     */
+    @Nonnull
+    private Response pending(@Nonnull final String id) {
+        final FeedJobResponse response = new FeedJobResponse();
+        response.setId(id);
+        response.setProgress(0.0);
+        response.setStatus(FeedJobResponse.Status.PENDING);
+        return Response.ok(response).build();
+    }
+}
@@ -0,0 +1,341 @@
+package com.thinkbiganalytics.spark.service;
+
+/*-
+ * #%L
+ * kylo-spark-shell-client-app
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Supplier;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.thinkbiganalytics.hive.util.HiveUtils;
+import com.thinkbiganalytics.policy.FieldPolicy;
+import com.thinkbiganalytics.spark.SparkContextService;
+import com.thinkbiganalytics.spark.dataprofiler.Profiler;
+import com.thinkbiganalytics.spark.dataprofiler.ProfilerConfiguration;
+import com.thinkbiganalytics.spark.dataprofiler.StatisticsModel;
+import com.thinkbiganalytics.spark.dataprofiler.output.OutputWriter;
+import com.thinkbiganalytics.spark.datavalidator.DataValidator;
+import com.thinkbiganalytics.spark.datavalidator.DataValidatorResult;
+import com.thinkbiganalytics.spark.metadata.FeedJob;
+import com.thinkbiganalytics.spark.policy.FieldPolicyLoader;
+import com.thinkbiganalytics.spark.rest.model.ProfileRequest;
+import com.thinkbiganalytics.spark.rest.model.ValidateRequest;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.spark.SparkContext;
+import org.apache.spark.sql.SQLContext;
+import org.apache.spark.sql.hive.HiveContext;
+import org.apache.spark.storage.StorageLevel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Runs the feed validate and profile jobs inside the long-lived Spark context of the Spark Shell.
+ *
+ * <p>This avoids starting a new Spark application, with its YARN containers and Hive context, for every feed run. Each job uses a new Hive session so that
+ * Hive settings and temporary tables are not shared between feeds, and runs in the FAIR scheduler pool named in the request.</p>
+ */
+public class FeedJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(FeedJobService.class);
+
+    /**
+     * Default number of top values for profiling
+     */
+    private static final int DEFAULT_TOP_N = 10;
+
+    /**
+     * Partition key for profiling every partition
+     */
+    private static final String ALL_PARTITIONS = "ALL";
+
+    /**
+     * Executes feed jobs
+     */
+    @Nonnull
+    private final ExecutorService executor;
+
+    /**
+     * Loads field policies
+     */
+    @Nonnull
+    private final FieldPolicyLoader fieldPolicyLoader;
+
+    /**
+     * Profiler for column statistics
+     */
+    @Nonnull
+    private final Profiler profiler;
+
+    /**
+     * Spark context
+     */
+    @Nonnull
+    private final SparkContext sparkContext;
+
+    /**
+     * Spark context service
+     */
+    @Nonnull
+    private final SparkContextService sparkContextService;
+
+    /**
+     * Spark SQL context
+     */
+    @Nonnull
+    private final SQLContext sqlContext;
+
+    /**
+     * Job tracker for feed jobs
+     */
+    @Nonnull
+    private final JobTrackerService tracker;
+
+    /**
+     * Validator for feed data
+     */
+    @Nonnull
+    private final DataValidator validator;
+
+    /**
+     * Constructs a {@code FeedJobService}.
+     *
+     * @param threads the maximum number of feed jobs running at the same time
+     */
+    public FeedJobService(@Nonnull final SparkContext sparkContext, @Nonnull final SQLContext sqlContext, @Nonnull final SparkContextService sparkContextService,
+                          @Nonnull final JobTrackerService tracker, @Nonnull final DataValidator validator, @Nonnull final Profiler profiler,
+                          @Nonnull final FieldPolicyLoader fieldPolicyLoader, final int threads) {
+        this.sparkContext = sparkContext;
+        this.sqlContext = sqlContext;
+        this.sparkContextService = sparkContextService;
+        this.tracker = tracker;
+        this.validator = validator;
+        this.profiler = profiler;
+        this.fieldPolicyLoader = fieldPolicyLoader;
+        executor = Executors.newFixedThreadPool(Math.max(1, threads), new ThreadFactoryBuilder().setDaemon(true).setNameFormat("feed-job-%d").build());
+    }
+
+    /**
+     * Gets the feed job with the specified id. The job is removed once it is done.
+     *
+     * @param id the job id
+     * @return the feed job
+     * @throws IllegalArgumentException if a job with the id does not exist
+     */
+    @Nonnull
+    public FeedJob getFeedJob(@Nonnull final String id) {
+        final Optional<FeedJob> job = tracker.getFeedJob(id);
+        if (job.isPresent()) {
+            if (job.get().isDone()) {
+                tracker.removeJob(id);
+            }
+            return job.get();
+        } else {
+            throw new IllegalArgumentException();
+        }
+    }
+
+    /**
+     * Submits a job to profile a table or query.
+     *
+     * @param request the profile request
+     * @return the job id
+     */
+    @Nonnull
+    public String profile(@Nonnull final ProfileRequest request) {
+        Preconditions.checkArgument(request.getObjectType() != null && request.getObjectDesc() != null, "Object type and description are required");
+        Preconditions.checkArgument(request.getOutputTable() != null && request.getOutputTable().split("\\.").length <= 2, "Output table is required as <table> or <database.table>");
+        Preconditions.checkArgument(request.getTopN() == null || request.getTopN() > 0, "Top N must be greater than 0");
+
+        return submit(request.getPool(), new Supplier<String>() {
+            @Override
+            public String get() {
+                return runProfile(request);
+            }
+        });
+    }
+
+    /**
+     * Shuts down the executor for feed jobs.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Submits a job to validate and cleanse a feed partition.
+     *
+     * @param request the validate request
+     * @return the job id
+     */
+    @Nonnull
+    public String validate(@Nonnull final ValidateRequest request) {
+        Preconditions.checkArgument(request.getDatabase() != null && request.getEntity() != null, "Database and entity are required");
+        Preconditions.checkArgument(request.getPartition() != null, "Partition is required");
+        Preconditions.checkArgument(request.getFieldPolicyJsonPath() != null, "Field policy path is required");
+
+        return submit(request.getPool(), new Supplier<String>() {
+            @Override
+            public String get() {
+                return runValidate(request);
+            }
+        });
+    }
+
+    /**
+     * Gets the query for profiling the specified object.
+     *
+     * @return the query, or {@code null} if there are no columns to profile
+     */
+    @Nullable
+    static String getProfileQuery(@Nonnull final String objectType, @Nonnull final String objectDesc, @Nonnull final Map<String, FieldPolicy> policyMap,
+                                  @Nonnull final String partitionKey, @Nonnull final String partitionColumn) {
+        switch (objectType) {
+            case "table":
+                final String[] tableRef = objectDesc.split("\\.", 2);
+                final String safeTable = (tableRef.length == 1) ? HiveUtils.quoteIdentifier(tableRef[0]) : HiveUtils.quoteIdentifier(tableRef[0], tableRef[1]);
+
+                final List<String> profiledColumns = new ArrayList<>();
+                for (final FieldPolicy fieldPolicy : policyMap.values()) {
+                    if (fieldPolicy.isProfile()) {
+                        profiledColumns.add(HiveUtils.quoteIdentifier(fieldPolicy.getField().toLowerCase()));
+                    }
+                }
+                if (profiledColumns.isEmpty()) {
+                    return null;
+                }
+
+                String query = "select " + StringUtils.join(profiledColumns, ',') + " from " + safeTable;
+                if (!ALL_PARTITIONS.equalsIgnoreCase(partitionKey)) {
+                    query += " where " + HiveUtils.quoteIdentifier(partitionColumn) + " = " + HiveUtils.quoteString(partitionKey);
+                }
+                return query;
+
+            case "query":
+                return objectDesc;
+
+            default:
+                throw new IllegalArgumentException("Object type must be table or query: " + objectType);
+        }
+    }
+
+    /**
+     * Creates a Hive session for a feed job.
+     */
+    @Nonnull
+    private HiveContext newHiveContext() {
+        return (sqlContext instanceof HiveContext) ? ((HiveContext) sqlContext).newSession() : new HiveContext(sparkContext);
+    }
+
+    /**
+     * Profiles a table or query and writes the statistics to the output table.
+     */
+    @Nonnull
+    private String runProfile(@Nonnull final ProfileRequest request) {
+        final ProfilerConfiguration configuration = new ProfilerConfiguration();
+        configuration.setNumberOfTopNValues((request.getTopN() != null) ? request.getTopN() : DEFAULT_TOP_N);
+        configuration.setInputAndOutputTablePartitionKey(StringUtils.defaultIfEmpty(request.getPartitionKey(), ALL_PARTITIONS));
+
+        final String[] outputTable = request.getOutputTable().split("\\.");
+        if (outputTable.length == 2) {
+            configuration.setOutputDbName(outputTable[0]);
+        }
+        configuration.setOutputTableName(outputTable[outputTable.length - 1]);
+
+        // Build query
+        final Map<String, FieldPolicy> policyMap = (request.getFieldPolicyJsonPath() != null) ? fieldPolicyLoader.loadFieldPolicy(request.getFieldPolicyJsonPath())
+                                                                                              : Collections.<String, FieldPolicy>emptyMap();
+        final String query = getProfileQuery(request.getObjectType(), request.getObjectDesc(), policyMap, configuration.getInputAndOutputTablePartitionKey(),
+                                             configuration.getInputTablePartitionColumnName());
+        if (query == null) {
+            return "No columns to profile";
+        }
+
+        // Generate statistics
+        log.info("Profiling in pool {}: {}", request.getPool(), query);
+        final HiveContext hiveContext = newHiveContext();
+        hiveContext.setConf("spark.sql.dialect", configuration.getSqlDialect());
+
+        final StatisticsModel model = profiler.profile(sparkContextService.sql(hiveContext, query), configuration);
+        if (model == null) {
+            return "No data to profile";
+        }
+
+        // Write statistics
+        if (!OutputWriter.writeModel(model, configuration, hiveContext, sparkContextService)) {
+            throw new IllegalStateException("Failed to write profile statistics to " + request.getOutputTable());
+        }
+        return "Wrote profile statistics to " + configuration.getOutputDbName() + "." + configuration.getOutputTableName();
+    }
+
+    /**
+     * Validates a feed partition and writes the valid, invalid, and profile tables.
+     */
+    @Nonnull
+    private String runValidate(@Nonnull final ValidateRequest request) {
+        final HiveContext hiveContext = newHiveContext();
+        if (request.getHiveConf() != null) {
+            for (final Map.Entry<String, String> entry : request.getHiveConf().entrySet()) {
+                log.info("Adding Hive parameter {}={}", entry.getKey(), entry.getValue());
+                hiveContext.setConf(entry.getKey(), entry.getValue());
+            }
+        }
+
+        final String database = request.getDatabase();
+        final String entity = request.getEntity();
+        final Map<String, FieldPolicy> policyMap = fieldPolicyLoader.loadFieldPolicy(request.getFieldPolicyJsonPath());
+        final int numPartitions = (request.getNumPartitions() != null) ? request.getNumPartitions() : -1;
+
+        log.info("Validating {}.{} partition {} in pool {}", database, entity, request.getPartition(), request.getPool());
+        final DataValidatorResult results = validator.validateTable(database, entity + "_feed", entity + "_valid", request.getPartition(), numPartitions, policyMap, hiveContext);
+        results.persist(StorageLevel.fromString(StringUtils.defaultIfEmpty(request.getStorageLevel(), "MEMORY_AND_DISK")));
+
+        try {
+            validator.saveInvalidToTable(database, entity + "_invalid", results, hiveContext);
+            validator.saveValidToTable(database, entity + "_feed", entity + "_valid", results, hiveContext);
+            validator.saveProfileToTable(database, entity + "_profile", request.getPartition(), results, hiveContext);
+        } finally {
+            results.unpersist();
+        }
+
+        return "Validated " + database + "." + entity + " partition " + request.getPartition();
+    }
+
+    /**
+     * Submits a feed job to the specified scheduler pool.
+     */
+    @Nonnull
+    private String submit(@Nullable final String pool, @Nonnull final Supplier<String> supplier) {
+        final String id = UUID.randomUUID().toString().replace("-", "");
+        tracker.submitJob(new FeedJob(id, supplier, sparkContext, StringUtils.isNotEmpty(pool) ? pool : null), executor);
+        return id;
+    }
+}
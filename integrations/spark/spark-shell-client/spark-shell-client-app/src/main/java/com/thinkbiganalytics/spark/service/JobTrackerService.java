@@ -26,6 +26,7 @@ import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.RemovalListener;
 import com.google.common.cache.RemovalNotification;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.thinkbiganalytics.spark.metadata.FeedJob;
 import com.thinkbiganalytics.spark.metadata.Job;
 import com.thinkbiganalytics.spark.metadata.SaveJob;
 import com.thinkbiganalytics.spark.metadata.StandardSparkListener;
@@ -43,6 +44,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
@@ -112,6 +114,18 @@ public class JobTrackerService extends StandardSparkListener {
         return (Optional) Optional.fromNullable(groups.getIfPresent(groupId));
     }
 
+    /**
+     * Gets the FeedJob with the specified group id.
+     *
+     * @param groupId the group id
+     * @return the feed job
+     */
+    @Nonnull
+    public Optional<FeedJob> getFeedJob(@Nonnull final String groupId) {
+        final Job<?> job = getJob(groupId).orNull();
+        return (job != null && job instanceof FeedJob) ? Optional.of((FeedJob) job) : Optional.<FeedJob>absent();
+    }
+
     /**
      * Gets the SaveJob with the specified group id.
      *
@@ -225,6 +239,17 @@ public class JobTrackerService extends StandardSparkListener {
         executor.execute(job);
     }
 
+    /**
+     * Submits a job to be executed by the specified executor.
+     *
+     * @param job      the job
+     * @param executor the executor for the job
+     */
+    public <T> void submitJob(@Nonnull final Job<T> job, @Nonnull final Executor executor) {
+        groups.put(job.getGroupId(), job);
+        executor.execute(job);
+    }
+
     /**
      * Creates a job cache.
      */
@@ -51,7 +51,6 @@ import java.util.stream.StreamSupport;
 import javax.jcr.AccessDeniedException;
 import javax.jcr.ItemNotFoundException;
 import javax.jcr.Node;
-import javax.jcr.NodeIterator;
 import javax.jcr.RepositoryException;
 import javax.jcr.Session;
 import javax.jcr.query.QueryResult;
@@ -242,14 +241,9 @@ public abstract class BaseJcrProvider<T, PK extends Serializable> implements Bas
     public List<T> find(String query) {
         List<T> entities = new ArrayList<>();
         try {
-            QueryResult result = JcrQueryUtil.query(getSession(), query);
-            if (result != null) {
-                NodeIterator nodeIterator = result.getNodes();
-                while (nodeIterator.hasNext()) {
-                    Node node = nodeIterator.nextNode();
-                    T entity = constructEntity(node);
-                    entities.add(entity);
-                }
+            for (Node node : JcrQueryUtil.findNodes(getSession(), query, null, null)) {
+                T entity = constructEntity(node);
+                entities.add(entity);
             }
             return entities;
         } catch (RepositoryException e) {
@@ -305,14 +299,10 @@ public abstract class BaseJcrProvider<T, PK extends Serializable> implements Bas
 
     public T findFirst(String query) {
         try {
-            QueryResult result = JcrQueryUtil.query(getSession(), query);
-            if (result != null) {
-                NodeIterator nodeIterator = result.getNodes();
-                if (nodeIterator.hasNext()) {
-                    Node node = nodeIterator.nextNode();
-                    T entity = constructEntity(node);
-                    return entity;
-                }
+            List<Node> nodes = JcrQueryUtil.findNodes(getSession(), query, null, 1);
+            if (!nodes.isEmpty()) {
+                T entity = constructEntity(nodes.get(0));
+                return entity;
             }
             return null;
         } catch (RepositoryException e) {
@@ -322,14 +312,10 @@ public abstract class BaseJcrProvider<T, PK extends Serializable> implements Bas
 
     public <T extends JcrObject> T findFirst(String query, Class<T> resultClass) {
         try {
-            QueryResult result = JcrQueryUtil.query(getSession(), query);
-            if (result != null) {
-                NodeIterator nodeIterator = result.getNodes();
-                if (nodeIterator.hasNext()) {
-                    Node node = nodeIterator.nextNode();
-                    T entity = constructEntity(node, resultClass);
-                    return entity;
-                }
+            List<Node> nodes = JcrQueryUtil.findNodes(getSession(), query, null, 1);
+            if (!nodes.isEmpty()) {
+                T entity = constructEntity(nodes.get(0), resultClass);
+                return entity;
             }
             return null;
         } catch (RepositoryException e) {
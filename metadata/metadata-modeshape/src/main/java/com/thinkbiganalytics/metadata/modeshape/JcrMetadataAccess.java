@@ -35,6 +35,8 @@ import com.thinkbiganalytics.metadata.modeshape.security.ModeShapeReadOnlyPrinci
 import com.thinkbiganalytics.metadata.modeshape.security.ModeShapeReadWritePrincipal;
 import com.thinkbiganalytics.metadata.modeshape.security.OverrideCredentials;
 import com.thinkbiganalytics.metadata.modeshape.security.SpringAuthenticationCredentials;
+import com.thinkbiganalytics.metadata.modeshape.support.JcrQueryCache;
+import com.thinkbiganalytics.metadata.modeshape.support.JcrQueryUtil;
 import com.thinkbiganalytics.metadata.modeshape.support.JcrUtil;
 import com.thinkbiganalytics.metadata.modeshape.support.JcrVersionUtil;
 import com.thinkbiganalytics.security.UsernamePrincipal;
@@ -234,6 +236,8 @@ public class JcrMetadataAccess implements MetadataAccess {
                 activeSession.set(new ActiveSession(this.repository.login(creds)));
 
                 TransactionManager txnMgr = this.txnLookup.getTransactionManager();
+                JcrQueryCache queryCache = JcrQueryUtil.getQueryCache();
+                queryCache.beginSession(activeSession.get().session, false);
 
                 try {
                     txnMgr.begin();
@@ -269,6 +273,7 @@ public class JcrMetadataAccess implements MetadataAccess {
                 } finally {
                     activeSession.get().session.logout();
                     activeSession.remove();
+                    queryCache.endSession();
                     postTransactionActions.remove();
                     checkedOutNodes.remove();
                 }
@@ -323,6 +328,8 @@ public class JcrMetadataAccess implements MetadataAccess {
                 activeSession.set(new ActiveSession(this.repository.login(creds)));
 
                 TransactionManager txnMgr = this.txnLookup.getTransactionManager();
+                JcrQueryCache queryCache = JcrQueryUtil.getQueryCache();
+                queryCache.beginSession(activeSession.get().session, true);
 
                 try {
                     txnMgr.begin();
@@ -338,6 +345,7 @@ public class JcrMetadataAccess implements MetadataAccess {
                     activeSession.get().session.refresh(false);
                     activeSession.get().session.logout();
                     activeSession.remove();
+                    queryCache.endSession();
                 }
             } catch (SystemException | NotSupportedException | RepositoryException e) {
                 throw new MetadataAccessException("Failure accessing the metadata store", e);
@@ -45,22 +45,33 @@ import com.thinkbiganalytics.metadata.modeshape.extension.JcrExtensibleEntityPro
 import com.thinkbiganalytics.metadata.modeshape.extension.JcrExtensibleTypeProvider;
 import com.thinkbiganalytics.metadata.modeshape.feed.JcrFeedProvider;
 import com.thinkbiganalytics.metadata.modeshape.op.JobRepoFeedOperationsProvider;
+import com.thinkbiganalytics.metadata.modeshape.security.ModeShapeReadOnlyPrincipal;
+import com.thinkbiganalytics.metadata.modeshape.security.OverrideCredentials;
 import com.thinkbiganalytics.metadata.modeshape.service.JcrIndexService;
 import com.thinkbiganalytics.metadata.modeshape.sla.JcrFeedServiceLevelAgreementProvider;
 import com.thinkbiganalytics.metadata.modeshape.sla.JcrServiceLevelAgreementProvider;
+import com.thinkbiganalytics.metadata.modeshape.support.JcrQueryCache;
+import com.thinkbiganalytics.metadata.modeshape.support.JcrQueryUtil;
 import com.thinkbiganalytics.metadata.modeshape.tag.TagProvider;
 import com.thinkbiganalytics.metadata.modeshape.template.JcrFeedTemplateProvider;
 import com.thinkbiganalytics.metadata.modeshape.user.JcrUserProvider;
 import com.thinkbiganalytics.search.api.Search;
 
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
+import javax.annotation.PreDestroy;
 import javax.jcr.Repository;
 import javax.jcr.RepositoryException;
+import javax.jcr.Session;
 import javax.jcr.observation.Event;
 import javax.jcr.observation.ObservationManager;
 
@@ -70,6 +81,11 @@ import javax.jcr.observation.ObservationManager;
 @Configuration
 public class MetadataJcrConfig {
 
+    /**
+     * Session that receives the events invalidating the query result cache
+     */
+    private Session queryCacheSession;
+
     @Bean
     public UserProvider userProvider() {
         // TODO consider moving this to its own configuration, and perhaps the whole user management 
@@ -152,6 +168,52 @@ public class MetadataJcrConfig {
         return new JcrMetadataAccess();
     }
 
+    /**
+     * Caches parsed queries for each session and, for the configured node types, query results across sessions.
+     */
+    @Bean
+    public JcrQueryCache jcrQueryCache(final Repository repository,
+                                       @Value("${metadata.query.parsed.cache.size:64}") final int parsedQueries,
+                                       @Value("${metadata.query.cache.node.types:}") final String resultNodeTypes,
+                                       @Value("${metadata.query.cache.size:1000}") final long resultSize,
+                                       @Value("${metadata.query.cache.expire.seconds:300}") final long resultExpireSeconds) {
+        final Set<String> nodeTypes = Arrays.stream(StringUtils.split(resultNodeTypes, ','))
+            .map(String::trim)
+            .filter(StringUtils::isNotEmpty)
+            .collect(Collectors.toSet());
+        final JcrQueryCache queryCache = new JcrQueryCache(parsedQueries, nodeTypes, resultSize, resultExpireSeconds);
+
+        if (!nodeTypes.isEmpty()) {
+            try {
+                queryCacheSession = repository.login(OverrideCredentials.create(ModeShapeReadOnlyPrincipal.INSTANCE, MetadataAccess.SERVICE));
+                final ObservationManager observationManager = queryCacheSession.getWorkspace().getObservationManager();
+                observationManager.addEventListener(queryCache,
+                                                    Event.NODE_ADDED | Event.NODE_REMOVED | Event.NODE_MOVED | Event.PROPERTY_ADDED | Event.PROPERTY_CHANGED | Event.PROPERTY_REMOVED,
+                                                    "/",
+                                                    true,
+                                                    null,
+                                                    null,
+                                                    false);
+            } catch (final RepositoryException e) {
+                throw new MetadataRepositoryException("Failed to register query cache: " + e, e);
+            }
+        }
+
+        JcrQueryUtil.setQueryCache(queryCache);
+        return queryCache;
+    }
+
+    /**
+     * Stops listening for changes to the query result cache.
+     */
+    @PreDestroy
+    public void closeQueryCacheSession() {
+        if (queryCacheSession != null && queryCacheSession.isLive()) {
+            queryCacheSession.logout();
+        }
+        queryCacheSession = null;
+    }
+
     @Bean(initMethod = "configure")
     public MetadataJcrConfigurator jcrConfigurator(List<PostMetadataConfigAction> postConfigActions) {
         return new MetadataJcrConfigurator(postConfigActions);
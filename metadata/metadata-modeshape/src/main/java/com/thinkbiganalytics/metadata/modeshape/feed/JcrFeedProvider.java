@@ -539,7 +539,7 @@ public class JcrFeedProvider extends BaseJcrProvider<Feed, Feed.ID> implements F
         String query = "SELECT * from " + EntityUtil.asQueryProperty(JcrFeed.NODE_TYPE) + " as e WHERE e." + EntityUtil.asQueryProperty(FeedDetails.TEMPLATE) + " = $id";
         Map<String, String> bindParams = new HashMap<>();
         bindParams.put("id", templateId.toString());
-        return JcrQueryUtil.find(getSession(), query, JcrFeed.class);
+        return JcrQueryUtil.find(getSession(), query, bindParams, JcrFeed.class);
     }
 
     @Override
@@ -552,12 +552,7 @@ public class JcrFeedProvider extends BaseJcrProvider<Feed, Feed.ID> implements F
         Map<String, String> bindParams = new HashMap<>();
         bindParams.put("id", categoryId.toString());
 
-        try {
-            QueryResult result = JcrQueryUtil.query(getSession(), query, bindParams);
-            return JcrQueryUtil.queryResultToList(result, JcrFeed.class);
-        } catch (RepositoryException e) {
-            throw new MetadataRepositoryException("Unable to getFeeds for Category ", e);
-        }
+        return JcrQueryUtil.find(getSession(), query, bindParams, JcrFeed.class);
 
     }
     
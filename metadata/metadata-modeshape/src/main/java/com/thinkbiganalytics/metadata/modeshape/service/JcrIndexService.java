@@ -27,6 +27,8 @@ import com.thinkbiganalytics.metadata.api.datasource.DatasourceProvider;
 import com.thinkbiganalytics.metadata.api.datasource.DerivedDatasource;
 import com.thinkbiganalytics.metadata.modeshape.MetadataRepositoryException;
 import com.thinkbiganalytics.metadata.modeshape.common.EntityUtil;
+import com.thinkbiganalytics.search.api.BatchIndexer;
+import com.thinkbiganalytics.search.api.BatchIndexerConfig;
 import com.thinkbiganalytics.search.api.Search;
 import com.thinkbiganalytics.search.api.SearchIndex;
 
@@ -43,6 +45,7 @@ import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.jcr.RepositoryException;
@@ -97,17 +100,27 @@ public class JcrIndexService implements EventListener {
 
     /**
      * Re-indexes the metastore to ensure it's in a consistent state.
+     *
+     * <p>The datasources are sent to the search engine in bulk and the index is committed once all have been acknowledged.</p>
      */
     @PostConstruct
     public void initialize() {
-        executor.execute(() -> metadataAccess.read(() -> datasourceProvider.getDatasources().stream()
-                                                       .filter(DerivedDatasource.class::isInstance)
-                                                       .map(DerivedDatasource.class::cast)
-                                                       .filter(ds -> HIVE_DATASOURCE.equals(ds.getDatasourceType()))
-                                                       .forEach(this::indexDerivedDatasource),
-                                                   MetadataAccess.SERVICE)
-        );
-        search.commit(SearchIndex.DATASOURCES);
+        executor.execute(() -> {
+            try (BatchIndexer indexer = search.newBatchIndexer(new BatchIndexerConfig())) {
+                metadataAccess.read(() -> datasourceProvider.getDatasources().stream()
+                                        .filter(DerivedDatasource.class::isInstance)
+                                        .map(DerivedDatasource.class::cast)
+                                        .filter(ds -> HIVE_DATASOURCE.equals(ds.getDatasourceType()))
+                                        .forEach(ds -> {
+                                            final Map<String, Object> fields = getDerivedDatasourceFields(ds);
+                                            if (fields != null) {
+                                                indexer.index(SearchIndex.DATASOURCES, ds.getDatasourceType(), ds.getId().toString(), fields);
+                                            }
+                                        }),
+                                    MetadataAccess.SERVICE);
+            }
+            search.commit(SearchIndex.DATASOURCES);
+        });
     }
 
     /**
@@ -142,6 +155,22 @@ public class JcrIndexService implements EventListener {
      * @return {@code true} if the index was updated, or {@code false} otherwise
      */
     private boolean indexDerivedDatasource(@Nonnull final DerivedDatasource datasource) {
+        final Map<String, Object> fields = getDerivedDatasourceFields(datasource);
+        if (fields != null) {
+            search.index(SearchIndex.DATASOURCES, datasource.getDatasourceType(), datasource.getId().toString(), fields);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Gets the fields to index for the specified derived datasource.
+     *
+     * @param datasource the derived datasource
+     * @return the fields, or {@code null} if the datasource should not be indexed
+     */
+    @Nullable
+    private Map<String, Object> getDerivedDatasourceFields(@Nonnull final DerivedDatasource datasource) {
         if (HIVE_DATASOURCE.equals(datasource.getDatasourceType())) {
             final Map<String, Object> fields = new HashMap<>();
 
@@ -173,11 +202,10 @@ public class JcrIndexService implements EventListener {
 
             // Index the Hive schema
             if (fields.get("databaseName") != null && fields.get("tableName") != null) {
-                search.index(SearchIndex.DATASOURCES, datasource.getDatasourceType(), datasource.getId().toString(), fields);
-                return true;
+                return fields;
             }
         }
-        return false;
+        return null;
     }
 
     /**
@@ -0,0 +1,570 @@
+package com.thinkbiganalytics.metadata.modeshape.support;
+
+/*-
+ * #%L
+ * thinkbig-metadata-modeshape
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.jcr.ItemNotFoundException;
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.observation.EventIterator;
+import javax.jcr.observation.EventListener;
+import javax.jcr.query.Query;
+import javax.jcr.query.QueryResult;
+
+/**
+ * Caches parsed JCR-SQL2 queries and, optionally, the results of queries against specific node types.
+ *
+ * <p>Parsed queries are reused for the life of a session that has been started with {@link #beginSession(Session, boolean)}. ModeShape does not
+ * expose a way to share a parsed query between sessions, so each session keeps its own queries keyed by the normalized query text, and the bind
+ * variables are re-bound on every execution.</p>
+ *
+ * <p>Results are cached only for the node types that have been configured, only for read-only sessions without pending changes, and only as the
+ * identifiers of the matching nodes. They are keyed by the user, the normalized query text, and the bind variables. Any change to the repository, as
+ * reported by ModeShape observation events, invalidates every cached result.</p>
+ *
+ * <p>Observation events are delivered asynchronously after a commit, so a read made right after a commit in another session may still return the
+ * previous result. Only enable result caching for node types where such briefly stale reads are acceptable.</p>
+ *
+ * <p>Statistics are kept for each query shape, which is the normalized query text with its string literals removed.</p>
+ */
+public class JcrQueryCache implements EventListener {
+
+    private static final Logger log = LoggerFactory.getLogger(JcrQueryCache.class);
+
+    /**
+     * Default number of parsed queries kept for each session
+     */
+    public static final int DEFAULT_PARSED_QUERIES = 64;
+
+    /**
+     * Maximum number of query shapes with statistics
+     */
+    private static final int MAX_SHAPES = 500;
+
+    /**
+     * Shape used for statistics once {@link #MAX_SHAPES} has been reached
+     */
+    private static final String OTHER_SHAPE = "<other>";
+
+    /**
+     * Matches the node type of the first selector in a query
+     */
+    private static final Pattern NODE_TYPE = Pattern.compile("\\bFROM\\s+\\[['\"]?([^\\]'\"]+)['\"]?\\]", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * Incremented whenever the cached results are invalidated
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Maximum number of parsed queries kept for each session
+     */
+    private final int parsedQueries;
+
+    /**
+     * Cached node identifiers for each configured node type
+     */
+    @Nonnull
+    private final Map<String, Cache<List<Object>, List<String>>> results;
+
+    /**
+     * The current session of each thread
+     */
+    private final ThreadLocal<SessionQueries> sessions = new ThreadLocal<>();
+
+    /**
+     * Statistics for each query shape
+     */
+    private final ConcurrentMap<String, ShapeCounters> statistics = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a {@code JcrQueryCache} that only caches parsed queries.
+     */
+    public JcrQueryCache() {
+        this(DEFAULT_PARSED_QUERIES, Collections.emptySet(), 0, 0);
+    }
+
+    /**
+     * Constructs a {@code JcrQueryCache}.
+     *
+     * @param parsedQueries        the maximum number of parsed queries kept for each session, or 0 to disable
+     * @param resultNodeTypes      the node types whose query results are cached
+     * @param resultSize           the maximum number of results cached for each node type
+     * @param resultExpireSeconds  the number of seconds before a cached result expires, or 0 to never expire
+     */
+    public JcrQueryCache(final int parsedQueries, @Nonnull final Set<String> resultNodeTypes, final long resultSize, final long resultExpireSeconds) {
+        this.parsedQueries = parsedQueries;
+
+        final Map<String, Cache<List<Object>, List<String>>> results = new HashMap<>();
+        if (resultSize > 0) {
+            for (final String nodeType : resultNodeTypes) {
+                final CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().maximumSize(resultSize);
+                if (resultExpireSeconds > 0) {
+                    builder.expireAfterWrite(resultExpireSeconds, TimeUnit.SECONDS);
+                }
+                results.put(nodeType, builder.build());
+            }
+        }
+        this.results = Collections.unmodifiableMap(results);
+    }
+
+    /**
+     * Indicates that the specified session is now used by the current thread.
+     *
+     * @param session  the session
+     * @param readOnly {@code true} if changes to the session are never committed
+     */
+    public void beginSession(@Nonnull final Session session, final boolean readOnly) {
+        sessions.set(new SessionQueries(session, readOnly, parsedQueries));
+    }
+
+    /**
+     * Indicates that the current thread has finished using its session.
+     */
+    public void endSession() {
+        sessions.remove();
+    }
+
+    /**
+     * Executes the specified query, reusing the parsed query if available.
+     *
+     * @param session         the session
+     * @param queryExpression the JCR-SQL2 query
+     * @param bindParams      the bind variables
+     * @return the query result
+     * @throws RepositoryException if the query cannot be executed
+     */
+    @Nonnull
+    public QueryResult execute(@Nonnull final Session session, @Nonnull final String queryExpression, @Nullable final Map<String, String> bindParams) throws RepositoryException {
+        final String normalized = normalize(queryExpression);
+        final ShapeCounters counters = counters(normalized);
+        final long start = System.nanoTime();
+        try {
+            return executeQuery(session, queryExpression, normalized, bindParams, counters);
+        } finally {
+            counters.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Finds the nodes matching the specified query, using the cached results if available.
+     *
+     * @param session         the session
+     * @param queryExpression the JCR-SQL2 query
+     * @param bindParams      the bind variables
+     * @param fetchSize       the maximum number of nodes, or {@code null} for all nodes
+     * @return the matching nodes
+     * @throws RepositoryException if the query cannot be executed
+     */
+    @Nonnull
+    public List<Node> findNodes(@Nonnull final Session session, @Nonnull final String queryExpression, @Nullable final Map<String, String> bindParams, @Nullable final Integer fetchSize)
+        throws RepositoryException {
+        final String normalized = normalize(queryExpression);
+        final ShapeCounters counters = counters(normalized);
+        final long start = System.nanoTime();
+        try {
+            final Cache<List<Object>, List<String>> cache = getResultCache(session, normalized);
+            if (cache == null) {
+                return toNodes(executeQuery(session, queryExpression, normalized, bindParams, counters), fetchSize);
+            }
+
+            // Use cached identifiers while all the nodes still exist
+            final List<Object> key = Arrays.asList(session.getUserID(), normalized, (bindParams != null) ? new HashMap<>(bindParams) : Collections.emptyMap(), fetchSize);
+            final List<String> ids = cache.getIfPresent(key);
+            if (ids != null) {
+                final List<Node> nodes = resolve(session, ids);
+                if (nodes != null) {
+                    counters.resultHits.increment();
+                    return nodes;
+                }
+                cache.invalidate(key);
+            }
+
+            // Execute query and cache the identifiers unless invalidated in the meantime
+            counters.resultMisses.increment();
+            final long currentGeneration = generation.get();
+            final List<Node> nodes = toNodes(executeQuery(session, queryExpression, normalized, bindParams, counters), fetchSize);
+            final List<String> nodeIds = new ArrayList<>(nodes.size());
+            for (final Node node : nodes) {
+                nodeIds.add(node.getIdentifier());
+            }
+            cache.put(key, Collections.unmodifiableList(nodeIds));
+            if (generation.get() != currentGeneration) {
+                cache.invalidate(key);
+            }
+            return nodes;
+        } finally {
+            counters.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Removes all cached results.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        results.values().forEach(Cache::invalidateAll);
+    }
+
+    /**
+     * Invalidates the cached results when the repository is modified.
+     */
+    @Override
+    public void onEvent(final EventIterator events) {
+        invalidate();
+    }
+
+    /**
+     * Gets a snapshot of the statistics for each query shape.
+     *
+     * @return the statistics keyed by query shape
+     */
+    @Nonnull
+    public Map<String, QueryStatistics> getStatistics() {
+        return statistics.entrySet().stream()
+            .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().snapshot(entry.getKey())));
+    }
+
+    /**
+     * Collapses whitespace outside of string literals.
+     */
+    @Nonnull
+    static String normalize(@Nonnull final String queryExpression) {
+        return transform(queryExpression, Function.identity());
+    }
+
+    /**
+     * Replaces the string literals in the specified normalized query with {@code ?}.
+     */
+    @Nonnull
+    static String shape(@Nonnull final String normalized) {
+        return transform(normalized, literal -> "?");
+    }
+
+    /**
+     * Collapses whitespace outside of string literals and transforms each string literal.
+     */
+    @Nonnull
+    private static String transform(@Nonnull final String queryExpression, @Nonnull final Function<String, String> literalFunction) {
+        final StringBuilder result = new StringBuilder(queryExpression.length());
+        final int length = queryExpression.length();
+        int index = 0;
+
+        while (index < length) {
+            final char c = queryExpression.charAt(index);
+            if (c == '\'' || c == '"') {
+                // Find end of literal, where a doubled quote is an escaped quote
+                int end = index + 1;
+                while (end < length && (queryExpression.charAt(end) != c || (end + 1 < length && queryExpression.charAt(end + 1) == c))) {
+                    end += (queryExpression.charAt(end) == c) ? 2 : 1;
+                }
+                end = Math.min(end + 1, length);
+                result.append(literalFunction.apply(queryExpression.substring(index, end)));
+                index = end;
+            } else if (Character.isWhitespace(c)) {
+                while (index < length && Character.isWhitespace(queryExpression.charAt(index))) {
+                    ++index;
+                }
+                if (result.length() > 0 && index < length) {
+                    result.append(' ');
+                }
+            } else {
+                result.append(c);
+                ++index;
+            }
+        }
+
+        return result.toString();
+    }
+
+    /**
+     * Executes the specified query using the parsed query of the current session if available.
+     */
+    @Nonnull
+    private QueryResult executeQuery(@Nonnull final Session session, @Nonnull final String queryExpression, @Nonnull final String normalized, @Nullable final Map<String, String> bindParams,
+                                     @Nonnull final ShapeCounters counters) throws RepositoryException {
+        final SessionQueries current = sessions.get();
+        final Map<String, Query> queries = (current != null && current.session == session) ? current.queries : null;
+
+        Query query = (queries != null) ? queries.get(normalized) : null;
+        if (query != null) {
+            counters.parsedHits.increment();
+        } else {
+            query = session.getWorkspace().getQueryManager().createQuery(queryExpression, Query.JCR_SQL2);
+            if (queries != null && parsedQueries > 0) {
+                queries.put(normalized, query);
+            }
+        }
+
+        if (bindParams != null) {
+            for (final Map.Entry<String, String> entry : bindParams.entrySet()) {
+                query.bindValue(entry.getKey(), session.getValueFactory().createValue(entry.getValue()));
+            }
+        }
+
+        counters.executions.increment();
+        return query.execute();
+    }
+
+    /**
+     * Gets the result cache for the specified query, or {@code null} if the results cannot be cached.
+     */
+    @Nullable
+    private Cache<List<Object>, List<String>> getResultCache(@Nonnull final Session session, @Nonnull final String normalized) throws RepositoryException {
+        if (results.isEmpty()) {
+            return null;
+        }
+
+        final SessionQueries current = sessions.get();
+        if (current == null || current.session != session || !current.readOnly || session.hasPendingChanges()) {
+            return null;
+        }
+
+        final Matcher matcher = NODE_TYPE.matcher(normalized);
+        return matcher.find() ? results.get(matcher.group(1)) : null;
+    }
+
+    /**
+     * Gets the nodes with the specified identifiers, or {@code null} if any node no longer exists.
+     */
+    @Nullable
+    private List<Node> resolve(@Nonnull final Session session, @Nonnull final List<String> ids) throws RepositoryException {
+        final List<Node> nodes = new ArrayList<>(ids.size());
+        try {
+            for (final String id : ids) {
+                nodes.add(session.getNodeByIdentifier(id));
+            }
+        } catch (final ItemNotFoundException e) {
+            log.debug("Cached query result contains a missing node: {}", e.toString());
+            return null;
+        }
+        return nodes;
+    }
+
+    /**
+     * Reads the nodes from the specified query result.
+     */
+    @Nonnull
+    private List<Node> toNodes(@Nonnull final QueryResult result, @Nullable final Integer fetchSize) throws RepositoryException {
+        final List<Node> nodes = new ArrayList<>();
+        final NodeIterator nodeIterator = result.getNodes();
+        while (nodeIterator.hasNext() && (fetchSize == null || nodes.size() < fetchSize)) {
+            nodes.add(nodeIterator.nextNode());
+        }
+        return nodes;
+    }
+
+    /**
+     * Gets the statistics for the specified normalized query.
+     */
+    @Nonnull
+    private ShapeCounters counters(@Nonnull final String normalized) {
+        final String shape = shape(normalized);
+        final ShapeCounters counters = statistics.get(shape);
+        if (counters != null) {
+            return counters;
+        } else if (statistics.size() < MAX_SHAPES) {
+            return statistics.computeIfAbsent(shape, key -> new ShapeCounters());
+        } else {
+            return statistics.computeIfAbsent(OTHER_SHAPE, key -> new ShapeCounters());
+        }
+    }
+
+    /**
+     * Statistics for a query shape.
+     */
+    public static class QueryStatistics {
+
+        private final String shape;
+        private final long requests;
+        private final long executions;
+        private final long parsedQueryHits;
+        private final long resultCacheHits;
+        private final long resultCacheMisses;
+        private final long totalNanos;
+        private final long maxNanos;
+
+        QueryStatistics(@Nonnull final String shape, final long requests, final long executions, final long parsedQueryHits, final long resultCacheHits, final long resultCacheMisses,
+                        final long totalNanos, final long maxNanos) {
+            this.shape = shape;
+            this.requests = requests;
+            this.executions = executions;
+            this.parsedQueryHits = parsedQueryHits;
+            this.resultCacheHits = resultCacheHits;
+            this.resultCacheMisses = resultCacheMisses;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+        }
+
+        /**
+         * Gets the query with its string literals replaced by {@code ?}.
+         */
+        @Nonnull
+        public String getShape() {
+            return shape;
+        }
+
+        /**
+         * Gets the number of times the query was requested.
+         */
+        public long getRequests() {
+            return requests;
+        }
+
+        /**
+         * Gets the number of times the query was executed by ModeShape.
+         */
+        public long getExecutions() {
+            return executions;
+        }
+
+        /**
+         * Gets the number of executions that reused a parsed query.
+         */
+        public long getParsedQueryHits() {
+            return parsedQueryHits;
+        }
+
+        /**
+         * Gets the number of requests answered from the result cache.
+         */
+        public long getResultCacheHits() {
+            return resultCacheHits;
+        }
+
+        /**
+         * Gets the number of cacheable requests not found in the result cache.
+         */
+        public long getResultCacheMisses() {
+            return resultCacheMisses;
+        }
+
+        /**
+         * Gets the fraction of executions that reused a parsed query.
+         */
+        public double getParsedQueryHitRate() {
+            return (executions > 0) ? (double) parsedQueryHits / executions : 0;
+        }
+
+        /**
+         * Gets the fraction of cacheable requests answered from the result cache.
+         */
+        public double getResultCacheHitRate() {
+            final long total = resultCacheHits + resultCacheMisses;
+            return (total > 0) ? (double) resultCacheHits / total : 0;
+        }
+
+        /**
+         * Gets the average time to answer a request, in milliseconds.
+         */
+        public double getAverageMillis() {
+            return (requests > 0) ? totalNanos / 1e6 / requests : 0;
+        }
+
+        /**
+         * Gets the longest time to answer a request, in milliseconds.
+         */
+        public double getMaxMillis() {
+            return maxNanos / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s[requests=%d, parsedQueryHitRate=%.2f, resultCacheHitRate=%.2f, averageMillis=%.3f, maxMillis=%.3f, shape=%s]", getClass().getSimpleName(), requests,
+                                 getParsedQueryHitRate(), getResultCacheHitRate(), getAverageMillis(), getMaxMillis(), shape);
+        }
+    }
+
+    /**
+     * Parsed queries for the session of a thread.
+     */
+    private static class SessionQueries {
+
+        final Session session;
+        final boolean readOnly;
+        final Map<String, Query> queries;
+
+        SessionQueries(@Nonnull final Session session, final boolean readOnly, final int maxQueries) {
+            this.session = session;
+            this.readOnly = readOnly;
+            this.queries = new LinkedHashMap<String, Query>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<String, Query> eldest) {
+                    return size() > maxQueries;
+                }
+            };
+        }
+    }
+
+    /**
+     * Counters for a query shape.
+     */
+    private static class ShapeCounters {
+
+        final LongAdder requests = new LongAdder();
+        final LongAdder executions = new LongAdder();
+        final LongAdder parsedHits = new LongAdder();
+        final LongAdder resultHits = new LongAdder();
+        final LongAdder resultMisses = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final AtomicLong maxNanos = new AtomicLong();
+
+        void record(final long nanos) {
+            requests.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        @Nonnull
+        QueryStatistics snapshot(@Nonnull final String shape) {
+            return new QueryStatistics(shape, requests.sum(), executions.sum(), parsedHits.sum(), resultHits.sum(), resultMisses.sum(), totalNanos.sum(), maxNanos.get());
+        }
+    }
+}
@@ -22,12 +22,10 @@ package com.thinkbiganalytics.metadata.modeshape.support;
 
 import com.thinkbiganalytics.metadata.modeshape.MetadataRepositoryException;
 
-import org.modeshape.jcr.api.JcrTools;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -35,7 +33,6 @@ import javax.jcr.Node;
 import javax.jcr.NodeIterator;
 import javax.jcr.RepositoryException;
 import javax.jcr.Session;
-import javax.jcr.Value;
 import javax.jcr.query.Query;
 import javax.jcr.query.QueryResult;
 import javax.jcr.query.Row;
@@ -46,15 +43,33 @@ import javax.jcr.query.RowIterator;
 public class JcrQueryUtil {
 
     private static final Logger log = LoggerFactory.getLogger(JcrQueryUtil.class);
+
+    /**
+     * Caches parsed queries and query results
+     */
+    private static volatile JcrQueryCache queryCache = new JcrQueryCache();
+
+    /**
+     * Gets the cache used for executing queries.
+     */
+    public static JcrQueryCache getQueryCache() {
+        return queryCache;
+    }
+
+    /**
+     * Sets the cache used for executing queries.
+     */
+    public static void setQueryCache(JcrQueryCache cache) {
+        queryCache = cache;
+    }
+
     public static <T extends Object> List<T> find(Session session, String query, Class<T> type, Object... args) {
         return find(session, query, null, type, args);
     }
 
     public static <T extends Object> List<T> find(Session session, String query, Map<String, String> bindParams, Class<T> type, Object... args) {
-        JcrTools tools = new JcrTools();
         try {
-            QueryResult result = query(session, query, bindParams);
-            return queryResultToList(result, null, type, args);
+            return nodesToList(findNodes(session, query, bindParams, null), type, args);
         } catch (RepositoryException e) {
             throw new MetadataRepositoryException("Unable to findAll for query : " + query, e);
         }
@@ -126,10 +141,8 @@ public class JcrQueryUtil {
 
     public static <T extends Object> T findFirst(Session session, String query, Map<String, String> bindParams, Class<T> type) {
 
-        JcrTools tools = new JcrTools();
         try {
-            QueryResult result = query(session, query, bindParams);
-            List<T> list = queryResultToList(result, 1, type);
+            List<T> list = nodesToList(findNodes(session, query, bindParams, 1), type);
             if (list != null && list.size() > 0) {
                 return list.get(0);
             } else {
@@ -156,24 +169,31 @@ public class JcrQueryUtil {
     }
 
     public static QueryResult query(Session session, String queryExpression, Map<String, String> bindParams) throws RepositoryException {
-
-        QueryResult results = null;
         log.debug("JCR-SQL2 query: {} ",queryExpression);
-        Query query = session.getWorkspace().getQueryManager().createQuery(queryExpression, "JCR-SQL2");
-        if (bindParams != null && !bindParams.isEmpty()) {
-            Iterator e = bindParams.entrySet().iterator();
-
-            while (e.hasNext()) {
-                Map.Entry entry = (Map.Entry) e.next();
-                String key = (String) entry.getKey();
-                Value value = session.getValueFactory().createValue((String) entry.getValue());
-                query.bindValue(key, value);
-            }
-        }
+        return queryCache.execute(session, queryExpression, bindParams);
+    }
 
-        results = query.execute();
+    /**
+     * Finds the nodes matching the specified query. The nodes may be found in the result cache.
+     *
+     * @param session         the session
+     * @param queryExpression the JCR-SQL2 query
+     * @param bindParams      the bind variables, or {@code null}
+     * @param fetchSize       the maximum number of nodes, or {@code null} for all nodes
+     * @return the matching nodes
+     * @throws RepositoryException if the query cannot be executed
+     */
+    public static List<Node> findNodes(Session session, String queryExpression, Map<String, String> bindParams, Integer fetchSize) throws RepositoryException {
+        log.debug("JCR-SQL2 query: {} ",queryExpression);
+        return queryCache.findNodes(session, queryExpression, bindParams, fetchSize);
+    }
 
-        return results;
+    private static <T extends Object> List<T> nodesToList(List<Node> nodes, Class<T> type, Object... args) {
+        List<T> entities = new ArrayList<>(nodes.size());
+        for (Node node : nodes) {
+            entities.add(JcrUtil.constructNodeObject(node, type, args));
+        }
+        return entities;
     }
 
 }
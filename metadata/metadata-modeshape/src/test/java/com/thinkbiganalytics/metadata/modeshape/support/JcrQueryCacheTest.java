@@ -0,0 +1,180 @@
+package com.thinkbiganalytics.metadata.modeshape.support;
+
+/*-
+ * #%L
+ * thinkbig-metadata-modeshape
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+
+import javax.annotation.Nonnull;
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.Session;
+import javax.jcr.Value;
+import javax.jcr.ValueFactory;
+import javax.jcr.Workspace;
+import javax.jcr.observation.EventIterator;
+import javax.jcr.query.Query;
+import javax.jcr.query.QueryManager;
+import javax.jcr.query.QueryResult;
+
+public class JcrQueryCacheTest {
+
+    /**
+     * Query against the cached node type
+     */
+    private static final String QUERY = "SELECT * FROM [tba:feed] AS e\n  WHERE e.[tba:systemName] = $name";
+
+    /**
+     * Mock query manager
+     */
+    private QueryManager queryManager;
+
+    /**
+     * Mock session
+     */
+    private Session session;
+
+    /**
+     * Node returned by queries
+     */
+    private Node node;
+
+    /**
+     * Set up test environment.
+     */
+    @Before
+    public void setUp() throws Exception {
+        node = Mockito.mock(Node.class);
+        Mockito.when(node.getIdentifier()).thenReturn("node-1");
+
+        final Query query = Mockito.mock(Query.class);
+        Mockito.when(query.execute()).thenAnswer(invocation -> result(node));
+
+        queryManager = Mockito.mock(QueryManager.class);
+        Mockito.when(queryManager.createQuery(Mockito.anyString(), Mockito.eq(Query.JCR_SQL2))).thenReturn(query);
+
+        final Workspace workspace = Mockito.mock(Workspace.class);
+        Mockito.when(workspace.getQueryManager()).thenReturn(queryManager);
+
+        final ValueFactory valueFactory = Mockito.mock(ValueFactory.class);
+        Mockito.when(valueFactory.createValue(Mockito.anyString())).thenReturn(Mockito.mock(Value.class));
+
+        session = Mockito.mock(Session.class);
+        Mockito.when(session.getWorkspace()).thenReturn(workspace);
+        Mockito.when(session.getValueFactory()).thenReturn(valueFactory);
+        Mockito.when(session.getUserID()).thenReturn("dladmin");
+        Mockito.when(session.getNodeByIdentifier("node-1")).thenReturn(node);
+    }
+
+    /**
+     * Verify normalizing queries and computing their shape.
+     */
+    @Test
+    public void normalize() {
+        final String normalized = JcrQueryCache.normalize("  SELECT *  FROM [tba:feed]\n\tWHERE e.[jcr:title] = 'a  b' AND e.x = 'it''s'  ");
+        Assert.assertEquals("SELECT * FROM [tba:feed] WHERE e.[jcr:title] = 'a  b' AND e.x = 'it''s'", normalized);
+        Assert.assertEquals("SELECT * FROM [tba:feed] WHERE e.[jcr:title] = ? AND e.x = ?", JcrQueryCache.shape(normalized));
+    }
+
+    /**
+     * Verify reusing parsed queries within a session.
+     */
+    @Test
+    public void execute() throws Exception {
+        final JcrQueryCache cache = new JcrQueryCache();
+
+        // Test without a session
+        cache.execute(session, QUERY, ImmutableMap.of("name", "a"));
+        cache.execute(session, QUERY, ImmutableMap.of("name", "b"));
+        Mockito.verify(queryManager, Mockito.times(2)).createQuery(Mockito.anyString(), Mockito.anyString());
+
+        // Test with a session
+        cache.beginSession(session, false);
+        cache.execute(session, QUERY, ImmutableMap.of("name", "a"));
+        cache.execute(session, QUERY.replace("\n  ", " "), ImmutableMap.of("name", "b"));
+        cache.endSession();
+        Mockito.verify(queryManager, Mockito.times(3)).createQuery(Mockito.anyString(), Mockito.anyString());
+
+        final JcrQueryCache.QueryStatistics stats = cache.getStatistics().get(JcrQueryCache.shape(JcrQueryCache.normalize(QUERY)));
+        Assert.assertEquals(4, stats.getRequests());
+        Assert.assertEquals(4, stats.getExecutions());
+        Assert.assertEquals(1, stats.getParsedQueryHits());
+        Assert.assertEquals(0.25, stats.getParsedQueryHitRate(), 0.001);
+    }
+
+    /**
+     * Verify caching results and invalidating them from observation events.
+     */
+    @Test
+    public void findNodes() throws Exception {
+        final JcrQueryCache cache = new JcrQueryCache(JcrQueryCache.DEFAULT_PARSED_QUERIES, ImmutableSet.of("tba:feed"), 10, 0);
+
+        // Test read-write session is not cached
+        cache.beginSession(session, false);
+        cache.findNodes(session, QUERY, ImmutableMap.of("name", "a"), null);
+        cache.findNodes(session, QUERY, ImmutableMap.of("name", "a"), null);
+        cache.endSession();
+        Mockito.verify(session, Mockito.never()).getNodeByIdentifier(Mockito.anyString());
+
+        // Test read-only session is cached
+        cache.beginSession(session, true);
+        Assert.assertEquals(Collections.singletonList(node), cache.findNodes(session, QUERY, ImmutableMap.of("name", "a"), null));
+        Assert.assertEquals(Collections.singletonList(node), cache.findNodes(session, QUERY, ImmutableMap.of("name", "a"), null));
+        cache.findNodes(session, QUERY, ImmutableMap.of("name", "b"), null);
+        Mockito.verify(session, Mockito.times(1)).getNodeByIdentifier("node-1");
+
+        // Test invalidating results
+        cache.onEvent(Mockito.mock(EventIterator.class));
+        cache.findNodes(session, QUERY, ImmutableMap.of("name", "a"), null);
+        cache.endSession();
+        Mockito.verify(session, Mockito.times(1)).getNodeByIdentifier("node-1");
+
+        final JcrQueryCache.QueryStatistics stats = cache.getStatistics().get(JcrQueryCache.shape(JcrQueryCache.normalize(QUERY)));
+        Assert.assertEquals(6, stats.getRequests());
+        Assert.assertEquals(5, stats.getExecutions());
+        Assert.assertEquals(1, stats.getResultCacheHits());
+        Assert.assertEquals(3, stats.getResultCacheMisses());
+    }
+
+    /**
+     * Creates a query result containing the specified nodes.
+     */
+    @Nonnull
+    private QueryResult result(@Nonnull final Node... nodes) throws Exception {
+        final Iterator<Node> iterator = Arrays.asList(nodes).iterator();
+        final NodeIterator nodeIterator = Mockito.mock(NodeIterator.class);
+        Mockito.when(nodeIterator.hasNext()).thenAnswer(invocation -> iterator.hasNext());
+        Mockito.when(nodeIterator.nextNode()).thenAnswer(invocation -> iterator.next());
+
+        final QueryResult result = Mockito.mock(QueryResult.class);
+        Mockito.when(result.getNodes()).thenReturn(nodeIterator);
+        return result;
+    }
+}
@@ -98,4 +98,9 @@ public class SqsService implements JmsService {
     public Topic getTopic(String topicName) {
         throw new UnsupportedOperationException("Topics not supported on SQS");
     }
+
+    @Override
+    public boolean isTopicSupported() {
+        return false;
+    }
 }
@@ -20,12 +20,12 @@ package com.thinkbiganalytics.discovery.parsers.csv;
  * #L%
  */
 
-import com.thinkbiganalytics.discovery.model.DefaultField;
 import com.thinkbiganalytics.discovery.model.DefaultFileSchema;
 import com.thinkbiganalytics.discovery.model.DefaultHiveSchema;
 import com.thinkbiganalytics.discovery.model.DefaultTableSchema;
 import com.thinkbiganalytics.discovery.parser.FileSchemaParser;
 import com.thinkbiganalytics.discovery.parser.SchemaParser;
+import com.thinkbiganalytics.discovery.parsers.inference.SchemaInferrer;
 import com.thinkbiganalytics.discovery.schema.Field;
 import com.thinkbiganalytics.discovery.schema.Schema;
 import com.thinkbiganalytics.discovery.util.ParserHelper;
@@ -43,12 +43,13 @@ import org.apache.commons.lang3.Validate;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeanUtils;
 
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.Reader;
-import java.io.StringReader;
+import java.io.InputStreamReader;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Iterator;
 
 import javax.annotation.Nonnull;
 
@@ -59,6 +60,14 @@ public class CSVFileSchemaParser implements FileSchemaParser {
 
     private static final int MAX_ROWS = 1000;
 
+    /**
+     * Number of records sampled from the whole file for sample values
+     */
+    private static final int NUM_SAMPLE_VALUES = 9;
+
+    /**
+     * Number of rows read from the head of the file for auto detection
+     */
     private int numRowsToSample = 100;
 
     @PolicyProperty(name = "Auto Detect?", hint = "Auto detect will attempt to infer delimiter from the sample file.", type = PolicyPropertyTypes.PROPERTY_TYPE.select,
@@ -109,54 +118,51 @@ public class CSVFileSchemaParser implements FileSchemaParser {
         Validate.notNull(charset, "charset must not be null");
         validate();
 
-        // Parse the file
-        String sampleData = ParserHelper.extractSampleLines(is, charset, numRowsToSample);
+        // Sample the head of the file for auto detection, then stream the whole file from the same reader
+        BufferedReader reader = new BufferedReader(new InputStreamReader(is, charset));
+        String sampleData = ParserHelper.extractSampleLines(reader, numRowsToSample);
         Validate.notEmpty(sampleData, "No data in file");
         CSVFormat format = createCSVFormat(sampleData);
-        try (Reader reader = new StringReader(sampleData)) {
 
-            CSVParser parser = format.parse(reader);
-            DefaultFileSchema fileSchema = populateSchema(parser);
-            fileSchema.setCharset(charset.name());
+        CSVParser parser = format.parse(reader);
+        DefaultFileSchema fileSchema = populateSchema(parser, target);
+        fileSchema.setCharset(charset.name());
 
-            // Convert to target schema with proper derived types
-            Schema targetSchema = convertToTarget(target, fileSchema);
-            return targetSchema;
-        }
+        // Convert to target schema with proper derived types
+        Schema targetSchema = convertToTarget(target, fileSchema);
+        return targetSchema;
     }
 
-    private DefaultFileSchema populateSchema(CSVParser parser) {
-        DefaultFileSchema fileSchema = new DefaultFileSchema();
-        int i = 0;
-        ArrayList<Field> fields = new ArrayList<>();
-        for (CSVRecord record : parser) {
-            if (i > 9) {
-                break;
+    /**
+     * Reads every record of the file, inferring the type of each column and keeping a random sample of the values.
+     */
+    private DefaultFileSchema populateSchema(CSVParser parser, TableSchemaType target) throws IOException {
+        SchemaInferrer inferrer = new SchemaInferrer(NUM_SAMPLE_VALUES);
+        try {
+            Iterator<CSVRecord> records = parser.iterator();
+            if (records.hasNext()) {
+                CSVRecord first = records.next();
+                for (int j = 0; j < first.size(); j++) {
+                    inferrer.addColumn(headerRow ? first.get(j) : "Col_" + (j + 1));
+                }
+                if (!headerRow) {
+                    inferrer.addTextRecord(first);
+                }
             }
-            int size = record.size();
-            for (int j = 0; j < size; j++) {
-                DefaultField field = null;
-                if (i == 0) {
-                    field = new DefaultField();
-                    if (headerRow) {
-                        field.setName(record.get(j));
-                    } else {
-                        field.setName("Col_" + (j + 1));
-                    }
-                    fields.add(field);
-                } else {
-                    try {
-                        field = (DefaultField) fields.get(j);
-                        field.getSampleValues().add(StringUtils.defaultString(record.get(j), ""));
-
-                    } catch (IndexOutOfBoundsException e) {
-                        LOG.warn("Sample file has potential sparse column problem at row [?] field [?]", i + 1, j + 1);
-                    }
+            while (records.hasNext()) {
+                CSVRecord record = records.next();
+                if (record.size() > inferrer.getColumnCount()) {
+                    LOG.warn("Sample file has potential sparse column problem at row [{}]", record.getRecordNumber());
                 }
+                inferrer.addTextRecord(record);
             }
-            i++;
+        } catch (IllegalStateException e) {
+            // CSVParser wraps read errors
+            throw new IOException("Failed to parse file: " + e.getMessage(), e);
         }
-        fileSchema.setFields(fields);
+
+        DefaultFileSchema fileSchema = new DefaultFileSchema();
+        fileSchema.setFields(new ArrayList<Field>(inferrer.toFields(target)));
         return fileSchema;
     }
 
@@ -20,21 +20,142 @@ package com.thinkbiganalytics.discovery.parsers.hadoop;
  * #L%
  */
 
+import com.thinkbiganalytics.discovery.model.DefaultField;
+import com.thinkbiganalytics.discovery.model.DefaultHiveSchema;
 import com.thinkbiganalytics.discovery.parser.FileSchemaParser;
 import com.thinkbiganalytics.discovery.parser.SchemaParser;
+import com.thinkbiganalytics.discovery.parsers.inference.SchemaInferrer;
 import com.thinkbiganalytics.discovery.schema.Schema;
+import com.thinkbiganalytics.discovery.util.ParserHelper;
 import com.thinkbiganalytics.discovery.util.TableSchemaType;
 
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.file.DataFileStream;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
+
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+import javax.annotation.Nonnull;
 
+/**
+ * Reads the schema from the header of an Avro data file and samples its records with a {@link SchemaInferrer}.
+ */
 @SchemaParser(name = "Avro", description = "Supports Avro formatted files.", tags = {"Avro"})
-public class AvroFileSchemaParser extends AbstractSparkFileSchemaParser implements FileSchemaParser {
+public class AvroFileSchemaParser implements FileSchemaParser {
+
+    /**
+     * Number of records sampled from the whole file for sample values
+     */
+    private static final int NUM_SAMPLE_VALUES = 10;
 
     @Override
     public Schema parse(InputStream is, Charset charset, TableSchemaType target) throws IOException {
-        return getSparkParserService().doParse(is, SparkFileSchemaParserService.SparkFileType.AVRO, target);
+        if (target != TableSchemaType.HIVE) {
+            throw new IOException("Unsupported schema type [" + target + "]");
+        }
+
+        try (DataFileStream<GenericRecord> reader = new DataFileStream<>(is, new GenericDatumReader<GenericRecord>())) {
+            org.apache.avro.Schema avroSchema = reader.getSchema();
+            if (avroSchema.getType() != org.apache.avro.Schema.Type.RECORD) {
+                throw new IOException("Expected a record schema but found: " + avroSchema.getType());
+            }
+
+            // Stream the records for sample values
+            List<org.apache.avro.Schema.Field> avroFields = avroSchema.getFields();
+            SchemaInferrer inferrer = new SchemaInferrer(NUM_SAMPLE_VALUES);
+            avroFields.forEach(avroField -> inferrer.addColumn(avroField.name()));
+
+            while (reader.hasNext()) {
+                GenericRecord record = reader.next();
+                Map<String, Object> values = new LinkedHashMap<>();
+                avroFields.forEach(avroField -> values.put(avroField.name(), record.get(avroField.pos())));
+                inferrer.addRecord(values);
+            }
+
+            // Types are declared by the Avro schema
+            List<DefaultField> fields = inferrer.toFields(TableSchemaType.RAW);
+            for (int i = 0; i < fields.size(); ++i) {
+                DefaultField field = fields.get(i);
+                String hiveType = toHiveType(avroFields.get(i).schema());
+                field.setNativeDataType(hiveType);
+                field.setDerivedDataType(hiveType);
+                field.setDataTypeDescriptor(ParserHelper.hiveTypeToDescriptor(hiveType));
+            }
+
+            DefaultHiveSchema schema = new DefaultHiveSchema();
+            schema.setFields(new ArrayList<>(fields));
+            schema.setHiveFormat("STORED AS AVRO");
+            schema.setStructured(true);
+            return schema;
+        } catch (AvroRuntimeException e) {
+            throw new IOException("Unexpected exception. Verify file is the proper format", e);
+        }
     }
 
+    /**
+     * Converts the specified Avro schema to a Hive type.
+     *
+     * @param schema the Avro schema
+     * @return the Hive type
+     */
+    @Nonnull
+    static String toHiveType(@Nonnull final org.apache.avro.Schema schema) {
+        switch (schema.getType()) {
+            case BOOLEAN:
+                return "boolean";
+
+            case INT:
+                return "int";
+
+            case LONG:
+                return "bigint";
+
+            case FLOAT:
+                return "float";
+
+            case DOUBLE:
+                return "double";
+
+            case BYTES:
+            case FIXED:
+                return "binary";
+
+            case ARRAY:
+                return "array<" + toHiveType(schema.getElementType()) + ">";
+
+            case MAP:
+                return "map<string," + toHiveType(schema.getValueType()) + ">";
+
+            case RECORD:
+                StringJoiner struct = new StringJoiner(",", "struct<", ">");
+                for (org.apache.avro.Schema.Field field : schema.getFields()) {
+                    struct.add(field.name() + ":" + toHiveType(field.schema()));
+                }
+                return struct.toString();
+
+            case UNION:
+                // Optional values are unions with null
+                org.apache.avro.Schema nonNull = null;
+                for (org.apache.avro.Schema type : schema.getTypes()) {
+                    if (type.getType() != org.apache.avro.Schema.Type.NULL) {
+                        if (nonNull != null) {
+                            return "string";
+                        }
+                        nonNull = type;
+                    }
+                }
+                return (nonNull != null) ? toHiveType(nonNull) : "string";
+
+            default:
+                return "string";
+        }
+    }
 }
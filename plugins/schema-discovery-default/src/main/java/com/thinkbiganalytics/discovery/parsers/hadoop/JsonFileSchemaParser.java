@@ -20,26 +20,68 @@ package com.thinkbiganalytics.discovery.parsers.hadoop;
  * #L%
  */
 
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thinkbiganalytics.discovery.model.DefaultHiveSchema;
 import com.thinkbiganalytics.discovery.parser.FileSchemaParser;
 import com.thinkbiganalytics.discovery.parser.SchemaParser;
-import com.thinkbiganalytics.discovery.schema.HiveTableSchema;
+import com.thinkbiganalytics.discovery.parsers.inference.SchemaInferrer;
 import com.thinkbiganalytics.discovery.schema.Schema;
 import com.thinkbiganalytics.discovery.util.TableSchemaType;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Map;
 
+/**
+ * Infers the schema of a file of JSON objects by streaming the objects through a {@link SchemaInferrer}.
+ *
+ * <p>Integers are read as {@code bigint} and decimals as {@code double}, matching the Hive JSON SerDe.</p>
+ */
 @SchemaParser(name = "JSON", allowSkipHeader = true, description = "Supports JSON formatted files.", tags = {"JSON"})
-public class JsonFileSchemaParser extends AbstractSparkFileSchemaParser implements FileSchemaParser {
+public class JsonFileSchemaParser implements FileSchemaParser {
+
+    /**
+     * Reads JSON objects as maps of Java values
+     */
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(DeserializationFeature.USE_LONG_FOR_INTS);
+
+    /**
+     * Number of records sampled from the whole file for sample values
+     */
+    private static final int NUM_SAMPLE_VALUES = 10;
 
     @Override
+    @SuppressWarnings("unchecked")
     public Schema parse(InputStream is, Charset charset, TableSchemaType target) throws IOException {
-        HiveTableSchema schema = (HiveTableSchema) getSparkParserService().doParse(is, SparkFileSchemaParserService.SparkFileType.JSON, target);
+        if (target != TableSchemaType.HIVE) {
+            throw new IOException("Unsupported schema type [" + target + "]");
+        }
+
+        // Read each object in the file, or in the top-level array, one at a time
+        SchemaInferrer inferrer = new SchemaInferrer(NUM_SAMPLE_VALUES);
+        MappingIterator<Object> records = MAPPER.readerFor(Object.class).readValues(new InputStreamReader(is, charset));
+        while (records.hasNextValue()) {
+            Object record = records.nextValue();
+            if (record instanceof Map) {
+                inferrer.addRecord((Map<String, ?>) record);
+            } else {
+                throw new IOException("Expected a JSON object but found: " + record);
+            }
+        }
+        if (inferrer.getRecordCount() == 0) {
+            throw new IOException("No data in file");
+        }
+
+        DefaultHiveSchema schema = new DefaultHiveSchema();
+        schema.setFields(new ArrayList<>(inferrer.toFields(TableSchemaType.HIVE)));
+        schema.setCharset(charset.name());
         schema.setStructured(true);
         schema.setHiveFormat("ROW FORMAT SERDE 'org.apache.hive.hcatalog.data.JsonSerDe' STORED AS INPUTFORMAT 'org.apache.hadoop.mapred.TextInputFormat' OUTPUTFORMAT 'org.apache.hadoop.hive.ql.io.IgnoreKeyTextOutputFormat'");
-
         return schema;
     }
-
 }
@@ -0,0 +1,219 @@
+package com.thinkbiganalytics.discovery.parsers.inference;
+
+/*-
+ * #%L
+ * thinkbig-schema-discovery-default
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.discovery.util.ParserHelper;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.math.BigInteger;
+import java.sql.JDBCType;
+import java.util.Collection;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Incrementally infers the data type of a single column from the values seen so far.
+ *
+ * <p>Each value only widens the current type: integers are promoted to big integers and then to doubles, and any other conflict results in a string.
+ * Nested maps and collections are inferred as structs and arrays. No values are retained, so the whole file can be scanned in constant memory.</p>
+ */
+public class ColumnTypeInferrer {
+
+    /**
+     * Inferred types ordered so that numeric types widen to the larger ordinal.
+     */
+    enum Kind {
+        NULL, BOOLEAN, INT, BIGINT, DOUBLE, STRING, STRUCT, ARRAY;
+
+        boolean isNumeric() {
+            return this == INT || this == BIGINT || this == DOUBLE;
+        }
+    }
+
+    /**
+     * Type inferred so far
+     */
+    @Nonnull
+    private Kind kind = Kind.NULL;
+
+    /**
+     * Element type for arrays
+     */
+    @Nullable
+    private ColumnTypeInferrer element;
+
+    /**
+     * Field types for structs
+     */
+    @Nullable
+    private SchemaInferrer struct;
+
+    /**
+     * Updates the inferred type with a value read from a text file.
+     *
+     * <p>Empty values are treated as nulls and do not change the type.</p>
+     *
+     * @param value the text value
+     */
+    public void acceptText(@Nullable final String value) {
+        // Nothing can widen a string so skip parsing
+        if (kind != Kind.STRING && StringUtils.isNotEmpty(value)) {
+            merge(parseKind(value));
+        }
+    }
+
+    /**
+     * Updates the inferred type with a value read by a typed reader, such as a JSON or Avro reader.
+     *
+     * @param value the value
+     */
+    @SuppressWarnings("unchecked")
+    public void accept(@Nullable final Object value) {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof Boolean) {
+            merge(Kind.BOOLEAN);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            merge(Kind.INT);
+        } else if (value instanceof Long || value instanceof BigInteger) {
+            merge(Kind.BIGINT);
+        } else if (value instanceof Number) {
+            merge(Kind.DOUBLE);
+        } else if (value instanceof Map) {
+            merge(Kind.STRUCT);
+            if (kind == Kind.STRUCT) {
+                if (struct == null) {
+                    struct = new SchemaInferrer(0);
+                }
+                struct.addRecord((Map<String, ?>) value);
+            }
+        } else if (value instanceof Collection) {
+            merge(Kind.ARRAY);
+            if (kind == Kind.ARRAY) {
+                if (element == null) {
+                    element = new ColumnTypeInferrer();
+                }
+                for (final Object item : (Collection<?>) value) {
+                    element.accept(item);
+                }
+            }
+        } else {
+            merge(Kind.STRING);
+        }
+    }
+
+    /**
+     * Gets the inferred Hive type, such as {@code bigint} or {@code struct<id:int,name:string>}.
+     *
+     * @return the Hive type
+     */
+    @Nonnull
+    public String getHiveType() {
+        switch (kind) {
+            case STRUCT:
+                return (struct != null) ? struct.toHiveStructType() : "struct<>";
+
+            case ARRAY:
+                return "array<" + ((element != null) ? element.getHiveType() : "string") + ">";
+
+            default:
+                return ParserHelper.sqlTypeToHiveType(getJdbcType());
+        }
+    }
+
+    /**
+     * Gets the inferred JDBC type. Columns without any values are {@code VARCHAR}.
+     *
+     * @return the JDBC type
+     */
+    @Nonnull
+    public JDBCType getJdbcType() {
+        switch (kind) {
+            case BOOLEAN:
+                return JDBCType.BOOLEAN;
+
+            case INT:
+                return JDBCType.INTEGER;
+
+            case BIGINT:
+                return JDBCType.BIGINT;
+
+            case DOUBLE:
+                return JDBCType.DOUBLE;
+
+            case STRUCT:
+                return JDBCType.STRUCT;
+
+            case ARRAY:
+                return JDBCType.ARRAY;
+
+            default:
+                return JDBCType.VARCHAR;
+        }
+    }
+
+    /**
+     * Widens the inferred type to include the specified type.
+     */
+    private void merge(@Nonnull final Kind observed) {
+        if (kind == observed) {
+            return;
+        }
+        if (kind == Kind.NULL) {
+            kind = observed;
+        } else if (kind.isNumeric() && observed.isNumeric()) {
+            kind = (observed.ordinal() > kind.ordinal()) ? observed : kind;
+        } else {
+            kind = Kind.STRING;
+            element = null;
+            struct = null;
+        }
+    }
+
+    /**
+     * Determines the narrowest type of the specified text value.
+     */
+    @Nonnull
+    private static Kind parseKind(@Nonnull final String value) {
+        try {
+            Integer.parseInt(value);
+            return Kind.INT;
+        } catch (final NumberFormatException e) {
+            // not an integer
+        }
+        try {
+            Long.parseLong(value);
+            return Kind.BIGINT;
+        } catch (final NumberFormatException e) {
+            // not a long
+        }
+        try {
+            Double.parseDouble(value);
+            return Kind.DOUBLE;
+        } catch (final NumberFormatException e) {
+            return Kind.STRING;
+        }
+    }
+}
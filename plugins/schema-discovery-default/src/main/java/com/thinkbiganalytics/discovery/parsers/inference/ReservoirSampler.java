@@ -0,0 +1,144 @@
+package com.thinkbiganalytics.discovery.parsers.inference;
+
+/*-
+ * #%L
+ * thinkbig-schema-discovery-default
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.commons.lang3.Validate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Keeps a uniform random sample of a fixed size from a stream of unknown length (reservoir sampling).
+ *
+ * <p>Every item of the stream has the same probability of being in the sample, so values from the end of a large file are represented as well as
+ * values from its head. The sample is returned in stream order.</p>
+ *
+ * @param <T> the type of item
+ */
+public class ReservoirSampler<T> {
+
+    /**
+     * Seed used when none is given, so that the same file always produces the same sample
+     */
+    private static final long DEFAULT_SEED = 0x5EED;
+
+    /**
+     * Maximum number of items in the sample
+     */
+    private final int capacity;
+
+    /**
+     * Number of items offered to the sampler
+     */
+    private long count;
+
+    /**
+     * Sampled items with their position in the stream
+     */
+    @Nonnull
+    private final List<Entry<T>> entries;
+
+    /**
+     * Source of randomness
+     */
+    @Nonnull
+    private final Random random;
+
+    /**
+     * Constructs a {@code ReservoirSampler} with the specified capacity.
+     *
+     * @param capacity the maximum number of items in the sample
+     */
+    public ReservoirSampler(final int capacity) {
+        this(capacity, new Random(DEFAULT_SEED));
+    }
+
+    /**
+     * Constructs a {@code ReservoirSampler} with the specified capacity and source of randomness.
+     *
+     * @param capacity the maximum number of items in the sample
+     * @param random   the source of randomness
+     */
+    public ReservoirSampler(final int capacity, @Nonnull final Random random) {
+        Validate.isTrue(capacity >= 0, "capacity must not be negative");
+        this.capacity = capacity;
+        this.entries = new ArrayList<>(capacity);
+        this.random = random;
+    }
+
+    /**
+     * Offers the next item of the stream to the sampler.
+     *
+     * @param item the item
+     */
+    public void add(final T item) {
+        final long position = count++;
+        if (entries.size() < capacity) {
+            entries.add(new Entry<>(position, item));
+        } else if (capacity > 0) {
+            final long slot = (long) (random.nextDouble() * count);
+            if (slot < capacity) {
+                entries.set((int) slot, new Entry<>(position, item));
+            }
+        }
+    }
+
+    /**
+     * Gets the number of items offered to the sampler.
+     *
+     * @return the number of items
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the sampled items in the order they appeared in the stream.
+     *
+     * @return the sample
+     */
+    @Nonnull
+    public List<T> getSample() {
+        return entries.stream()
+            .sorted(Comparator.comparingLong(entry -> entry.position))
+            .map(entry -> entry.item)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * An item in the sample.
+     */
+    private static class Entry<T> {
+
+        final long position;
+        final T item;
+
+        Entry(final long position, final T item) {
+            this.position = position;
+            this.item = item;
+        }
+    }
+}
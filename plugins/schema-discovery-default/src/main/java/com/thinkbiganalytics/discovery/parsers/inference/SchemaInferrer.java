@@ -0,0 +1,218 @@
+package com.thinkbiganalytics.discovery.parsers.inference;
+
+/*-
+ * #%L
+ * thinkbig-schema-discovery-default
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thinkbiganalytics.discovery.model.DefaultField;
+import com.thinkbiganalytics.discovery.util.ParserHelper;
+import com.thinkbiganalytics.discovery.util.TableSchemaType;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Infers the fields of a schema by streaming the records of a file through it once.
+ *
+ * <p>The type of each column is inferred incrementally from every record using a {@link ColumnTypeInferrer}, while a {@link ReservoirSampler} keeps a
+ * uniform sample of the records for the sample values. Memory use depends only on the number of columns and the sample size, not the size of the file.</p>
+ *
+ * <p>Records can either be positional text values, as read from a delimited file, or maps of typed values, as read from a JSON or Avro file. Columns
+ * are added in the order they are first seen.</p>
+ */
+public class SchemaInferrer {
+
+    /**
+     * Formats complex sample values
+     */
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * Column names
+     */
+    @Nonnull
+    private final List<String> names = new ArrayList<>();
+
+    /**
+     * Map of column name to index
+     */
+    @Nonnull
+    private final Map<String, Integer> indexes = new HashMap<>();
+
+    /**
+     * Type inferrer for each column
+     */
+    @Nonnull
+    private final List<ColumnTypeInferrer> columns = new ArrayList<>();
+
+    /**
+     * Sampled records as values by column index. Values are only formatted as text once they are in the final sample.
+     */
+    @Nonnull
+    private final ReservoirSampler<Object[]> samples;
+
+    /**
+     * Constructs a {@code SchemaInferrer} that keeps the specified number of sample records.
+     *
+     * @param sampleSize the number of sample records
+     */
+    public SchemaInferrer(final int sampleSize) {
+        samples = new ReservoirSampler<>(sampleSize);
+    }
+
+    /**
+     * Adds a column for positional records.
+     *
+     * @param name the column name
+     */
+    public void addColumn(@Nonnull final String name) {
+        indexes.put(name, names.size());
+        names.add(name);
+        columns.add(new ColumnTypeInferrer());
+    }
+
+    /**
+     * Gets the number of columns.
+     *
+     * @return the number of columns
+     */
+    public int getColumnCount() {
+        return columns.size();
+    }
+
+    /**
+     * Gets the number of records added.
+     *
+     * @return the number of records
+     */
+    public long getRecordCount() {
+        return samples.getCount();
+    }
+
+    /**
+     * Adds a record of positional text values. Values beyond the known columns are ignored.
+     *
+     * @param values the text values
+     */
+    public void addTextRecord(@Nonnull final Iterable<String> values) {
+        final Object[] sample = new Object[columns.size()];
+        int index = 0;
+        for (final String value : values) {
+            if (index >= columns.size()) {
+                break;
+            }
+            columns.get(index).acceptText(value);
+            sample[index++] = (value != null) ? value : "";
+        }
+        samples.add(sample);
+    }
+
+    /**
+     * Adds a record of typed values by column name. Unknown column names are added as new columns.
+     *
+     * @param record the map of column name to value
+     */
+    public void addRecord(@Nonnull final Map<String, ?> record) {
+        for (final String name : record.keySet()) {
+            if (!indexes.containsKey(name)) {
+                addColumn(name);
+            }
+        }
+
+        final Object[] sample = new Object[columns.size()];
+        for (final Map.Entry<String, ?> entry : record.entrySet()) {
+            final int index = indexes.get(entry.getKey());
+            columns.get(index).accept(entry.getValue());
+            sample[index] = entry.getValue();
+        }
+        samples.add(sample);
+    }
+
+    /**
+     * Creates the fields with the inferred types and sample values.
+     *
+     * @param target the target schema type, or {@link TableSchemaType#RAW} for fields without derived types
+     * @return the fields
+     */
+    @Nonnull
+    public List<DefaultField> toFields(@Nonnull final TableSchemaType target) {
+        final List<Object[]> sampleRecords = samples.getSample();
+        final List<DefaultField> fields = new ArrayList<>(columns.size());
+
+        for (int i = 0; i < columns.size(); ++i) {
+            final DefaultField field = new DefaultField();
+            field.setName(names.get(i));
+
+            for (final Object[] record : sampleRecords) {
+                if (i < record.length && record[i] != null) {
+                    field.getSampleValues().add(formatSample(record[i]));
+                }
+            }
+
+            final ColumnTypeInferrer column = columns.get(i);
+            if (target == TableSchemaType.HIVE) {
+                field.setDerivedDataType(column.getHiveType());
+                field.setDataTypeDescriptor(ParserHelper.hiveTypeToDescriptor(column.getHiveType()));
+            } else if (target == TableSchemaType.RDBMS) {
+                field.setDerivedDataType(column.getJdbcType().getName());
+            }
+            fields.add(field);
+        }
+
+        return fields;
+    }
+
+    /**
+     * Gets the inferred Hive struct type of the columns, such as {@code struct<id:int,name:string>}.
+     *
+     * @return the Hive struct type
+     */
+    @Nonnull
+    public String toHiveStructType() {
+        final StringBuilder type = new StringBuilder("struct<");
+        for (int i = 0; i < columns.size(); ++i) {
+            if (i > 0) {
+                type.append(',');
+            }
+            type.append(names.get(i)).append(':').append(columns.get(i).getHiveType());
+        }
+        return type.append('>').toString();
+    }
+
+    /**
+     * Converts the specified value to its sample text.
+     */
+    @Nonnull
+    private static String formatSample(@Nonnull final Object value) {
+        if (value instanceof Map || value instanceof Iterable) {
+            try {
+                return MAPPER.writeValueAsString(value);
+            } catch (final JsonProcessingException e) {
+                return value.toString();
+            }
+        }
+        return value.toString();
+    }
+}
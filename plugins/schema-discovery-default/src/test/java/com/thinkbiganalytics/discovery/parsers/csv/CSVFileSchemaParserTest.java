@@ -89,12 +89,29 @@ public class CSVFileSchemaParserTest {
 
             IntStream.range(0, fields.size()).forEach(idx -> {
                 assertEquals(fields.get(idx).getName(), "Col_" + (idx + 1));
-                // Note: only loads one
-                assertEquals(fields.get(idx).getSampleValues().size(), 1);
+                // Note: the first row is data
+                assertEquals(fields.get(idx).getSampleValues().size(), 2);
             });
         }
     }
 
+    @org.junit.Test
+    public void testNoHeaderFirstRowInferred() throws Exception {
+        parser.setHeaderRow(false);
+        try (InputStream is = toInputStream("abc,1.5\n2,2\n3,3\n")) {
+            HiveTableSchema schema = toHiveTableSchema(is);
+            List<? extends Field> fields = schema.getFields();
+            assertEquals(2, fields.size());
+
+            // The types are only string and double if the first row is included
+            assertEquals("string", fields.get(0).getDerivedDataType());
+            assertEquals("double", fields.get(1).getDerivedDataType());
+            assertTrue(fields.get(0).getSampleValues().contains("abc"));
+            assertTrue(fields.get(1).getSampleValues().contains("1.5"));
+            assertEquals(3, fields.get(0).getSampleValues().size());
+        }
+    }
+
     @org.junit.Test
     public void testNoHeaderFirstRowDuplicateValues() throws Exception {
         parser.setHeaderRow(false);
@@ -116,7 +133,7 @@ public class CSVFileSchemaParserTest {
 
             IntStream.range(0, fields.size()).forEach(idx -> {
                 assertEquals(fields.get(idx).getName(), "Col_" + (idx + 1));
-                assertEquals(fields.get(idx).getSampleValues().size(), 1);
+                assertEquals(fields.get(idx).getSampleValues().size(), 2);
             });
         }
     }
@@ -131,7 +148,7 @@ public class CSVFileSchemaParserTest {
 
             IntStream.range(0, fields.size()).forEach(idx -> {
                 assertEquals(fields.get(idx).getName(), "Col_" + (idx + 1));
-                assertEquals(fields.get(idx).getSampleValues().size(), 1);
+                assertEquals(fields.get(idx).getSampleValues().size(), 2);
             });
         }
     }
@@ -0,0 +1,86 @@
+package com.thinkbiganalytics.discovery.parsers.hadoop;
+
+/*-
+ * #%L
+ * thinkbig-schema-discovery-default
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.discovery.schema.Field;
+import com.thinkbiganalytics.discovery.schema.HiveTableSchema;
+import com.thinkbiganalytics.discovery.util.TableSchemaType;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+public class AvroFileSchemaParserTest {
+
+    /**
+     * Verify reading the schema and sample values from an Avro data file.
+     */
+    @Test
+    public void parse() throws IOException {
+        final Schema schema = SchemaBuilder.record("user").fields()
+            .requiredLong("id")
+            .optionalString("name")
+            .name("scores").type().array().items().doubleType().noDefault()
+            .endRecord();
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (DataFileWriter<GenericRecord> writer = new DataFileWriter<>(new GenericDatumWriter<GenericRecord>(schema))) {
+            writer.create(schema, out);
+            for (int i = 0; i < 100; ++i) {
+                final GenericRecord record = new GenericData.Record(schema);
+                record.put("id", (long) i);
+                record.put("name", (i % 2 == 0) ? "user" + i : null);
+                record.put("scores", Collections.singletonList(1.5));
+                writer.append(record);
+            }
+        }
+
+        final HiveTableSchema hiveSchema = (HiveTableSchema) new AvroFileSchemaParser().parse(new ByteArrayInputStream(out.toByteArray()), StandardCharsets.UTF_8, TableSchemaType.HIVE);
+        final List<? extends Field> fields = hiveSchema.getFields();
+
+        Assert.assertEquals("STORED AS AVRO", hiveSchema.getHiveFormat());
+        Assert.assertEquals(3, fields.size());
+        Assert.assertEquals("bigint", fields.get(0).getDerivedDataType());
+        Assert.assertEquals("string", fields.get(1).getDerivedDataType());
+        Assert.assertEquals("array<double>", fields.get(2).getDerivedDataType());
+        Assert.assertEquals(10, fields.get(0).getSampleValues().size());
+    }
+
+    /**
+     * Verify an error for a file that is not Avro.
+     */
+    @Test(expected = IOException.class)
+    public void parseInvalid() throws IOException {
+        new AvroFileSchemaParser().parse(new ByteArrayInputStream("not avro".getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8, TableSchemaType.HIVE);
+    }
+}
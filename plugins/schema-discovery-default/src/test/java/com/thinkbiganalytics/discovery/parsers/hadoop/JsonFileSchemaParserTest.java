@@ -0,0 +1,80 @@
+package com.thinkbiganalytics.discovery.parsers.hadoop;
+
+/*-
+ * #%L
+ * thinkbig-schema-discovery-default
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.discovery.schema.Field;
+import com.thinkbiganalytics.discovery.schema.HiveTableSchema;
+import com.thinkbiganalytics.discovery.util.TableSchemaType;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+public class JsonFileSchemaParserTest {
+
+    private final JsonFileSchemaParser parser = new JsonFileSchemaParser();
+
+    /**
+     * Verify inferring the schema of newline-delimited JSON objects.
+     */
+    @Test
+    public void parseObjects() throws IOException {
+        final String json = "{\"id\": 1, \"name\": \"alice\", \"score\": 1}\n"
+                            + "{\"id\": 2, \"name\": null, \"score\": 2.5, \"tags\": [\"x\"]}\n";
+        final HiveTableSchema schema = parse(json);
+        final List<? extends Field> fields = schema.getFields();
+
+        Assert.assertTrue(schema.isStructured());
+        Assert.assertTrue(schema.getHiveFormat().contains("JsonSerDe"));
+        Assert.assertEquals(4, fields.size());
+        Assert.assertEquals("bigint", fields.get(0).getDerivedDataType());
+        Assert.assertEquals("string", fields.get(1).getDerivedDataType());
+        Assert.assertEquals("double", fields.get(2).getDerivedDataType());
+        Assert.assertEquals("array<string>", fields.get(3).getDerivedDataType());
+        Assert.assertEquals(1, fields.get(1).getSampleValues().size());
+    }
+
+    /**
+     * Verify inferring the schema of a top-level JSON array.
+     */
+    @Test
+    public void parseArray() throws IOException {
+        final HiveTableSchema schema = parse("[{\"a\": true}, {\"a\": false}]");
+        Assert.assertEquals("boolean", schema.getFields().get(0).getDerivedDataType());
+        Assert.assertEquals(2, schema.getFields().get(0).getSampleValues().size());
+    }
+
+    /**
+     * Verify an error for malformed JSON.
+     */
+    @Test(expected = IOException.class)
+    public void parseInvalid() throws IOException {
+        parse("{\"a\": ");
+    }
+
+    private HiveTableSchema parse(final String json) throws IOException {
+        return (HiveTableSchema) parser.parse(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8, TableSchemaType.HIVE);
+    }
+}
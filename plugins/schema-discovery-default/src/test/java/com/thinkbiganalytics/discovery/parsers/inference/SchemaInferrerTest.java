@@ -0,0 +1,100 @@
+package com.thinkbiganalytics.discovery.parsers.inference;
+
+/*-
+ * #%L
+ * thinkbig-schema-discovery-default
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableMap;
+import com.thinkbiganalytics.discovery.model.DefaultField;
+import com.thinkbiganalytics.discovery.util.TableSchemaType;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class SchemaInferrerTest {
+
+    /**
+     * Verify widening types of text values.
+     */
+    @Test
+    public void addTextRecord() {
+        final SchemaInferrer inferrer = new SchemaInferrer(10);
+        inferrer.addColumn("id");
+        inferrer.addColumn("total");
+        inferrer.addColumn("name");
+        inferrer.addColumn("empty");
+
+        inferrer.addTextRecord(Arrays.asList("1", "1", "alice", ""));
+        inferrer.addTextRecord(Arrays.asList("2", "10000000000", "2", null));
+        inferrer.addTextRecord(Arrays.asList("3", "1.5", "bob", ""));
+
+        final List<DefaultField> fields = inferrer.toFields(TableSchemaType.HIVE);
+        Assert.assertEquals("int", fields.get(0).getDerivedDataType());
+        Assert.assertEquals("double", fields.get(1).getDerivedDataType());
+        Assert.assertEquals("string", fields.get(2).getDerivedDataType());
+        Assert.assertEquals("string", fields.get(3).getDerivedDataType());
+        Assert.assertEquals(Arrays.asList("1", "2", "3"), fields.get(0).getSampleValues());
+
+        final List<DefaultField> rdbmsFields = inferrer.toFields(TableSchemaType.RDBMS);
+        Assert.assertEquals("INTEGER", rdbmsFields.get(0).getDerivedDataType());
+        Assert.assertEquals("VARCHAR", rdbmsFields.get(2).getDerivedDataType());
+    }
+
+    /**
+     * Verify inferring nested types from typed values.
+     */
+    @Test
+    public void addRecord() {
+        final SchemaInferrer inferrer = new SchemaInferrer(10);
+        inferrer.addRecord(ImmutableMap.of("id", 1L, "tags", Arrays.asList("a", "b"), "address", ImmutableMap.of("zip", 94040L)));
+        inferrer.addRecord(ImmutableMap.of("id", 2L, "active", true, "tags", Collections.emptyList()));
+
+        final List<DefaultField> fields = inferrer.toFields(TableSchemaType.HIVE);
+        Assert.assertEquals(4, fields.size());
+        Assert.assertEquals("bigint", fields.get(0).getDerivedDataType());
+        Assert.assertEquals("array<string>", fields.get(1).getDerivedDataType());
+        Assert.assertEquals("struct<zip:bigint>", fields.get(2).getDerivedDataType());
+        Assert.assertEquals("active", fields.get(3).getName());
+        Assert.assertEquals("boolean", fields.get(3).getDerivedDataType());
+        Assert.assertEquals(Collections.singletonList("{\"zip\":94040}"), fields.get(2).getSampleValues());
+    }
+
+    /**
+     * Verify that samples are taken from the whole stream.
+     */
+    @Test
+    public void reservoirSample() {
+        final ReservoirSampler<Integer> sampler = new ReservoirSampler<>(10);
+        for (int i = 0; i < 10000; ++i) {
+            sampler.add(i);
+        }
+
+        final List<Integer> sample = sampler.getSample();
+        Assert.assertEquals(10000, sampler.getCount());
+        Assert.assertEquals(10, sample.size());
+        Assert.assertTrue("Expecting values beyond the head of the stream", sample.get(9) >= 10);
+        for (int i = 1; i < sample.size(); ++i) {
+            Assert.assertTrue("Expecting stream order", sample.get(i - 1) < sample.get(i));
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.thinkbiganalytics.search;
+
+/*-
+ * #%L
+ * kylo-search-elasticsearch-rest
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.search.api.AbstractBatchIndexer;
+import com.thinkbiganalytics.search.api.BatchIndexerConfig;
+
+import org.apache.http.entity.ContentType;
+import org.apache.http.nio.entity.NStringEntity;
+import org.apache.http.util.EntityUtils;
+import org.codehaus.jettison.json.JSONArray;
+import org.codehaus.jettison.json.JSONException;
+import org.codehaus.jettison.json.JSONObject;
+import org.elasticsearch.client.Response;
+import org.elasticsearch.client.RestClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Sends batches of requests to Elasticsearch using the {@code _bulk} REST endpoint.
+ */
+public class ElasticSearchRestBatchIndexer extends AbstractBatchIndexer {
+
+    private static final Logger log = LoggerFactory.getLogger(ElasticSearchRestBatchIndexer.class);
+
+    private static final String BULK_ENDPOINT = "/_bulk";
+    private static final ContentType NDJSON = ContentType.create("application/x-ndjson", "UTF-8");
+
+    /**
+     * Elasticsearch REST client owned by this indexer
+     */
+    @Nonnull
+    private final RestClient restClient;
+
+    /**
+     * Constructs an {@code ElasticSearchRestBatchIndexer} using the specified client. The client is closed when this indexer is closed.
+     */
+    public ElasticSearchRestBatchIndexer(@Nonnull final RestClient restClient, @Nonnull final BatchIndexerConfig config) {
+        super(config);
+        this.restClient = restClient;
+    }
+
+    @Nonnull
+    @Override
+    protected Collection<Request> execute(@Nonnull final List<Request> requests) throws IOException, JSONException {
+        final StringBuilder body = new StringBuilder();
+        for (final Request request : requests) {
+            final JSONObject metadata = new JSONObject()
+                .put("_index", request.getIndexName())
+                .put("_type", request.getTypeName())
+                .put("_id", request.getId());
+            if (request.getAction() == Action.INDEX) {
+                body.append(new JSONObject().put("index", metadata)).append('\n');
+                body.append(new JSONObject(request.getFields())).append('\n');
+            } else {
+                body.append(new JSONObject().put("delete", metadata)).append('\n');
+            }
+        }
+
+        final Response response = restClient.performRequest("POST", BULK_ENDPOINT, Collections.<String, String>emptyMap(), new NStringEntity(body.toString(), NDJSON));
+        final JSONObject result = new JSONObject(EntityUtils.toString(response.getEntity()));
+        if (!result.optBoolean("errors", false)) {
+            return Collections.emptyList();
+        }
+
+        // Items are returned in the same order as the requests
+        final List<Request> failed = new ArrayList<>();
+        final JSONArray items = result.getJSONArray("items");
+        for (int i = 0; i < items.length() && i < requests.size(); ++i) {
+            final JSONObject item = items.getJSONObject(i);
+            final Iterator keys = item.keys();
+            if (!keys.hasNext()) {
+                continue;
+            }
+
+            final String action = (String) keys.next();
+            final JSONObject status = item.getJSONObject(action);
+            final int code = status.optInt("status", 200);
+            if (code >= 300 && !("delete".equals(action) && code == 404)) {
+                final Request request = requests.get(i);
+                request.setError(status.optString("error", "status " + code));
+                failed.add(request);
+            }
+        }
+        return failed;
+    }
+
+    @Override
+    protected void onClose() {
+        try {
+            restClient.close();
+        } catch (final IOException e) {
+            log.error("An error occurred during closing rest client", e);
+        }
+    }
+}
@@ -20,6 +20,8 @@ package com.thinkbiganalytics.search;
  * #L%
  */
 
+import com.thinkbiganalytics.search.api.BatchIndexer;
+import com.thinkbiganalytics.search.api.BatchIndexerConfig;
 import com.thinkbiganalytics.search.api.Search;
 import com.thinkbiganalytics.search.api.SearchIndex;
 import com.thinkbiganalytics.search.config.ElasticSearchRestClientConfiguration;
@@ -166,6 +168,18 @@ public class ElasticSearchRestService implements Search {
         }
     }
 
+    @Nonnull
+    @Override
+    public BatchIndexer newBatchIndexer(@Nonnull BatchIndexerConfig config) {
+        // The batch indexer owns its client as the shared client is closed after each request
+        RestClient batchClient = RestClient.builder(
+            new HttpHost(restClientConfig.getHost(),
+                         restClientConfig.getPort(),
+                         HTTP_PROTOCOL))
+            .build();
+        return new ElasticSearchRestBatchIndexer(batchClient, config);
+    }
+
     private String getIndexWriteEndPoint(String indexName, String typeName, String id) {
         return "/" + indexName + "/" + typeName + "/" + id;
     }
@@ -0,0 +1,156 @@
+package com.thinkbiganalytics.search;
+
+/*-
+ * #%L
+ * kylo-search-elasticsearch-rest
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.search.api.BatchIndexerConfig;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.util.EntityUtils;
+import org.codehaus.jettison.json.JSONException;
+import org.codehaus.jettison.json.JSONObject;
+import org.elasticsearch.client.Response;
+import org.elasticsearch.client.RestClient;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import javax.annotation.Nonnull;
+
+public class ElasticSearchRestBatchIndexerTest {
+
+    private static final Map<String, Object> FIELDS = Collections.singletonMap("name", "value");
+
+    /**
+     * Verify mapping the items of a {@code _bulk} response to the requests, ignoring deletes of missing documents.
+     */
+    @Test
+    public void execute() throws Exception {
+        // Mock Elasticsearch
+        final List<String> bodies = new ArrayList<>();
+        final RestClient restClient = mockRestClient(bodies, "{\"took\":3,\"errors\":true,\"items\":["
+                                                             + "{\"index\":{\"_index\":\"index\",\"_type\":\"type\",\"_id\":\"1\",\"status\":201}},"
+                                                             + "{\"delete\":{\"_index\":\"index\",\"_type\":\"type\",\"_id\":\"2\",\"status\":404,\"result\":\"not_found\"}},"
+                                                             + "{\"index\":{\"_index\":\"index\",\"_type\":\"type\",\"_id\":\"3\",\"status\":400,"
+                                                             + "\"error\":{\"type\":\"mapper_parsing_exception\",\"reason\":\"failed to parse\"}}},"
+                                                             + "{\"delete\":{\"_index\":\"index\",\"_type\":\"type\",\"_id\":\"4\",\"status\":200,\"result\":\"deleted\"}}"
+                                                             + "]}");
+
+        // Test sending requests
+        final ElasticSearchRestBatchIndexer indexer = new ElasticSearchRestBatchIndexer(restClient, newConfig());
+        final CompletableFuture<Void> indexed = indexer.index("index", "type", "1", FIELDS);
+        final CompletableFuture<Void> missing = indexer.delete("index", "type", "2");
+        final CompletableFuture<Void> rejected = indexer.index("index", "type", "3", FIELDS);
+        final CompletableFuture<Void> deleted = indexer.delete("index", "type", "4");
+        indexer.close();
+
+        Assert.assertEquals(1, bodies.size());
+        final String[] lines = bodies.get(0).split("\n");
+        Assert.assertEquals(6, lines.length);
+        assertAction(lines[0], "index", "1");
+        Assert.assertEquals("value", new JSONObject(lines[1]).getString("name"));
+        assertAction(lines[2], "delete", "2");
+        assertAction(lines[3], "index", "3");
+        Assert.assertEquals("value", new JSONObject(lines[4]).getString("name"));
+        assertAction(lines[5], "delete", "4");
+
+        Assert.assertNull(indexed.get());
+        Assert.assertNull(missing.get());
+        Assert.assertNull(deleted.get());
+        try {
+            rejected.get();
+            Assert.fail("Expected request to fail");
+        } catch (final ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof IOException);
+            Assert.assertTrue(e.getCause().getMessage().contains("id:3"));
+            Assert.assertTrue(e.getCause().getMessage().contains("mapper_parsing_exception"));
+        }
+        Assert.assertEquals(1, indexer.getFailedCount());
+        Assert.assertEquals(3, indexer.getSentCount());
+        Mockito.verify(restClient).close();
+    }
+
+    /**
+     * Verify a response without errors completes every request.
+     */
+    @Test
+    public void executeWithoutErrors() throws Exception {
+        final List<String> bodies = new ArrayList<>();
+        final RestClient restClient = mockRestClient(bodies, "{\"took\":1,\"errors\":false,\"items\":[]}");
+
+        final ElasticSearchRestBatchIndexer indexer = new ElasticSearchRestBatchIndexer(restClient, newConfig());
+        final CompletableFuture<Void> indexed = indexer.index("index", "type", "1", FIELDS);
+        final CompletableFuture<Void> deleted = indexer.delete("index", "type", "2");
+        indexer.close();
+
+        Assert.assertNull(indexed.get());
+        Assert.assertNull(deleted.get());
+        Assert.assertEquals(0, indexer.getFailedCount());
+        Assert.assertEquals(2, indexer.getSentCount());
+    }
+
+    /**
+     * Asserts that the specified line of a {@code _bulk} request is the action for the specified document.
+     */
+    private void assertAction(@Nonnull final String line, @Nonnull final String action, @Nonnull final String id) throws JSONException {
+        final JSONObject metadata = new JSONObject(line).getJSONObject(action);
+        Assert.assertEquals("index", metadata.getString("_index"));
+        Assert.assertEquals("type", metadata.getString("_type"));
+        Assert.assertEquals(id, metadata.getString("_id"));
+    }
+
+    /**
+     * Creates a configuration that sends requests only when closed, without retries.
+     */
+    @Nonnull
+    private BatchIndexerConfig newConfig() {
+        final BatchIndexerConfig config = new BatchIndexerConfig();
+        config.setFlushIntervalMillis(0);
+        config.setMaxRetries(0);
+        return config;
+    }
+
+    /**
+     * Creates a REST client that records the body of each {@code _bulk} request and returns the specified response.
+     */
+    @Nonnull
+    @SuppressWarnings("unchecked")
+    private RestClient mockRestClient(@Nonnull final List<String> bodies, @Nonnull final String responseBody) throws IOException {
+        final Response response = Mockito.mock(Response.class);
+        Mockito.when(response.getEntity()).thenReturn(new StringEntity(responseBody));
+
+        final RestClient restClient = Mockito.mock(RestClient.class);
+        Mockito.when(restClient.performRequest(Mockito.eq("POST"), Mockito.eq("/_bulk"), Mockito.anyMap(), Mockito.any(HttpEntity.class)))
+            .then(invocation -> {
+                bodies.add(EntityUtils.toString((HttpEntity) invocation.getArguments()[3]));
+                return response;
+            });
+        return restClient;
+    }
+}
@@ -0,0 +1,84 @@
+package com.thinkbiganalytics.search;
+
+/*-
+ * #%L
+ * kylo-search-elasticsearch
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.search.api.AbstractBatchIndexer;
+import com.thinkbiganalytics.search.api.BatchIndexerConfig;
+
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequestBuilder;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.client.Client;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Sends batches of requests to Elasticsearch using the bulk API of the transport client.
+ */
+public class ElasticSearchBatchIndexer extends AbstractBatchIndexer {
+
+    /**
+     * Elasticsearch transport client
+     */
+    @Nonnull
+    private final Client client;
+
+    /**
+     * Constructs an {@code ElasticSearchBatchIndexer} using the specified client.
+     */
+    public ElasticSearchBatchIndexer(@Nonnull final Client client, @Nonnull final BatchIndexerConfig config) {
+        super(config);
+        this.client = client;
+    }
+
+    @Nonnull
+    @Override
+    protected Collection<Request> execute(@Nonnull final List<Request> requests) {
+        final BulkRequestBuilder bulk = client.prepareBulk();
+        for (final Request request : requests) {
+            if (request.getAction() == Action.INDEX) {
+                bulk.add(client.prepareIndex(request.getIndexName(), request.getTypeName(), request.getId()).setSource(request.getFields()));
+            } else {
+                bulk.add(client.prepareDelete(request.getIndexName(), request.getTypeName(), request.getId()));
+            }
+        }
+
+        final BulkResponse response = bulk.get();
+        if (!response.hasFailures()) {
+            return Collections.emptyList();
+        }
+
+        final List<Request> failed = new ArrayList<>();
+        for (final BulkItemResponse item : response.getItems()) {
+            if (item.isFailed()) {
+                final Request request = requests.get(item.getItemId());
+                request.setError(item.getFailureMessage());
+                failed.add(request);
+            }
+        }
+        return failed;
+    }
+}
@@ -20,6 +20,8 @@ package com.thinkbiganalytics.search;
  * #L%
  */
 
+import com.thinkbiganalytics.search.api.BatchIndexer;
+import com.thinkbiganalytics.search.api.BatchIndexerConfig;
 import com.thinkbiganalytics.search.api.Search;
 import com.thinkbiganalytics.search.api.SearchIndex;
 import com.thinkbiganalytics.search.config.ElasticSearchClientConfiguration;
@@ -113,6 +115,13 @@ public class ElasticSearchService implements Search {
             });
     }
 
+    @Nonnull
+    @Override
+    public BatchIndexer newBatchIndexer(@Nonnull final BatchIndexerConfig config) {
+        buildTransportClient();
+        return new ElasticSearchBatchIndexer(client, config);
+    }
+
     @Override
     public SearchResult search(String query, int size, int start) {
         buildTransportClient();
@@ -0,0 +1,100 @@
+package com.thinkbiganalytics.search;
+
+/*-
+ * #%L
+ * kylo-search-solr
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.search.api.AbstractBatchIndexer;
+import com.thinkbiganalytics.search.api.BatchIndexerConfig;
+
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.common.SolrInputDocument;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Sends batches of requests to Solr as a single update request for each collection.
+ */
+public class SolrBatchIndexer extends AbstractBatchIndexer {
+
+    /**
+     * Solr client
+     */
+    @Nonnull
+    private final SolrClient client;
+
+    /**
+     * Constructs a {@code SolrBatchIndexer} using the specified client.
+     */
+    public SolrBatchIndexer(@Nonnull final SolrClient client, @Nonnull final BatchIndexerConfig config) {
+        super(config);
+        this.client = client;
+    }
+
+    @Nonnull
+    @Override
+    protected Collection<Request> execute(@Nonnull final List<Request> requests) throws IOException, SolrServerException {
+        // Send consecutive requests of the same action together, grouped by collection, to preserve the order of updates to a document
+        final Map<String, List<SolrInputDocument>> documents = new LinkedHashMap<>();
+        final Map<String, List<String>> deletes = new LinkedHashMap<>();
+        for (final Request request : requests) {
+            if (request.getAction() == Action.INDEX) {
+                sendDeletes(deletes);
+                documents.computeIfAbsent(request.getIndexName(), collection -> new ArrayList<>()).add(SolrSearchService.createDocument(request.getId(), request.getFields()));
+            } else {
+                sendDocuments(documents);
+                deletes.computeIfAbsent(request.getIndexName(), collection -> new ArrayList<>()).add(request.getId());
+            }
+        }
+        sendDocuments(documents);
+        sendDeletes(deletes);
+
+        // Solr rejects the whole update if any document fails
+        return Collections.emptyList();
+    }
+
+    /**
+     * Adds the specified documents to their collections and clears the map.
+     */
+    private void sendDocuments(@Nonnull final Map<String, List<SolrInputDocument>> documents) throws IOException, SolrServerException {
+        for (final Map.Entry<String, List<SolrInputDocument>> entry : documents.entrySet()) {
+            client.add(entry.getKey(), entry.getValue());
+        }
+        documents.clear();
+    }
+
+    /**
+     * Deletes the specified documents from their collections and clears the map.
+     */
+    private void sendDeletes(@Nonnull final Map<String, List<String>> deletes) throws IOException, SolrServerException {
+        for (final Map.Entry<String, List<String>> entry : deletes.entrySet()) {
+            client.deleteById(entry.getKey(), entry.getValue());
+        }
+        deletes.clear();
+    }
+}
@@ -21,6 +21,8 @@ package com.thinkbiganalytics.search;
  */
 
 import com.thinkbiganalytics.json.ObjectMapperSerializer;
+import com.thinkbiganalytics.search.api.BatchIndexer;
+import com.thinkbiganalytics.search.api.BatchIndexerConfig;
 import com.thinkbiganalytics.search.api.Search;
 import com.thinkbiganalytics.search.api.SearchIndex;
 import com.thinkbiganalytics.search.config.SolrSearchClientConfiguration;
@@ -98,6 +100,13 @@ public class SolrSearchService implements Search {
         }
     }
 
+    @Nonnull
+    @Override
+    public BatchIndexer newBatchIndexer(@Nonnull final BatchIndexerConfig config) {
+        buildRestClient();
+        return new SolrBatchIndexer(client, config);
+    }
+
     @Override
     public SearchResult search(String query, int size, int start) {
         buildRestClient();
@@ -116,7 +125,7 @@ public class SolrSearchService implements Search {
      * Creates a new Solr document to be indexed.
      */
     @Nonnull
-    private SolrInputDocument createDocument(@Nonnull final String id, @Nonnull final Map<String, Object> fields) {
+    static SolrInputDocument createDocument(@Nonnull final String id, @Nonnull final Map<String, Object> fields) {
         final SolrInputDocument document = new SolrInputDocument();
         document.setField("id", id);
         fields.forEach((key, value) -> document.setField(key, (value instanceof String) ? value : ObjectMapperSerializer.serialize(value)));
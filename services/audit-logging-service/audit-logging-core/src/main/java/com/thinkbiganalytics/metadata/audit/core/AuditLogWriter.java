@@ -0,0 +1,262 @@
+package com.thinkbiganalytics.metadata.audit.core;
+
+/*-
+ * #%L
+ * thinkbig-audit-logging-core
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import com.thinkbiganalytics.metadata.api.MetadataAccess;
+import com.thinkbiganalytics.metadata.api.audit.AuditLogProvider;
+
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Persists audit log entries from a single writer thread, one transaction per batch.
+ *
+ * <p>Entries are queued by the calling thread and written in the order they were queued, so the entries of an entity are never
+ * reordered. The queue is bounded; when it is full the calling thread waits for space instead of dropping the entry. Queued entries
+ * are written when the writer is closed, and entries added after that are written by the calling thread.</p>
+ */
+public class AuditLogWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLogWriter.class);
+
+    /**
+     * How often the writer thread checks if it has been closed while the queue is empty
+     */
+    private static final long POLL_MILLIS = 500;
+
+    /**
+     * An audit log entry waiting to be written
+     */
+    private static class PendingEntry {
+
+        final Principal user;
+        final String type;
+        final String description;
+        final String entityId;
+        final DateTime createdTime = DateTime.now();
+        final long queuedNanos = System.nanoTime();
+
+        PendingEntry(Principal user, String type, String description, String entityId) {
+            this.user = user;
+            this.type = type;
+            this.description = description;
+            this.entityId = entityId;
+        }
+    }
+
+    private final AuditLogProvider provider;
+
+    private final MetadataAccess metadataAccess;
+
+    private final BlockingQueue<PendingEntry> queue;
+
+    private final int batchSize;
+
+    private final Thread thread;
+
+    private volatile boolean running = true;
+
+    private final AtomicLong blockedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong writtenCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+
+    /**
+     * Constructs an {@code AuditLogWriter} and starts the writer thread.
+     *
+     * @param provider       the audit log provider
+     * @param metadataAccess the transaction support
+     * @param queueCapacity  the maximum number of entries waiting to be written
+     * @param batchSize      the maximum number of entries written in one transaction
+     */
+    public AuditLogWriter(AuditLogProvider provider, MetadataAccess metadataAccess, int queueCapacity, int batchSize) {
+        this.provider = provider;
+        this.metadataAccess = metadataAccess;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.batchSize = Math.max(1, batchSize);
+        this.thread = new Thread(this::run, "kylo-audit-log-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Queues a new audit log entry to be written, waiting if the queue is full.
+     *
+     * @param user        a user attached to this audit entry
+     * @param type        the type of entry
+     * @param description a description about what happened
+     * @param entityId    an entity id associated with this audit entry
+     */
+    public void write(Principal user, String type, String description, String entityId) {
+        final PendingEntry entry = new PendingEntry(user, type, description, entityId);
+        if (!running) {
+            writeRemaining(entry);
+            return;
+        }
+
+        if (!queue.offer(entry)) {
+            blockedCount.incrementAndGet();
+            try {
+                queue.put(entry);
+            } catch (InterruptedException e) {
+                // Write it now rather than lose it
+                Thread.currentThread().interrupt();
+                writeBatch(Collections.singletonList(entry));
+                return;
+            }
+        }
+
+        // The writer may have stopped after the entry was queued
+        if (!running) {
+            writeRemaining(null);
+        }
+    }
+
+    /**
+     * Gets the number of entries waiting to be written.
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Gets how long the oldest waiting entry has been queued, or zero if the queue is empty.
+     */
+    public long getLagMillis() {
+        final PendingEntry oldest = queue.peek();
+        return (oldest != null) ? TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - oldest.queuedNanos) : 0;
+    }
+
+    /**
+     * Gets the number of times the queue was full and the calling thread had to wait.
+     */
+    public long getBlockedCount() {
+        return blockedCount.get();
+    }
+
+    /**
+     * Gets the number of entries that could not be written.
+     */
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    /**
+     * Gets the number of entries written.
+     */
+    public long getWrittenCount() {
+        return writtenCount.get();
+    }
+
+    /**
+     * Gets the number of transactions used to write entries.
+     */
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    /**
+     * Writes any queued entries and stops the writer thread.
+     */
+    public void close() {
+        running = false;
+        writeRemaining(null);
+    }
+
+    /**
+     * Waits for the writer thread to stop, then writes the specified entry after any entries still in the queue.
+     */
+    private synchronized void writeRemaining(PendingEntry entry) {
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        final List<PendingEntry> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            writeBatch(batch);
+            batch.clear();
+        }
+        if (entry != null) {
+            writeBatch(Collections.singletonList(entry));
+        }
+    }
+
+    private void run() {
+        final List<PendingEntry> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                final PendingEntry first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+            } catch (InterruptedException e) {
+                log.debug("Audit log writer interrupted while waiting for entries");
+            }
+
+            if (!batch.isEmpty()) {
+                writeBatch(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Writes the specified entries in one transaction, falling back to a transaction per entry if the batch fails.
+     */
+    private void writeBatch(List<PendingEntry> batch) {
+        try {
+            batchCount.incrementAndGet();
+            metadataAccess.commit(() -> batch.forEach(this::createEntry), MetadataAccess.SERVICE);
+            writtenCount.addAndGet(batch.size());
+            return;
+        } catch (Exception e) {
+            if (batch.size() == 1) {
+                failedCount.incrementAndGet();
+                log.error("Unable to write audit log entry {} for {}: {}", batch.get(0).type, batch.get(0).entityId, e.getMessage(), e);
+                return;
+            }
+            log.warn("Unable to write {} audit log entries in one transaction, writing them individually: {}", batch.size(), e.getMessage());
+        }
+
+        for (PendingEntry entry : batch) {
+            writeBatch(Collections.singletonList(entry));
+        }
+    }
+
+    private void createEntry(PendingEntry entry) {
+        log.debug("Audit: {} - {}", entry.type, entry.description);
+        provider.createEntry(entry.user, entry.type, entry.description, entry.entityId, entry.createdTime);
+    }
+}
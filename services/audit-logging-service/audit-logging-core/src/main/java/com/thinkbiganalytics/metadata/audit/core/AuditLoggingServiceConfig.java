@@ -23,8 +23,11 @@ package com.thinkbiganalytics.metadata.audit.core;
  * #L%
  */
 
+import com.thinkbiganalytics.metadata.api.MetadataAccess;
+import com.thinkbiganalytics.metadata.api.audit.AuditLogProvider;
 import com.thinkbiganalytics.metadata.api.event.MetadataEventService;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -40,4 +43,11 @@ public class AuditLoggingServiceConfig {
         auditService.addListeners(eventService);
         return auditService;
     }
+
+    @Bean(destroyMethod = "close")
+    public AuditLogWriter auditLogWriter(AuditLogProvider provider, MetadataAccess metadataAccess,
+                                         @Value("${kylo.audit.log.writer.queue.capacity:10000}") int queueCapacity,
+                                         @Value("${kylo.audit.log.writer.batch.size:100}") int batchSize) {
+        return new AuditLogWriter(provider, metadataAccess, queueCapacity, batchSize);
+    }
 }
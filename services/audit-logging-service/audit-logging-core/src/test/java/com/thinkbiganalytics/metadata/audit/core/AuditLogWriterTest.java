@@ -0,0 +1,290 @@
+package com.thinkbiganalytics.metadata.audit.core;
+
+/*-
+ * #%L
+ * thinkbig-audit-logging-core
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import com.thinkbiganalytics.metadata.api.MetadataAccess;
+import com.thinkbiganalytics.metadata.api.MetadataAction;
+import com.thinkbiganalytics.metadata.api.MetadataCommand;
+import com.thinkbiganalytics.metadata.api.MetadataRollbackAction;
+import com.thinkbiganalytics.metadata.api.MetadataRollbackCommand;
+import com.thinkbiganalytics.metadata.api.audit.AuditLogEntry;
+import com.thinkbiganalytics.metadata.api.audit.AuditLogProvider;
+import com.thinkbiganalytics.security.UsernamePrincipal;
+
+import org.joda.time.DateTime;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.Serializable;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+public class AuditLogWriterTest {
+
+    private static final Principal USER = new UsernamePrincipal("user");
+
+    /**
+     * Verify the entries of each entity are written in order when queued from several threads.
+     */
+    @Test
+    public void testOrderingPerEntity() throws Exception {
+        final TestAuditLog auditLog = new TestAuditLog();
+        final AuditLogWriter writer = new AuditLogWriter(auditLog, auditLog, 1000, 10);
+        auditLog.pause();
+
+        final List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; ++t) {
+            final String entityId = "entity" + t;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 250; ++i) {
+                    writer.write(USER, "test", Integer.toString(i), entityId);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        auditLog.resume();
+        writer.close();
+
+        Assert.assertEquals(1000, auditLog.committed.size());
+        Assert.assertEquals(1000, writer.getWrittenCount());
+        Assert.assertTrue("Expected entries to be written in batches", writer.getBatchCount() <= 101);
+        for (int t = 0; t < 4; ++t) {
+            final String entityId = "entity" + t;
+            final List<Integer> sequence = auditLog.committed.stream()
+                .filter(entry -> entry.entityId.equals(entityId))
+                .map(entry -> Integer.parseInt(entry.description))
+                .collect(Collectors.toList());
+            Assert.assertEquals(250, sequence.size());
+            for (int i = 0; i < sequence.size(); ++i) {
+                Assert.assertEquals(i, sequence.get(i).intValue());
+            }
+        }
+    }
+
+    /**
+     * Verify queued entries are written when the writer is closed, and entries added afterwards are written immediately.
+     */
+    @Test
+    public void testCloseFlushesQueue() throws Exception {
+        final TestAuditLog auditLog = new TestAuditLog();
+        final AuditLogWriter writer = new AuditLogWriter(auditLog, auditLog, 100, 10);
+        auditLog.pause();
+
+        for (int i = 0; i < 50; ++i) {
+            writer.write(USER, "test", Integer.toString(i), "entity");
+        }
+        Assert.assertTrue(writer.getQueueDepth() > 0);
+
+        final Thread closer = new Thread(writer::close);
+        closer.start();
+        closer.join(200);
+        Assert.assertTrue("Expected close to wait for queued entries", closer.isAlive());
+
+        auditLog.resume();
+        closer.join(TimeUnit.SECONDS.toMillis(10));
+        Assert.assertFalse(closer.isAlive());
+        Assert.assertEquals(0, writer.getQueueDepth());
+        Assert.assertEquals(50, auditLog.committed.size());
+
+        writer.write(USER, "test", "50", "entity");
+        Assert.assertEquals(51, auditLog.committed.size());
+        Assert.assertEquals("50", auditLog.committed.get(50).description);
+    }
+
+    /**
+     * Verify a full queue makes the caller wait instead of dropping entries.
+     */
+    @Test
+    public void testOverflowBlocksCaller() throws Exception {
+        final TestAuditLog auditLog = new TestAuditLog();
+        final AuditLogWriter writer = new AuditLogWriter(auditLog, auditLog, 5, 1);
+        auditLog.pause();
+
+        final Thread producer = new Thread(() -> {
+            for (int i = 0; i < 20; ++i) {
+                writer.write(USER, "test", Integer.toString(i), "entity");
+            }
+        });
+        producer.start();
+        producer.join(500);
+
+        Assert.assertTrue("Expected the caller to wait for space in the queue", producer.isAlive());
+        Assert.assertEquals(5, writer.getQueueDepth());
+        Assert.assertTrue(writer.getBlockedCount() > 0);
+        Assert.assertTrue(writer.getLagMillis() > 0);
+
+        auditLog.resume();
+        producer.join(TimeUnit.SECONDS.toMillis(10));
+        Assert.assertFalse(producer.isAlive());
+        writer.close();
+
+        Assert.assertEquals(20, auditLog.committed.size());
+        for (int i = 0; i < 20; ++i) {
+            Assert.assertEquals(Integer.toString(i), auditLog.committed.get(i).description);
+        }
+        Assert.assertEquals(0, writer.getLagMillis());
+    }
+
+    /**
+     * Verify an entry that cannot be written does not prevent the rest of its batch from being written.
+     */
+    @Test
+    public void testFailedEntry() throws Exception {
+        final TestAuditLog auditLog = new TestAuditLog();
+        final AuditLogWriter writer = new AuditLogWriter(auditLog, auditLog, 100, 10);
+        auditLog.pause();
+
+        for (int i = 0; i < 10; ++i) {
+            writer.write(USER, "test", (i == 5) ? "fail" : Integer.toString(i), "entity");
+        }
+        auditLog.resume();
+        writer.close();
+
+        Assert.assertEquals(9, auditLog.committed.size());
+        Assert.assertEquals(9, writer.getWrittenCount());
+        Assert.assertEquals(1, writer.getFailedCount());
+    }
+
+    /**
+     * An entry written by the test provider
+     */
+    private static class TestEntry {
+
+        final String description;
+        final String entityId;
+
+        TestEntry(String description, String entityId) {
+            this.description = description;
+            this.entityId = entityId;
+        }
+    }
+
+    /**
+     * Stores entries in memory, keeping only those of transactions that commit.
+     */
+    private static class TestAuditLog implements AuditLogProvider, MetadataAccess {
+
+        final List<TestEntry> committed = new ArrayList<>();
+
+        private final List<TestEntry> transaction = new ArrayList<>();
+
+        private volatile CountDownLatch paused = new CountDownLatch(0);
+
+        void pause() {
+            paused = new CountDownLatch(1);
+        }
+
+        void resume() {
+            paused.countDown();
+        }
+
+        @Override
+        public synchronized void commit(MetadataAction action, Principal... principals) {
+            try {
+                paused.await();
+                action.execute();
+                committed.addAll(transaction);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            } finally {
+                transaction.clear();
+            }
+        }
+
+        @Override
+        public AuditLogEntry createEntry(Principal user, String type, String description, String entityId, DateTime createdTime) {
+            if ("fail".equals(description)) {
+                throw new IllegalArgumentException("Unable to write entry");
+            }
+            transaction.add(new TestEntry(description, entityId));
+            return null;
+        }
+
+        @Override
+        public <R> R commit(MetadataCommand<R> cmd, Principal... principals) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <R> R commit(MetadataCommand<R> cmd, MetadataRollbackCommand rollbackCmd, Principal... principals) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void commit(MetadataAction action, MetadataRollbackAction rollbackAction, Principal... principals) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <R> R read(MetadataCommand<R> cmd, Principal... principals) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void read(MetadataAction cmd, Principal... principals) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public AuditLogEntry.ID resolveId(Serializable id) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<AuditLogEntry> list() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<AuditLogEntry> list(int limit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Optional<AuditLogEntry> findById(AuditLogEntry.ID id) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<AuditLogEntry> findByUser(Principal user) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public AuditLogEntry createEntry(Principal user, String type, String description) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public AuditLogEntry createEntry(Principal user, String type, String description, String entityId) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -26,6 +26,7 @@ import com.thinkbiganalytics.feedmgr.nifi.SpringCloudContextEnvironmentChangedLi
 import com.thinkbiganalytics.feedmgr.nifi.TemplateConnectionUtil;
 import com.thinkbiganalytics.feedmgr.nifi.cache.NifiFlowCache;
 import com.thinkbiganalytics.feedmgr.nifi.cache.NifiFlowCacheClusterManager;
+import com.thinkbiganalytics.feedmgr.nifi.cache.NiFiCacheWarmupService;
 import com.thinkbiganalytics.feedmgr.nifi.cache.NifiFlowCacheImpl;
 import com.thinkbiganalytics.feedmgr.rest.Model;
 import com.thinkbiganalytics.feedmgr.rest.model.ImportFeedOptions;
@@ -47,6 +48,8 @@ import com.thinkbiganalytics.feedmgr.service.feed.FeedHiveTableService;
 import com.thinkbiganalytics.feedmgr.service.feed.FeedManagerFeedService;
 import com.thinkbiganalytics.feedmgr.service.feed.FeedManagerPreconditionService;
 import com.thinkbiganalytics.feedmgr.service.feed.FeedModelTransform;
+import com.thinkbiganalytics.feedmgr.service.feed.FeedRedeploymentService;
+import com.thinkbiganalytics.feedmgr.service.feed.FeedSummaryProjection;
 import com.thinkbiganalytics.feedmgr.service.feed.datasource.DerivedDatasourceFactory;
 import com.thinkbiganalytics.feedmgr.service.feed.exporting.FeedExporter;
 import com.thinkbiganalytics.feedmgr.service.feed.importing.FeedImporter;
@@ -77,6 +80,7 @@ import com.thinkbiganalytics.feedmgr.service.template.TemplateModelTransform;
 import com.thinkbiganalytics.feedmgr.sla.DefaultServiceLevelAgreementService;
 import com.thinkbiganalytics.feedmgr.sla.ServiceLevelAgreementModelTransform;
 import com.thinkbiganalytics.feedmgr.sla.ServiceLevelAgreementService;
+import com.thinkbiganalytics.feedmgr.support.ImportArchive;
 import com.thinkbiganalytics.hive.service.HiveService;
 import com.thinkbiganalytics.jobrepo.service.JobService;
 import com.thinkbiganalytics.metadata.api.datasource.DatasourceProvider;
@@ -184,6 +188,11 @@ public class FeedManagerConfiguration {
         return new NifiFlowCacheImpl();
     }
 
+    @Bean
+    public NiFiCacheWarmupService niFiCacheWarmupService() {
+        return new NiFiCacheWarmupService();
+    }
+
 
     @Bean
     public ServiceLevelAgreementService serviceLevelAgreementService() {
@@ -237,6 +246,16 @@ public class FeedManagerConfiguration {
         return new UploadProgressService();
     }
 
+    @Bean
+    public FeedSummaryProjection feedSummaryProjection() {
+        return new FeedSummaryProjection();
+    }
+
+    @Bean
+    public FeedRedeploymentService feedRedeploymentService() {
+        return new FeedRedeploymentService();
+    }
+
     /**
      * Transforms objects between {@link com.thinkbiganalytics.metadata.rest.model.data.Datasource} and {@link com.thinkbiganalytics.metadata.api.datasource.Datasource}.
      *
@@ -337,24 +356,24 @@ public class FeedManagerConfiguration {
 
     @Bean
     public TemplateImporterFactory<ImportOptions,TemplateImporter> templateImporterFactory() {
-        return (fileName, content, importOptions) -> templateImporter(fileName,content, importOptions);
+        return (archive, importOptions) -> templateImporter(archive, importOptions);
     }
 
     @Bean
     @Scope(value = "prototype")
-    public TemplateImporter templateImporter(String fileName, byte[] content, ImportOptions importOptions) {
-        return new TemplateImporter(fileName,content, importOptions);
+    public TemplateImporter templateImporter(ImportArchive archive, ImportOptions importOptions) {
+        return new TemplateImporter(archive, importOptions);
     }
 
     @Bean
     public FeedImporterFactory<ImportFeedOptions,FeedImporter> feedImporterFactory() {
-        return (fileName, content, importFeedOptions) -> feedImporter(fileName,content, importFeedOptions);
+        return (archive, importFeedOptions) -> feedImporter(archive, importFeedOptions);
     }
 
     @Bean
     @Scope(value = "prototype")
-    public FeedImporter feedImporter(String fileName, byte[] content, ImportFeedOptions importFeedOptions) {
-        return new FeedImporter(fileName,content, importFeedOptions);
+    public FeedImporter feedImporter(ImportArchive archive, ImportFeedOptions importFeedOptions) {
+        return new FeedImporter(archive, importFeedOptions);
     }
 
 
@@ -367,8 +386,8 @@ public class FeedManagerConfiguration {
 
     @Bean
     @Scope(value = "prototype")
-    public ImportReusableTemplate importReusableTemplate(String fileName, byte[] content, ImportTemplateOptions importTemplateOptions) {
-        return new ImportReusableTemplate(fileName,content, importTemplateOptions);
+    public ImportReusableTemplate importReusableTemplate(String fileName, String xmlTemplate, ImportTemplateOptions importTemplateOptions) {
+        return new ImportReusableTemplate(fileName,xmlTemplate, importTemplateOptions);
     }
 
 
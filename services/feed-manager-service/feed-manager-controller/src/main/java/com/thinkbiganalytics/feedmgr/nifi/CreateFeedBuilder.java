@@ -22,6 +22,7 @@ package com.thinkbiganalytics.feedmgr.nifi;
 
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.thinkbiganalytics.feedmgr.nifi.cache.NifiFlowCache;
 import com.thinkbiganalytics.feedmgr.rest.model.FeedMetadata;
 import com.thinkbiganalytics.feedmgr.service.template.NiFiTemplateCache;
@@ -66,6 +67,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -123,6 +128,18 @@ public class CreateFeedBuilder {
 
     private Long timestamp;
 
+    /**
+     * Runs the steps of the build that do not depend on each other
+     */
+    @Nonnull
+    private Executor executor = MoreExecutors.directExecutor();
+
+    /**
+     * Steps of the current build started on the {@code executor}
+     */
+    @Nonnull
+    private final List<CompletableFuture<Void>> launchedSteps = new ArrayList<>();
+
 
     protected CreateFeedBuilder(LegacyNifiRestClient restClient, NifiFlowCache nifiFlowCache, FeedMetadata feedMetadata, String templateId, PropertyExpressionResolver propertyExpressionResolver,
                                 NiFiPropertyDescriptorTransform propertyDescriptorTransform, NiFiObjectCache niFiObjectCache, TemplateConnectionUtil templateConnectionUtil) {
@@ -216,6 +233,18 @@ public class CreateFeedBuilder {
         return this;
     }
 
+    /**
+     * Sets the executor used to run the independent NiFi calls of {@link #build()} concurrently.
+     * The steps that depend on each other still run in order. Defaults to running every step on the calling thread.
+     *
+     * @param executor the executor, usually bounded to limit the number of concurrent requests to NiFi
+     * @return this feed builder
+     */
+    public CreateFeedBuilder withExecutor(@Nonnull final Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
     private TemplateDTO getTemplate() {
         if (niFiTemplateCache != null) {
             return niFiTemplateCache.geTemplate(templateId, null);
@@ -224,6 +253,59 @@ public class CreateFeedBuilder {
         }
     }
 
+    /**
+     * Starts a step of the build on the {@code executor}. Every step is awaited before {@link #build()} returns or throws.
+     */
+    private CompletableFuture<Void> launch(Runnable step) {
+        CompletableFuture<Void> future = CompletableFuture.runAsync(step, executor);
+        launchedSteps.add(future);
+        return future;
+    }
+
+    /**
+     * Waits for every step started by the build, so none is still changing NiFi once the build has returned or is being rolled back. A step failing
+     * after the build has already failed is added to that failure as a suppressed exception.
+     *
+     * @param failure the exception thrown by the build, or {@code null} if it succeeded
+     */
+    private void awaitLaunchedSteps(Throwable failure) {
+        try {
+            for (CompletableFuture<Void> step : launchedSteps) {
+                if (failure == null) {
+                    await(step);
+                } else {
+                    try {
+                        step.join();
+                    } catch (CompletionException | CancellationException e) {
+                        Throwable cause = e.getCause() != null ? e.getCause() : e;
+                        if (cause != failure) {
+                            failure.addSuppressed(cause);
+                        }
+                    }
+                }
+            }
+        } finally {
+            launchedSteps.clear();
+        }
+    }
+
+    /**
+     * Waits for a step running on the {@code executor}, rethrowing any failure as it would have been thrown had the step run on the calling thread.
+     */
+    private <T> T await(CompletableFuture<T> step) {
+        try {
+            return step.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new NifiClientRuntimeException(cause);
+        }
+    }
+
     private String versionIdentifier() {
         return UniqueIdentifier.encode(timestamp);
     }
@@ -234,12 +316,30 @@ public class CreateFeedBuilder {
      * @return an object indicating if the feed flow was successfully built or not
      */
     public NifiProcessGroup build() throws FeedCreationException {
+        Throwable failure = null;
+        try {
+            return buildFlow();
+        } catch (RuntimeException | Error e) {
+            failure = e;
+            throw e;
+        } finally {
+            awaitLaunchedSteps(failure);
+        }
+    }
+
+    /**
+     * Builds the NiFi flow instance, starting independent steps on the {@code executor}
+     */
+    private NifiProcessGroup buildFlow() throws FeedCreationException {
         try {
             log.info("Creating the feed {}.{} ", category, feedName);
             newProcessGroup = null;
             Stopwatch totalTime = Stopwatch.createStarted();
             Stopwatch eventTime = Stopwatch.createStarted();
 
+            //snapshot the existing controller services while the template is fetched and the process group is created
+            CompletableFuture<Void> snapshotControllerServices = launch(() -> templateCreationHelper.snapshotControllerServiceReferences());
+
             TemplateDTO template = getTemplate();
             if (template != null) {
                 log.debug("Time to get Template {}.  ElapsedTime: {} ms", template.getName(), eventTime(eventTime));
@@ -250,9 +350,8 @@ public class CreateFeedBuilder {
                 log.debug("Time to create process group.  ElapsedTime: {} ms", eventTime(eventTime));
                 if (feedProcessGroup != null) {
                     String processGroupId = feedProcessGroup.getId();
-                    //snapshot the existing controller services
                     eventTime.start();
-                    templateCreationHelper.snapshotControllerServiceReferences();
+                    await(snapshotControllerServices);
                     log.debug("Time to snapshotControllerServices.  ElapsedTime: {} ms", eventTime(eventTime));
 
                     //create the flow from the template
@@ -263,16 +362,17 @@ public class CreateFeedBuilder {
                     log.debug("Time to instantiateFlowFromTemplate.  ElapsedTime: {} ms", eventTime(eventTime));
 
                     eventTime.start();
+                    //the port connections live in the category and reusable groups so they can be made while the feed group properties are updated
                     String feedCategoryId = feedProcessGroup.getParentGroupId();
-                    ProcessGroupDTO categoryGroup = this.categoryGroup;
-                    if (categoryGroup == null) {
-                        categoryGroup = this.categoryGroup = restClient.getProcessGroup(feedCategoryId, false, false);
-                    }
-                    //update the group with this template?
-                    updatePortConnectionsForProcessGroup(feedProcessGroup, categoryGroup);
-                    log.debug("Time to updatePortConnectionsForProcessGroup.  ElapsedTime: {} ms", eventTime(eventTime));
+                    CompletableFuture<Void> portConnections = launch(() -> {
+                        ProcessGroupDTO categoryGroup = this.categoryGroup;
+                        if (categoryGroup == null) {
+                            categoryGroup = this.categoryGroup = restClient.getProcessGroup(feedCategoryId, false, false);
+                        }
+                        //update the group with this template?
+                        updatePortConnectionsForProcessGroup(feedProcessGroup, categoryGroup);
+                    });
 
-                    eventTime.start();
                     //mark the new services that were created as a result of creating the new flow from the template
                     templateCreationHelper.identifyNewlyCreatedControllerServiceReferences(instance);
                     log.debug("Time to identifyNewlyCreatedControllerServiceReferences.  ElapsedTime: {} ms", eventTime(eventTime));
@@ -282,6 +382,10 @@ public class CreateFeedBuilder {
                     updateProcessGroupProperties(processGroupId, feedProcessGroup.getName());
                     log.debug("Time to updateProcessGroupProperties.  ElapsedTime: {} ms", eventTime(eventTime));
 
+                    eventTime.start();
+                    await(portConnections);
+                    log.debug("Time waiting on updatePortConnectionsForProcessGroup.  ElapsedTime: {} ms", eventTime(eventTime));
+
                     eventTime.start();
                     //Fetch the Feed Group now that it has the flow in it
                     ProcessGroupDTO entity = restClient.getProcessGroup(processGroupId, true, true);
@@ -417,14 +521,17 @@ public class CreateFeedBuilder {
                     if (this.autoAlign) {
                         eventTime.start();
                         log.info("Aligning Feed flows in NiFi ");
-                        AlignProcessGroupComponents alignProcessGroupComponents = new AlignProcessGroupComponents(restClient.getNiFiRestClient(), entity.getParentGroupId());
-                        alignProcessGroupComponents.autoLayout();
                         //if this is a new feedProcessGroup (i.e. new category), align the root level items also
                         //fetch the parent to get that id to align
+                        CompletableFuture<Void> alignCategories = CompletableFuture.completedFuture(null);
                         if (newCategory) {
                             log.info("This is the first feed created in the category {}.  Aligning the categories. ", feedMetadata.getCategory().getSystemName());
-                            new AlignProcessGroupComponents(restClient.getNiFiRestClient(), this.categoryGroup.getParentGroupId()).autoLayout();
+                            String rootGroupId = this.categoryGroup.getParentGroupId();
+                            alignCategories = launch(() -> new AlignProcessGroupComponents(restClient.getNiFiRestClient(), rootGroupId).autoLayout());
                         }
+                        AlignProcessGroupComponents alignProcessGroupComponents = new AlignProcessGroupComponents(restClient.getNiFiRestClient(), entity.getParentGroupId());
+                        alignProcessGroupComponents.autoLayout();
+                        await(alignCategories);
                         log.info("Time align feed process groups.  ElapsedTime: {} ms", eventTime(eventTime));
 
                     } else {
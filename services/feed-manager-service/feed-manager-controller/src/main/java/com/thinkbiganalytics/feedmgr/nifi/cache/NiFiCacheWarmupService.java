@@ -0,0 +1,207 @@
+package com.thinkbiganalytics.feedmgr.nifi.cache;
+
+/*-
+ * #%L
+ * thinkbig-feed-manager-controller
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.thinkbiganalytics.app.ServicesApplicationStartup;
+import com.thinkbiganalytics.app.ServicesApplicationStartupListener;
+import com.thinkbiganalytics.feedmgr.service.template.FeedManagerTemplateService;
+import com.thinkbiganalytics.feedmgr.service.template.NiFiTemplateCache;
+import com.thinkbiganalytics.feedmgr.service.template.RegisteredTemplateCache;
+import com.thinkbiganalytics.metadata.api.MetadataAccess;
+import com.thinkbiganalytics.metadata.api.template.FeedManagerTemplate;
+import com.thinkbiganalytics.metadata.api.template.FeedManagerTemplateProvider;
+
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nonnull;
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+
+/**
+ * Warms the NiFi template caches on startup while the NiFi flow cache is being built, and reports how long each cache took.
+ *
+ * <p>The NiFi flow cache restores its last snapshot when it is created, so provenance events for known feeds are accepted before it has been rebuilt.
+ * This service fetches the NiFi template and the processors of every registered template in parallel, up to {@code kylo.cache.warmup.threads} at a time,
+ * and records the time from startup until the flow cache becomes available.</p>
+ */
+public class NiFiCacheWarmupService implements ServicesApplicationStartupListener, NiFiFlowCacheListener {
+
+    private static final Logger log = LoggerFactory.getLogger(NiFiCacheWarmupService.class);
+
+    /**
+     * Name of the NiFi flow cache in the timings
+     */
+    public static final String NIFI_FLOW_CACHE = "nifiFlowCache";
+
+    /**
+     * Name of the NiFi template cache in the timings
+     */
+    public static final String NIFI_TEMPLATE_CACHE = "nifiTemplateCache";
+
+    /**
+     * Name of the registered template cache in the timings
+     */
+    public static final String REGISTERED_TEMPLATE_CACHE = "registeredTemplateCache";
+
+    @Inject
+    private ServicesApplicationStartup startup;
+
+    @Inject
+    private NifiFlowCache nifiFlowCache;
+
+    @Inject
+    private NiFiTemplateCache niFiTemplateCache;
+
+    @Inject
+    private RegisteredTemplateCache registeredTemplateCache;
+
+    @Inject
+    private FeedManagerTemplateService feedManagerTemplateService;
+
+    @Inject
+    private FeedManagerTemplateProvider feedManagerTemplateProvider;
+
+    @Inject
+    private MetadataAccess metadataAccess;
+
+    /**
+     * Maximum number of templates fetched at the same time
+     */
+    @Value("${kylo.cache.warmup.threads:4}")
+    private int warmupThreads;
+
+    /**
+     * Warm-up time of each cache, in milliseconds
+     */
+    private final Map<String, Long> timings = new ConcurrentHashMap<>();
+
+    /**
+     * Time when the application started
+     */
+    private volatile long startTime;
+
+    @PostConstruct
+    public void init() {
+        startup.subscribe(this);
+        nifiFlowCache.subscribe(this);
+    }
+
+    @Override
+    public void onStartup(DateTime startTime) {
+        this.startTime = startTime.getMillis();
+        if (nifiFlowCache.isAvailable()) {
+            onCacheAvailable();
+        }
+
+        final List<TemplateKey> templates = metadataAccess.read(() -> feedManagerTemplateProvider.findAll().stream()
+            .map(TemplateKey::new)
+            .collect(Collectors.toList()), MetadataAccess.SERVICE);
+        if (templates.isEmpty()) {
+            return;
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, warmupThreads), new ThreadFactoryBuilder().setDaemon(true).setNameFormat("kylo-cache-warmup-%d").build());
+        try {
+            warmAll(NIFI_TEMPLATE_CACHE, templates, template -> niFiTemplateCache.geTemplate(template.nifiTemplateId, template.name), executor);
+            warmAll(REGISTERED_TEMPLATE_CACHE, templates, template -> registeredTemplateCache.putProcessors(template.id, metadataAccess.read(
+                () -> feedManagerTemplateService.getRegisteredTemplateProcessors(template.id, true), MetadataAccess.SERVICE)), executor);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Override
+    public void onCacheAvailable() {
+        if (startTime > 0 && timings.putIfAbsent(NIFI_FLOW_CACHE, System.currentTimeMillis() - startTime) == null) {
+            log.info("Cache warm-up: {} available {} ms after startup", NIFI_FLOW_CACHE, timings.get(NIFI_FLOW_CACHE));
+        }
+    }
+
+    @Override
+    public void onCacheUnavailable() {
+        // Nothing to record
+    }
+
+    /**
+     * Gets the time taken to warm each cache.
+     *
+     * @return the warm-up time in milliseconds keyed by cache name
+     */
+    @Nonnull
+    public Map<String, Long> getWarmupTimings() {
+        return Collections.unmodifiableMap(new TreeMap<>(timings));
+    }
+
+    /**
+     * Warms the specified cache for every template and records the time taken.
+     */
+    private void warmAll(@Nonnull final String cacheName, @Nonnull final List<TemplateKey> templates, @Nonnull final Consumer<TemplateKey> warmer, @Nonnull final ExecutorService executor) {
+        final long start = System.currentTimeMillis();
+        final AtomicInteger failures = new AtomicInteger();
+
+        CompletableFuture.allOf(templates.stream()
+                                    .map(template -> CompletableFuture.runAsync(() -> {
+                                        try {
+                                            warmer.accept(template);
+                                        } catch (Exception e) {
+                                            failures.incrementAndGet();
+                                            log.debug("Unable to warm {} for template {}", cacheName, template.name, e);
+                                        }
+                                    }, executor))
+                                    .toArray(CompletableFuture[]::new))
+            .join();
+
+        timings.put(cacheName, System.currentTimeMillis() - start);
+        log.info("Cache warm-up: {} loaded {} of {} templates in {} ms", cacheName, templates.size() - failures.get(), templates.size(), timings.get(cacheName));
+    }
+
+    /**
+     * Identifies a registered template outside of a metadata transaction.
+     */
+    private static class TemplateKey {
+
+        final String id;
+        final String name;
+        final String nifiTemplateId;
+
+        TemplateKey(@Nonnull final FeedManagerTemplate template) {
+            id = template.getId().toString();
+            name = template.getName();
+            nifiTemplateId = template.getNifiTemplateId();
+        }
+    }
+}
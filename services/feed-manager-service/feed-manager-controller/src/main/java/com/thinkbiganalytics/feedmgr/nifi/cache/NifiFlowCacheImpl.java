@@ -29,6 +29,7 @@ import com.thinkbiganalytics.feedmgr.nifi.NifiConnectionListener;
 import com.thinkbiganalytics.feedmgr.nifi.NifiConnectionService;
 import com.thinkbiganalytics.feedmgr.rest.model.FeedMetadata;
 import com.thinkbiganalytics.feedmgr.rest.model.RegisteredTemplate;
+import com.thinkbiganalytics.json.ObjectMapperSerializer;
 import com.thinkbiganalytics.metadata.api.MetadataAccess;
 import com.thinkbiganalytics.metadata.api.app.KyloVersionProvider;
 import com.thinkbiganalytics.metadata.rest.model.nifi.NiFiFlowCacheConnectionData;
@@ -54,6 +55,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -116,13 +124,20 @@ public class NifiFlowCacheImpl implements ServicesApplicationStartupListener, Ni
     @Value("${nifi.flow.retry.wait.time.seconds:5}")
     private Integer nifiFlowWaitTime = 5;
 
+    /**
+     * File storing the last known state of the cache. It is restored on startup so events can be processed while the cache is rebuilt from NiFi.
+     * The file and its directory are readable only by the Kylo user.
+     */
+    @Value("${nifi.flow.cache.snapshot.file:/opt/kylo/kylo-services/data/kylo-nifi-flow-cache.json}")
+    private String snapshotFile;
+
     @Deprecated
     private Map<String, Map<String, List<NifiFlowProcessor>>> feedProcessorIdProcessorMap = new ConcurrentHashMap<>();
 
     @Deprecated
     private Map<String, NifiFlowProcessor> processorIdMap = new ConcurrentHashMap<>();
 
-    private Set<String> reuseableTemplateProcessorIds = new HashSet<>();
+    private Set<String> reuseableTemplateProcessorIds = ConcurrentHashMap.newKeySet();
 
     private String reusableTemplateProcessGroupId = null;
 
@@ -182,12 +197,23 @@ public class NifiFlowCacheImpl implements ServicesApplicationStartupListener, Ni
 
     private DateTime lastUpdated = null;
 
+    /**
+     * The value of {@link #lastUpdated} when the snapshot file was last written
+     */
+    private volatile DateTime lastPersisted = null;
+
+    /**
+     * Lock for writing the snapshot file
+     */
+    private final Object snapshotLock = new Object();
+
     @PostConstruct
     private void init() {
         nifiConnectionService.subscribeConnectionListener(this);
         startup.subscribe(this);
         initExpireTimerThread();
         initializeLatestSnapshot();
+        restoreSnapshot();
     }
 
 
@@ -360,6 +386,7 @@ public class NifiFlowCacheImpl implements ServicesApplicationStartupListener, Ni
             loaded = true;
             reloadCount.incrementAndGet();
             log.info("Successfully built NiFi Flow Cache");
+            persistSnapshot();
             if (notify) {
                 notifyCacheAvailable();
             }
@@ -874,6 +901,7 @@ public class NifiFlowCacheImpl implements ServicesApplicationStartupListener, Ni
             .newSingleThreadScheduledExecutor();
         service.scheduleAtFixedRate(() -> {
             checkAndExpireUnusedCache();
+            persistSnapshot();
         }, timer, timer, TimeUnit.SECONDS);
 
     }
@@ -900,6 +928,87 @@ public class NifiFlowCacheImpl implements ServicesApplicationStartupListener, Ni
         }
     }
 
+    /**
+     * Loads the last known state of the cache from the snapshot file, if present.
+     *
+     * <p>The cache is not marked as available, but events whose processors are found in the restored data can be processed before the cache is rebuilt.</p>
+     */
+    private void restoreSnapshot() {
+        if (StringUtils.isBlank(snapshotFile) || !Files.isRegularFile(Paths.get(snapshotFile))) {
+            return;
+        }
+        try {
+            final long start = System.currentTimeMillis();
+            final String json = new String(Files.readAllBytes(Paths.get(snapshotFile)), StandardCharsets.UTF_8);
+            final NifiFlowCacheSnapshot snapshot = ObjectMapperSerializer.deserialize(json, NifiFlowCacheSnapshot.class);
+            processorIdToFeedNameMap.putAll(snapshot.getProcessorIdToFeedNameMap());
+            processorIdToFeedProcessGroupId.putAll(snapshot.getProcessorIdToFeedProcessGroupId());
+            processorIdToProcessorName.putAll(snapshot.getProcessorIdToProcessorName());
+            if (snapshot.getConnectionIdToConnection() != null) {
+                connectionIdToConnectionMap.putAll(snapshot.getConnectionIdToConnection());
+            }
+            if (snapshot.getConnectionIdToConnectionName() != null) {
+                connectionIdCacheNameMap.putAll(snapshot.getConnectionIdToConnectionName());
+            }
+            if (snapshot.getReusableTemplateProcessorIds() != null) {
+                reuseableTemplateProcessorIds.addAll(snapshot.getReusableTemplateProcessorIds());
+            }
+            log.info("Restored NiFi Flow Cache snapshot from {} with {} processors and {} connections in {} ms", snapshotFile, processorIdToProcessorName.size(), connectionIdToConnectionMap.size(),
+                     System.currentTimeMillis() - start);
+        } catch (final Exception e) {
+            log.warn("Unable to restore the NiFi Flow Cache snapshot from {}: {}", snapshotFile, e.toString());
+        }
+    }
+
+    /**
+     * Writes the current state of the cache to the snapshot file if it has changed since it was last written.
+     */
+    private void persistSnapshot() {
+        synchronized (snapshotLock) {
+            final DateTime updated = lastUpdated;
+            if (StringUtils.isBlank(snapshotFile) || !loaded || updated == null || updated.equals(lastPersisted)) {
+                return;
+            }
+
+            final NifiFlowCacheSnapshot snapshot = new NifiFlowCacheSnapshot(new HashMap<>(processorIdToFeedNameMap), new HashMap<>(processorIdToFeedProcessGroupId),
+                                                                             new HashMap<>(processorIdToProcessorName), null, null);
+            snapshot.setConnectionIdToConnection(new HashMap<>(connectionIdToConnectionMap));
+            snapshot.setConnectionIdToConnectionName(new HashMap<>(connectionIdCacheNameMap));
+            snapshot.setReusableTemplateProcessorIds(new HashSet<>(reuseableTemplateProcessorIds));
+
+            final Path target = Paths.get(snapshotFile);
+            try {
+                final Path temp = createPrivateTempFile(target);
+                Files.write(temp, ObjectMapperSerializer.serialize(snapshot).getBytes(StandardCharsets.UTF_8));
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                lastPersisted = updated;
+                log.debug("Saved NiFi Flow Cache snapshot to {}", snapshotFile);
+            } catch (final IOException | RuntimeException e) {
+                log.warn("Unable to save the NiFi Flow Cache snapshot to {}: {}", snapshotFile, e.toString());
+            }
+        }
+    }
+
+    /**
+     * Creates a temporary file next to the target, creating the directory if needed, that only the owner can read and write.
+     */
+    private static Path createPrivateTempFile(final Path target) throws IOException {
+        final Path dir = target.toAbsolutePath().getParent();
+        final boolean posix = dir.getFileSystem().supportedFileAttributeViews().contains("posix");
+        if (!Files.isDirectory(dir)) {
+            if (posix) {
+                Files.createDirectories(dir, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+            } else {
+                Files.createDirectories(dir);
+            }
+        }
+        if (posix) {
+            return Files.createTempFile(dir, target.getFileName().toString(), ".tmp", PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } else {
+            return Files.createTempFile(dir, target.getFileName().toString(), ".tmp");
+        }
+    }
+
     public void addConnectionToCache(ConnectionDTO connectionDTO) {
         Collection<ConnectionDTO> connectionList = Lists.newArrayList(connectionDTO);
         updateConnectionMap(connectionList, true);
@@ -33,7 +33,7 @@ import com.thinkbiganalytics.metadata.api.MetadataAccess;
 import com.thinkbiganalytics.metadata.api.datasource.DatasourceProvider;
 import com.thinkbiganalytics.metadata.rest.model.data.Datasource;
 import com.thinkbiganalytics.metadata.rest.model.data.JdbcDatasource;
-import com.thinkbiganalytics.schema.DBSchemaParser;
+import com.thinkbiganalytics.schema.DBSchemaCache;
 import com.thinkbiganalytics.schema.QueryRunner;
 
 import org.apache.commons.lang3.StringUtils;
@@ -42,6 +42,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.stereotype.Service;
@@ -49,10 +50,13 @@ import org.springframework.stereotype.Service;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.sql.DataSource;
 
@@ -80,6 +84,33 @@ public class DBCPConnectionPoolService {
     @Inject
     private MetadataAccess metadataAccess;
 
+    /**
+     * Number of seconds to cache the list of tables for a data source
+     */
+    @Value("${kylo.feed.mgr.datasource.catalog.ttl.seconds:600}")
+    private long catalogTtlSeconds = 600;
+
+    /**
+     * Maximum number of concurrent metadata queries when listing the tables for a data source
+     */
+    @Value("${kylo.feed.mgr.datasource.catalog.threads:8}")
+    private int catalogThreads = 8;
+
+    /**
+     * Cache of table names and descriptions for each data source
+     */
+    private DBSchemaCache schemaCache;
+
+    @PostConstruct
+    public void init() {
+        schemaCache = new DBSchemaCache(catalogTtlSeconds, TimeUnit.SECONDS, catalogThreads);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        schemaCache.shutdown();
+    }
+
     /**
      * Executes the specified SELECT query in the context of the specified controller service.
      *
@@ -113,12 +144,26 @@ public class DBCPConnectionPoolService {
      * @return a list of schema.table names matching the pattern for the database
      */
     public List<String> getTableNamesForControllerService(String serviceId, String serviceName, String schema, String tableName) {
+        return getTableNamesForControllerService(serviceId, serviceName, schema, tableName, false);
+    }
+
+    /**
+     * Returns a list of table names matching a pattern
+     *
+     * @param serviceId   a NiFi controller service id
+     * @param serviceName a NiFi controller service name
+     * @param schema      A schema pattern to look for
+     * @param tableName   A table pattern to look for
+     * @param refresh     {@code true} to reload the cached list of tables from the database
+     * @return a list of schema.table names matching the pattern for the database
+     */
+    public List<String> getTableNamesForControllerService(String serviceId, String serviceName, String schema, String tableName, boolean refresh) {
         ControllerServiceDTO controllerService = getControllerService(serviceId, serviceName);
 
         if (controllerService != null) {
             DescribeTableControllerServiceRequestBuilder builder = new DescribeTableControllerServiceRequestBuilder(controllerService);
             DescribeTableControllerServiceRequest serviceProperties = builder.schemaName(schema).tableName(tableName).build();
-            return getTableNamesForControllerService(serviceProperties);
+            return getTableNamesForControllerService(serviceProperties, refresh);
         } else {
             log.error("Cannot getTable Names for Controller Service. Unable to obtain Controller Service for serviceId or Name ({} , {})", serviceId, serviceName);
         }
@@ -135,12 +180,26 @@ public class DBCPConnectionPoolService {
      */
     @Nullable
     public List<String> getTableNamesForDatasource(@Nonnull final JdbcDatasource datasource, @Nullable final String schema, @Nullable final String tableName) {
+        return getTableNamesForDatasource(datasource, schema, tableName, false);
+    }
+
+    /**
+     * Returns a list of table names for the specified data source.
+     *
+     * @param datasource the data source
+     * @param schema     the schema name, or {@code null} for all schemas
+     * @param tableName  a table pattern to look for
+     * @param refresh    {@code true} to reload the cached list of tables from the database
+     * @return a list of schema.table names, or {@code null} if not accessible
+     */
+    @Nullable
+    public List<String> getTableNamesForDatasource(@Nonnull final JdbcDatasource datasource, @Nullable final String schema, @Nullable final String tableName, final boolean refresh) {
         final Optional<ControllerServiceDTO> controllerService = Optional.ofNullable(datasource.getControllerServiceId())
             .map(id -> getControllerService(id, null));
         if (controllerService.isPresent()) {
             final DescribeTableControllerServiceRequestBuilder builder = new DescribeTableControllerServiceRequestBuilder(controllerService.get());
             final DescribeTableControllerServiceRequest serviceProperties = builder.schemaName(schema).tableName(tableName).password(datasource.getPassword()).useEnvironmentProperties(false).build();
-            return getTableNamesForControllerService(serviceProperties);
+            return getTableNamesForControllerService(serviceProperties, refresh);
         } else {
             log.error("Cannot get table names for data source: {}", datasource);
             return null;
@@ -221,9 +280,10 @@ public class DBCPConnectionPoolService {
      * Return a list of schema.table_name
      *
      * @param serviceProperties properties describing where and what to look for
+     * @param refresh           {@code true} to reload the cached list of tables from the database
      * @return a list of schema.table_name
      */
-    private List<String> getTableNamesForControllerService(DescribeTableControllerServiceRequest serviceProperties) {
+    private List<String> getTableNamesForControllerService(DescribeTableControllerServiceRequest serviceProperties, boolean refresh) {
 
         if (serviceProperties != null) {
             Map<String, String> properties = serviceProperties.useEnvironmentProperties()
@@ -239,8 +299,10 @@ public class DBCPConnectionPoolService {
                 log.info("Search For Tables against Controller Service: {} ({}) with uri of {}.  ", serviceProperties.getControllerServiceName(), serviceProperties.getControllerServiceId(),
                          dataSourceProperties.getUrl());
                 DataSource dataSource = PoolingDataSourceService.getDataSource(dataSourceProperties);
-                DBSchemaParser schemaParser = new DBSchemaParser(dataSource, kerberosHiveConfiguration);
-                return schemaParser.listTables(serviceProperties.getSchemaName(), serviceProperties.getTableName());
+                if (refresh) {
+                    schemaCache.invalidate(dataSource);
+                }
+                return schemaCache.listTables(dataSource, kerberosHiveConfiguration, serviceProperties.getSchemaName(), serviceProperties.getTableName());
             }
         }
         return null;
@@ -316,8 +378,7 @@ public class DBCPConnectionPoolService {
                 log.info("describing Table {}.{} against Controller Service: {} ({}) with uri of {} ", serviceProperties.getSchemaName(), serviceProperties.getTableName(),
                          serviceProperties.getControllerServiceName(), serviceProperties.getControllerServiceId(), dataSourceProperties.getUrl());
                 DataSource dataSource = PoolingDataSourceService.getDataSource(dataSourceProperties);
-                DBSchemaParser schemaParser = new DBSchemaParser(dataSource, kerberosHiveConfiguration);
-                return schemaParser.describeTable(serviceProperties.getSchemaName(), serviceProperties.getTableName());
+                return schemaCache.describeTable(dataSource, kerberosHiveConfiguration, serviceProperties.getSchemaName(), serviceProperties.getTableName());
             } else {
                 return null;
             }
@@ -39,7 +39,7 @@ import com.thinkbiganalytics.feedmgr.service.template.exporting.model.ExportTemp
 import com.thinkbiganalytics.feedmgr.service.template.importing.TemplateImporter;
 import com.thinkbiganalytics.feedmgr.service.template.importing.TemplateImporterFactory;
 import com.thinkbiganalytics.feedmgr.service.template.importing.model.ImportTemplate;
-import com.thinkbiganalytics.feedmgr.util.ImportUtil;
+import com.thinkbiganalytics.feedmgr.support.ImportArchive;
 import com.thinkbiganalytics.json.ObjectMapperSerializer;
 import com.thinkbiganalytics.rest.model.RestResponseStatus;
 
@@ -64,6 +64,7 @@ import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -121,7 +122,7 @@ public class AdminController {
     public Response exportTemplate(@NotNull @Size(min = 36, max = 36, message = "Invalid templateId size")
                                    @PathParam("templateId") String templateId) {
         ExportTemplate zipFile = templateExporter.exportTemplate(templateId);
-        return Response.ok(zipFile.getFile(), MediaType.APPLICATION_OCTET_STREAM)
+        return Response.ok((StreamingOutput) zipFile::writeTo, MediaType.APPLICATION_OCTET_STREAM)
             .header("Content-Disposition", "attachments; filename=\"" + zipFile.getFileName() + "\"") //optional
             .build();
     }
@@ -139,7 +140,7 @@ public class AdminController {
                                @PathParam("feedId") String feedId) {
         try {
             ExportFeed zipFile = feedExporter.exportFeed(feedId);
-            return Response.ok(zipFile.getFile(), MediaType.APPLICATION_OCTET_STREAM)
+            return Response.ok((StreamingOutput) zipFile::writeTo, MediaType.APPLICATION_OCTET_STREAM)
                 .header("Content-Disposition", "attachments; filename=\"" + zipFile.getFileName() + "\"") //optional
                 .build();
         } catch (IOException e) {
@@ -221,9 +222,11 @@ public class AdminController {
             options.findImportComponentOption(ImportComponent.FEED_DATA).setProperties(properties);
         }
 
-        byte[] content = ImportUtil.streamToByteArray(fileInputStream);
-        FeedImporter feedImporter = feedImporterFactory.apply(fileMetaData.getFileName(), content, options);
-        ImportFeed importFeed = feedImporter.validateAndImport();
+        ImportFeed importFeed;
+        try (ImportArchive archive = ImportArchive.fromStream(fileMetaData.getFileName(), fileInputStream)) {
+            FeedImporter feedImporter = feedImporterFactory.apply(archive, options);
+            importFeed = feedImporter.validateAndImport();
+        }
 
         return Response.ok(importFeed).build();
     }
@@ -280,9 +283,11 @@ public class AdminController {
             options.findImportComponentOption(ImportComponent.TEMPLATE_DATA).setProperties(properties);
         }
 
-        byte[] content = ImportUtil.streamToByteArray(fileInputStream);
-        TemplateImporter templateImporter = templateImporterFactory.apply(fileMetaData.getFileName(), content, options);
-        ImportTemplate importTemplate = templateImporter.validateAndImport();
+        ImportTemplate importTemplate;
+        try (ImportArchive archive = ImportArchive.fromStream(fileMetaData.getFileName(), fileInputStream)) {
+            TemplateImporter templateImporter = templateImporterFactory.apply(archive, options);
+            importTemplate = templateImporter.validateAndImport();
+        }
 
         return Response.ok(importTemplate).build();
     }
@@ -35,7 +35,7 @@ import com.thinkbiganalytics.feedmgr.service.feed.importing.model.ImportFeed;
 import com.thinkbiganalytics.feedmgr.service.template.importing.TemplateImporter;
 import com.thinkbiganalytics.feedmgr.service.template.importing.TemplateImporterFactory;
 import com.thinkbiganalytics.feedmgr.service.template.importing.model.ImportTemplate;
-import com.thinkbiganalytics.feedmgr.util.ImportUtil;
+import com.thinkbiganalytics.feedmgr.support.ImportArchive;
 import com.thinkbiganalytics.json.ObjectMapperSerializer;
 import com.thinkbiganalytics.metadata.api.MetadataAccess;
 import com.thinkbiganalytics.metadata.api.feed.OpsManagerFeedProvider;
@@ -179,17 +179,17 @@ public class AdminControllerV2 {
 
         FeedImporter feedImporter = null;
 
-        if (importComponents == null) {
-            byte[] content = ImportUtil.streamToByteArray(fileInputStream);
-            feedImporter = feedImporterFactory.apply(fileMetaData.getFileName(), content, options);
-            importFeed = feedImporter.validate();
-            importFeed.setSuccess(false);
-        } else {
-            options.setImportComponentOptions(ObjectMapperSerializer.deserialize(importComponents, new TypeReference<Set<ImportComponentOption>>() {
-            }));
-            byte[] content = ImportUtil.streamToByteArray(fileInputStream);
-            feedImporter = feedImporterFactory.apply(fileMetaData.getFileName(), content, options);
-            importFeed = feedImporter.validateAndImport();
+        try (ImportArchive archive = ImportArchive.fromStream(fileMetaData.getFileName(), fileInputStream)) {
+            if (importComponents == null) {
+                feedImporter = feedImporterFactory.apply(archive, options);
+                importFeed = feedImporter.validate();
+                importFeed.setSuccess(false);
+            } else {
+                options.setImportComponentOptions(ObjectMapperSerializer.deserialize(importComponents, new TypeReference<Set<ImportComponentOption>>() {
+                }));
+                feedImporter = feedImporterFactory.apply(archive, options);
+                importFeed = feedImporter.validateAndImport();
+            }
         }
         uploadProgressService.removeUpload(uploadKey);
         return Response.ok(importFeed).build();
@@ -213,19 +213,20 @@ public class AdminControllerV2 {
         ImportTemplateOptions options = new ImportTemplateOptions();
         options.setUploadKey(uploadKey);
         ImportTemplate importTemplate = null;
-        byte[] content = ImportUtil.streamToByteArray(fileInputStream);
 
         uploadProgressService.newUpload(uploadKey);
         TemplateImporter templateImporter = null;
-        if (importComponents == null) {
-            templateImporter = templateImporterFactory.apply(fileMetaData.getFileName(), content, options);
-            importTemplate = templateImporter.validate();
-            importTemplate.setSuccess(false);
-        } else {
-            options.setImportComponentOptions(ObjectMapperSerializer.deserialize(importComponents, new TypeReference<Set<ImportComponentOption>>() {
-            }));
-            templateImporter = templateImporterFactory.apply(fileMetaData.getFileName(), content, options);
-            importTemplate = templateImporter.validateAndImport();
+        try (ImportArchive archive = ImportArchive.fromStream(fileMetaData.getFileName(), fileInputStream)) {
+            if (importComponents == null) {
+                templateImporter = templateImporterFactory.apply(archive, options);
+                importTemplate = templateImporter.validate();
+                importTemplate.setSuccess(false);
+            } else {
+                options.setImportComponentOptions(ObjectMapperSerializer.deserialize(importComponents, new TypeReference<Set<ImportComponentOption>>() {
+                }));
+                templateImporter = templateImporterFactory.apply(archive, options);
+                importTemplate = templateImporter.validateAndImport();
+            }
         }
         return Response.ok(importTemplate).build();
     }
@@ -297,6 +297,7 @@ public class DatasourceController {
      *
      * @param idStr  the data source id
      * @param schema the schema name, or {@code null} for all schemas
+     * @param refresh {@code true} to reload the cached list of tables from the database
      * @return the list of table names
      */
     @GET
@@ -309,7 +310,8 @@ public class DatasourceController {
                       @ApiResponse(code = 404, message = "A JDBC data source with that id does not exist.", response = RestResponseStatus.class),
                       @ApiResponse(code = 500, message = "NiFi or the database are unavailable.", response = RestResponseStatus.class)
                   })
-    public Response getTableNames(@PathParam("id") final String idStr, @QueryParam("schema") final String schema, @QueryParam("tableName") final String tableName) {
+    public Response getTableNames(@PathParam("id") final String idStr, @QueryParam("schema") final String schema, @QueryParam("tableName") final String tableName,
+                                  @QueryParam("refresh") final boolean refresh) {
         // Verify user has access to data source
         final Optional<com.thinkbiganalytics.metadata.api.datasource.Datasource.ID> id = metadata.read(() -> {
             accessController.checkPermission(AccessController.SERVICES, FeedServicesAccessControl.ACCESS_DATASOURCES);
@@ -324,7 +326,7 @@ public class DatasourceController {
                 .map(ds -> datasourceTransform.toDatasource(ds, DatasourceModelTransform.Level.ADMIN))
                 .filter(JdbcDatasource.class::isInstance)
                 .map(JdbcDatasource.class::cast)
-                .map(datasource -> dbcpConnectionPoolTableInfo.getTableNamesForDatasource(datasource, schema, tableName))
+                .map(datasource -> dbcpConnectionPoolTableInfo.getTableNamesForDatasource(datasource, schema, tableName, refresh))
                 .orElseThrow(() -> new NotFoundException("No JDBC datasource exists with the given ID: " + idStr));
             return Response.ok(tables).build();
         }, MetadataAccess.SERVICE);
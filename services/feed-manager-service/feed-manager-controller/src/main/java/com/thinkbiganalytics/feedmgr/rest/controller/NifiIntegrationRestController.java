@@ -379,9 +379,9 @@ public class NifiIntegrationRestController {
                       @ApiResponse(code = 500, message = "Nifi or the database are unavailable.", response = RestResponseStatus.class)
                   })
     public Response getTableNames(@PathParam("serviceId") String serviceId, @QueryParam("serviceName") @DefaultValue("") String serviceName, @QueryParam("schema") String schema,
-                                  @QueryParam("tableName") String tableName) {
+                                  @QueryParam("tableName") String tableName, @QueryParam("refresh") boolean refresh) {
         log.info("Query for Table Names against service: {}({})", serviceName, serviceId);
-        List<String> tables = dbcpConnectionPoolTableInfo.getTableNamesForControllerService(serviceId, serviceName, schema, tableName);
+        List<String> tables = dbcpConnectionPoolTableInfo.getTableNamesForControllerService(serviceId, serviceName, schema, tableName, refresh);
 
         return Response.ok(tables).build();
     }
@@ -22,17 +22,29 @@ package com.thinkbiganalytics.feedmgr.rest.controller;
 
 import com.thinkbiganalytics.feedmgr.security.FeedServicesAccessControl;
 import com.thinkbiganalytics.rest.model.RestResponseStatus;
+import com.thinkbiganalytics.search.api.BatchIndexer;
+import com.thinkbiganalytics.search.api.BatchIndexerConfig;
 import com.thinkbiganalytics.search.api.Search;
+import com.thinkbiganalytics.search.api.SearchIndex;
 import com.thinkbiganalytics.search.rest.model.SearchResult;
 import com.thinkbiganalytics.security.AccessController;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 import javax.annotation.Nonnull;
 import javax.inject.Inject;
+import javax.ws.rs.Consumes;
 import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
+import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
@@ -52,6 +64,8 @@ import io.swagger.annotations.Tag;
 @SwaggerDefinition(tags = @Tag(name = "Feed Manager - Search", description = "global search"))
 public class SearchRestController {
 
+    private static final Logger log = LoggerFactory.getLogger(SearchRestController.class);
+
     /**
      * Ensures the user has the correct permissions.
      */
@@ -61,6 +75,12 @@ public class SearchRestController {
     @Autowired(required = false)
     Search searchEngine;
 
+    /**
+     * Type of the Hive table documents in the schema metadata index
+     */
+    @Value("${search.hive.schema.type:hive-schema}")
+    String hiveSchemaType = "hive-schema";
+
     @GET
     @Produces({MediaType.APPLICATION_JSON})
     @ApiOperation("Queries a search engine.")
@@ -77,9 +97,55 @@ public class SearchRestController {
             return Response.ok(result)
                 .build();
         } else {
-            RestResponseStatus.ResponseStatusBuilder builder = new RestResponseStatus.ResponseStatusBuilder();
-            builder.message("Search functionality is not available since no search engine is configured.");
-            return Response.accepted(builder.buildError()).status(Response.Status.INTERNAL_SERVER_ERROR).build();
+            return searchEngineUnavailable();
+        }
+    }
+
+    @POST
+    @Path("/hive-tables/delete")
+    @Consumes({MediaType.APPLICATION_JSON})
+    @Produces({MediaType.APPLICATION_JSON})
+    @ApiOperation(value = "Removes dropped Hive tables from the search index.",
+                  notes = "Accepts the hive.metadata.removed.tables attribute of MergeHiveTableMetadata, a JSON array of database.table names. The tables must have "
+                          + "been indexed with their database.table name as the document id.")
+    @ApiResponses({
+                      @ApiResponse(code = 200, message = "The tables were removed.", response = RestResponseStatus.class),
+                      @ApiResponse(code = 403, message = "Access denied.", response = RestResponseStatus.class),
+                      @ApiResponse(code = 500, message = "The search engine is unavailable or failed to remove the tables.", response = RestResponseStatus.class)
+                  })
+    @Nonnull
+    public Response deleteHiveTables(@Nonnull final List<String> tables) {
+        accessController.checkPermission(AccessController.SERVICES, FeedServicesAccessControl.ACCESS_TABLES);
+        if (searchEngine == null) {
+            return searchEngineUnavailable();
+        }
+
+        final List<CompletableFuture<Void>> deletes = new ArrayList<>(tables.size());
+        try (BatchIndexer indexer = searchEngine.newBatchIndexer(new BatchIndexerConfig())) {
+            for (final String table : tables) {
+                deletes.add(indexer.delete(SearchIndex.SCHEMA_METADATA, hiveSchemaType, table));
+            }
+        }
+        searchEngine.commit(SearchIndex.SCHEMA_METADATA);
+
+        try {
+            CompletableFuture.allOf(deletes.toArray(new CompletableFuture[deletes.size()])).join();
+        } catch (final RuntimeException e) {
+            log.error("Failed to remove Hive tables from the search index: {}", tables, e);
+            final RestResponseStatus.ResponseStatusBuilder builder = new RestResponseStatus.ResponseStatusBuilder();
+            builder.message("Failed to remove Hive tables from the search index.");
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(builder.buildError()).build();
         }
+        return Response.ok(RestResponseStatus.SUCCESS).build();
+    }
+
+    /**
+     * Creates the response for when no search engine is configured.
+     */
+    @Nonnull
+    private Response searchEngineUnavailable() {
+        RestResponseStatus.ResponseStatusBuilder builder = new RestResponseStatus.ResponseStatusBuilder();
+        builder.message("Search functionality is not available since no search engine is configured.");
+        return Response.accepted(builder.buildError()).status(Response.Status.INTERNAL_SERVER_ERROR).build();
     }
 }
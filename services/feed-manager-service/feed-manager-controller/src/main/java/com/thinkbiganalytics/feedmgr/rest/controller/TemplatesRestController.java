@@ -31,8 +31,10 @@ import com.thinkbiganalytics.feedmgr.rest.model.RegisteredTemplateRequest;
 import com.thinkbiganalytics.feedmgr.rest.model.TemplateDtoWrapper;
 import com.thinkbiganalytics.feedmgr.rest.model.TemplateOrder;
 import com.thinkbiganalytics.feedmgr.rest.model.TemplateProcessorDatasourceDefinition;
+import com.thinkbiganalytics.feedmgr.rest.model.UploadProgress;
 import com.thinkbiganalytics.feedmgr.service.MetadataService;
 import com.thinkbiganalytics.feedmgr.service.datasource.DatasourceService;
+import com.thinkbiganalytics.feedmgr.service.feed.FeedRedeploymentService;
 import com.thinkbiganalytics.feedmgr.service.security.SecurityService;
 import com.thinkbiganalytics.feedmgr.service.template.FeedManagerTemplateService;
 import com.thinkbiganalytics.feedmgr.service.template.RegisteredTemplateService;
@@ -122,6 +124,9 @@ public class TemplatesRestController {
     @Inject
     NifiFlowCache nifiFlowCache;
 
+    @Inject
+    private FeedRedeploymentService feedRedeploymentService;
+
     private MetadataService getMetadataService() {
         return metadataService;
     }
@@ -445,6 +450,19 @@ public class TemplatesRestController {
         return Response.ok(disabledTemplate).build();
     }
 
+    @POST
+    @Path("/registered/{templateId}/redeploy-feeds")
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation(value = "Saves all the feeds using the specified registered template back to NiFi.",
+                  notes = "The feeds are saved in the background. The progress can be checked using the upload status of the returned key.")
+    @ApiResponses(
+        @ApiResponse(code = 200, message = "Returns the progress of the redeployment.", response = UploadProgress.class)
+    )
+    public Response redeployFeeds(@PathParam("templateId") String templateId) {
+        UploadProgress progress = feedRedeploymentService.redeployFeedsForTemplate(templateId);
+        return Response.ok(progress).build();
+    }
+
     @DELETE
     @Path("/registered/{templateId}/delete")
     @Produces(MediaType.APPLICATION_JSON)
@@ -23,6 +23,7 @@ package com.thinkbiganalytics.feedmgr.service.feed;
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.thinkbiganalytics.datalake.authorization.service.HadoopAuthorizationService;
 import com.thinkbiganalytics.feedmgr.nifi.CreateFeedBuilder;
 import com.thinkbiganalytics.feedmgr.nifi.PropertyExpressionResolver;
@@ -104,8 +105,10 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutor;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.io.Serializable;
@@ -118,9 +121,12 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -218,12 +224,35 @@ public class DefaultFeedManagerFeedService implements FeedManagerFeedService {
     @Inject
     private NiFiObjectCache niFiObjectCache;
 
+    /**
+     * Number of threads shared by all feed saves for making independent NiFi requests concurrently, or 0 to make them on the calling thread
+     */
+    @Value("${kylo.feed.mgr.nifi.deploy.threads:4}")
+    private int nifiDeployThreads;
+
+    @Inject
+    private FeedSummaryProjection feedSummaryProjection;
+
+    /**
+     * Serve feed listings from the in-memory {@link FeedSummaryProjection} instead of querying ModeShape
+     */
+    @Value("${kylo.feed.mgr.feed.summary.projection.enabled:true}")
+    private boolean feedSummaryProjectionEnabled;
+
+    /**
+     * Runs the independent NiFi requests made by the {@link CreateFeedBuilder}
+     */
+    private ExecutorService nifiDeployExecutor;
+
     /**
      * Adds listeners for transferring events.
      */
     @PostConstruct
     public void addEventListener() {
         metadataEventService.addListener(feedPropertyChangeListener);
+        if (nifiDeployThreads > 0) {
+            nifiDeployExecutor = Executors.newFixedThreadPool(nifiDeployThreads, new ThreadFactoryBuilder().setDaemon(true).setNameFormat("kylo-nifi-feed-deploy-%d").build());
+        }
     }
 
     /**
@@ -232,6 +261,9 @@ public class DefaultFeedManagerFeedService implements FeedManagerFeedService {
     @PreDestroy
     public void removeEventListener() {
         metadataEventService.removeListener(feedPropertyChangeListener);
+        if (nifiDeployExecutor != null) {
+            nifiDeployExecutor.shutdownNow();
+        }
     }
 
     @Override
@@ -333,6 +365,16 @@ public class DefaultFeedManagerFeedService implements FeedManagerFeedService {
         return metadataAccess.read(() -> {
             this.accessController.checkPermission(AccessController.SERVICES, FeedServicesAccessControl.ACCESS_FEEDS);
 
+            if (isFeedSummaryProjectionUsable()) {
+                //page through the projection and only load the feeds on the page, skipping any deleted since the projection was refreshed
+                Page<FeedSummary> summaries = feedSummaryProjection.findPage(pageable, filter);
+                List<FeedMetadata> feeds = summaries.getContent().stream()
+                    .map(summary -> feedProvider.getFeed(feedProvider.resolveId(summary.getId())))
+                    .filter(Objects::nonNull)
+                    .map(feedModelTransform::domainToFeedMetadata)
+                    .collect(Collectors.toList());
+                return new PageImpl<>(feeds, pageable, summaries.getTotalElements() - (summaries.getNumberOfElements() - feeds.size()));
+            }
             Page<Feed> domainFeeds = feedProvider.findPage(pageable, filter);
             return domainFeeds.map(d -> feedModelTransform.domainToFeedMetadata(d));
         });
@@ -367,6 +409,10 @@ public class DefaultFeedManagerFeedService implements FeedManagerFeedService {
     }
 
     public Page<FeedSummary> getFeedSummaryData(Pageable pageable, String filter) {
+        if (isFeedSummaryProjectionUsable()) {
+            this.accessController.checkPermission(AccessController.SERVICES, FeedServicesAccessControl.ACCESS_FEEDS);
+            return feedSummaryProjection.findPage(pageable, filter);
+        }
         return metadataAccess.read(() -> {
             this.accessController.checkPermission(AccessController.SERVICES, FeedServicesAccessControl.ACCESS_FEEDS);
 
@@ -375,6 +421,14 @@ public class DefaultFeedManagerFeedService implements FeedManagerFeedService {
         });
     }
 
+    /**
+     * Indicates that feed listings can be served from the {@link FeedSummaryProjection}. The projection holds every feed so it is not used when
+     * the feeds visible to each user are limited by entity access control.
+     */
+    private boolean isFeedSummaryProjectionUsable() {
+        return feedSummaryProjectionEnabled && !accessController.isEntityAccessControlled();
+    }
+
     @Override
     public List<FeedSummary> getFeedSummaryForCategory(final String categoryId) {
         return metadataAccess.read(() -> {
@@ -573,6 +627,10 @@ public class DefaultFeedManagerFeedService implements FeedManagerFeedService {
                 .removeInactiveVersionedProcessGroup(removeInactiveNifiVersionedFeedFlows)
                 .autoAlign(nifiAutoFeedsAlignAfterSave)
                 .withNiFiTemplateCache(niFiTemplateCache);
+        if (nifiDeployExecutor != null) {
+            // Run the NiFi requests as the user saving the feed
+            feedBuilder.withExecutor(new DelegatingSecurityContextExecutor(nifiDeployExecutor));
+        }
 
         if (registeredTemplate.isReusableTemplate()) {
             feedBuilder.setReusableTemplate(true);
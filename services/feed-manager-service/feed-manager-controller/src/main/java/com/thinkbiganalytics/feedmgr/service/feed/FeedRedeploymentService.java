@@ -0,0 +1,195 @@
+package com.thinkbiganalytics.feedmgr.service.feed;
+
+/*-
+ * #%L
+ * thinkbig-feed-manager-controller
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.thinkbiganalytics.feedmgr.rest.model.FeedMetadata;
+import com.thinkbiganalytics.feedmgr.rest.model.NifiFeed;
+import com.thinkbiganalytics.feedmgr.rest.model.UploadProgress;
+import com.thinkbiganalytics.feedmgr.service.UploadProgressService;
+import com.thinkbiganalytics.nifi.rest.NiFiObjectCache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutor;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nonnull;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+/**
+ * Saves all the feeds using a registered template back to NiFi, for example after the template has been changed.
+ *
+ * <p>Feeds are saved concurrently, up to {@code kylo.feed.mgr.redeploy.threads} at a time. The first feed of each category is saved before the others
+ * in that category so the category ports and connections are created once and then found in the shared {@link NiFiObjectCache}.</p>
+ */
+public class FeedRedeploymentService {
+
+    private static final Logger log = LoggerFactory.getLogger(FeedRedeploymentService.class);
+
+    @Inject
+    private FeedManagerFeedService feedManagerFeedService;
+
+    @Inject
+    private UploadProgressService uploadProgressService;
+
+    @Inject
+    private NiFiObjectCache niFiObjectCache;
+
+    /**
+     * Maximum number of feeds saved at the same time
+     */
+    @Value("${kylo.feed.mgr.redeploy.threads:2}")
+    private int redeployThreads;
+
+    /**
+     * Saves the feeds
+     */
+    private ExecutorService redeployExecutor;
+
+    /**
+     * Starts the thread pool.
+     */
+    @PostConstruct
+    public void init() {
+        redeployExecutor = Executors.newFixedThreadPool(Math.max(1, redeployThreads), new ThreadFactoryBuilder().setDaemon(true).setNameFormat("kylo-feed-redeploy-%d").build());
+    }
+
+    /**
+     * Stops the thread pool.
+     */
+    @PreDestroy
+    public void destroy() {
+        redeployExecutor.shutdownNow();
+    }
+
+    /**
+     * Starts saving all the feeds that use the specified registered template. The feeds are saved as the current user.
+     *
+     * @param registeredTemplateId the registered template id
+     * @return the progress of the redeployment, also available from the upload status of its key
+     */
+    @Nonnull
+    public UploadProgress redeployFeedsForTemplate(@Nonnull final String registeredTemplateId) {
+        final List<FeedMetadata> feeds = Optional.ofNullable(feedManagerFeedService.getFeedsWithTemplate(registeredTemplateId)).orElse(Collections.emptyList());
+        final UploadProgress progress = uploadProgressService.getUploadStatus(uploadProgressService.newUpload());
+        progress.setSections(feeds.stream().map(FeedMetadata::getId).collect(Collectors.toSet()));
+        log.info("Redeploying {} feeds for template {}", feeds.size(), registeredTemplateId);
+
+        if (feeds.isEmpty()) {
+            complete(progress, "No feeds use this template.", true);
+            return progress;
+        }
+
+        // Warm the lookups shared by every feed
+        niFiObjectCache.getRootProcessGroup();
+        niFiObjectCache.getCategoryProcessGroup(feeds.get(0).getCategory().getSystemName());
+
+        final Executor executor = new DelegatingSecurityContextExecutor(redeployExecutor, SecurityContextHolder.getContext());
+        final Map<String, List<FeedMetadata>> feedsByCategory = feeds.stream()
+            .collect(Collectors.groupingBy(feed -> feed.getCategory().getSystemName(), LinkedHashMap::new, Collectors.toList()));
+        final List<FeedMetadata> firstFeeds = feedsByCategory.values().stream().map(categoryFeeds -> categoryFeeds.get(0)).collect(Collectors.toList());
+        final List<FeedMetadata> otherFeeds = feedsByCategory.values().stream().flatMap(categoryFeeds -> categoryFeeds.stream().skip(1)).collect(Collectors.toList());
+
+        final List<String> failedFeeds = Collections.synchronizedList(new ArrayList<>());
+        redeployAll(firstFeeds, progress, executor, failedFeeds)
+            .thenCompose(firstResult -> redeployAll(otherFeeds, progress, executor, failedFeeds))
+            .whenComplete((result, error) -> {
+                if (error != null) {
+                    log.error("Redeployment of feeds for template {} did not complete", registeredTemplateId, error);
+                    complete(progress, "Unable to redeploy all feeds for the template. " + error.getMessage(), false);
+                } else if (failedFeeds.isEmpty()) {
+                    complete(progress, "Redeployed " + feeds.size() + " feeds for the template.", true);
+                } else {
+                    synchronized (failedFeeds) {
+                        complete(progress, "Unable to redeploy " + failedFeeds.size() + " of " + feeds.size() + " feeds for the template: " + String.join(", ", failedFeeds), false);
+                    }
+                }
+            });
+        return progress;
+    }
+
+    /**
+     * Saves the specified feeds concurrently, adding the names of those that fail to {@code failedFeeds}.
+     */
+    @Nonnull
+    private CompletableFuture<Void> redeployAll(@Nonnull final List<FeedMetadata> feeds, @Nonnull final UploadProgress progress, @Nonnull final Executor executor,
+                                                @Nonnull final List<String> failedFeeds) {
+        return CompletableFuture.allOf(feeds.stream()
+                                           .map(feed -> CompletableFuture.runAsync(() -> {
+                                               if (!redeploy(feed, progress)) {
+                                                   failedFeeds.add(feed.getCategoryAndFeedName());
+                                               }
+                                           }, executor))
+                                           .toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Saves the specified feed and records the result.
+     *
+     * @return {@code true} if the feed was saved
+     */
+    private boolean redeploy(@Nonnull final FeedMetadata feed, @Nonnull final UploadProgress progress) {
+        String message;
+        boolean success;
+        try {
+            final NifiFeed result = feedManagerFeedService.createFeed(feed);
+            success = result.isSuccess();
+            message = success ? "Redeployed " + feed.getCategoryAndFeedName()
+                              : "Unable to redeploy " + feed.getCategoryAndFeedName() + ". " + Optional.ofNullable(result.getErrorMessages()).map(errors -> String.join(" ", errors)).orElse("");
+        } catch (Exception e) {
+            log.error("Unable to redeploy feed {}", feed.getCategoryAndFeedName(), e);
+            success = false;
+            message = "Unable to redeploy " + feed.getCategoryAndFeedName() + ". " + e.getMessage();
+        }
+
+        synchronized (progress) {
+            uploadProgressService.addUploadStatus(progress.getKey(), message, true, success);
+            progress.completeSection(feed.getId());
+        }
+        return success;
+    }
+
+    /**
+     * Marks the redeployment as complete.
+     */
+    private void complete(@Nonnull final UploadProgress progress, @Nonnull final String message, final boolean success) {
+        synchronized (progress) {
+            uploadProgressService.addUploadStatus(progress.getKey(), message, true, success);
+            progress.setComplete(true);
+        }
+    }
+}
@@ -0,0 +1,414 @@
+package com.thinkbiganalytics.feedmgr.service.feed;
+
+/*-
+ * #%L
+ * thinkbig-feed-manager-controller
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.base.Strings;
+import com.thinkbiganalytics.feedmgr.rest.model.FeedSummary;
+import com.thinkbiganalytics.metadata.api.MetadataAccess;
+import com.thinkbiganalytics.metadata.api.event.MetadataChange;
+import com.thinkbiganalytics.metadata.api.event.MetadataEventListener;
+import com.thinkbiganalytics.metadata.api.event.MetadataEventService;
+import com.thinkbiganalytics.metadata.api.event.category.CategoryChangeEvent;
+import com.thinkbiganalytics.metadata.api.event.feed.FeedChangeEvent;
+import com.thinkbiganalytics.metadata.api.event.template.TemplateChangeEvent;
+import com.thinkbiganalytics.metadata.api.feed.Feed;
+import com.thinkbiganalytics.metadata.api.feed.FeedProvider;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+/**
+ * Read-optimized copy of the summary of every feed, used to serve paged and filtered feed listings without querying ModeShape.
+ *
+ * <p>Each sortable column has a sorted index and the filter text is matched using a trigram index over the same fields searched by the
+ * {@link FeedProvider}: the feed name, category name, state and template name. The projection is loaded on first use and kept consistent from
+ * {@link FeedChangeEvent}, {@link CategoryChangeEvent} and {@link TemplateChangeEvent} events.</p>
+ */
+public class FeedSummaryProjection {
+
+    private static final Logger log = LoggerFactory.getLogger(FeedSummaryProjection.class);
+
+    /**
+     * Sortable properties, named as for {@link FeedProvider#findPage(Pageable, String)}
+     */
+    public static final String SORT_FEED_NAME = "feedName";
+    public static final String SORT_STATE = "state";
+    public static final String SORT_CATEGORY_NAME = "category.name";
+    public static final String SORT_TEMPLATE_NAME = "templateName";
+    public static final String SORT_UPDATE_DATE = "updateDate";
+
+    /**
+     * Length of the filter index tokens
+     */
+    private static final int TOKEN_LENGTH = 3;
+
+    /**
+     * Orders summaries by each sortable property, with the id as a tie breaker so every summary is kept
+     */
+    private static final Map<String, Comparator<FeedSummary>> COMPARATORS;
+
+    static {
+        Map<String, Comparator<FeedSummary>> map = new HashMap<>();
+        map.put(SORT_FEED_NAME, comparing(FeedSummary::getSystemFeedName, String.CASE_INSENSITIVE_ORDER));
+        map.put(SORT_STATE, comparing(FeedSummary::getState, String.CASE_INSENSITIVE_ORDER));
+        map.put(SORT_CATEGORY_NAME, comparing(FeedSummary::getSystemCategoryName, String.CASE_INSENSITIVE_ORDER));
+        map.put(SORT_TEMPLATE_NAME, comparing(FeedSummary::getTemplateName, String.CASE_INSENSITIVE_ORDER));
+        map.put(SORT_UPDATE_DATE, comparing(FeedSummary::getUpdateDate, Comparator.naturalOrder()));
+        COMPARATORS = Collections.unmodifiableMap(map);
+    }
+
+    @Inject
+    private MetadataAccess metadataAccess;
+
+    @Inject
+    private FeedProvider feedProvider;
+
+    @Inject
+    private FeedModelTransform feedModelTransform;
+
+    @Inject
+    private MetadataEventService metadataEventService;
+
+    private final MetadataEventListener<FeedChangeEvent> feedChangeListener = new FeedChangeListener();
+
+    private final MetadataEventListener<CategoryChangeEvent> categoryChangeListener = new CategoryChangeListener();
+
+    private final MetadataEventListener<TemplateChangeEvent> templateChangeListener = new TemplateChangeListener();
+
+    /**
+     * Guards the summaries and indexes
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Summaries by feed id
+     */
+    private final Map<String, FeedSummary> summaries = new HashMap<>();
+
+    /**
+     * Summaries ordered by each sortable property
+     */
+    private final Map<String, TreeSet<FeedSummary>> sortIndexes = new HashMap<>();
+
+    /**
+     * Ids of the feeds containing each lower case token in one of the filter fields
+     */
+    private final Map<String, Set<String>> tokenIndex = new HashMap<>();
+
+    /**
+     * Indicates that the summaries have been loaded
+     */
+    private volatile boolean loaded = false;
+
+    public FeedSummaryProjection() {
+        COMPARATORS.forEach((property, comparator) -> sortIndexes.put(property, new TreeSet<>(comparator)));
+    }
+
+    /**
+     * Adds listeners for keeping the projection up-to-date.
+     */
+    @PostConstruct
+    public void addEventListeners() {
+        metadataEventService.addListener(feedChangeListener);
+        metadataEventService.addListener(categoryChangeListener);
+        metadataEventService.addListener(templateChangeListener);
+    }
+
+    /**
+     * Removes the listeners.
+     */
+    @PreDestroy
+    public void removeEventListeners() {
+        metadataEventService.removeListener(feedChangeListener);
+        metadataEventService.removeListener(categoryChangeListener);
+        metadataEventService.removeListener(templateChangeListener);
+    }
+
+    /**
+     * Gets a page of the feed summaries matching the specified filter.
+     *
+     * <p>Only the first sort order of the {@code pageable} is used. Feeds are ordered by name if there is no sort order.</p>
+     *
+     * @param pageable the page and sort order
+     * @param filter   text to find in the feed name, category name, state or template name, or {@code null} for all feeds
+     * @return the page of feed summaries
+     * @throws IllegalArgumentException if the sort property is not known
+     */
+    @Nonnull
+    public Page<FeedSummary> findPage(@Nonnull final Pageable pageable, @Nullable final String filter) {
+        final Sort.Order order = (pageable.getSort() != null && pageable.getSort().iterator().hasNext()) ? pageable.getSort().iterator().next() : null;
+        final String property = (order != null) ? order.getProperty() : SORT_FEED_NAME;
+        if (!COMPARATORS.containsKey(property)) {
+            throw new IllegalArgumentException("Unknown sort property: " + property);
+        }
+
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            final Set<String> matches = Strings.isNullOrEmpty(filter) ? null : match(filter.toLowerCase());
+            final TreeSet<FeedSummary> index = sortIndexes.get(property);
+            final Iterator<FeedSummary> iterator = (order != null && !order.isAscending()) ? index.descendingIterator() : index.iterator();
+
+            final List<FeedSummary> content = new ArrayList<>(Math.min(pageable.getPageSize(), summaries.size()));
+            int skip = pageable.getOffset();
+            while (iterator.hasNext() && content.size() < pageable.getPageSize()) {
+                final FeedSummary summary = iterator.next();
+                if (matches == null || matches.contains(summary.getId())) {
+                    if (skip > 0) {
+                        --skip;
+                    } else {
+                        content.add(summary);
+                    }
+                }
+            }
+
+            return new PageImpl<>(content, pageable, (matches != null) ? matches.size() : summaries.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Discards all the summaries so they are loaded again on next use.
+     */
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            clear();
+            loaded = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Loads every feed summary if not already loaded.
+     */
+    private void ensureLoaded() {
+        if (!loaded) {
+            lock.writeLock().lock();
+            try {
+                if (!loaded) {
+                    clear();
+                    metadataAccess.read(() -> {
+                        feedProvider.findAll().forEach(this::put);
+                    }, MetadataAccess.SERVICE);
+                    loaded = true;
+                    log.debug("Loaded {} feed summaries", summaries.size());
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Reloads the summaries of the specified feeds, removing those that no longer exist.
+     */
+    private void refresh(@Nonnull final Function<FeedProvider, Collection<Feed.ID>> feedIds) {
+        if (loaded) {
+            lock.writeLock().lock();
+            try {
+                metadataAccess.read(() -> {
+                    feedIds.apply(feedProvider).forEach(id -> {
+                        remove(id.toString());
+                        final Feed feed = feedProvider.getFeed(id);
+                        if (feed != null) {
+                            put(feed);
+                        }
+                    });
+                }, MetadataAccess.SERVICE);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Finds the ids of the feeds with a filter field containing the specified lower case text.
+     */
+    @Nonnull
+    private Set<String> match(@Nonnull final String text) {
+        Stream<FeedSummary> candidates;
+
+        if (text.length() < TOKEN_LENGTH) {
+            candidates = summaries.values().stream();
+        } else {
+            // Start from the smallest set of feeds containing one of the text tokens
+            Set<String> smallest = null;
+            for (final String token : tokens(text)) {
+                final Set<String> ids = tokenIndex.getOrDefault(token, Collections.emptySet());
+                if (smallest == null || ids.size() < smallest.size()) {
+                    smallest = ids;
+                }
+            }
+            candidates = (smallest != null ? smallest : Collections.<String>emptySet()).stream().map(summaries::get);
+        }
+
+        return candidates.filter(summary -> filterFields(summary).anyMatch(field -> field.contains(text)))
+            .map(FeedSummary::getId)
+            .collect(Collectors.toSet());
+    }
+
+    /**
+     * Adds the summary of the specified feed to the indexes.
+     */
+    private void put(@Nonnull final Feed feed) {
+        final FeedSummary summary = feedModelTransform.domainToFeedSummary(feed);
+        if (summary != null) {
+            summaries.put(summary.getId(), summary);
+            sortIndexes.values().forEach(index -> index.add(summary));
+            filterFields(summary).flatMap(field -> tokens(field).stream())
+                .forEach(token -> tokenIndex.computeIfAbsent(token, t -> new HashSet<>()).add(summary.getId()));
+        }
+    }
+
+    /**
+     * Removes the summary of the specified feed from the indexes.
+     */
+    private void remove(@Nonnull final String feedId) {
+        final FeedSummary summary = summaries.remove(feedId);
+        if (summary != null) {
+            sortIndexes.values().forEach(index -> index.remove(summary));
+            filterFields(summary).flatMap(field -> tokens(field).stream()).forEach(token -> {
+                final Set<String> ids = tokenIndex.get(token);
+                if (ids != null) {
+                    ids.remove(feedId);
+                    if (ids.isEmpty()) {
+                        tokenIndex.remove(token);
+                    }
+                }
+            });
+        }
+    }
+
+    private void clear() {
+        summaries.clear();
+        sortIndexes.values().forEach(TreeSet::clear);
+        tokenIndex.clear();
+    }
+
+    /**
+     * Gets the lower case values of the fields searched by a filter.
+     */
+    @Nonnull
+    private static Stream<String> filterFields(@Nonnull final FeedSummary summary) {
+        return Stream.of(summary.getSystemFeedName(), summary.getSystemCategoryName(), summary.getState(), summary.getTemplateName())
+            .filter(field -> field != null)
+            .map(String::toLowerCase);
+    }
+
+    /**
+     * Splits the specified text into overlapping tokens.
+     */
+    @Nonnull
+    private static Set<String> tokens(@Nonnull final String text) {
+        final Set<String> tokens = new HashSet<>();
+        for (int i = 0; i + TOKEN_LENGTH <= text.length(); ++i) {
+            tokens.add(text.substring(i, i + TOKEN_LENGTH));
+        }
+        return tokens;
+    }
+
+    /**
+     * Orders by the specified property, with nulls first, and then by id.
+     */
+    @Nonnull
+    private static <T> Comparator<FeedSummary> comparing(@Nonnull final Function<FeedSummary, T> property, @Nonnull final Comparator<? super T> comparator) {
+        return Comparator.comparing(property, Comparator.nullsFirst(comparator)).thenComparing(FeedSummary::getId);
+    }
+
+    /**
+     * Updates the summary of a created, updated, or deleted feed.
+     */
+    private class FeedChangeListener implements MetadataEventListener<FeedChangeEvent> {
+
+        @Override
+        public void notify(@Nonnull final FeedChangeEvent event) {
+            final Feed.ID feedId = event.getData().getFeedId();
+            if (event.getData().getChange() == MetadataChange.ChangeType.DELETE) {
+                if (loaded) {
+                    lock.writeLock().lock();
+                    try {
+                        remove(feedId.toString());
+                    } finally {
+                        lock.writeLock().unlock();
+                    }
+                }
+            } else {
+                refresh(provider -> Collections.singleton(feedId));
+            }
+        }
+    }
+
+    /**
+     * Updates the summaries of the feeds in a changed category.
+     */
+    private class CategoryChangeListener implements MetadataEventListener<CategoryChangeEvent> {
+
+        @Override
+        public void notify(@Nonnull final CategoryChangeEvent event) {
+            if (event.getData().getChange() == MetadataChange.ChangeType.UPDATE) {
+                refresh(provider -> provider.findByCategoryId(event.getData().getCategoryId()).stream().map(Feed::getId).collect(Collectors.toList()));
+            }
+        }
+    }
+
+    /**
+     * Updates the summaries of the feeds using a changed template.
+     */
+    private class TemplateChangeListener implements MetadataEventListener<TemplateChangeEvent> {
+
+        @Override
+        public void notify(@Nonnull final TemplateChangeEvent event) {
+            if (event.getData().getChange() == MetadataChange.ChangeType.UPDATE) {
+                refresh(provider -> provider.findByTemplateId(event.getData().getTemplateId()).stream().map(Feed::getId).collect(Collectors.toList()));
+            }
+        }
+    }
+}
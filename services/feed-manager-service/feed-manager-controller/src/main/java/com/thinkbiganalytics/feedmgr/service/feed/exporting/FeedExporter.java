@@ -25,11 +25,8 @@ import com.thinkbiganalytics.feedmgr.security.FeedServicesAccessControl;
 import com.thinkbiganalytics.feedmgr.service.MetadataService;
 import com.thinkbiganalytics.feedmgr.service.datasource.DatasourceModelTransform;
 import com.thinkbiganalytics.feedmgr.service.feed.exporting.model.ExportFeed;
-import com.thinkbiganalytics.feedmgr.service.feed.importing.model.ImportFeed;
 import com.thinkbiganalytics.feedmgr.service.template.exporting.model.ExportTemplate;
 import com.thinkbiganalytics.feedmgr.service.template.exporting.TemplateExporter;
-import com.thinkbiganalytics.feedmgr.support.ZipFileUtil;
-import com.thinkbiganalytics.json.ObjectMapperSerializer;
 import com.thinkbiganalytics.metadata.api.MetadataAccess;
 import com.thinkbiganalytics.metadata.api.datasource.DatasourceProvider;
 import com.thinkbiganalytics.metadata.api.feed.Feed;
@@ -117,10 +114,7 @@ public class FeedExporter {
 
         // Add feed json to template zip file
         final ExportTemplate exportTemplate = templateExporter.exportTemplateForFeedExport(feed.getTemplateId());
-        final String feedJson = ObjectMapperSerializer.serialize(feed);
-
-        final byte[] zipFile = ZipFileUtil.addToZip(exportTemplate.getFile(), feedJson, ImportFeed.FEED_JSON_FILE);
-        return new ExportFeed(feed.getSystemFeedName() + ".feed.zip", zipFile);
+        return new ExportFeed(feed.getSystemFeedName() + ".feed.zip", exportTemplate, feed);
     }
 
 }
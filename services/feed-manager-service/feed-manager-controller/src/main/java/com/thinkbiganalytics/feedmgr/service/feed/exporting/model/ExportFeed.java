@@ -19,24 +19,61 @@ package com.thinkbiganalytics.feedmgr.service.feed.exporting.model;
  * #L%
  */
 
+
+import com.thinkbiganalytics.feedmgr.rest.model.FeedMetadata;
+import com.thinkbiganalytics.feedmgr.service.feed.importing.model.ImportFeed;
+import com.thinkbiganalytics.feedmgr.service.template.exporting.model.ExportTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.ZipOutputStream;
+
 /**
- * Model object to the feed we are exporting
+ * Model object for the export of a feed, consisting of the feed's template archive with the feed JSON added.
  */
 public class ExportFeed {
 
     private String fileName;
-    private byte[] file;
+    private ExportTemplate template;
+    private FeedMetadata feed;
 
-    public ExportFeed(String fileName, byte[] file) {
+    public ExportFeed(String fileName, ExportTemplate template, FeedMetadata feed) {
         this.fileName = fileName;
-        this.file = file;
+        this.template = template;
+        this.feed = feed;
     }
 
     public String getFileName() {
         return fileName;
     }
 
+    /**
+     * Builds the zip file in memory. Prefer {@link #writeTo(OutputStream)} for large feeds.
+     *
+     * @return the zip file
+     */
     public byte[] getFile() {
-        return file;
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try {
+            writeTo(baos);
+        } catch (IOException ioe) {
+            throw new RuntimeException(ioe);
+        }
+        return baos.toByteArray();
+    }
+
+    /**
+     * Writes the zip file to the specified stream. The stream is not closed.
+     *
+     * @param out the output stream
+     * @throws IOException if the stream cannot be written
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        ZipOutputStream zos = new ZipOutputStream(out);
+        template.writeEntries(zos);
+        ExportTemplate.writeJsonEntry(zos, ImportFeed.FEED_JSON_FILE, feed);
+        zos.finish();
+        zos.flush();
     }
 }
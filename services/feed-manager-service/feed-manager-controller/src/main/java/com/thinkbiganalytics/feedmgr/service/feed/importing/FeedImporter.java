@@ -46,6 +46,7 @@ import com.thinkbiganalytics.feedmgr.service.template.importing.TemplateImporter
 import com.thinkbiganalytics.feedmgr.service.template.importing.importprocess.ImportTemplateRoutine;
 import com.thinkbiganalytics.feedmgr.service.template.importing.importprocess.ImportTemplateRoutineFactory;
 import com.thinkbiganalytics.feedmgr.service.template.importing.model.ImportTemplate;
+import com.thinkbiganalytics.feedmgr.support.ImportArchive;
 import com.thinkbiganalytics.feedmgr.support.ZipFileUtil;
 import com.thinkbiganalytics.feedmgr.util.ImportUtil;
 import com.thinkbiganalytics.metadata.api.MetadataAccess;
@@ -67,16 +68,12 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
 
 import javax.inject.Inject;
 
@@ -131,14 +128,17 @@ public class FeedImporter {
     protected ImportFeedOptions importFeedOptions;
 
     protected String fileName;
-    protected byte[] file;
+    /**
+     * The uploaded file. Closed by the caller once the import completes.
+     */
+    protected ImportArchive archive;
 
     protected UploadProgressMessage overallStatusMessage;
 
 
-    public FeedImporter(String fileName, byte[] file, ImportFeedOptions importFeedOptions) {
-        this.fileName = fileName;
-        this.file = file;
+    public FeedImporter(ImportArchive archive, ImportFeedOptions importFeedOptions) {
+        this.fileName = archive.getFileName();
+        this.archive = archive;
         this.importFeedOptions = importFeedOptions;
     }
 
@@ -183,7 +183,7 @@ public class FeedImporter {
             }
 
             //UploadProgressMessage statusMessage = uploadProgressService.addUploadStatus(options.getUploadKey(),"Validating the template data");
-            TemplateImporter templateImporter = templateImporterFactory.apply(importFeed.getFileName(), file, importFeedOptions);
+            TemplateImporter templateImporter = templateImporterFactory.apply(archive, importFeedOptions);
             ImportTemplate importTemplate = templateImporter.validate();
             // need to set the importOptions back to the feed options
             //find importOptions for the Template and add them back to the set of options
@@ -231,19 +231,19 @@ public class FeedImporter {
         this.accessController.checkPermission(AccessController.SERVICES, FeedServicesAccessControl.IMPORT_FEEDS);
         UploadProgressMessage feedImportStatusMessage = uploadProgressService.addUploadStatus(importFeedOptions.getUploadKey(), "Initialize feed import.");
         try {
-            boolean isValid = isValidFileImport(fileName) && ZipFileUtil.validateZipEntriesWithRequiredEntries(file, getValidZipFileEntries(), Sets.newHashSet(ImportFeed.FEED_JSON_FILE));
+            boolean isValid = isValidFileImport(fileName) && ZipFileUtil.validateZipEntriesWithRequiredEntries(archive, getValidZipFileEntries(), Sets.newHashSet(ImportFeed.FEED_JSON_FILE));
             if (!isValid) {
                 feedImportStatusMessage.update("Validation error. Feed import error. The zip file you uploaded is not valid feed export.", false);
                 throw new ImportFeedException("The zip file you uploaded is not valid feed export.");
             }
 
             //get the Feed Data
-            importFeed = readFeedJson(fileName, file);
+            importFeed = readFeedJson(archive);
             //initially mark as valid.
             importFeed.setValid(true);
 
             //merge in the file components to the user options
-            Set<ImportComponentOption> componentOptions = ImportUtil.inspectZipComponents(file, ImportType.FEED);
+            Set<ImportComponentOption> componentOptions = ImportUtil.inspectZipComponents(archive, ImportType.FEED);
             importFeedOptions.addOptionsIfNotExists(componentOptions);
 
             //importFeedOptions.findImportComponentOption(ImportComponent.TEMPLATE_CONNECTION_INFORMATION).addConnectionInfo(importFeed.getReusableTemplateConnections());
@@ -570,22 +570,9 @@ public class FeedImporter {
     }
 
 
-    private ImportFeed readFeedJson(String fileName, byte[] content) throws IOException {
-
-        byte[] buffer = new byte[1024];
-        InputStream inputStream = new ByteArrayInputStream(content);
-        ZipInputStream zis = new ZipInputStream(inputStream);
-        ZipEntry zipEntry;
-        // while there are entries I process them
-        ImportFeed importFeed = new ImportFeed(fileName);
-
-        while ((zipEntry = zis.getNextEntry()) != null) {
-
-            if (zipEntry.getName().startsWith(ImportFeed.FEED_JSON_FILE)) {
-                String zipEntryContents = ZipFileUtil.zipEntryToString(buffer, zis, zipEntry);
-                importFeed.setFeedJson(zipEntryContents);
-            }
-        }
+    private ImportFeed readFeedJson(ImportArchive archive) throws IOException {
+        ImportFeed importFeed = new ImportFeed(archive.getFileName());
+        archive.readEntry(ImportFeed.FEED_JSON_FILE).ifPresent(importFeed::setFeedJson);
         return importFeed;
     }
 
@@ -19,12 +19,13 @@ package com.thinkbiganalytics.feedmgr.service.feed.importing;
  * #L%
  */
 import com.thinkbiganalytics.feedmgr.rest.model.ImportFeedOptions;
+import com.thinkbiganalytics.feedmgr.support.ImportArchive;
 
 /**
- * Functional interface for new ImportTemplateValidation ImportTemplate = (String filename, byte[] content, ImportTemplateOptions options)
+ * Functional interface for new ImportTemplateValidation ImportTemplate = (ImportArchive archive, ImportTemplateOptions options)
  */
 @FunctionalInterface
 public interface FeedImporterFactory<O extends ImportFeedOptions, R extends FeedImporter> {
 
-    public R apply(String fileName, byte[] content, O importFeedOptions);
+    public R apply(ImportArchive archive, O importFeedOptions);
 }
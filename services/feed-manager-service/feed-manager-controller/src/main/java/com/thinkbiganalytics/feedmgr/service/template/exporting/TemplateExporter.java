@@ -26,8 +26,6 @@ import com.thinkbiganalytics.feedmgr.rest.support.SystemNamingService;
 import com.thinkbiganalytics.feedmgr.security.FeedServicesAccessControl;
 import com.thinkbiganalytics.feedmgr.service.template.RegisteredTemplateService;
 import com.thinkbiganalytics.feedmgr.service.template.exporting.model.ExportTemplate;
-import com.thinkbiganalytics.feedmgr.service.template.importing.model.ImportTemplate;
-import com.thinkbiganalytics.json.ObjectMapperSerializer;
 import com.thinkbiganalytics.metadata.api.template.security.TemplateAccessControl;
 import com.thinkbiganalytics.nifi.rest.client.LegacyNifiRestClient;
 import com.thinkbiganalytics.nifi.rest.client.NifiClientRuntimeException;
@@ -39,8 +37,6 @@ import org.apache.nifi.web.api.dto.ProcessGroupDTO;
 import org.apache.nifi.web.api.dto.TemplateDTO;
 import org.apache.nifi.web.api.dto.flow.ProcessGroupFlowDTO;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -48,8 +44,6 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
 
 import javax.inject.Inject;
 
@@ -130,10 +124,9 @@ public class TemplateExporter {
                 throw new UnsupportedOperationException("Unable to find Nifi Template for " + templateId);
             }
 
-            //create a zip file with the template and xml
-            byte[] zipFile = zip(template, templateXml, connectingReusableTemplates,outputPortConnectionMetadata);
-
-            return new ExportTemplate(SystemNamingService.generateSystemName(template.getTemplateName()) + ".template.zip", zipFile);
+            //the zip file with the template and xml is written when the export is streamed
+            return new ExportTemplate(SystemNamingService.generateSystemName(template.getTemplateName()) + ".template.zip", template, templateXml, connectingReusableTemplates,
+                                      outputPortConnectionMetadata);
 
         } else {
             throw new UnsupportedOperationException("Unable to find Template for " + templateId);
@@ -207,39 +200,4 @@ public class TemplateExporter {
         }
     }
 
-    private byte[] zip(RegisteredTemplate template, String nifiTemplateXml, List<String> reusableTemplateXmls, Set<ReusableTemplateConnectionInfo> outputPortMetadata) {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        try (ZipOutputStream zos = new ZipOutputStream(baos)) {
-
-            ZipEntry entry = new ZipEntry(ImportTemplate.NIFI_TEMPLATE_XML_FILE);
-            zos.putNextEntry(entry);
-            zos.write(nifiTemplateXml.getBytes());
-            zos.closeEntry();
-            int reusableTemplateNumber = 0;
-            for (String reusableTemplateXml : reusableTemplateXmls) {
-                entry = new ZipEntry(String.format("%s_%s.xml", ImportTemplate.NIFI_CONNECTING_REUSABLE_TEMPLATE_XML_FILE, reusableTemplateNumber++));
-                zos.putNextEntry(entry);
-                zos.write(reusableTemplateXml.getBytes());
-                zos.closeEntry();
-            }
-            entry = new ZipEntry(ImportTemplate.TEMPLATE_JSON_FILE);
-            zos.putNextEntry(entry);
-            String json = ObjectMapperSerializer.serialize(template);
-            zos.write(json.getBytes());
-            zos.closeEntry();
-
-            if(outputPortMetadata != null && !outputPortMetadata.isEmpty()) {
-                entry = new ZipEntry(ImportTemplate.REUSABLE_TEMPLATE_OUTPUT_CONNECTION_FILE);
-                zos.putNextEntry(entry);
-                json = ObjectMapperSerializer.serialize(outputPortMetadata);
-                zos.write(json.getBytes());
-                zos.closeEntry();
-            }
-
-        } catch (IOException ioe) {
-            throw new RuntimeException(ioe);
-        }
-        return baos.toByteArray();
-    }
-
 }
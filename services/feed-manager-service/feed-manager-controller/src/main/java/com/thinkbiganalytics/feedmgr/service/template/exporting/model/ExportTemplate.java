@@ -19,24 +19,108 @@ package com.thinkbiganalytics.feedmgr.service.template.exporting.model;
  * #L%
  */
 
+
+import com.thinkbiganalytics.feedmgr.rest.model.RegisteredTemplate;
+import com.thinkbiganalytics.feedmgr.rest.model.ReusableTemplateConnectionInfo;
+import com.thinkbiganalytics.feedmgr.service.template.importing.model.ImportTemplate;
+import com.thinkbiganalytics.json.ObjectMapperSerializer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
 /**
- * Model object for the export of the template
+ * Model object for the export of the template.
+ *
+ * <p>The zip file is not built in memory; it is written directly to an output stream, such as the HTTP response, by {@link #writeTo(OutputStream)}.</p>
  */
 public class ExportTemplate {
 
     private String fileName;
-    private byte[] file;
+    private RegisteredTemplate template;
+    private String nifiTemplateXml;
+    private List<String> reusableTemplateXmls;
+    private Set<ReusableTemplateConnectionInfo> outputPortMetadata;
 
-    public ExportTemplate(String fileName, byte[] file) {
+    public ExportTemplate(String fileName, RegisteredTemplate template, String nifiTemplateXml, List<String> reusableTemplateXmls, Set<ReusableTemplateConnectionInfo> outputPortMetadata) {
         this.fileName = fileName;
-        this.file = file;
+        this.template = template;
+        this.nifiTemplateXml = nifiTemplateXml;
+        this.reusableTemplateXmls = reusableTemplateXmls;
+        this.outputPortMetadata = outputPortMetadata;
     }
 
     public String getFileName() {
         return fileName;
     }
 
+    /**
+     * Builds the zip file in memory. Prefer {@link #writeTo(OutputStream)} for large templates.
+     *
+     * @return the zip file
+     */
     public byte[] getFile() {
-        return file;
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try {
+            writeTo(baos);
+        } catch (IOException ioe) {
+            throw new RuntimeException(ioe);
+        }
+        return baos.toByteArray();
+    }
+
+    /**
+     * Writes the zip file to the specified stream. The stream is not closed.
+     *
+     * @param out the output stream
+     * @throws IOException if the stream cannot be written
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        ZipOutputStream zos = new ZipOutputStream(out);
+        writeEntries(zos);
+        zos.finish();
+        zos.flush();
+    }
+
+    /**
+     * Adds the template entries to the specified zip stream.
+     *
+     * @param zos the zip stream
+     * @throws IOException if the stream cannot be written
+     */
+    public void writeEntries(ZipOutputStream zos) throws IOException {
+        zos.putNextEntry(new ZipEntry(ImportTemplate.NIFI_TEMPLATE_XML_FILE));
+        zos.write(nifiTemplateXml.getBytes(StandardCharsets.UTF_8));
+        zos.closeEntry();
+        int reusableTemplateNumber = 0;
+        for (String reusableTemplateXml : reusableTemplateXmls) {
+            zos.putNextEntry(new ZipEntry(String.format("%s_%s.xml", ImportTemplate.NIFI_CONNECTING_REUSABLE_TEMPLATE_XML_FILE, reusableTemplateNumber++)));
+            zos.write(reusableTemplateXml.getBytes(StandardCharsets.UTF_8));
+            zos.closeEntry();
+        }
+        writeJsonEntry(zos, ImportTemplate.TEMPLATE_JSON_FILE, template);
+
+        if (outputPortMetadata != null && !outputPortMetadata.isEmpty()) {
+            writeJsonEntry(zos, ImportTemplate.REUSABLE_TEMPLATE_OUTPUT_CONNECTION_FILE, outputPortMetadata);
+        }
+    }
+
+    /**
+     * Adds an entry to the specified zip stream containing the value serialized as JSON.
+     *
+     * @param zos   the zip stream
+     * @param name  the entry name
+     * @param value the value to serialize
+     * @throws IOException if the stream cannot be written
+     */
+    public static void writeJsonEntry(ZipOutputStream zos, String name, Object value) throws IOException {
+        zos.putNextEntry(new ZipEntry(name));
+        ObjectMapperSerializer.serialize(value, zos);
+        zos.closeEntry();
     }
 }
@@ -37,6 +37,7 @@ import com.thinkbiganalytics.feedmgr.service.template.importing.model.ImportTemp
 import com.thinkbiganalytics.feedmgr.service.template.importing.validation.AbstractValidateImportTemplate;
 import com.thinkbiganalytics.feedmgr.service.template.importing.validation.ValidateImportTemplateFactory;
 import com.thinkbiganalytics.feedmgr.service.template.importing.validation.ValidateImportTemplatesArchive;
+import com.thinkbiganalytics.feedmgr.support.ImportArchive;
 import com.thinkbiganalytics.feedmgr.util.ImportUtil;
 import com.thinkbiganalytics.feedmgr.util.UniqueIdentifier;
 import com.thinkbiganalytics.nifi.rest.client.LegacyNifiRestClient;
@@ -45,7 +46,6 @@ import com.thinkbiganalytics.security.AccessController;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Set;
@@ -87,13 +87,16 @@ public class TemplateImporter {
      */
     protected ImportOptions importOptions;
     protected String fileName;
-    protected byte[] file;
+    /**
+     * The uploaded file. Closed by the caller once the import completes.
+     */
+    protected ImportArchive archive;
     protected UploadProgressMessage overallStatusMessage;
 
 
-    public TemplateImporter(String fileName, byte[] file, ImportOptions importOptions) {
-        this.fileName = fileName;
-        this.file = file;
+    public TemplateImporter(ImportArchive archive, ImportOptions importOptions) {
+        this.fileName = archive.getFileName();
+        this.archive = archive;
         this.importOptions = importOptions;
     }
 
@@ -156,10 +159,9 @@ public class TemplateImporter {
             UploadProgress progress = uploadProgressService.getUploadStatus(importOptions.getUploadKey());
             progress.setSections(ImportSection.sectionsForImportAsString(ImportType.TEMPLATE));
 
-            InputStream inputStream = new ByteArrayInputStream(file);
-            this.importTemplate = ImportUtil.openZip(fileName, inputStream);
+            this.importTemplate = ImportUtil.openZip(archive);
             this.importTemplate.setValid(true);
-            Set<ImportComponentOption> componentOptions = ImportUtil.inspectZipComponents(file, ImportType.TEMPLATE);
+            Set<ImportComponentOption> componentOptions = ImportUtil.inspectZipComponents(archive, ImportType.TEMPLATE);
             importTemplateOptions.addOptionsIfNotExists(componentOptions);
             importTemplateOptions.findImportComponentOption(ImportComponent.TEMPLATE_CONNECTION_INFORMATION).addConnectionInfo(importTemplate.getReusableTemplateConnections());
             importTemplate.setImportOptions(this.importTemplateOptions);
@@ -173,8 +175,9 @@ public class TemplateImporter {
             UploadProgress progress = uploadProgressService.getUploadStatus(importOptions.getUploadKey());
             progress.setSections(ImportSection.sectionsForImportAsString(ImportType.TEMPLATE_XML));
 
-            InputStream inputStream = new ByteArrayInputStream(file);
-            this.importTemplate = ImportUtil.getNewNiFiTemplateImport(fileName, inputStream);
+            try (InputStream inputStream = archive.openStream()) {
+                this.importTemplate = ImportUtil.getNewNiFiTemplateImport(fileName, inputStream);
+            }
             importTemplate.setImportOptions(this.importTemplateOptions);
         } catch (IOException e) {
             throw new ImportException(e);
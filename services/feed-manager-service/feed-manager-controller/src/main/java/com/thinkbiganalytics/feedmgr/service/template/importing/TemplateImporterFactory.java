@@ -21,6 +21,7 @@ package com.thinkbiganalytics.feedmgr.service.template.importing;
 import com.thinkbiganalytics.feedmgr.rest.model.ImportOptions;
 import com.thinkbiganalytics.feedmgr.rest.model.ImportTemplateOptions;
 import com.thinkbiganalytics.feedmgr.service.template.importing.importprocess.ImportReusableTemplate;
+import com.thinkbiganalytics.feedmgr.support.ImportArchive;
 
 /**
  * Functional interface for new TemplateImporter
@@ -28,5 +29,5 @@ import com.thinkbiganalytics.feedmgr.service.template.importing.importprocess.Im
 @FunctionalInterface
 public interface TemplateImporterFactory<O extends ImportOptions, R extends TemplateImporter> {
 
-    public R apply(String fileName, byte[] content, O importOptions);
+    public R apply(ImportArchive archive, O importOptions);
 }
@@ -41,9 +41,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xml.sax.SAXException;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 
 import javax.inject.Inject;
 import javax.xml.parsers.ParserConfigurationException;
@@ -82,19 +80,10 @@ public abstract class AbstractImportTemplateRoutine implements ImportTemplateRou
         this.importTemplate.setImportOptions(importTemplateOptions);
     }
 
-    public AbstractImportTemplateRoutine(String fileName, byte[] xmlFile, ImportTemplateOptions importTemplateOptions) {
+    public AbstractImportTemplateRoutine(String fileName, String xmlTemplate, ImportTemplateOptions importTemplateOptions) {
         this.importTemplateOptions = importTemplateOptions;
-        initializeImportTemplateFromXml(fileName, xmlFile);
-    }
-
-    private void initializeImportTemplateFromXml(String fileName, byte[] xmlFile) throws ImportException {
-        try {
-            InputStream inputStream = new ByteArrayInputStream(xmlFile);
-            this.importTemplate = ImportUtil.getNewNiFiTemplateImport(fileName, inputStream);
-            importTemplate.setImportOptions(this.importTemplateOptions);
-        } catch (IOException e) {
-            throw new ImportException(e);
-        }
+        this.importTemplate = ImportUtil.getNewNiFiTemplateImport(fileName, xmlTemplate);
+        importTemplate.setImportOptions(this.importTemplateOptions);
     }
 
     public UploadProgressMessage start() {
@@ -112,8 +112,8 @@ public class ImportReusableTemplate extends AbstractImportTemplateRoutine implem
     }
 
 
-    public ImportReusableTemplate(String fileName, byte[] xmlFile, ImportTemplateOptions importOptions) {
-        super(fileName, xmlFile, importOptions);
+    public ImportReusableTemplate(String fileName, String xmlTemplate, ImportTemplateOptions importOptions) {
+        super(fileName, xmlTemplate, importOptions);
     }
 
 
@@ -26,5 +26,5 @@ import com.thinkbiganalytics.feedmgr.rest.model.ImportTemplateOptions;
 @FunctionalInterface
 public interface ImportReusableTemplateFactory<O extends ImportTemplateOptions, R extends ImportReusableTemplate> {
 
-    public R apply(String fileName, byte[] content, O importTemplateOptions);
+    public R apply(String fileName, String xmlTemplate, O importTemplateOptions);
 }
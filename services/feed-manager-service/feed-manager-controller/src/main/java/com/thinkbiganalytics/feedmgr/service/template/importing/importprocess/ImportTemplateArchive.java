@@ -308,8 +308,7 @@ public class ImportTemplateArchive extends AbstractImportTemplateRoutine {
             try {
                 for (String reusableTemplateXml : importTemplate.getNifiConnectingReusableTemplateXmls()) {
                     String name = NifiTemplateParser.getTemplateName(reusableTemplateXml);
-                    byte[] content = reusableTemplateXml.getBytes("UTF-8");
-                    ImportReusableTemplate importReusableTemplate = importReusableTemplateFactory.apply(name, content, importOptions);
+                    ImportReusableTemplate importReusableTemplate = importReusableTemplateFactory.apply(name, reusableTemplateXml, importOptions);
 
                     boolean validReusableTemplate = importReusableTemplate.importIntoNiFiAndCreateInstance();
                     connectingTemplates.add(importReusableTemplate);
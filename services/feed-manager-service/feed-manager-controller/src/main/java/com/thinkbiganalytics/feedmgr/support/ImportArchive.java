@@ -0,0 +1,205 @@
+package com.thinkbiganalytics.feedmgr.support;
+
+/*-
+ * #%L
+ * thinkbig-feed-manager-controller
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import javax.annotation.Nonnull;
+
+/**
+ * An uploaded feed or template file spooled to a temporary file.
+ *
+ * <p>Zip archives are opened with {@link ZipFile} so the entry names are read from the central directory without inflating any content, and each
+ * entry is only read when it is requested. The temporary file is deleted when the archive is closed.</p>
+ */
+public class ImportArchive implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportArchive.class);
+
+    /**
+     * Name of the uploaded file
+     */
+    private final String fileName;
+
+    /**
+     * Temporary copy of the uploaded file
+     */
+    private final Path file;
+
+    /**
+     * Zip file, opened on first access
+     */
+    private ZipFile zipFile;
+
+    /**
+     * Names of the entries in the zip file
+     */
+    private Set<String> entryNames;
+
+    private ImportArchive(@Nonnull final String fileName, @Nonnull final Path file) {
+        this.fileName = fileName;
+        this.file = file;
+    }
+
+    /**
+     * Copies the specified stream to a temporary file.
+     *
+     * @param fileName    the name of the uploaded file
+     * @param inputStream the file contents
+     * @return the archive
+     * @throws IOException if the stream cannot be copied
+     */
+    @Nonnull
+    public static ImportArchive fromStream(@Nonnull final String fileName, @Nonnull final InputStream inputStream) throws IOException {
+        final Path file = Files.createTempFile("kylo-import-", fileName.endsWith(".zip") ? ".zip" : ".tmp");
+        try {
+            Files.copy(inputStream, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (final IOException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return new ImportArchive(fileName, file);
+    }
+
+    /**
+     * Writes the specified contents to a temporary file.
+     *
+     * @param fileName the name of the file
+     * @param content  the file contents
+     * @return the archive
+     * @throws IOException if the file cannot be written
+     */
+    @Nonnull
+    public static ImportArchive fromBytes(@Nonnull final String fileName, @Nonnull final byte[] content) throws IOException {
+        final Path file = Files.createTempFile("kylo-import-", fileName.endsWith(".zip") ? ".zip" : ".tmp");
+        Files.write(file, content);
+        return new ImportArchive(fileName, file);
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * Indicates if the uploaded file is a zip archive, based on its name.
+     */
+    public boolean isZip() {
+        return fileName.endsWith(".zip");
+    }
+
+    /**
+     * Opens the whole uploaded file. The caller must close the stream.
+     */
+    @Nonnull
+    public InputStream openStream() throws IOException {
+        return Files.newInputStream(file);
+    }
+
+    /**
+     * Reads the whole uploaded file as a UTF-8 string.
+     */
+    @Nonnull
+    public String readAsString() throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Gets the names of the entries in the zip file.
+     */
+    @Nonnull
+    public synchronized Set<String> getEntryNames() throws IOException {
+        if (entryNames == null) {
+            entryNames = Collections.unmodifiableSet(Collections.list(getZipFile().entries()).stream().map(ZipEntry::getName).collect(Collectors.toSet()));
+        }
+        return entryNames;
+    }
+
+    /**
+     * Gets the entries whose name starts with the specified prefix, in archive order.
+     */
+    @Nonnull
+    public List<ZipEntry> getEntries(@Nonnull final String prefix) throws IOException {
+        return Collections.list(getZipFile().entries()).stream().filter(entry -> entry.getName().startsWith(prefix)).collect(Collectors.toList());
+    }
+
+    /**
+     * Reads the first entry whose name starts with the specified prefix as a UTF-8 string.
+     */
+    @Nonnull
+    public Optional<String> readEntry(@Nonnull final String prefix) throws IOException {
+        final List<ZipEntry> entries = getEntries(prefix);
+        return entries.isEmpty() ? Optional.empty() : Optional.of(readEntry(entries.get(0)));
+    }
+
+    /**
+     * Reads the specified entry as a UTF-8 string.
+     */
+    @Nonnull
+    public String readEntry(@Nonnull final ZipEntry entry) throws IOException {
+        try (InputStream in = getZipFile().getInputStream(entry)) {
+            return IOUtils.toString(in, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Closes the zip file and deletes the temporary file.
+     */
+    @Override
+    public synchronized void close() {
+        if (zipFile != null) {
+            try {
+                zipFile.close();
+            } catch (final IOException e) {
+                log.debug("Unable to close import archive {}", fileName, e);
+            }
+            zipFile = null;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (final IOException e) {
+            log.warn("Unable to delete temporary file {} for import {}", file, fileName, e);
+        }
+    }
+
+    private synchronized ZipFile getZipFile() throws IOException {
+        if (zipFile == null) {
+            zipFile = new ZipFile(file.toFile());
+        }
+        return zipFile;
+    }
+}
@@ -42,11 +42,22 @@ public class ZipFileUtil {
      * Validate filenames in a zip file This does case insensitive comparison
      */
     public static boolean validateZipEntries(byte[] zipFile, Set<String> validNames, Set<String> requiredNames, boolean matchAllValidNames) throws IOException {
+        return validateZipEntryNames(getFileNames(zipFile), validNames, requiredNames, matchAllValidNames);
+    }
+
+    /**
+     * Validate the filenames of an import archive. This does case insensitive comparison
+     */
+    public static boolean validateZipEntries(ImportArchive archive, Set<String> validNames, Set<String> requiredNames, boolean matchAllValidNames) throws IOException {
+        return validateZipEntryNames(archive.getEntryNames(), validNames, requiredNames, matchAllValidNames);
+    }
+
+    private static boolean validateZipEntryNames(Set<String> entryNames, Set<String> validNames, Set<String> requiredNames, boolean matchAllValidNames) {
         if (validNames == null) {
             validNames = new HashSet<>();
         }
         List<String> validNamesList = validNames.stream().map(String::toLowerCase).collect(Collectors.toList());
-        Set<String> fileNames = getFileNames(zipFile).stream().map(String::toLowerCase).collect(Collectors.toSet());
+        Set<String> fileNames = entryNames.stream().map(String::toLowerCase).collect(Collectors.toSet());
 
         boolean isValid = fileNames != null && !fileNames.isEmpty() && validNamesList.stream().allMatch(fileNames::contains);
         if (isValid && matchAllValidNames) {
@@ -83,6 +94,18 @@ public class ZipFileUtil {
         return validateZipEntries(zipFile, validNames, requiredNames, false);
     }
 
+    /**
+     *
+     * @param archive
+     * @param validNames
+     * @param requiredNames
+     * @return
+     * @throws IOException
+     */
+    public static boolean validateZipEntriesWithRequiredEntries(ImportArchive archive, Set<String> validNames, Set<String> requiredNames) throws IOException {
+        return validateZipEntries(archive, validNames, requiredNames, false);
+    }
+
     /**
      *
      * @param zipFile
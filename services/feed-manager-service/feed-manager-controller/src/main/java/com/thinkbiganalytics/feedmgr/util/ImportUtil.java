@@ -32,7 +32,7 @@ import com.thinkbiganalytics.feedmgr.rest.model.RegisteredTemplate;
 import com.thinkbiganalytics.feedmgr.rest.model.ReusableTemplateConnectionInfo;
 import com.thinkbiganalytics.feedmgr.service.feed.importing.model.ImportFeed;
 import com.thinkbiganalytics.feedmgr.service.template.importing.model.ImportTemplate;
-import com.thinkbiganalytics.feedmgr.support.ZipFileUtil;
+import com.thinkbiganalytics.feedmgr.support.ImportArchive;
 import com.thinkbiganalytics.json.ObjectMapperSerializer;
 import com.thinkbiganalytics.nifi.rest.model.NifiError;
 import com.thinkbiganalytics.nifi.rest.model.NifiProcessGroup;
@@ -68,27 +68,42 @@ public class ImportUtil {
 
 
     public static Set<ImportComponentOption> inspectZipComponents(InputStream inputStream, ImportType importType) throws IOException {
-        Set<ImportComponentOption> options = new HashSet<>();
+        Set<String> entryNames = new HashSet<>();
         ZipInputStream zis = new ZipInputStream(inputStream);
         ZipEntry entry;
         while ((entry = zis.getNextEntry()) != null) {
-            if (entry.getName().startsWith(ImportTemplate.NIFI_TEMPLATE_XML_FILE)) {
+            entryNames.add(entry.getName());
+        }
+        zis.closeEntry();
+        zis.close();
+
+        return inspectZipComponents(entryNames, importType);
+    }
+
+    /**
+     * Determine the components in an import archive from its entry names, without reading the entries.
+     */
+    public static Set<ImportComponentOption> inspectZipComponents(ImportArchive archive, ImportType importType) throws IOException {
+        return inspectZipComponents(archive.getEntryNames(), importType);
+    }
+
+    private static Set<ImportComponentOption> inspectZipComponents(Set<String> entryNames, ImportType importType) {
+        Set<ImportComponentOption> options = new HashSet<>();
+        for (String entryName : entryNames) {
+            if (entryName.startsWith(ImportTemplate.NIFI_TEMPLATE_XML_FILE)) {
                 options.add(new ImportComponentOption(ImportComponent.NIFI_TEMPLATE, importType.equals(ImportType.TEMPLATE) ? true : false));
-            } else if (entry.getName().startsWith(ImportTemplate.TEMPLATE_JSON_FILE)) {
+            } else if (entryName.startsWith(ImportTemplate.TEMPLATE_JSON_FILE)) {
                 options.add(new ImportComponentOption(ImportComponent.TEMPLATE_DATA, importType.equals(ImportType.TEMPLATE) ? true : false));
-            } else if (entry.getName().startsWith(ImportTemplate.NIFI_CONNECTING_REUSABLE_TEMPLATE_XML_FILE)) {
+            } else if (entryName.startsWith(ImportTemplate.NIFI_CONNECTING_REUSABLE_TEMPLATE_XML_FILE)) {
                 options.add(new ImportComponentOption(ImportComponent.REUSABLE_TEMPLATE, false));
             }
-            else if(entry.getName().startsWith(ImportTemplate.REUSABLE_TEMPLATE_OUTPUT_CONNECTION_FILE)){
+            else if(entryName.startsWith(ImportTemplate.REUSABLE_TEMPLATE_OUTPUT_CONNECTION_FILE)){
                 options.add(new ImportComponentOption(ImportComponent.TEMPLATE_CONNECTION_INFORMATION,true));
-            } else if (importType.equals(ImportType.FEED) && entry.getName().startsWith(ImportFeed.FEED_JSON_FILE)) {
+            } else if (importType.equals(ImportType.FEED) && entryName.startsWith(ImportFeed.FEED_JSON_FILE)) {
                 options.add(new ImportComponentOption(ImportComponent.FEED_DATA, true));
                 options.add(new ImportComponentOption(ImportComponent.USER_DATASOURCES, true));
             }
         }
-        zis.closeEntry();
-        zis.close();
-
         return options;
     }
 
@@ -232,6 +247,13 @@ public class ImportUtil {
         return template;
     }
 
+    public static ImportTemplate getNewNiFiTemplateImport(String fileName, String xmlTemplate) {
+        ImportTemplate template = new ImportTemplate(fileName);
+        template.setValid(true);
+        template.setNifiTemplateXml(xmlTemplate);
+        return template;
+    }
+
     public static ImportTemplate getNewNiFiTemplateImport(String fileName, byte[] xmlFile) throws IOException {
         InputStream inputStream = new ByteArrayInputStream(xmlFile);
         return getNewNiFiTemplateImport(fileName,inputStream);
@@ -240,32 +262,26 @@ public class ImportUtil {
     /**
      * Open the zip file and populate the {@link ImportTemplate} object with the components in the file/archive
      *
-     * @param fileName    the file name
-     * @param inputStream the file
+     * @param archive the uploaded archive
      * @return the template data to import
      */
-    public static ImportTemplate openZip(String fileName, InputStream inputStream) throws IOException {
-        byte[] buffer = new byte[1024];
-        ZipInputStream zis = new ZipInputStream(inputStream);
-        ZipEntry zipEntry;
-        ImportTemplate importTemplate = new ImportTemplate(fileName);
-        while ((zipEntry = zis.getNextEntry()) != null) {
-            String zipEntryContents = ZipFileUtil.zipEntryToString(buffer, zis, zipEntry);
+    public static ImportTemplate openZip(ImportArchive archive) throws IOException {
+        ImportTemplate importTemplate = new ImportTemplate(archive.getFileName());
+        // the template entries are read once each; any feed json in the archive is left for the feed importer
+        for (ZipEntry zipEntry : archive.getEntries("")) {
             if (zipEntry.getName().startsWith(ImportTemplate.NIFI_TEMPLATE_XML_FILE)) {
-                importTemplate.setNifiTemplateXml(zipEntryContents);
+                importTemplate.setNifiTemplateXml(archive.readEntry(zipEntry));
             } else if (zipEntry.getName().startsWith(ImportTemplate.TEMPLATE_JSON_FILE)) {
-                importTemplate.setTemplateJson(zipEntryContents);
+                importTemplate.setTemplateJson(archive.readEntry(zipEntry));
             } else if (zipEntry.getName().startsWith(ImportTemplate.NIFI_CONNECTING_REUSABLE_TEMPLATE_XML_FILE)) {
-                importTemplate.addNifiConnectingReusableTemplateXml(zipEntryContents);
+                importTemplate.addNifiConnectingReusableTemplateXml(archive.readEntry(zipEntry));
             }
             else if (zipEntry.getName().startsWith(ImportTemplate.REUSABLE_TEMPLATE_OUTPUT_CONNECTION_FILE)) {
-                String json = zipEntryContents;
+                String json = archive.readEntry(zipEntry);
                 List<ReusableTemplateConnectionInfo> connectionInfos = ObjectMapperSerializer.deserialize(json,new TypeReference<List<ReusableTemplateConnectionInfo>>(){});
                 importTemplate.addReusableTemplateConnectionInformation(connectionInfos);
             }
         }
-        zis.closeEntry();
-        zis.close();
         if (!importTemplate.hasValidComponents()) {
             throw new UnsupportedOperationException(
                 " The file you uploaded is not a valid archive.  Please ensure the Zip file has been exported from the system and has 2 valid files named: " + ImportTemplate.NIFI_TEMPLATE_XML_FILE + ", and "
@@ -50,6 +50,7 @@ import com.thinkbiganalytics.feedmgr.service.template.TemplateModelTransform;
 import com.thinkbiganalytics.feedmgr.sla.DefaultServiceLevelAgreementService;
 import com.thinkbiganalytics.feedmgr.sla.ServiceLevelAgreementModelTransform;
 import com.thinkbiganalytics.feedmgr.sla.ServiceLevelAgreementService;
+import com.thinkbiganalytics.hive.service.HiveMetastoreService;
 import com.thinkbiganalytics.hive.service.HiveService;
 import com.thinkbiganalytics.kerberos.KerberosTicketConfiguration;
 import com.thinkbiganalytics.metadata.api.MetadataAccess;
@@ -404,6 +405,11 @@ public class TestSpringConfiguration {
         return new Mockito().mock(JdbcTemplate.class);
     }
 
+    @Bean(name = "hiveMetatoreJdbcTemplate")
+    JdbcTemplate hiveMetatoreJdbcTemplate() {
+        return new Mockito().mock(JdbcTemplate.class);
+    }
+
     @Bean(name = "kerberosHiveConfiguration")
     KerberosTicketConfiguration kerberosHiveConfiguration() {
         return new KerberosTicketConfiguration();
@@ -419,6 +425,11 @@ public class TestSpringConfiguration {
         return new Mockito().mock(HiveService.class);
     }
 
+    @Bean
+    HiveMetastoreService hiveMetastoreService() {
+        return Mockito.mock(HiveMetastoreService.class);
+    }
+
     @Bean
     TemplateModelTransform templateModelTransform() {
         return new TemplateModelTransform();
@@ -0,0 +1,178 @@
+package com.thinkbiganalytics.feedmgr.nifi;
+
+/*-
+ * #%L
+ * thinkbig-feed-manager-controller
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.feedmgr.nifi.cache.NifiFlowCache;
+import com.thinkbiganalytics.feedmgr.rest.model.FeedCategory;
+import com.thinkbiganalytics.feedmgr.rest.model.FeedMetadata;
+import com.thinkbiganalytics.feedmgr.rest.model.RegisteredTemplate;
+import com.thinkbiganalytics.nifi.feedmgr.FeedCreationException;
+import com.thinkbiganalytics.nifi.feedmgr.TemplateCreationException;
+import com.thinkbiganalytics.nifi.feedmgr.TemplateCreationHelper;
+import com.thinkbiganalytics.nifi.feedmgr.TemplateInstance;
+import com.thinkbiganalytics.nifi.rest.NiFiObjectCache;
+import com.thinkbiganalytics.nifi.rest.client.LegacyNifiRestClient;
+import com.thinkbiganalytics.nifi.rest.client.NifiClientRuntimeException;
+
+import org.apache.nifi.web.api.dto.FlowSnippetDTO;
+import org.apache.nifi.web.api.dto.ProcessGroupDTO;
+import org.apache.nifi.web.api.dto.TemplateDTO;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.annotation.Nonnull;
+
+public class CreateFeedBuilderTest {
+
+    /**
+     * Runs the steps of the build
+     */
+    private ExecutorService executor;
+
+    /**
+     * Names of the steps in the order they finished
+     */
+    private List<String> steps;
+
+    private LegacyNifiRestClient restClient;
+
+    private TemplateCreationHelper templateCreationHelper;
+
+    private CreateFeedBuilder builder;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newSingleThreadExecutor();
+        steps = Collections.synchronizedList(new ArrayList<>());
+        restClient = Mockito.mock(LegacyNifiRestClient.class);
+        templateCreationHelper = Mockito.mock(TemplateCreationHelper.class);
+
+        final ProcessGroupDTO categoryGroup = processGroup("category", "root");
+        final NiFiObjectCache niFiObjectCache = Mockito.mock(NiFiObjectCache.class);
+        Mockito.when(niFiObjectCache.getCategoryProcessGroup("category")).thenReturn(categoryGroup);
+        Mockito.when(restClient.createProcessGroup("category", "feed")).thenReturn(processGroup("feed", "category"));
+
+        final FeedCategory category = new FeedCategory();
+        category.setSystemName("category");
+        final FeedMetadata feedMetadata = new FeedMetadata();
+        feedMetadata.setCategory(category);
+        feedMetadata.setSystemFeedName("feed");
+        feedMetadata.setRegisteredTemplate(new RegisteredTemplate());
+
+        builder = CreateFeedBuilder.newFeed(restClient, Mockito.mock(NifiFlowCache.class), feedMetadata, "template", null, null, niFiObjectCache, null).withExecutor(executor);
+        builder.templateCreationHelper = templateCreationHelper;
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Verify the build waits for its steps when the template is missing.
+     */
+    @Test
+    public void buildWithoutTemplate() {
+        Mockito.doAnswer(invocation -> step("snapshot", null)).when(templateCreationHelper).snapshotControllerServiceReferences();
+
+        try {
+            builder.build();
+            Assert.fail("Expected FeedCreationException");
+        } catch (final FeedCreationException e) {
+            Assert.assertEquals(Collections.singletonList("snapshot"), steps);
+        }
+    }
+
+    /**
+     * Verify a failure of a step is rethrown by the build, and the steps depending on it are not run.
+     */
+    @Test
+    public void buildWithFailedStep() throws Exception {
+        Mockito.when(restClient.getTemplateById("template")).thenReturn(new TemplateDTO());
+        Mockito.doAnswer(invocation -> step("snapshot", new TemplateCreationException("snapshot failed"))).when(templateCreationHelper).snapshotControllerServiceReferences();
+
+        try {
+            builder.build();
+            Assert.fail("Expected TemplateCreationException");
+        } catch (final TemplateCreationException e) {
+            Assert.assertEquals("snapshot failed", e.getMessage());
+        }
+        Mockito.verify(templateCreationHelper, Mockito.never()).instantiateFlowFromTemplate(Mockito.anyString(), Mockito.anyString());
+    }
+
+    /**
+     * Verify the build waits for its running steps when the calling thread fails, and keeps their failures.
+     */
+    @Test
+    public void buildWithFailureOnCallingThread() throws Exception {
+        Mockito.when(restClient.getTemplateById("template")).thenReturn(new TemplateDTO());
+        Mockito.doAnswer(invocation -> step("snapshot", null)).when(templateCreationHelper).snapshotControllerServiceReferences();
+        Mockito.when(templateCreationHelper.instantiateFlowFromTemplate("feed", "template"))
+            .thenAnswer(invocation -> step("instantiate", null) == null ? new TemplateInstance(new FlowSnippetDTO()) : null);
+        Mockito.when(restClient.getProcessGroup("feed", false, false)).thenAnswer(invocation -> step("ports", new NifiClientRuntimeException("ports failed")));
+        Mockito.when(restClient.getPropertiesForProcessGroup("feed")).thenThrow(new NifiClientRuntimeException("properties failed"));
+        builder.setReusableTemplate(true);
+
+        try {
+            builder.build();
+            Assert.fail("Expected FeedCreationException");
+        } catch (final FeedCreationException e) {
+            Assert.assertTrue(e.getMessage().contains("properties failed"));
+            Assert.assertEquals(1, e.getSuppressed().length);
+            Assert.assertEquals("ports failed", e.getSuppressed()[0].getMessage());
+        }
+        Assert.assertEquals(Arrays.asList("snapshot", "instantiate", "ports"), steps);
+    }
+
+    /**
+     * Creates a process group with the specified id and parent.
+     */
+    @Nonnull
+    private ProcessGroupDTO processGroup(@Nonnull final String id, @Nonnull final String parentGroupId) {
+        final ProcessGroupDTO group = new ProcessGroupDTO();
+        group.setId(id);
+        group.setName(id);
+        group.setParentGroupId(parentGroupId);
+        return group;
+    }
+
+    /**
+     * Simulates a slow NiFi request, recording the step once it finishes.
+     */
+    private Object step(@Nonnull final String name, final RuntimeException failure) throws InterruptedException {
+        Thread.sleep(100);
+        steps.add(name);
+        if (failure != null) {
+            throw failure;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,111 @@
+package com.thinkbiganalytics.feedmgr.nifi.cache;
+
+/*-
+ * #%L
+ * thinkbig-feed-manager-controller
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.app.ServicesApplicationStartup;
+import com.thinkbiganalytics.feedmgr.rest.model.RegisteredTemplate;
+import com.thinkbiganalytics.feedmgr.service.template.FeedManagerTemplateService;
+import com.thinkbiganalytics.feedmgr.service.template.NiFiTemplateCache;
+import com.thinkbiganalytics.feedmgr.service.template.RegisteredTemplateCache;
+import com.thinkbiganalytics.metadata.api.MetadataAccess;
+import com.thinkbiganalytics.metadata.api.MetadataCommand;
+import com.thinkbiganalytics.metadata.api.template.FeedManagerTemplate;
+import com.thinkbiganalytics.metadata.api.template.FeedManagerTemplateProvider;
+
+import org.joda.time.DateTime;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.Principal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+public class NiFiCacheWarmupServiceTest {
+
+    /**
+     * Verify warming the template caches and recording the timings.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void onStartup() throws Exception {
+        // Mock metadata
+        final MetadataAccess metadataAccess = Mockito.mock(MetadataAccess.class);
+        Mockito.when(metadataAccess.read(Mockito.any(MetadataCommand.class), Mockito.<Principal>anyVararg()))
+            .thenAnswer(invocation -> ((MetadataCommand) invocation.getArguments()[0]).execute());
+
+        final FeedManagerTemplateProvider templateProvider = Mockito.mock(FeedManagerTemplateProvider.class);
+        final List<FeedManagerTemplate> templates = Arrays.asList(template("t1", "Data Ingest", "n1"), template("t2", "Advanced Ingest", "n2"));
+        Mockito.when(templateProvider.findAll()).thenReturn(templates);
+
+        // Mock caches
+        final NifiFlowCache nifiFlowCache = Mockito.mock(NifiFlowCache.class);
+        Mockito.when(nifiFlowCache.isAvailable()).thenReturn(true);
+
+        final NiFiTemplateCache niFiTemplateCache = Mockito.mock(NiFiTemplateCache.class);
+        Mockito.when(niFiTemplateCache.geTemplate("n2", "Advanced Ingest")).thenThrow(new IllegalStateException("NiFi is down"));
+
+        final FeedManagerTemplateService templateService = Mockito.mock(FeedManagerTemplateService.class);
+        final List<RegisteredTemplate.Processor> processors = Collections.singletonList(new RegisteredTemplate.Processor("p1"));
+        Mockito.when(templateService.getRegisteredTemplateProcessors(Mockito.anyString(), Mockito.eq(true))).thenReturn(processors);
+
+        final RegisteredTemplateCache registeredTemplateCache = new RegisteredTemplateCache();
+
+        // Test warming caches
+        final NiFiCacheWarmupService service = new NiFiCacheWarmupService();
+        ReflectionTestUtils.setField(service, "startup", Mockito.mock(ServicesApplicationStartup.class));
+        ReflectionTestUtils.setField(service, "nifiFlowCache", nifiFlowCache);
+        ReflectionTestUtils.setField(service, "niFiTemplateCache", niFiTemplateCache);
+        ReflectionTestUtils.setField(service, "registeredTemplateCache", registeredTemplateCache);
+        ReflectionTestUtils.setField(service, "feedManagerTemplateService", templateService);
+        ReflectionTestUtils.setField(service, "feedManagerTemplateProvider", templateProvider);
+        ReflectionTestUtils.setField(service, "metadataAccess", metadataAccess);
+        ReflectionTestUtils.setField(service, "warmupThreads", 2);
+        service.init();
+        service.onStartup(DateTime.now());
+
+        Mockito.verify(nifiFlowCache).subscribe(service);
+        Mockito.verify(niFiTemplateCache).geTemplate("n1", "Data Ingest");
+        Assert.assertEquals(processors, registeredTemplateCache.getProcessors("t1"));
+        Assert.assertEquals(processors, registeredTemplateCache.getProcessors("t2"));
+        Assert.assertEquals(Arrays.asList(NiFiCacheWarmupService.NIFI_FLOW_CACHE, NiFiCacheWarmupService.NIFI_TEMPLATE_CACHE, NiFiCacheWarmupService.REGISTERED_TEMPLATE_CACHE),
+                            Arrays.asList(service.getWarmupTimings().keySet().toArray()));
+    }
+
+    /**
+     * Creates a mock registered template.
+     */
+    @Nonnull
+    private FeedManagerTemplate template(@Nonnull final String id, @Nonnull final String name, @Nonnull final String nifiTemplateId) {
+        final FeedManagerTemplate.ID templateId = Mockito.mock(FeedManagerTemplate.ID.class);
+        Mockito.when(templateId.toString()).thenReturn(id);
+
+        final FeedManagerTemplate template = Mockito.mock(FeedManagerTemplate.class);
+        Mockito.when(template.getId()).thenReturn(templateId);
+        Mockito.when(template.getName()).thenReturn(name);
+        Mockito.when(template.getNifiTemplateId()).thenReturn(nifiTemplateId);
+        return template;
+    }
+}
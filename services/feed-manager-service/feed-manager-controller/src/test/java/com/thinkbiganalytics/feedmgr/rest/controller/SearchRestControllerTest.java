@@ -0,0 +1,96 @@
+package com.thinkbiganalytics.feedmgr.rest.controller;
+
+/*-
+ * #%L
+ * thinkbig-feed-manager-controller
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.search.api.BatchIndexer;
+import com.thinkbiganalytics.search.api.BatchIndexerConfig;
+import com.thinkbiganalytics.search.api.Search;
+import com.thinkbiganalytics.search.api.SearchIndex;
+import com.thinkbiganalytics.security.AccessController;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+
+import javax.ws.rs.core.Response;
+
+public class SearchRestControllerTest {
+
+    /**
+     * Verify deleting removed Hive tables from the search index.
+     */
+    @Test
+    public void deleteHiveTables() {
+        // Mock search engine
+        final BatchIndexer indexer = Mockito.mock(BatchIndexer.class);
+        Mockito.when(indexer.delete(Mockito.anyString(), Mockito.anyString(), Mockito.anyString())).thenReturn(CompletableFuture.completedFuture(null));
+
+        final Search search = Mockito.mock(Search.class);
+        Mockito.when(search.newBatchIndexer(Mockito.any(BatchIndexerConfig.class))).thenReturn(indexer);
+
+        // Test deleting tables
+        final SearchRestController controller = newController(search);
+        final Response response = controller.deleteHiveTables(Arrays.asList("db.t1", "db.t2"));
+        Assert.assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+
+        final InOrder inOrder = Mockito.inOrder(indexer, search);
+        inOrder.verify(indexer).delete(SearchIndex.SCHEMA_METADATA, "hive-schema", "db.t1");
+        inOrder.verify(indexer).delete(SearchIndex.SCHEMA_METADATA, "hive-schema", "db.t2");
+        inOrder.verify(indexer).close();
+        inOrder.verify(search).commit(SearchIndex.SCHEMA_METADATA);
+    }
+
+    /**
+     * Verify the response when the search engine fails to delete a table.
+     */
+    @Test
+    public void deleteHiveTablesWithFailure() {
+        // Mock search engine
+        final CompletableFuture<Void> failure = new CompletableFuture<>();
+        failure.completeExceptionally(new IllegalStateException("delete failed"));
+
+        final BatchIndexer indexer = Mockito.mock(BatchIndexer.class);
+        Mockito.when(indexer.delete(SearchIndex.SCHEMA_METADATA, "hive-schema", "db.t1")).thenReturn(CompletableFuture.completedFuture(null));
+        Mockito.when(indexer.delete(SearchIndex.SCHEMA_METADATA, "hive-schema", "db.t2")).thenReturn(failure);
+
+        final Search search = Mockito.mock(Search.class);
+        Mockito.when(search.newBatchIndexer(Mockito.any(BatchIndexerConfig.class))).thenReturn(indexer);
+
+        // Test deleting tables
+        final Response response = newController(search).deleteHiveTables(Arrays.asList("db.t1", "db.t2"));
+        Assert.assertEquals(Response.Status.INTERNAL_SERVER_ERROR.getStatusCode(), response.getStatus());
+        Mockito.verify(indexer).close();
+    }
+
+    /**
+     * Creates a controller for the specified search engine.
+     */
+    private SearchRestController newController(final Search search) {
+        final SearchRestController controller = new SearchRestController();
+        controller.accessController = Mockito.mock(AccessController.class);
+        controller.searchEngine = search;
+        return controller;
+    }
+}
@@ -0,0 +1,141 @@
+package com.thinkbiganalytics.feedmgr.service.feed;
+
+/*-
+ * #%L
+ * thinkbig-feed-manager-controller
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.feedmgr.rest.model.FeedCategory;
+import com.thinkbiganalytics.feedmgr.rest.model.FeedMetadata;
+import com.thinkbiganalytics.feedmgr.rest.model.NifiFeed;
+import com.thinkbiganalytics.feedmgr.rest.model.UploadProgress;
+import com.thinkbiganalytics.feedmgr.rest.model.UploadProgressMessage;
+import com.thinkbiganalytics.feedmgr.service.UploadProgressService;
+import com.thinkbiganalytics.nifi.rest.NiFiObjectCache;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nonnull;
+
+public class FeedRedeploymentServiceTest {
+
+    @After
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    /**
+     * Verify redeploying the feeds of a template as the current user, with the first feed of each category saved first.
+     */
+    @Test
+    public void redeployFeedsForTemplate() throws Exception {
+        final List<FeedMetadata> feeds = Arrays.asList(feed("a", "a1"), feed("a", "a2"), feed("b", "b1"), feed("a", "a3"), feed("b", "b2"));
+        final List<String> saved = Collections.synchronizedList(new ArrayList<>());
+        final Map<String, Authentication> users = new ConcurrentHashMap<>();
+
+        // Mock feed service
+        final FeedManagerFeedService feedService = Mockito.mock(FeedManagerFeedService.class);
+        Mockito.when(feedService.getFeedsWithTemplate("template")).thenReturn(feeds);
+        Mockito.when(feedService.createFeed(Mockito.any(FeedMetadata.class))).thenAnswer(invocation -> {
+            final FeedMetadata feed = (FeedMetadata) invocation.getArguments()[0];
+            users.put(feed.getSystemFeedName(), SecurityContextHolder.getContext().getAuthentication());
+            Thread.sleep(50);
+            saved.add(feed.getSystemFeedName());
+            if (feed.getSystemFeedName().equals("b2")) {
+                throw new IllegalStateException("NiFi is down");
+            }
+            final NifiFeed result = new NifiFeed();
+            result.setSuccess(!feed.getSystemFeedName().equals("a2"));
+            return result;
+        });
+
+        // Test redeploying feeds
+        final FeedRedeploymentService service = new FeedRedeploymentService();
+        ReflectionTestUtils.setField(service, "feedManagerFeedService", feedService);
+        ReflectionTestUtils.setField(service, "uploadProgressService", new UploadProgressService());
+        ReflectionTestUtils.setField(service, "niFiObjectCache", Mockito.mock(NiFiObjectCache.class));
+        ReflectionTestUtils.setField(service, "redeployThreads", 2);
+        service.init();
+
+        final Authentication user = new UsernamePasswordAuthenticationToken("dladmin", "secret");
+        SecurityContextHolder.getContext().setAuthentication(user);
+        final UploadProgress progress;
+        try {
+            progress = service.redeployFeedsForTemplate("template");
+            for (int i = 0; i < 100 && !isComplete(progress); ++i) {
+                Thread.sleep(50);
+            }
+        } finally {
+            service.destroy();
+        }
+
+        Assert.assertTrue(isComplete(progress));
+        Assert.assertEquals(5, saved.size());
+        Assert.assertEquals(new HashSet<>(Arrays.asList("a1", "b1")), new HashSet<>(saved.subList(0, 2)));
+        Assert.assertEquals(5, users.size());
+        users.values().forEach(authentication -> Assert.assertSame(user, authentication));
+
+        final UploadProgressMessage result;
+        synchronized (progress) {
+            result = progress.getMessages().get(progress.getMessages().size() - 1);
+        }
+        Assert.assertFalse(result.isSuccess());
+        Assert.assertTrue(result.getMessage().startsWith("Unable to redeploy 2 of 5 feeds for the template: "));
+        Assert.assertTrue(result.getMessage().contains("a.a2"));
+        Assert.assertTrue(result.getMessage().contains("b.b2"));
+    }
+
+    /**
+     * Indicates if the redeployment has finished.
+     */
+    private boolean isComplete(@Nonnull final UploadProgress progress) {
+        synchronized (progress) {
+            return progress.isComplete();
+        }
+    }
+
+    /**
+     * Creates a feed in the specified category.
+     */
+    @Nonnull
+    private FeedMetadata feed(@Nonnull final String category, @Nonnull final String name) {
+        final FeedCategory feedCategory = new FeedCategory();
+        feedCategory.setSystemName(category);
+
+        final FeedMetadata feed = new FeedMetadata();
+        feed.setId(name);
+        feed.setCategory(feedCategory);
+        feed.setSystemFeedName(name);
+        return feed;
+    }
+}
@@ -0,0 +1,198 @@
+package com.thinkbiganalytics.feedmgr.service.feed;
+
+/*-
+ * #%L
+ * thinkbig-feed-manager-controller
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.feedmgr.rest.model.FeedSummary;
+import com.thinkbiganalytics.metadata.api.MetadataAccess;
+import com.thinkbiganalytics.metadata.api.MetadataAction;
+import com.thinkbiganalytics.metadata.api.event.MetadataChange;
+import com.thinkbiganalytics.metadata.api.event.MetadataEventListener;
+import com.thinkbiganalytics.metadata.api.event.MetadataEventService;
+import com.thinkbiganalytics.metadata.api.event.feed.FeedChange;
+import com.thinkbiganalytics.metadata.api.event.feed.FeedChangeEvent;
+import com.thinkbiganalytics.metadata.api.feed.Feed;
+import com.thinkbiganalytics.metadata.api.feed.FeedProvider;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nonnull;
+
+public class FeedSummaryProjectionTest {
+
+    /**
+     * Projection being tested
+     */
+    private FeedSummaryProjection projection;
+
+    /**
+     * Mock feed provider
+     */
+    private FeedProvider feedProvider;
+
+    /**
+     * Mock feed model transform
+     */
+    private FeedModelTransform feedModelTransform;
+
+    /**
+     * Listeners added to the event service
+     */
+    private ArgumentCaptor<MetadataEventListener> listeners;
+
+    /**
+     * Feeds returned by the provider
+     */
+    private List<Feed> feeds;
+
+    /**
+     * Set up test environment.
+     */
+    @Before
+    public void setUp() throws Exception {
+        feedProvider = Mockito.mock(FeedProvider.class);
+        feedModelTransform = Mockito.mock(FeedModelTransform.class);
+        feeds = new ArrayList<>(Arrays.asList(feed("1", "orders", "sales", "ENABLED", "Data Ingest"),
+                                              feed("2", "customers", "sales", "DISABLED", "Data Ingest"),
+                                              feed("3", "clicks", "web", "ENABLED", "Advanced Ingest")));
+        Mockito.when(feedProvider.findAll()).thenAnswer(invocation -> feeds);
+
+        final MetadataAccess metadataAccess = Mockito.mock(MetadataAccess.class);
+        Mockito.doAnswer(invocation -> {
+            ((MetadataAction) invocation.getArguments()[0]).execute();
+            return null;
+        }).when(metadataAccess).read(Mockito.any(MetadataAction.class), Mockito.<Principal>anyVararg());
+
+        final MetadataEventService metadataEventService = Mockito.mock(MetadataEventService.class);
+        listeners = ArgumentCaptor.forClass(MetadataEventListener.class);
+
+        projection = new FeedSummaryProjection();
+        ReflectionTestUtils.setField(projection, "metadataAccess", metadataAccess);
+        ReflectionTestUtils.setField(projection, "feedProvider", feedProvider);
+        ReflectionTestUtils.setField(projection, "feedModelTransform", feedModelTransform);
+        ReflectionTestUtils.setField(projection, "metadataEventService", metadataEventService);
+        projection.addEventListeners();
+        Mockito.verify(metadataEventService, Mockito.atLeastOnce()).addListener(listeners.capture());
+    }
+
+    /**
+     * Verify sorting and paging the feed summaries.
+     */
+    @Test
+    public void findPage() {
+        Page<FeedSummary> page = projection.findPage(new PageRequest(0, 2, Sort.Direction.ASC, FeedSummaryProjection.SORT_FEED_NAME), null);
+        Assert.assertEquals(Arrays.asList("clicks", "customers"), names(page));
+        Assert.assertEquals(3, page.getTotalElements());
+
+        page = projection.findPage(new PageRequest(1, 2, Sort.Direction.ASC, FeedSummaryProjection.SORT_FEED_NAME), null);
+        Assert.assertEquals(Arrays.asList("orders"), names(page));
+
+        page = projection.findPage(new PageRequest(0, 10, Sort.Direction.DESC, FeedSummaryProjection.SORT_CATEGORY_NAME), null);
+        Assert.assertEquals("clicks", names(page).get(0));
+
+        // Verify loaded only once
+        Mockito.verify(feedProvider, Mockito.times(1)).findAll();
+    }
+
+    /**
+     * Verify filtering the feed summaries.
+     */
+    @Test
+    public void findPageWithFilter() {
+        final PageRequest pageable = new PageRequest(0, 10, Sort.Direction.ASC, FeedSummaryProjection.SORT_FEED_NAME);
+        Assert.assertEquals(Arrays.asList("customers", "orders"), names(projection.findPage(pageable, "SAL")));
+        Assert.assertEquals(Arrays.asList("clicks"), names(projection.findPage(pageable, "advanced")));
+        Assert.assertEquals(Arrays.asList("customers"), names(projection.findPage(pageable, "dis")));
+        Assert.assertEquals(Arrays.asList("clicks", "customers"), names(projection.findPage(pageable, "c")));
+        Assert.assertEquals(0, projection.findPage(pageable, "missing").getTotalElements());
+    }
+
+    /**
+     * Verify updating the projection from feed change events.
+     */
+    @Test
+    public void feedChangeEvents() {
+        final PageRequest pageable = new PageRequest(0, 10, Sort.Direction.ASC, FeedSummaryProjection.SORT_FEED_NAME);
+        projection.findPage(pageable, null);
+
+        // Add a feed
+        final Feed created = feed("4", "accounts", "finance", "ENABLED", "Data Ingest");
+        Mockito.when(feedProvider.getFeed(created.getId())).thenReturn(created);
+        notify(new FeedChangeEvent(new FeedChange(MetadataChange.ChangeType.CREATE, created.getId(), Feed.State.ENABLED)));
+        Assert.assertEquals(Arrays.asList("accounts", "clicks", "customers", "orders"), names(projection.findPage(pageable, null)));
+        Assert.assertEquals(Arrays.asList("accounts"), names(projection.findPage(pageable, "fin")));
+
+        // Delete a feed
+        notify(new FeedChangeEvent(new FeedChange(MetadataChange.ChangeType.DELETE, feeds.get(0).getId(), Feed.State.ENABLED)));
+        Assert.assertEquals(Arrays.asList("accounts", "clicks", "customers"), names(projection.findPage(pageable, null)));
+        Assert.assertEquals(Arrays.asList("customers"), names(projection.findPage(pageable, "sales")));
+    }
+
+    /**
+     * Sends the specified event to the feed change listener, which is the first listener added.
+     */
+    @SuppressWarnings("unchecked")
+    private void notify(@Nonnull final FeedChangeEvent event) {
+        listeners.getAllValues().get(0).notify(event);
+    }
+
+    /**
+     * Gets the feed names on the specified page.
+     */
+    @Nonnull
+    private List<String> names(@Nonnull final Page<FeedSummary> page) {
+        return page.getContent().stream().map(FeedSummary::getSystemFeedName).collect(Collectors.toList());
+    }
+
+    /**
+     * Creates a mock feed and its summary.
+     */
+    @Nonnull
+    private Feed feed(@Nonnull final String id, @Nonnull final String name, @Nonnull final String category, @Nonnull final String state, @Nonnull final String template) {
+        final Feed.ID feedId = Mockito.mock(Feed.ID.class);
+        Mockito.when(feedId.toString()).thenReturn(id);
+
+        final Feed feed = Mockito.mock(Feed.class);
+        Mockito.when(feed.getId()).thenReturn(feedId);
+
+        final FeedSummary summary = new FeedSummary();
+        summary.setId(id);
+        summary.setSystemFeedName(name);
+        summary.setSystemCategoryName(category);
+        summary.setState(state);
+        summary.setTemplateName(template);
+        Mockito.when(feedModelTransform.domainToFeedSummary(feed)).thenReturn(summary);
+        return feed;
+    }
+}
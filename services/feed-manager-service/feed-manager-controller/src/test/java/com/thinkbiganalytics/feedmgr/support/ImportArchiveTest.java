@@ -0,0 +1,84 @@
+package com.thinkbiganalytics.feedmgr.support;
+
+/*-
+ * #%L
+ * thinkbig-feed-manager-controller
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.collect.Sets;
+import com.thinkbiganalytics.feedmgr.rest.ImportComponent;
+import com.thinkbiganalytics.feedmgr.rest.ImportType;
+import com.thinkbiganalytics.feedmgr.rest.model.FeedMetadata;
+import com.thinkbiganalytics.feedmgr.rest.model.ImportComponentOption;
+import com.thinkbiganalytics.feedmgr.rest.model.RegisteredTemplate;
+import com.thinkbiganalytics.feedmgr.service.feed.exporting.model.ExportFeed;
+import com.thinkbiganalytics.feedmgr.service.feed.importing.model.ImportFeed;
+import com.thinkbiganalytics.feedmgr.service.template.exporting.model.ExportTemplate;
+import com.thinkbiganalytics.feedmgr.service.template.importing.model.ImportTemplate;
+import com.thinkbiganalytics.feedmgr.util.ImportUtil;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class ImportArchiveTest {
+
+    /**
+     * Verify a streamed feed export can be opened and read as an import archive.
+     */
+    @Test
+    public void exportAndImportFeed() throws Exception {
+        RegisteredTemplate template = new RegisteredTemplate();
+        template.setTemplateName("my template");
+        ExportTemplate exportTemplate = new ExportTemplate("my_template.template.zip", template, "<template/>", Arrays.asList("<reusable1/>", "<reusable2/>"), Collections.emptySet());
+
+        FeedMetadata feed = new FeedMetadata();
+        feed.setSystemFeedName("my_feed");
+        ExportFeed exportFeed = new ExportFeed("my_feed.feed.zip", exportTemplate, feed);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportFeed.writeTo(out);
+
+        try (ImportArchive archive = ImportArchive.fromStream(exportFeed.getFileName(), new ByteArrayInputStream(out.toByteArray()))) {
+            Assert.assertTrue(archive.isZip());
+            Assert.assertEquals(Sets.newHashSet(ImportTemplate.NIFI_TEMPLATE_XML_FILE, ImportTemplate.TEMPLATE_JSON_FILE, ImportFeed.FEED_JSON_FILE,
+                                                ImportTemplate.NIFI_CONNECTING_REUSABLE_TEMPLATE_XML_FILE + "_0.xml", ImportTemplate.NIFI_CONNECTING_REUSABLE_TEMPLATE_XML_FILE + "_1.xml"),
+                                archive.getEntryNames());
+            Assert.assertTrue(ZipFileUtil.validateZipEntriesWithRequiredEntries(archive, Sets.newHashSet(ImportTemplate.NIFI_TEMPLATE_XML_FILE, ImportTemplate.TEMPLATE_JSON_FILE),
+                                                                                 Sets.newHashSet(ImportFeed.FEED_JSON_FILE)));
+
+            Set<ImportComponent> components = ImportUtil.inspectZipComponents(archive, ImportType.FEED).stream().map(ImportComponentOption::getImportComponent).collect(Collectors.toSet());
+            Assert.assertTrue(components.containsAll(Arrays.asList(ImportComponent.NIFI_TEMPLATE, ImportComponent.TEMPLATE_DATA, ImportComponent.REUSABLE_TEMPLATE, ImportComponent.FEED_DATA)));
+
+            ImportTemplate importTemplate = ImportUtil.openZip(archive);
+            Assert.assertEquals("<template/>", importTemplate.getNifiTemplateXml());
+            Assert.assertEquals(Arrays.asList("<reusable1/>", "<reusable2/>"), importTemplate.getNifiConnectingReusableTemplateXmls());
+            Assert.assertTrue(importTemplate.getTemplateJson().contains("my template"));
+
+            ImportFeed importFeed = new ImportFeed(archive.getFileName());
+            importFeed.setFeedJson(archive.readEntry(ImportFeed.FEED_JSON_FILE).orElse(null));
+            Assert.assertEquals("my_feed", importFeed.getFeedToImport().getSystemFeedName());
+        }
+    }
+}
@@ -33,6 +33,15 @@ public interface JmsService {
 
     Queue getQueue(String queueName);
 
+    /**
+     * Indicates whether {@link #getTopic(String)} is supported by the JMS provider.
+     *
+     * @return {@code true} if topics are supported
+     */
+    default boolean isTopicSupported() {
+        return true;
+    }
+
     void configureContainerFactory(DefaultJmsListenerContainerFactory factory);
 
     void configureJmsMessagingTemplate(JmsMessagingTemplate template);
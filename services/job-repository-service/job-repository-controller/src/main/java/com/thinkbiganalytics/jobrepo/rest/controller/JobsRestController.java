@@ -20,6 +20,7 @@ package com.thinkbiganalytics.jobrepo.rest.controller;
  * #L%
  */
 
+import com.google.common.collect.ImmutableSet;
 import com.thinkbiganalytics.DateTimeUtil;
 import com.thinkbiganalytics.jobrepo.query.model.ExecutedJob;
 import com.thinkbiganalytics.jobrepo.query.model.FeedHealth;
@@ -35,21 +36,28 @@ import com.thinkbiganalytics.metadata.api.MetadataAccess;
 import com.thinkbiganalytics.metadata.api.feed.OpsManagerFeedProvider;
 import com.thinkbiganalytics.metadata.api.jobrepo.job.BatchJobExecution;
 import com.thinkbiganalytics.metadata.api.jobrepo.job.BatchJobExecutionProvider;
+import com.thinkbiganalytics.metadata.api.jobrepo.job.JobExecutionCursor;
 import com.thinkbiganalytics.metadata.api.jobrepo.nifi.NifiFeedStatisticsProvider;
 import com.thinkbiganalytics.metadata.api.jobrepo.step.BatchStepExecutionProvider;
 import com.thinkbiganalytics.rest.model.RestResponseStatus;
+import com.thinkbiganalytics.rest.model.search.CursorSearchResult;
 import com.thinkbiganalytics.rest.model.search.SearchResult;
 import com.thinkbiganalytics.security.AccessController;
 
+import org.apache.commons.lang3.StringUtils;
+import org.joda.time.DateTime;
 import org.joda.time.Period;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 import javax.servlet.http.HttpServletRequest;
+import javax.ws.rs.BadRequestException;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
@@ -76,6 +84,23 @@ public class JobsRestController {
 
     public static final String BASE = "/v1/jobs";
 
+    /**
+     * Count modes for {@link #seekJobs}: count every matching job, stop counting at the count limit, or skip the count
+     */
+    private static final String COUNT_EXACT = "exact";
+    private static final String COUNT_BOUNDED = "bounded";
+    private static final Set<String> COUNT_MODES = ImmutableSet.of(COUNT_EXACT, COUNT_BOUNDED, "none");
+
+    /**
+     * Maximum number of jobs returned by {@link #seekJobs} in one page
+     */
+    private static final int MAX_SEEK_LIMIT = 500;
+
+    /**
+     * Maximum number of jobs counted by {@link #seekJobs} in bounded count mode
+     */
+    private static final long MAX_COUNT_LIMIT = 10000;
+
     @Inject
     OpsManagerFeedProvider opsFeedManagerFeedProvider;
 
@@ -111,7 +136,7 @@ public class JobsRestController {
 
         return metadataAccess.read(() -> {
             ExecutedJob executedJob = null;
-            BatchJobExecution jobExecution = jobExecutionProvider.findByJobExecutionId(Long.parseLong(executionId));
+            BatchJobExecution jobExecution = jobExecutionProvider.findByJobExecutionId(Long.parseLong(executionId), true);
             if (jobExecution != null) {
                 if (includeSteps) {
                     executedJob = JobModelTransform.executedJob(jobExecution);
@@ -306,6 +331,71 @@ public class JobsRestController {
         });
     }
 
+    @GET
+    @Path("/seek")
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation(value = "Lists jobs a page at a time, most recently started first, using a continuation token.",
+                  notes = "If a start time range is given then archived jobs are included.")
+    @ApiResponses({
+                      @ApiResponse(code = 200, message = "Returns the jobs and the token for the next page.", response = CursorSearchResult.class),
+                      @ApiResponse(code = 400, message = "The cursor, limit, count mode, count limit, or time range is not valid.", response = RestResponseStatus.class)
+                  })
+    public CursorSearchResult<ExecutedJob> seekJobs(@QueryParam("cursor") String cursor,
+                                                    @QueryParam("limit") @DefaultValue("10") Integer limit,
+                                                    @QueryParam("filter") String filter,
+                                                    @QueryParam("count") @DefaultValue("bounded") String count,
+                                                    @QueryParam("countLimit") @DefaultValue("1000") Long countLimit,
+                                                    @QueryParam("from") Long fromMillis,
+                                                    @QueryParam("to") Long toMillis) {
+        this.accessController.checkPermission(AccessController.SERVICES, OperationsAccessControl.ACCESS_OPS);
+
+        final JobExecutionCursor start;
+        try {
+            start = StringUtils.isNotBlank(cursor) ? JobExecutionCursor.fromToken(cursor) : null;
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+        if (!COUNT_MODES.contains(count)) {
+            throw new BadRequestException("Invalid count mode: " + count);
+        }
+        if (limit == null || limit < 1) {
+            throw new BadRequestException("The limit must be at least 1: " + limit);
+        }
+        if (countLimit == null || countLimit < 1) {
+            throw new BadRequestException("The count limit must be at least 1: " + countLimit);
+        }
+        if (fromMillis != null && toMillis != null && fromMillis >= toMillis) {
+            throw new BadRequestException("The start of the time range must be before the end: " + fromMillis + " to " + toMillis);
+        }
+        final int pageSize = Math.min(limit, MAX_SEEK_LIMIT);
+        final long maxCount = Math.min(countLimit, MAX_COUNT_LIMIT);
+        final boolean ranged = fromMillis != null || toMillis != null;
+        final DateTime startedAfter = fromMillis != null ? new DateTime(fromMillis) : null;
+        final DateTime startedBefore = toMillis != null ? new DateTime(toMillis) : null;
+
+        return metadataAccess.read(() -> {
+            Slice<? extends BatchJobExecution> slice = ranged ? jobExecutionProvider.findAllAfter(filter, start, startedAfter, startedBefore, pageSize)
+                                                              : jobExecutionProvider.findAllAfter(filter, start, pageSize);
+
+            CursorSearchResult<ExecutedJob> searchResult = new CursorSearchResult<>();
+            searchResult.setData(slice.getContent().stream().map(JobModelTransform::executedJobSimple).collect(Collectors.toList()));
+            if (slice.hasNext()) {
+                searchResult.setCursor(JobExecutionCursor.of(slice.getContent().get(slice.getNumberOfElements() - 1)).toToken());
+            }
+
+            if (COUNT_EXACT.equals(count)) {
+                searchResult.setRecordsTotal(ranged ? jobExecutionProvider.countAll(filter, startedAfter, startedBefore, 0) : jobExecutionProvider.countAll(filter, 0));
+                searchResult.setRecordsTotalExact(true);
+            } else if (COUNT_BOUNDED.equals(count)) {
+                long total = ranged ? jobExecutionProvider.countAll(filter, startedAfter, startedBefore, maxCount) : jobExecutionProvider.countAll(filter, maxCount);
+                searchResult.setRecordsTotal(Math.min(total, maxCount));
+                searchResult.setRecordsTotalExact(total <= maxCount);
+            }
+            searchResult.setRecordsFiltered(searchResult.getRecordsTotal());
+            return searchResult;
+        });
+    }
+
 
     @GET
     @Path("/running")
@@ -27,6 +27,7 @@ import org.springframework.context.annotation.Configuration;
 
 import javax.annotation.Nonnull;
 import javax.inject.Inject;
+import javax.jms.Destination;
 import javax.jms.Queue;
 
 /**
@@ -61,5 +62,17 @@ public class MetadataJmsConfig {
         return jmsService.getQueue(MetadataQueues.PRECONDITION_TRIGGER);
     }
 
+    /**
+     * Gets the destination for notifying NiFi of feed changes. A topic is used so every NiFi node receives the changes, unless the JMS provider
+     * does not support topics.
+     *
+     * @return the feed change topic or queue
+     */
+    @Bean(name = "feedChangeDestination")
+    @Nonnull
+    public Destination feedChangeDestination() {
+        return jmsService.isTopicSupported() ? jmsService.getTopic(MetadataQueues.FEED_CHANGE) : jmsService.getQueue(MetadataQueues.FEED_CHANGE);
+    }
+
 
 }
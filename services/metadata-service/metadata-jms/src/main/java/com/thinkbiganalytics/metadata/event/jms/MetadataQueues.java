@@ -34,4 +34,9 @@ public interface MetadataQueues {
      * Triggers a feed based on preconditions
      */
     String PRECONDITION_TRIGGER = "preconditionTrigger";
+
+    /**
+     * Indicates a feed was created, updated, or deleted. This is a topic if the JMS provider supports topics, otherwise a queue.
+     */
+    String FEED_CHANGE = "feedChange";
 }
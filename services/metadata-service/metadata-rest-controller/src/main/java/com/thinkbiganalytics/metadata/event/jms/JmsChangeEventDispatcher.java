@@ -24,20 +24,29 @@ import com.thinkbiganalytics.metadata.api.MetadataAccess;
 import com.thinkbiganalytics.metadata.api.event.MetadataEventListener;
 import com.thinkbiganalytics.metadata.api.event.MetadataEventService;
 import com.thinkbiganalytics.metadata.api.event.feed.CleanupTriggerEvent;
+import com.thinkbiganalytics.metadata.api.event.feed.FeedChange;
+import com.thinkbiganalytics.metadata.api.event.feed.FeedChangeEvent;
 import com.thinkbiganalytics.metadata.api.event.feed.PreconditionTriggerEvent;
 import com.thinkbiganalytics.metadata.api.feed.Feed;
 import com.thinkbiganalytics.metadata.api.feed.FeedProvider;
+import com.thinkbiganalytics.metadata.rest.model.event.FeedChangedEvent;
 import com.thinkbiganalytics.metadata.rest.model.event.FeedCleanupTriggerEvent;
 import com.thinkbiganalytics.metadata.rest.model.event.FeedPreconditionTriggerEvent;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jms.core.JmsMessagingTemplate;
+import org.springframework.jms.core.JmsTemplate;
+
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.Nonnull;
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Named;
+import javax.jms.Destination;
 import javax.jms.Queue;
+import javax.jms.Topic;
 
 /**
  * Listens for metadata events that should be transferred to a JMS topic.
@@ -54,6 +63,11 @@ public class JmsChangeEventDispatcher {
      */
     private final MetadataEventListener<PreconditionTriggerEvent> preconditionListener = new PreconditionTriggerDispatcher();
 
+    /**
+     * Event listener for feed change events
+     */
+    private final MetadataEventListener<FeedChangeEvent> feedChangeListener = new FeedChangeDispatcher();
+
     /**
      * JMS topic for triggering feeds for cleanup
      */
@@ -86,6 +100,26 @@ public class JmsChangeEventDispatcher {
     @Inject
     @Named("preconditionTriggerQueue")
     private Queue preconditionTriggerQueue;
+    /**
+     * JMS topic, or queue if topics are not supported, for notifying NiFi of feed changes
+     */
+    @Inject
+    @Named("feedChangeDestination")
+    private Destination feedChangeDestination;
+    /**
+     * Send feed change events for NiFi nodes that cache Kylo metadata
+     */
+    @Value("${kylo.metadata.feed.change.jms.enabled:false}")
+    private boolean feedChangeEnabled;
+    /**
+     * Time before an undelivered feed change event expires
+     */
+    @Value("${kylo.metadata.feed.change.jms.ttl.seconds:300}")
+    private long feedChangeTimeToLive;
+    /**
+     * Sends feed change events as non-persistent messages that expire
+     */
+    private JmsMessagingTemplate feedChangeTemplate;
 
     /**
      * Adds listeners for transferring events.
@@ -94,6 +128,10 @@ public class JmsChangeEventDispatcher {
     public void addEventListener() {
         eventService.addListener(cleanupListener);
         eventService.addListener(preconditionListener);
+        if (feedChangeEnabled) {
+            feedChangeTemplate = createFeedChangeTemplate();
+            eventService.addListener(feedChangeListener);
+        }
     }
 
     /**
@@ -103,6 +141,27 @@ public class JmsChangeEventDispatcher {
     public void removeEventListener() {
         eventService.removeListener(cleanupListener);
         eventService.removeListener(preconditionListener);
+        eventService.removeListener(feedChangeListener);
+    }
+
+    /**
+     * Creates a messaging template like the shared one, but sending non-persistent messages that expire, so they do not accumulate when no NiFi
+     * node is listening.
+     */
+    @Nonnull
+    private JmsMessagingTemplate createFeedChangeTemplate() {
+        final JmsTemplate shared = jmsMessagingTemplate.getJmsTemplate();
+        final JmsTemplate jmsTemplate = new JmsTemplate(shared.getConnectionFactory());
+        jmsTemplate.setDestinationResolver(shared.getDestinationResolver());
+        jmsTemplate.setMessageConverter(shared.getMessageConverter());
+        jmsTemplate.setPubSubDomain(feedChangeDestination instanceof Topic);
+        jmsTemplate.setExplicitQosEnabled(true);
+        jmsTemplate.setDeliveryPersistent(false);
+        jmsTemplate.setTimeToLive(TimeUnit.SECONDS.toMillis(feedChangeTimeToLive));
+
+        final JmsMessagingTemplate template = new JmsMessagingTemplate(jmsTemplate);
+        template.setJmsMessageConverter(jmsMessagingTemplate.getJmsMessageConverter());
+        return template;
     }
 
     /**
@@ -144,4 +203,27 @@ public class JmsChangeEventDispatcher {
             jmsMessagingTemplate.convertAndSend(preconditionTriggerQueue, triggerEv);
         }
     }
+
+    /**
+     * Transfers feed change events to JMS so NiFi can invalidate its cached metadata.
+     */
+    private class FeedChangeDispatcher implements MetadataEventListener<FeedChangeEvent> {
+
+        @Override
+        public void notify(@Nonnull final FeedChangeEvent event) {
+            final FeedChange change = event.getData();
+            final FeedChangedEvent jmsEvent = new FeedChangedEvent(change.getFeedId().toString(), change.getChange().name());
+
+            // Feed name is the qualified name: {category}.{feed}
+            change.getFeedName().ifPresent(qualifiedName -> {
+                final int index = qualifiedName.indexOf('.');
+                if (index > 0) {
+                    jmsEvent.setCategoryName(qualifiedName.substring(0, index));
+                    jmsEvent.setFeedName(qualifiedName.substring(index + 1));
+                }
+            });
+
+            feedChangeTemplate.convertAndSend(feedChangeDestination, jmsEvent);
+        }
+    }
 }
@@ -0,0 +1,151 @@
+package com.thinkbiganalytics.metadata.rest.model.event;
+
+/*-
+ * #%L
+ * thinkbig-metadata-rest-model
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.io.Serializable;
+
+import javax.annotation.Nonnull;
+
+/**
+ * An event that indicates a feed was created, updated, or deleted.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class FeedChangedEvent implements Serializable {
+
+    private static final long serialVersionUID = -6931750829466421903L;
+
+    /**
+     * Category system name
+     */
+    private String categoryName;
+
+    /**
+     * Type of change, either {@code CREATE}, {@code UPDATE}, or {@code DELETE}
+     */
+    private String changeType;
+
+    /**
+     * Feed id
+     */
+    private String feedId;
+
+    /**
+     * Feed system name
+     */
+    private String feedName;
+
+    /**
+     * Constructs a {@code FeedChangedEvent}.
+     */
+    public FeedChangedEvent() {
+    }
+
+    /**
+     * Constructs a {@code FeedChangedEvent} with the specified feed id.
+     *
+     * @param id         the feed id
+     * @param changeType the type of change
+     */
+    public FeedChangedEvent(@Nonnull final String id, @Nonnull final String changeType) {
+        this.feedId = id;
+        this.changeType = changeType;
+    }
+
+    /**
+     * Gets the category name.
+     *
+     * @return the category system name
+     */
+    public String getCategoryName() {
+        return categoryName;
+    }
+
+    /**
+     * Sets the category name.
+     *
+     * @param categoryName the category system name
+     */
+    public void setCategoryName(final String categoryName) {
+        this.categoryName = categoryName;
+    }
+
+    /**
+     * Gets the type of change.
+     *
+     * @return the change type
+     */
+    public String getChangeType() {
+        return changeType;
+    }
+
+    /**
+     * Sets the type of change.
+     *
+     * @param changeType the change type
+     */
+    public void setChangeType(final String changeType) {
+        this.changeType = changeType;
+    }
+
+    /**
+     * Gets the feed id.
+     *
+     * @return the feed id
+     */
+    public String getFeedId() {
+        return feedId;
+    }
+
+    /**
+     * Sets the feed id.
+     *
+     * @param feedId the feed id
+     */
+    public void setFeedId(final String feedId) {
+        this.feedId = feedId;
+    }
+
+    /**
+     * Gets the feed name.
+     *
+     * @return the feed system name
+     */
+    public String getFeedName() {
+        return feedName;
+    }
+
+    /**
+     * Sets the feed name.
+     *
+     * @param feedName the feed system name
+     */
+    public void setFeedName(final String feedName) {
+        this.feedName = feedName;
+    }
+
+    @Nonnull
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + ": " + changeType + " " + (feedId != null ? feedId : categoryName + "." + feedName);
+    }
+}
@@ -28,6 +28,8 @@ import com.thinkbiganalytics.metadata.cache.DataConfidenceJobsCache;
 import com.thinkbiganalytics.metadata.cache.FeedHealthSummaryCache;
 import com.thinkbiganalytics.metadata.cache.RunningJobsCache;
 import com.thinkbiganalytics.metadata.cache.ServiceStatusCache;
+import com.thinkbiganalytics.metadata.jobrepo.JobExecutionArchiveScheduler;
+import com.thinkbiganalytics.metadata.jobrepo.JobStatusCountReconciliationScheduler;
 import com.thinkbiganalytics.metadata.jobrepo.StreamingFeedService;
 import com.thinkbiganalytics.metadata.jobrepo.nifi.provenance.NifiBulletinExceptionExtractor;
 import com.thinkbiganalytics.metadata.jobrepo.nifi.provenance.NifiStatsJmsReceiver;
@@ -93,6 +95,18 @@ public class OperationalMetadataServiceSpringConfiguration {
         return new NifiStatsJmsReceiver();
     }
 
+    @Bean
+    @Profile("!kyloUpgrade")
+    public JobStatusCountReconciliationScheduler jobStatusCountReconciliationScheduler() {
+        return new JobStatusCountReconciliationScheduler();
+    }
+
+    @Bean
+    @Profile("!kyloUpgrade")
+    public JobExecutionArchiveScheduler jobExecutionArchiveScheduler() {
+        return new JobExecutionArchiveScheduler();
+    }
+
     @Bean
     public NifiBulletinExceptionExtractor nifiBulletinExceptionExtractor(){
         return new NifiBulletinExceptionExtractor();
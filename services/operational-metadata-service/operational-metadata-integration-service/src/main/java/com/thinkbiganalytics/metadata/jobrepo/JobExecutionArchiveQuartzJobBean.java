@@ -0,0 +1,44 @@
+package com.thinkbiganalytics.metadata.jobrepo;
+
+/*-
+ * #%L
+ * thinkbig-operational-metadata-integration-service
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.metadata.api.jobrepo.job.BatchJobExecutionProvider;
+
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.springframework.scheduling.quartz.QuartzJobBean;
+
+import javax.inject.Inject;
+
+/**
+ * Quartz Scheduled Job Bean that will move finished job executions to the archive tables
+ */
+public class JobExecutionArchiveQuartzJobBean extends QuartzJobBean {
+
+    @Inject
+    private BatchJobExecutionProvider batchJobExecutionProvider;
+
+    @Override
+    protected void executeInternal(JobExecutionContext context) throws JobExecutionException {
+        // each chunk of job executions is committed separately
+        batchJobExecutionProvider.archiveJobExecutions();
+    }
+}
@@ -0,0 +1,71 @@
+package com.thinkbiganalytics.metadata.jobrepo;
+
+/*-
+ * #%L
+ * thinkbig-operational-metadata-integration-service
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.scheduler.JobIdentifier;
+import com.thinkbiganalytics.scheduler.JobScheduler;
+import com.thinkbiganalytics.scheduler.QuartzScheduler;
+import com.thinkbiganalytics.scheduler.TriggerIdentifier;
+import com.thinkbiganalytics.scheduler.model.DefaultJobIdentifier;
+import com.thinkbiganalytics.scheduler.model.DefaultTriggerIdentifier;
+
+import org.apache.commons.lang3.StringUtils;
+import org.quartz.ObjectAlreadyExistsException;
+import org.quartz.SchedulerException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+
+/**
+ * Schedules the {@link JobStatusCountReconciliationQuartzJobBean} in Quartz if the properties have this enabled with a Cron Expression
+ */
+public class JobStatusCountReconciliationScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(JobStatusCountReconciliationScheduler.class);
+
+    @Inject
+    private JobScheduler jobScheduler;
+
+    @Value("${kylo.ops.mgr.job.status.rollup.enabled:true}")
+    private boolean rollupEnabled;
+
+    @Value("${kylo.ops.mgr.job.status.rollup.reconcile.cron:0 30 0 1/1 * ? *}")
+    private String reconcileCronSchedule;
+
+    @PostConstruct
+    private void init() {
+        if (rollupEnabled && StringUtils.isNotBlank(reconcileCronSchedule)) {
+            QuartzScheduler scheduler = (QuartzScheduler) jobScheduler;
+            JobIdentifier jobIdentifier = new DefaultJobIdentifier("Reconcile Job Status Counts", "KYLO");
+            TriggerIdentifier triggerIdentifier = new DefaultTriggerIdentifier(jobIdentifier.getName(), jobIdentifier.getGroup());
+            try {
+                scheduler.scheduleJob(jobIdentifier, triggerIdentifier, JobStatusCountReconciliationQuartzJobBean.class, reconcileCronSchedule, null);
+            } catch (ObjectAlreadyExistsException e) {
+                log.info("Unable to schedule the job to reconcile the job status counts.  It already exists.  Most likely another Kylo node has already scheduled this job. ");
+            } catch (SchedulerException e) {
+                throw new RuntimeException("Error scheduling job: Reconcile Job Status Counts", e);
+            }
+        }
+    }
+}
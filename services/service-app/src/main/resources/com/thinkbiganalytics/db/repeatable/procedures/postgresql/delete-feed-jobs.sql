@@ -83,6 +83,48 @@ DELETE FROM BATCH_JOB_EXECUTION
  WHERE BATCH_JOB_EXECUTION.JOB_INSTANCE_ID = BATCH_JOB_INSTANCE.JOB_INSTANCE_ID
  AND BATCH_JOB_INSTANCE.JOB_NAME = jobName;
 
+-- Delete archived job executions (BATCH_*_ARCHIVE)
+DELETE FROM BATCH_STEP_EXECUTION_CTX_VALS_ARCHIVE
+ USING BATCH_JOB_EXECUTION_ARCHIVE, BATCH_JOB_INSTANCE
+ WHERE BATCH_STEP_EXECUTION_CTX_VALS_ARCHIVE.JOB_EXECUTION_ID = BATCH_JOB_EXECUTION_ARCHIVE.JOB_EXECUTION_ID
+ AND BATCH_JOB_EXECUTION_ARCHIVE.JOB_INSTANCE_ID = BATCH_JOB_INSTANCE.JOB_INSTANCE_ID
+ AND BATCH_JOB_INSTANCE.JOB_NAME = jobName;
+
+DELETE FROM BATCH_NIFI_STEP_ARCHIVE
+ USING BATCH_JOB_EXECUTION_ARCHIVE, BATCH_JOB_INSTANCE
+ WHERE BATCH_NIFI_STEP_ARCHIVE.JOB_EXECUTION_ID = BATCH_JOB_EXECUTION_ARCHIVE.JOB_EXECUTION_ID
+ AND BATCH_JOB_EXECUTION_ARCHIVE.JOB_INSTANCE_ID = BATCH_JOB_INSTANCE.JOB_INSTANCE_ID
+ AND BATCH_JOB_INSTANCE.JOB_NAME = jobName;
+
+DELETE FROM BATCH_STEP_EXECUTION_ARCHIVE
+ USING BATCH_JOB_EXECUTION_ARCHIVE, BATCH_JOB_INSTANCE
+ WHERE BATCH_STEP_EXECUTION_ARCHIVE.JOB_EXECUTION_ID = BATCH_JOB_EXECUTION_ARCHIVE.JOB_EXECUTION_ID
+ AND BATCH_JOB_EXECUTION_ARCHIVE.JOB_INSTANCE_ID = BATCH_JOB_INSTANCE.JOB_INSTANCE_ID
+ AND BATCH_JOB_INSTANCE.JOB_NAME = jobName;
+
+DELETE FROM BATCH_JOB_EXECUTION_CTX_VALS_ARCHIVE
+ USING BATCH_JOB_EXECUTION_ARCHIVE, BATCH_JOB_INSTANCE
+ WHERE BATCH_JOB_EXECUTION_CTX_VALS_ARCHIVE.JOB_EXECUTION_ID = BATCH_JOB_EXECUTION_ARCHIVE.JOB_EXECUTION_ID
+ AND BATCH_JOB_EXECUTION_ARCHIVE.JOB_INSTANCE_ID = BATCH_JOB_INSTANCE.JOB_INSTANCE_ID
+ AND BATCH_JOB_INSTANCE.JOB_NAME = jobName;
+
+DELETE FROM BATCH_JOB_EXECUTION_PARAMS_ARCHIVE
+ USING BATCH_JOB_EXECUTION_ARCHIVE, BATCH_JOB_INSTANCE
+ WHERE BATCH_JOB_EXECUTION_PARAMS_ARCHIVE.JOB_EXECUTION_ID = BATCH_JOB_EXECUTION_ARCHIVE.JOB_EXECUTION_ID
+ AND BATCH_JOB_EXECUTION_ARCHIVE.JOB_INSTANCE_ID = BATCH_JOB_INSTANCE.JOB_INSTANCE_ID
+ AND BATCH_JOB_INSTANCE.JOB_NAME = jobName;
+
+DELETE FROM BATCH_NIFI_JOB_ARCHIVE
+ USING BATCH_JOB_EXECUTION_ARCHIVE, BATCH_JOB_INSTANCE
+ WHERE BATCH_NIFI_JOB_ARCHIVE.JOB_EXECUTION_ID = BATCH_JOB_EXECUTION_ARCHIVE.JOB_EXECUTION_ID
+ AND BATCH_JOB_EXECUTION_ARCHIVE.JOB_INSTANCE_ID = BATCH_JOB_INSTANCE.JOB_INSTANCE_ID
+ AND BATCH_JOB_INSTANCE.JOB_NAME = jobName;
+
+DELETE FROM BATCH_JOB_EXECUTION_ARCHIVE
+ USING BATCH_JOB_INSTANCE
+ WHERE BATCH_JOB_EXECUTION_ARCHIVE.JOB_INSTANCE_ID = BATCH_JOB_INSTANCE.JOB_INSTANCE_ID
+ AND BATCH_JOB_INSTANCE.JOB_NAME = jobName;
+
 -- Delete job instance (BATCH_JOB_INSTANCE)
 DELETE FROM BATCH_JOB_INSTANCE
 WHERE BATCH_JOB_INSTANCE.JOB_NAME = jobName;
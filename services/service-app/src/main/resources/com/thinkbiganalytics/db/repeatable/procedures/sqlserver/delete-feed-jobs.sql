@@ -75,6 +75,48 @@ FROM BATCH_JOB_EXECUTION
 INNER JOIN BATCH_JOB_INSTANCE ON BATCH_JOB_EXECUTION.JOB_INSTANCE_ID = BATCH_JOB_INSTANCE.JOB_INSTANCE_ID
 WHERE BATCH_JOB_INSTANCE.JOB_NAME = @jobName;
 
+-- Delete archived job executions (BATCH_*_ARCHIVE)
+DELETE BATCH_STEP_EXECUTION_CTX_VALS_ARCHIVE
+FROM BATCH_STEP_EXECUTION_CTX_VALS_ARCHIVE
+ INNER JOIN BATCH_JOB_EXECUTION_ARCHIVE ON BATCH_STEP_EXECUTION_CTX_VALS_ARCHIVE.JOB_EXECUTION_ID = BATCH_JOB_EXECUTION_ARCHIVE.JOB_EXECUTION_ID
+ INNER JOIN BATCH_JOB_INSTANCE ON BATCH_JOB_EXECUTION_ARCHIVE.JOB_INSTANCE_ID = BATCH_JOB_INSTANCE.JOB_INSTANCE_ID
+WHERE BATCH_JOB_INSTANCE.JOB_NAME = @jobName;
+
+DELETE BATCH_NIFI_STEP_ARCHIVE
+FROM BATCH_NIFI_STEP_ARCHIVE
+ INNER JOIN BATCH_JOB_EXECUTION_ARCHIVE ON BATCH_NIFI_STEP_ARCHIVE.JOB_EXECUTION_ID = BATCH_JOB_EXECUTION_ARCHIVE.JOB_EXECUTION_ID
+ INNER JOIN BATCH_JOB_INSTANCE ON BATCH_JOB_EXECUTION_ARCHIVE.JOB_INSTANCE_ID = BATCH_JOB_INSTANCE.JOB_INSTANCE_ID
+WHERE BATCH_JOB_INSTANCE.JOB_NAME = @jobName;
+
+DELETE BATCH_STEP_EXECUTION_ARCHIVE
+FROM BATCH_STEP_EXECUTION_ARCHIVE
+ INNER JOIN BATCH_JOB_EXECUTION_ARCHIVE ON BATCH_STEP_EXECUTION_ARCHIVE.JOB_EXECUTION_ID = BATCH_JOB_EXECUTION_ARCHIVE.JOB_EXECUTION_ID
+ INNER JOIN BATCH_JOB_INSTANCE ON BATCH_JOB_EXECUTION_ARCHIVE.JOB_INSTANCE_ID = BATCH_JOB_INSTANCE.JOB_INSTANCE_ID
+WHERE BATCH_JOB_INSTANCE.JOB_NAME = @jobName;
+
+DELETE BATCH_JOB_EXECUTION_CTX_VALS_ARCHIVE
+FROM BATCH_JOB_EXECUTION_CTX_VALS_ARCHIVE
+ INNER JOIN BATCH_JOB_EXECUTION_ARCHIVE ON BATCH_JOB_EXECUTION_CTX_VALS_ARCHIVE.JOB_EXECUTION_ID = BATCH_JOB_EXECUTION_ARCHIVE.JOB_EXECUTION_ID
+ INNER JOIN BATCH_JOB_INSTANCE ON BATCH_JOB_EXECUTION_ARCHIVE.JOB_INSTANCE_ID = BATCH_JOB_INSTANCE.JOB_INSTANCE_ID
+WHERE BATCH_JOB_INSTANCE.JOB_NAME = @jobName;
+
+DELETE BATCH_JOB_EXECUTION_PARAMS_ARCHIVE
+FROM BATCH_JOB_EXECUTION_PARAMS_ARCHIVE
+ INNER JOIN BATCH_JOB_EXECUTION_ARCHIVE ON BATCH_JOB_EXECUTION_PARAMS_ARCHIVE.JOB_EXECUTION_ID = BATCH_JOB_EXECUTION_ARCHIVE.JOB_EXECUTION_ID
+ INNER JOIN BATCH_JOB_INSTANCE ON BATCH_JOB_EXECUTION_ARCHIVE.JOB_INSTANCE_ID = BATCH_JOB_INSTANCE.JOB_INSTANCE_ID
+WHERE BATCH_JOB_INSTANCE.JOB_NAME = @jobName;
+
+DELETE BATCH_NIFI_JOB_ARCHIVE
+FROM BATCH_NIFI_JOB_ARCHIVE
+ INNER JOIN BATCH_JOB_EXECUTION_ARCHIVE ON BATCH_NIFI_JOB_ARCHIVE.JOB_EXECUTION_ID = BATCH_JOB_EXECUTION_ARCHIVE.JOB_EXECUTION_ID
+ INNER JOIN BATCH_JOB_INSTANCE ON BATCH_JOB_EXECUTION_ARCHIVE.JOB_INSTANCE_ID = BATCH_JOB_INSTANCE.JOB_INSTANCE_ID
+WHERE BATCH_JOB_INSTANCE.JOB_NAME = @jobName;
+
+DELETE BATCH_JOB_EXECUTION_ARCHIVE
+FROM BATCH_JOB_EXECUTION_ARCHIVE
+INNER JOIN BATCH_JOB_INSTANCE ON BATCH_JOB_EXECUTION_ARCHIVE.JOB_INSTANCE_ID = BATCH_JOB_INSTANCE.JOB_INSTANCE_ID
+WHERE BATCH_JOB_INSTANCE.JOB_NAME = @jobName;
+
 DELETE FROM BATCH_JOB_INSTANCE
 WHERE BATCH_JOB_INSTANCE.JOB_NAME = @jobName;
 
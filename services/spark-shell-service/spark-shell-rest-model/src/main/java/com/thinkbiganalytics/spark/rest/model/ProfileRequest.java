@@ -0,0 +1,115 @@
+package com.thinkbiganalytics.spark.rest.model;
+
+/*-
+ * #%L
+ * Spark Shell Service REST Model
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Request to generate profile statistics for a table or query, as done by the Kylo profiler Spark application.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ProfileRequest {
+
+    private String fieldPolicyJsonPath;
+    private String objectDesc;
+    private String objectType;
+    private String outputTable;
+    private String partitionKey;
+    private String pool;
+    private Integer topN;
+
+    /**
+     * Gets the path to the field policy JSON file, which must be readable by the Spark Shell server.
+     */
+    public String getFieldPolicyJsonPath() {
+        return fieldPolicyJsonPath;
+    }
+
+    public void setFieldPolicyJsonPath(String fieldPolicyJsonPath) {
+        this.fieldPolicyJsonPath = fieldPolicyJsonPath;
+    }
+
+    /**
+     * Gets the table, as {@code database.table}, or the query to profile.
+     */
+    public String getObjectDesc() {
+        return objectDesc;
+    }
+
+    public void setObjectDesc(String objectDesc) {
+        this.objectDesc = objectDesc;
+    }
+
+    /**
+     * Gets the type of object to profile, either {@code table} or {@code query}.
+     */
+    public String getObjectType() {
+        return objectType;
+    }
+
+    public void setObjectType(String objectType) {
+        this.objectType = objectType;
+    }
+
+    /**
+     * Gets the output table, as {@code table} or {@code database.table}.
+     */
+    public String getOutputTable() {
+        return outputTable;
+    }
+
+    public void setOutputTable(String outputTable) {
+        this.outputTable = outputTable;
+    }
+
+    /**
+     * Gets the input and output partition key, or {@code ALL} for every partition.
+     */
+    public String getPartitionKey() {
+        return partitionKey;
+    }
+
+    public void setPartitionKey(String partitionKey) {
+        this.partitionKey = partitionKey;
+    }
+
+    /**
+     * Gets the Spark scheduler pool, such as the feed category.
+     */
+    public String getPool() {
+        return pool;
+    }
+
+    public void setPool(String pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Gets the number of top values to compute for each column.
+     */
+    public Integer getTopN() {
+        return topN;
+    }
+
+    public void setTopN(Integer topN) {
+        this.topN = topN;
+    }
+}
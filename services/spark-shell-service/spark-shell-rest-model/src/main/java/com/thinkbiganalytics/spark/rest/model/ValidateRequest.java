@@ -0,0 +1,129 @@
+package com.thinkbiganalytics.spark.rest.model;
+
+/*-
+ * #%L
+ * Spark Shell Service REST Model
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.Map;
+
+/**
+ * Request to validate and cleanse a feed partition, as done by the Kylo validator Spark application.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ValidateRequest {
+
+    private String database;
+    private String entity;
+    private String fieldPolicyJsonPath;
+    private Map<String, String> hiveConf;
+    private Integer numPartitions;
+    private String partition;
+    private String pool;
+    private String storageLevel;
+
+    /**
+     * Gets the name of the database containing the feed tables.
+     */
+    public String getDatabase() {
+        return database;
+    }
+
+    public void setDatabase(String database) {
+        this.database = database;
+    }
+
+    /**
+     * Gets the system name of the feed, used as the prefix for the feed, valid, invalid, and profile tables.
+     */
+    public String getEntity() {
+        return entity;
+    }
+
+    public void setEntity(String entity) {
+        this.entity = entity;
+    }
+
+    /**
+     * Gets the path to the field policy JSON file, which must be readable by the Spark Shell server.
+     */
+    public String getFieldPolicyJsonPath() {
+        return fieldPolicyJsonPath;
+    }
+
+    public void setFieldPolicyJsonPath(String fieldPolicyJsonPath) {
+        this.fieldPolicyJsonPath = fieldPolicyJsonPath;
+    }
+
+    /**
+     * Gets the Hive configuration properties for this request.
+     */
+    public Map<String, String> getHiveConf() {
+        return hiveConf;
+    }
+
+    public void setHiveConf(Map<String, String> hiveConf) {
+        this.hiveConf = hiveConf;
+    }
+
+    /**
+     * Gets the target number of Spark partitions, or 0 to disable repartitioning.
+     */
+    public Integer getNumPartitions() {
+        return numPartitions;
+    }
+
+    public void setNumPartitions(Integer numPartitions) {
+        this.numPartitions = numPartitions;
+    }
+
+    /**
+     * Gets the processing_dttm partition value.
+     */
+    public String getPartition() {
+        return partition;
+    }
+
+    public void setPartition(String partition) {
+        this.partition = partition;
+    }
+
+    /**
+     * Gets the Spark scheduler pool, such as the feed category.
+     */
+    public String getPool() {
+        return pool;
+    }
+
+    public void setPool(String pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Gets the storage level for persisting the validation results.
+     */
+    public String getStorageLevel() {
+        return storageLevel;
+    }
+
+    public void setStorageLevel(String storageLevel) {
+        this.storageLevel = storageLevel;
+    }
+}
@@ -28,6 +28,9 @@ import com.thinkbiganalytics.discovery.schema.TableSchema;
 import com.thinkbiganalytics.hive.service.HiveMetastoreService;
 import com.thinkbiganalytics.hive.service.HiveService;
 import com.thinkbiganalytics.rest.model.RestResponseStatus;
+import com.thinkbiganalytics.schema.CsvQueryResultWriter;
+import com.thinkbiganalytics.schema.JsonQueryResultWriter;
+import com.thinkbiganalytics.schema.QueryResultWriter;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,18 +38,23 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.env.Environment;
 import org.springframework.dao.DataAccessException;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.security.AccessControlException;
 import java.sql.SQLException;
 import java.util.List;
+import java.util.Map;
 
 import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
+import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -64,6 +72,11 @@ public class HiveRestController {
 
     public static final String BASE = "/v1/hive";
 
+    /**
+     * Media type for CSV query results
+     */
+    private static final String TEXT_CSV = "text/csv";
+
     @Autowired
     private Environment env;
 
@@ -125,16 +138,54 @@ public class HiveRestController {
                       @ApiResponse(code = 500, message = "Hive is unavailable.", response = RestResponseStatus.class)
                   })
     public Response browseTable(@PathParam("schema") String schema, @PathParam("table") String table, @QueryParam("where") String where, @QueryParam("limit") @DefaultValue("20") Integer limit) {
-        QueryResult list;
-        try {
-            list = hiveService.browse(schema, table, where, limit);
-        } catch (DataAccessException e) {
-            log.error("Error Querying Hive Tables  for schema: " + schema + ", table: " + table + " where: " + where + ", limit: " + limit, e);
-            throw e;
-        }
-        return Response.ok(asJson(list)).build();
+        return streamTable(schema, table, where, limit, "json");
+    }
+
+
+    @GET
+    @Path("/browse/{schema}/{table}/stream")
+    @Produces({MediaType.APPLICATION_JSON, TEXT_CSV})
+    @ApiOperation("Queries the specified table and streams the result.")
+    @ApiResponses({
+                      @ApiResponse(code = 200, message = "Returns the result as JSON or CSV.", response = QueryResult.class),
+                      @ApiResponse(code = 500, message = "Hive is unavailable.", response = RestResponseStatus.class)
+                  })
+    public Response streamTable(@PathParam("schema") String schema, @PathParam("table") String table, @QueryParam("where") String where, @QueryParam("limit") @DefaultValue("20") Integer limit,
+                                @QueryParam("format") @DefaultValue("json") String format) {
+        final StreamingOutput output = out -> {
+            try {
+                hiveService.browse(schema, table, where, limit, createWriter(format, out));
+            } catch (DataAccessException e) {
+                log.error("Error Querying Hive Tables  for schema: " + schema + ", table: " + table + " where: " + where + ", limit: " + limit, e);
+                throw e;
+            }
+        };
+        return Response.ok(output, getMediaType(format)).build();
     }
 
+    @GET
+    @Path("/query-result/stream")
+    @Produces({MediaType.APPLICATION_JSON, TEXT_CSV})
+    @ApiOperation("Executes a Hive query and streams the result.")
+    @ApiResponses({
+                      @ApiResponse(code = 200, message = "Returns the result as JSON or CSV.", response = QueryResult.class),
+                      @ApiResponse(code = 500, message = "Hive is unavailable.", response = RestResponseStatus.class)
+                  })
+    public Response streamQueryResult(@QueryParam("query") String query, @QueryParam("format") @DefaultValue("json") String format) {
+        final StreamingOutput output = out -> {
+            try {
+                hiveService.query(query, createWriter(format, out));
+            } catch (DataAccessException e) {
+                if (e.getCause() != null && e.getCause().getMessage() != null && e.getCause().getMessage().contains("HiveAccessControlException Permission denied")) {
+                    throw new AccessControlException("You do not have permission to execute this hive query");
+                } else {
+                    log.error("Error Querying Hive for query: " + query, e);
+                    throw e;
+                }
+            }
+        };
+        return Response.ok(output, getMediaType(format)).build();
+    }
 
     @GET
     @Path("/query")
@@ -145,14 +196,7 @@ public class HiveRestController {
                       @ApiResponse(code = 500, message = "Hive is unavailable.", response = RestResponseStatus.class)
                   })
     public Response browseTable(@QueryParam("query") String query) {
-        QueryResult list;
-        try {
-            list = hiveService.browse(query);
-        } catch (DataAccessException e) {
-            log.error("Error Querying Hive for query: " + query, e);
-            throw e;
-        }
-        return Response.ok(asJson(list)).build();
+        return streamQueryResult(query, "json");
     }
 
 
@@ -165,19 +209,7 @@ public class HiveRestController {
                       @ApiResponse(code = 500, message = "Hive is unavailable.", response = RestResponseStatus.class)
                   })
     public Response queryResult(@QueryParam("query") String query) {
-        QueryResult list;
-        try {
-            list = hiveService.query(query);
-        } catch (DataAccessException e) {
-            if (e.getCause().getMessage().contains("HiveAccessControlException Permission denied")) {
-                throw new AccessControlException("You do not have permission to execute this hive query");
-            } else {
-                log.error("Error Querying Hive for query: " + query);
-                throw e;
-            }
-
-        }
-        return Response.ok(asJson(list)).build();
+        return streamQueryResult(query, "json");
     }
 
 
@@ -211,16 +243,17 @@ public class HiveRestController {
     @GET
     @Path("/table-schemas")
     @Produces(MediaType.APPLICATION_JSON)
-    @ApiOperation("Gets the schema of every table.")
+    @ApiOperation(value = "Gets the schema of every table.", notes = "If modifiedSince is specified then only tables created or altered after that time, in seconds since the epoch, are "
+                                                                    + "returned.")
     @ApiResponses({
                       @ApiResponse(code = 200, message = "Returns the table schemas.", response = TableSchema.class, responseContainer = "List"),
                       @ApiResponse(code = 500, message = "Hive is unavailable.", response = RestResponseStatus.class)
                   })
-    public Response getAllTableSchemas() {
+    public Response getAllTableSchemas(@QueryParam("modifiedSince") Long modifiedSince) {
         //  List<TableSchema> schemas = hiveService.getAllTableSchemas();
         List<TableSchema> schemas;
         try {
-            schemas = hiveMetadataService.getTableSchemas();
+            schemas = (modifiedSince != null) ? hiveMetadataService.getTableSchemas(modifiedSince) : hiveMetadataService.getTableSchemas();
         } catch (DataAccessException e) {
             log.error("Error listing Hive Table schemas from the metastore ", e);
             throw e;
@@ -228,6 +261,25 @@ public class HiveRestController {
         return Response.ok(asJson(schemas)).build();
     }
 
+    @GET
+    @Path("/table-modified-times")
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation("Gets the time that each table was last created or altered, in seconds since the epoch.")
+    @ApiResponses({
+                      @ApiResponse(code = 200, message = "Returns the modified time of each table, by database and table name.", response = Map.class),
+                      @ApiResponse(code = 500, message = "Hive is unavailable.", response = RestResponseStatus.class)
+                  })
+    public Response getTableModifiedTimes() {
+        Map<String, Long> modifiedTimes;
+        try {
+            modifiedTimes = hiveMetadataService.getTableModifiedTimes();
+        } catch (DataAccessException e) {
+            log.error("Error listing Hive Table modified times from the metastore ", e);
+            throw e;
+        }
+        return Response.ok(asJson(modifiedTimes)).build();
+    }
+
 
     @GET
     @Path("/tables")
@@ -239,20 +291,27 @@ public class HiveRestController {
                   })
     public Response getTables() {
         List<String> tables;
-        boolean userImpersonationEnabled = Boolean.valueOf(env.getProperty("hive.userImpersonation.enabled"));
-        if (userImpersonationEnabled) {
-            tables = hiveService.getAllTablesForImpersonatedUser();
-        } else {
-            try {
-                tables = hiveMetadataService.getAllTables();
-            } catch (DataAccessException e) {
-                log.error("Error listing Hive Tables from the metastore ", e);
-                throw e;
-            }
+        try {
+            tables = hiveService.getAllTables();
+        } catch (DataAccessException e) {
+            log.error("Error listing Hive Tables ", e);
+            throw e;
         }
         return Response.ok(asJson(tables)).build();
     }
 
+    @POST
+    @Path("/tables/refresh")
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation("Clears the cached list of tables for the current user.")
+    @ApiResponses(
+        @ApiResponse(code = 200, message = "The cached list of tables was cleared.", response = RestResponseStatus.class)
+    )
+    public Response refreshTables() {
+        hiveService.invalidateCatalog();
+        return Response.ok(RestResponseStatus.SUCCESS).build();
+    }
+
     @GET
     @Path("/schemas/{schema}/tables")
     @Produces(MediaType.APPLICATION_JSON)
@@ -272,6 +331,20 @@ public class HiveRestController {
         return Response.ok(asJson(tables)).build();
     }
 
+    /**
+     * Creates a writer for query results in the specified format.
+     */
+    private QueryResultWriter createWriter(String format, OutputStream out) throws IOException {
+        return "csv".equalsIgnoreCase(format) ? new CsvQueryResultWriter(out) : new JsonQueryResultWriter(out);
+    }
+
+    /**
+     * Gets the media type for query results in the specified format.
+     */
+    private String getMediaType(String format) {
+        return "csv".equalsIgnoreCase(format) ? TEXT_CSV : MediaType.APPLICATION_JSON;
+    }
+
     private String asJson(Object object) {
         String json = null;
         ObjectMapper mapper = new ObjectMapper();
@@ -34,6 +34,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.MetaDataAccessException;
 import org.springframework.stereotype.Service;
@@ -44,6 +45,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
 import javax.inject.Inject;
 import javax.sql.DataSource;
@@ -55,6 +57,11 @@ public class HiveMetastoreService {
 
     private static final Logger log = LoggerFactory.getLogger(HiveMetastoreService.class);
 
+    /**
+     * Table parameter containing the time that the table was last altered
+     */
+    static final String LAST_DDL_TIME_PARAM = "transient_lastDdlTime";
+
 
     @Inject
     @Qualifier("hiveMetatoreJdbcTemplate")
@@ -143,7 +150,7 @@ public class HiveMetastoreService {
 
     public List<TableSchema> getTableSchemas() throws DataAccessException {
 
-        String query = "SELECT d.NAME as \"DATABASE_NAME\", t.TBL_NAME, c.COLUMN_NAME c.TYPE_NAME "
+        String query = "SELECT d.NAME as \"DATABASE_NAME\", t.TBL_NAME, c.COLUMN_NAME, c.TYPE_NAME "
                        + "FROM COLUMNS_V2 c "
                        + "JOIN  SDS s on s.CD_ID = c.CD_ID "
                        + "JOIN  TBLS t ON s.SD_ID = t.SD_ID "
@@ -154,10 +161,89 @@ public class HiveMetastoreService {
                     + "FROM \"COLUMNS_V2\" c "
                     + "JOIN  \"SDS\" s on s.\"CD_ID\" = c.\"CD_ID\" "
                     + "JOIN  \"TBLS\" t ON s.\"SD_ID\" = t.\"SD_ID\" "
-                    + "JOIN  \"DBS\" d on d.\"DB_ID\" = t.\"DB_ID\" ";
+                    + "JOIN  \"DBS\" d on d.\"DB_ID\" = t.\"DB_ID\" "
+                    + "ORDER BY d.\"NAME\", t.\"TBL_NAME\"";
+        }
+        return queryTableSchemas(query);
+    }
 
+    /**
+     * Gets the schema of every table that was created or altered after the specified time.
+     *
+     * <p>A table is considered modified if either its {@code CREATE_TIME} or its {@code transient_lastDdlTime} parameter is after the specified time. Only
+     * the columns of the modified tables are read from the metastore.</p>
+     *
+     * @param modifiedSince the time in seconds since the epoch
+     * @return the schemas of the modified tables
+     */
+    public List<TableSchema> getTableSchemas(long modifiedSince) throws DataAccessException {
+
+        // PARAM_VALUE is a string column. Times in seconds have the same number of digits until the year 2286 so a string comparison is sufficient.
+        String query = "SELECT d.NAME as \"DATABASE_NAME\", t.TBL_NAME, c.COLUMN_NAME, c.TYPE_NAME "
+                       + "FROM COLUMNS_V2 c "
+                       + "JOIN  SDS s on s.CD_ID = c.CD_ID "
+                       + "JOIN  TBLS t ON s.SD_ID = t.SD_ID "
+                       + "JOIN  DBS d on d.DB_ID = t.DB_ID "
+                       + "LEFT JOIN TABLE_PARAMS p on p.TBL_ID = t.TBL_ID AND p.PARAM_KEY = '" + LAST_DDL_TIME_PARAM + "' "
+                       + "WHERE t.CREATE_TIME > ? OR p.PARAM_VALUE > ? "
+                       + "ORDER BY d.NAME, t.TBL_NAME";
+        if (DatabaseType.POSTGRES.equals(getMetastoreDatabaseType())) {
+            query = "SELECT d.\"NAME\" as \"DATABASE_NAME\", t.\"TBL_NAME\", c.\"COLUMN_NAME\",c.\"TYPE_NAME\" "
+                    + "FROM \"COLUMNS_V2\" c "
+                    + "JOIN  \"SDS\" s on s.\"CD_ID\" = c.\"CD_ID\" "
+                    + "JOIN  \"TBLS\" t ON s.\"SD_ID\" = t.\"SD_ID\" "
+                    + "JOIN  \"DBS\" d on d.\"DB_ID\" = t.\"DB_ID\" "
+                    + "LEFT JOIN \"TABLE_PARAMS\" p on p.\"TBL_ID\" = t.\"TBL_ID\" AND p.\"PARAM_KEY\" = '" + LAST_DDL_TIME_PARAM + "' "
+                    + "WHERE t.\"CREATE_TIME\" > ? OR p.\"PARAM_VALUE\" > ? "
+                    + "ORDER BY d.\"NAME\", t.\"TBL_NAME\"";
+        }
+        return queryTableSchemas(query, modifiedSince, Long.toString(modifiedSince));
+    }
 
+    /**
+     * Gets the time that each table was last created or altered.
+     *
+     * <p>This query does not read any columns, so it may be used to periodically reconcile an index with the metastore and to find tables that have been
+     * dropped.</p>
+     *
+     * @return map of database and table name, in the format {@code database.table}, to the time in seconds since the epoch
+     */
+    public Map<String, Long> getTableModifiedTimes() throws DataAccessException {
+
+        String query = "SELECT d.NAME as \"DATABASE_NAME\", t.TBL_NAME, t.CREATE_TIME, p.PARAM_VALUE as \"LAST_DDL_TIME\" "
+                       + "FROM TBLS t "
+                       + "JOIN  DBS d on d.DB_ID = t.DB_ID "
+                       + "LEFT JOIN TABLE_PARAMS p on p.TBL_ID = t.TBL_ID AND p.PARAM_KEY = '" + LAST_DDL_TIME_PARAM + "'";
+        if (DatabaseType.POSTGRES.equals(getMetastoreDatabaseType())) {
+            query = "SELECT d.\"NAME\" as \"DATABASE_NAME\", t.\"TBL_NAME\", t.\"CREATE_TIME\", p.\"PARAM_VALUE\" as \"LAST_DDL_TIME\" "
+                    + "FROM \"TBLS\" t "
+                    + "JOIN  \"DBS\" d on d.\"DB_ID\" = t.\"DB_ID\" "
+                    + "LEFT JOIN \"TABLE_PARAMS\" p on p.\"TBL_ID\" = t.\"TBL_ID\" AND p.\"PARAM_KEY\" = '" + LAST_DDL_TIME_PARAM + "'";
         }
+
+        final Map<String, Long> modifiedTimes = new TreeMap<>();
+        hiveMetatoreJdbcTemplate.query(query, new RowCallbackHandler() {
+            @Override
+            public void processRow(ResultSet rs) throws SQLException {
+                long modifiedTime = rs.getLong("CREATE_TIME");
+                String lastDdlTime = rs.getString("LAST_DDL_TIME");
+                if (lastDdlTime != null) {
+                    try {
+                        modifiedTime = Math.max(modifiedTime, Long.parseLong(lastDdlTime.trim()));
+                    } catch (NumberFormatException e) {
+                        log.debug("Ignoring invalid {} for table {}.{}: {}", LAST_DDL_TIME_PARAM, rs.getString("DATABASE_NAME"), rs.getString("TBL_NAME"), lastDdlTime);
+                    }
+                }
+                modifiedTimes.put(rs.getString("DATABASE_NAME") + "." + rs.getString("TBL_NAME"), modifiedTime);
+            }
+        });
+        return modifiedTimes;
+    }
+
+    /**
+     * Executes the specified query and groups the columns by table.
+     */
+    private List<TableSchema> queryTableSchemas(String query, Object... args) throws DataAccessException {
         final List<TableSchema> metadata = new ArrayList<>();
         final Map<String, Map<String, TableSchema>> databaseTables = new HashMap<>();
 
@@ -188,7 +274,7 @@ public class HiveMetastoreService {
                 schema.getFields().add(field);
                 return schema;
             }
-        });
+        }, args);
 
         return metadata;
 
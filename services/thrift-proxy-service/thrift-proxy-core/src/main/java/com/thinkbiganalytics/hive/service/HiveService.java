@@ -21,29 +21,46 @@ package com.thinkbiganalytics.hive.service;
  */
 
 
-import com.thinkbiganalytics.discovery.model.DefaultQueryResult;
-import com.thinkbiganalytics.discovery.model.DefaultQueryResultColumn;
-import com.thinkbiganalytics.discovery.schema.Field;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.thinkbiganalytics.discovery.schema.QueryResult;
 import com.thinkbiganalytics.discovery.schema.TableSchema;
 import com.thinkbiganalytics.hive.util.HiveUtils;
 import com.thinkbiganalytics.kerberos.KerberosTicketConfiguration;
 import com.thinkbiganalytics.kerberos.KerberosUtil;
 import com.thinkbiganalytics.schema.DBSchemaParser;
+import com.thinkbiganalytics.schema.QueryResultWriter;
 import com.thinkbiganalytics.schema.QueryRunner;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataRetrievalFailureException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import javax.annotation.Nonnull;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.sql.DataSource;
 
@@ -51,11 +68,19 @@ import javax.sql.DataSource;
  * Executes Hive queries and retrieves Hive metadata.
  *
  * <p>Acquires a Kerberos ticket as needed to execute the Hive queries. The HTTP transport mode for Hive requires a Kerberos ticket whenever interacting with the Hive JDBC driver.</p>
+ *
+ * <p>The list of all tables is cached per user. With user impersonation the databases are listed in parallel through HiveServer2 as the current user, otherwise the list is read directly from the
+ * Hive metastore.</p>
  */
 public class HiveService {
 
     private static final Logger log = LoggerFactory.getLogger(HiveService.class);
 
+    /**
+     * Catalog cache key used when every user sees the same tables
+     */
+    private static final String SHARED_CATALOG_KEY = "";
+
     @Inject
     @Qualifier("hiveJdbcTemplate")
     private JdbcTemplate jdbcTemplate;
@@ -64,8 +89,60 @@ public class HiveService {
     @Qualifier("kerberosHiveConfiguration")
     private KerberosTicketConfiguration kerberosHiveConfiguration;
 
+    @Inject
+    private HiveMetastoreService hiveMetastoreService;
+
+    @Value("${hive.userImpersonation.enabled:false}")
+    private boolean userImpersonationEnabled;
+
+    /**
+     * Maximum number of concurrent {@code show tables} queries when listing the catalog for an impersonated user
+     */
+    @Value("${hive.catalog.listing.threads:8}")
+    private int catalogListingThreads = 8;
+
+    /**
+     * Number of seconds a user's list of tables is cached
+     */
+    @Value("${hive.catalog.cache.ttl.seconds:300}")
+    private long catalogCacheTtlSeconds = 300;
+
+    /**
+     * Number of rows fetched from Hive at a time when streaming query results
+     */
+    @Value("${hive.query.stream.fetchSize:1000}")
+    private int streamFetchSize = 1000;
+
+    /**
+     * Approximate maximum number of bytes written for a streamed query result, or {@code 0} for no limit
+     */
+    @Value("${hive.query.stream.maxBytes:104857600}")
+    private long streamMaxBytes = 104857600;
+
     private DBSchemaParser schemaParser = null;
 
+    /**
+     * Lists the tables of each database. Tasks run with the security context of the submitting user so that they connect as the impersonated user.
+     */
+    private ExecutorService catalogExecutor;
+
+    /**
+     * Map of user name to the list of schema.tablename visible to that user
+     */
+    private Cache<String, List<String>> catalogCache;
+
+    @PostConstruct
+    public void init() {
+        catalogExecutor = new DelegatingSecurityContextExecutorService(
+            Executors.newFixedThreadPool(Math.max(1, catalogListingThreads), new ThreadFactoryBuilder().setDaemon(true).setNameFormat("kylo-hive-catalog-pool-%d").build()));
+        catalogCache = CacheBuilder.newBuilder().expireAfterWrite(catalogCacheTtlSeconds, TimeUnit.SECONDS).build();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        catalogExecutor.shutdownNow();
+    }
+
     public DataSource getDataSource() {
         return jdbcTemplate.getDataSource();
     }
@@ -89,24 +166,108 @@ public class HiveService {
      * returns a list of all the scheam.tablename for a given schema
      */
     public List<String> getTablesForImpersonatedUser(String schema) {
-        QueryResult tables = query("show tables in " + schema);
-        return tables.getRows().stream().flatMap(row -> row.entrySet().stream()).map(e -> schema + "." + e.getValue().toString()).collect(Collectors.toList());
+        final List<String> catalog = catalogCache.getIfPresent(getCatalogKey());
+        if (catalog != null) {
+            final String prefix = schema + ".";
+            return catalog.stream().filter(table -> table.startsWith(prefix)).collect(Collectors.toList());
+        }
+        return listTablesForImpersonatedUser(schema);
     }
 
-
     /**
      * returns a list of all the schema.tablename
      */
     public List<String> getAllTablesForImpersonatedUser() {
+        return getCatalog(getCatalogKey(), this::listAllTablesForImpersonatedUser);
+    }
+
+    /**
+     * Returns a list of all the schema.tablename visible to the current user.
+     *
+     * <p>With user impersonation the tables are listed through Hive as the current user, otherwise they are read from the Hive metastore.</p>
+     */
+    public List<String> getAllTables() {
+        if (userImpersonationEnabled) {
+            return getAllTablesForImpersonatedUser();
+        } else {
+            return getCatalog(SHARED_CATALOG_KEY, hiveMetastoreService::getAllTables);
+        }
+    }
+
+    /**
+     * Removes the cached list of tables for the current user.
+     */
+    public void invalidateCatalog() {
+        catalogCache.invalidate(userImpersonationEnabled ? getCatalogKey() : SHARED_CATALOG_KEY);
+    }
+
+    /**
+     * Removes the cached list of tables for every user.
+     */
+    public void invalidateAllCatalogs() {
+        catalogCache.invalidateAll();
+    }
+
+    /**
+     * Gets the cached list of tables for the specified key, loading it if necessary.
+     */
+    @Nonnull
+    private List<String> getCatalog(@Nonnull final String key, @Nonnull final Callable<List<String>> loader) {
+        try {
+            return catalogCache.get(key, () -> Collections.unmodifiableList(loader.call()));
+        } catch (final ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new DataRetrievalFailureException("Unable to list Hive tables", e.getCause());
+        }
+    }
+
+    /**
+     * Gets the catalog cache key for the current user.
+     */
+    @Nonnull
+    private String getCatalogKey() {
+        final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return (authentication != null) ? authentication.getName() : SHARED_CATALOG_KEY;
+    }
+
+    /**
+     * Lists the tables in every database by querying the databases in parallel as the current user.
+     */
+    @Nonnull
+    private List<String> listAllTablesForImpersonatedUser() {
         long start = System.currentTimeMillis();
-        List<String> allTables = new ArrayList<>();
         QueryResult result = query("show databases");
-        List<Object> databases = result.getRows().stream().flatMap(row -> row.entrySet().stream()).map(e -> e.getValue()).collect(Collectors.toList());
-        databases.stream().forEach(database -> allTables.addAll(getTablesForImpersonatedUser(database.toString())));
-        log.debug("time to get all tables " + (System.currentTimeMillis() - start) + " ms");
+        List<String> databases = result.getRows().stream().flatMap(row -> row.entrySet().stream()).map(e -> e.getValue().toString()).collect(Collectors.toList());
+
+        final List<CompletableFuture<List<String>>> futures = databases.stream()
+            .map(database -> CompletableFuture.supplyAsync(() -> listTablesForImpersonatedUser(database), catalogExecutor))
+            .collect(Collectors.toList());
+
+        List<String> allTables = new ArrayList<>();
+        try {
+            futures.forEach(future -> allTables.addAll(future.join()));
+        } catch (final CompletionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new DataRetrievalFailureException("Unable to list Hive tables", e.getCause());
+        }
+        log.debug("time to get all tables for {} databases {} ms", databases.size(), System.currentTimeMillis() - start);
         return allTables;
     }
 
+    /**
+     * Lists the tables in the specified database as the current user.
+     */
+    @Nonnull
+    private List<String> listTablesForImpersonatedUser(@Nonnull final String schema) {
+        QueryResult tables = query("show tables in " + schema);
+        return tables.getRows().stream().flatMap(row -> row.entrySet().stream()).map(e -> schema + "." + e.getValue().toString()).collect(Collectors.toList());
+    }
+
     public boolean testConnection() throws SQLException {
         return ((RefreshableDataSource) this.getDataSource()).testConnection();
 
@@ -134,6 +295,34 @@ public class HiveService {
 
     }
 
+    /**
+     * Queries the given table and writes each row to the specified writer without holding the result in memory.
+     *
+     * @return the number of rows written
+     */
+    public int browse(String schema, String table, String where, Integer limit, @Nonnull final QueryResultWriter writer) throws DataAccessException {
+        if (where == null) {
+            where = "";
+        }
+        String query = "SELECT * from " + HiveUtils.quoteIdentifier(schema, table) + " " + where + " LIMIT " + limit;
+        return query(query, writer);
+    }
+
+    /**
+     * Executes the given query and writes each row to the specified writer without holding the result in memory.
+     *
+     * <p>The result is truncated once {@code hive.query.stream.maxBytes} have been written. The Hive statement is cancelled if the writer fails, such as when the client disconnects.</p>
+     *
+     * @return the number of rows written
+     */
+    public int query(String query, @Nonnull final QueryResultWriter writer) throws DataAccessException {
+        return KerberosUtil.runWithOrWithoutKerberos(() -> {
+            //  Setting in order to query complex formats like parquet
+            jdbcTemplate.execute("set hive.optimize.index.filter=false");
+            return new QueryRunner(jdbcTemplate).stream(query, writer, streamFetchSize, streamMaxBytes);
+        }, kerberosHiveConfiguration);
+    }
+
     public QueryResult query(String query) throws DataAccessException {
         return KerberosUtil.runWithOrWithoutKerberos(() -> {
             //  Setting in order to query complex formats like parquet
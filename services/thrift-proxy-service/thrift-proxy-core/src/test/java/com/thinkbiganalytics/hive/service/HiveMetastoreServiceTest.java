@@ -0,0 +1,123 @@
+package com.thinkbiganalytics.hive.service;
+
+/*-
+ * #%L
+ * thinkbig-thrift-proxy-core
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.discovery.schema.TableSchema;
+import com.thinkbiganalytics.jdbc.util.DatabaseType;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+
+public class HiveMetastoreServiceTest {
+
+    /**
+     * Verify getting the modified time of each table.
+     */
+    @Test
+    public void getTableModifiedTimes() throws Exception {
+        final JdbcTemplate jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+        Mockito.doAnswer(invocation -> {
+            final RowCallbackHandler handler = (RowCallbackHandler) invocation.getArguments()[1];
+            handler.processRow(row("db1", "t1", 1500000000L, "1500000500"));
+            handler.processRow(row("db1", "t2", 1500000000L, null));
+            handler.processRow(row("db2", "t1", 1500000900L, "1500000500"));
+            return null;
+        }).when(jdbcTemplate).query(Mockito.contains(HiveMetastoreService.LAST_DDL_TIME_PARAM), Mockito.any(RowCallbackHandler.class));
+
+        final Map<String, Long> modifiedTimes = createService(jdbcTemplate).getTableModifiedTimes();
+        Assert.assertEquals(3, modifiedTimes.size());
+        Assert.assertEquals(1500000500L, modifiedTimes.get("db1.t1").longValue());
+        Assert.assertEquals(1500000000L, modifiedTimes.get("db1.t2").longValue());
+        Assert.assertEquals(1500000900L, modifiedTimes.get("db2.t1").longValue());
+    }
+
+    /**
+     * Verify getting the schemas of modified tables.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void getTableSchemasModifiedSince() throws Exception {
+        final JdbcTemplate jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+        Mockito.when(jdbcTemplate.query(Mockito.contains("p.PARAM_VALUE > ?"), Mockito.any(RowMapper.class), Mockito.eq(1500000000L), Mockito.eq("1500000000")))
+            .thenAnswer(invocation -> {
+                final RowMapper<?> mapper = (RowMapper<?>) invocation.getArguments()[1];
+                mapper.mapRow(column("db1", "t1", "id", "int"), 0);
+                mapper.mapRow(column("db1", "t1", "name", "string"), 1);
+                mapper.mapRow(column("db2", "t1", "id", "bigint"), 2);
+                return null;
+            });
+
+        final List<TableSchema> schemas = createService(jdbcTemplate).getTableSchemas(1500000000L);
+        Assert.assertEquals(2, schemas.size());
+        Assert.assertEquals("db1", schemas.get(0).getSchemaName());
+        Assert.assertEquals(2, schemas.get(0).getFields().size());
+        Assert.assertEquals("db2", schemas.get(1).getSchemaName());
+        Assert.assertEquals("bigint", schemas.get(1).getFields().get(0).getNativeDataType());
+    }
+
+    /**
+     * Creates a metastore service for a MySQL metastore.
+     */
+    @Nonnull
+    private HiveMetastoreService createService(@Nonnull final JdbcTemplate jdbcTemplate) {
+        final HiveMetastoreService service = new HiveMetastoreService();
+        ReflectionTestUtils.setField(service, "hiveMetatoreJdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(service, "metastoreDatabaseType", DatabaseType.MYSQL);
+        return service;
+    }
+
+    /**
+     * Creates a mock row of table modified times.
+     */
+    @Nonnull
+    private ResultSet row(@Nonnull final String database, @Nonnull final String table, final long createTime, final String lastDdlTime) throws Exception {
+        final ResultSet rs = Mockito.mock(ResultSet.class);
+        Mockito.when(rs.getString("DATABASE_NAME")).thenReturn(database);
+        Mockito.when(rs.getString("TBL_NAME")).thenReturn(table);
+        Mockito.when(rs.getLong("CREATE_TIME")).thenReturn(createTime);
+        Mockito.when(rs.getString("LAST_DDL_TIME")).thenReturn(lastDdlTime);
+        return rs;
+    }
+
+    /**
+     * Creates a mock row of table columns.
+     */
+    @Nonnull
+    private ResultSet column(@Nonnull final String database, @Nonnull final String table, @Nonnull final String column, @Nonnull final String type) throws Exception {
+        final ResultSet rs = Mockito.mock(ResultSet.class);
+        Mockito.when(rs.getString("DATABASE_NAME")).thenReturn(database);
+        Mockito.when(rs.getString("TBL_NAME")).thenReturn(table);
+        Mockito.when(rs.getString("COLUMN_NAME")).thenReturn(column);
+        Mockito.when(rs.getString("TYPE_NAME")).thenReturn(type);
+        return rs;
+    }
+}
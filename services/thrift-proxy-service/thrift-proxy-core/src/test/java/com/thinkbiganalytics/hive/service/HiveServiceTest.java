@@ -0,0 +1,128 @@
+package com.thinkbiganalytics.hive.service;
+
+/*-
+ * #%L
+ * thinkbig-thrift-proxy-core
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.discovery.model.DefaultQueryResult;
+import com.thinkbiganalytics.discovery.schema.QueryResult;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+public class HiveServiceTest {
+
+    /**
+     * Hive service with mock queries
+     */
+    private HiveService hiveService;
+
+    /**
+     * Mock Hive metastore service
+     */
+    private HiveMetastoreService hiveMetastoreService;
+
+    /**
+     * Set up test environment.
+     */
+    @Before
+    public void setUp() {
+        hiveMetastoreService = Mockito.mock(HiveMetastoreService.class);
+
+        hiveService = Mockito.spy(new HiveService());
+        ReflectionTestUtils.setField(hiveService, "hiveMetastoreService", hiveMetastoreService);
+        ReflectionTestUtils.setField(hiveService, "catalogListingThreads", 4);
+        ReflectionTestUtils.setField(hiveService, "catalogCacheTtlSeconds", 60L);
+        hiveService.init();
+
+        Mockito.doReturn(result("show databases", "db1", "db2", "db3")).when(hiveService).query("show databases");
+        Mockito.doReturn(result("show tables in db1", "t1", "t2")).when(hiveService).query("show tables in db1");
+        Mockito.doReturn(result("show tables in db2")).when(hiveService).query("show tables in db2");
+        Mockito.doReturn(result("show tables in db3", "t3")).when(hiveService).query("show tables in db3");
+    }
+
+    /**
+     * Clean up test environment.
+     */
+    @After
+    public void tearDown() {
+        hiveService.destroy();
+    }
+
+    /**
+     * Verify listing and caching the tables for an impersonated user.
+     */
+    @Test
+    public void getAllTablesForImpersonatedUser() {
+        ReflectionTestUtils.setField(hiveService, "userImpersonationEnabled", true);
+
+        // Test listing tables in database order
+        final List<String> expected = Arrays.asList("db1.t1", "db1.t2", "db3.t3");
+        Assert.assertEquals(expected, hiveService.getAllTables());
+
+        // Test cached tables
+        Assert.assertEquals(expected, hiveService.getAllTablesForImpersonatedUser());
+        Assert.assertEquals(Collections.singletonList("db3.t3"), hiveService.getTablesForImpersonatedUser("db3"));
+        Mockito.verify(hiveService, Mockito.times(1)).query("show databases");
+        Mockito.verify(hiveService, Mockito.times(1)).query("show tables in db3");
+
+        // Test invalidating the cache
+        hiveService.invalidateCatalog();
+        Assert.assertEquals(expected, hiveService.getAllTablesForImpersonatedUser());
+        Mockito.verify(hiveService, Mockito.times(2)).query("show databases");
+        Mockito.verifyZeroInteractions(hiveMetastoreService);
+    }
+
+    /**
+     * Verify listing tables from the metastore when user impersonation is disabled.
+     */
+    @Test
+    public void getAllTablesFromMetastore() {
+        Mockito.when(hiveMetastoreService.getAllTables()).thenReturn(Arrays.asList("db1.t1", "db1.t2"));
+
+        Assert.assertEquals(Arrays.asList("db1.t1", "db1.t2"), hiveService.getAllTables());
+        Assert.assertEquals(Arrays.asList("db1.t1", "db1.t2"), hiveService.getAllTables());
+        Mockito.verify(hiveMetastoreService, Mockito.times(1)).getAllTables();
+
+        hiveService.invalidateAllCatalogs();
+        hiveService.getAllTables();
+        Mockito.verify(hiveMetastoreService, Mockito.times(2)).getAllTables();
+        Mockito.verify(hiveService, Mockito.never()).query("show databases");
+    }
+
+    /**
+     * Creates a single-column query result with the specified values.
+     */
+    @Nonnull
+    private QueryResult result(@Nonnull final String query, @Nonnull final String... values) {
+        final DefaultQueryResult result = new DefaultQueryResult(query);
+        Arrays.stream(values).forEach(value -> result.addRow(Collections.singletonMap("name", value)));
+        return result;
+    }
+}